@@ -2,9 +2,8 @@ package com.leobro.newsanalyser;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-
-import java.util.Arrays;
-import java.util.List;
+import com.leobro.newscodec.NewsMessageDecoder;
+import com.leobro.newscodec.WireFormat;
 
 /**
  * Contains business logic for analysing the incoming news. If more than 50% of words in the headline of the news
@@ -12,43 +11,123 @@ import java.util.List;
  * is configured. Negative news messages are ignored, positive ones are passed to the instance of the {@link Reporter}.
  * Several {@link Analyser} instances working in different threads pass the messages to one instance of the
  * {@link Reporter}.
+ * <p>News messages are decoded by the {@link NewsMessageDecoder}; only the messages which it does not recognise go
+ * through the general-purpose JSON databinding. Headlines are classified by the {@link HeadlineClassifier}
+ * built once for all analysers: the {@link PositiveWordClassifier} or the {@link HeadlineCache} in front of it, and
+ * the {@link HeadlineVocabulary} before them if configured. A headline packed by the classifier into a key keeps it
+ * in the message, so that the headlines are compared by their keys later.
  */
-class Analyser {
+class Analyser implements NewsSink {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
 	private final Reporter reporter;
-	private final ObjectMapper objectMapper;
-	private final List<String> positiveWords;
+	private final NewsMessageDecoder decoder;
+	private final HeadlineClassifier classifier;
 
 	/**
-	 * Creates a new instance of the {@link Analyser} class.
+	 * Creates a new instance of the {@link Analyser} class with its own classifier of the positive words
+	 * configured in the reporter.
 	 *
 	 * @param reporter instance of the {@link Reporter} class to collect news messages.
 	 */
 	public Analyser(Reporter reporter) {
+		this(reporter, new PositiveWordClassifier(reporter.getPositiveWords()));
+	}
+
+	/**
+	 * Creates a new instance of the {@link Analyser} class.
+	 *
+	 * @param reporter   instance of the {@link Reporter} class to collect news messages,
+	 * @param classifier the classifier of the headlines, shared by all analysers.
+	 */
+	public Analyser(Reporter reporter, HeadlineClassifier classifier) {
 		this.reporter = reporter;
-		positiveWords = Arrays.asList(reporter.getPositiveWords());
-		objectMapper = new ObjectMapper();
+		this.classifier = classifier;
+		decoder = new NewsMessageDecoder();
 	}
 
 	/**
 	 * Used for analysis of a news message. If the message is regarded positive, it is passed to {@link Reporter}
-	 * for future reporting. The adding of the message to the reporter is synchronised to prevent a race condition
-	 * with another threads trying to do the same.
+	 * for future reporting. The analysers of other connections may add their messages at the same time without
+	 * waiting for each other: the reporter counts them in a {@link StripedDigestCollector}, which has no locks.
 	 *
 	 * @param inputLine the text containing a news message in JSON format.
 	 */
-	public void analyse(String inputLine) {
-		NewsMessage message = convertToMessage(inputLine);
+	@Override
+	public void analyse(CharSequence inputLine) {
+		analyse(convertToMessage(inputLine));
+	}
 
+	/**
+	 * Used for analysis of a news message received as a frame of the negotiated wire format.
+	 *
+	 * @param format the format of the frame,
+	 * @param bytes  the array containing the frame,
+	 * @param offset the start of the frame in the array,
+	 * @param length the length of the frame.
+	 * @see #analyse(CharSequence)
+	 */
+	@Override
+	public void analyse(WireFormat format, byte[] bytes, int offset, int length) {
+		analyse(convertToMessage(format, bytes, offset, length));
+	}
+
+	/**
+	 * Used for analysis of a news message which has been decoded already.
+	 *
+	 * @param message the news message, or {@code null} if it could not be decoded.
+	 */
+	void analyse(NewsMessage message) {
+		if (message != null && message.getSentAt() > 0) {
+			reporter.recordLatency(message.getSentAt());
+		}
 		if (isPositive(message)) {
 			reporter.add(message);
 		}
 	}
 
-	NewsMessage convertToMessage(String inputLine) {
+	/**
+	 * Used for analysis of a recorded news message which has been decoded already. The latency is not recorded.
+	 *
+	 * @param message     the news message, or {@code null} if it could not be decoded,
+	 * @param arrivalTime the time the message arrived at in microseconds since the epoch, as recorded.
+	 */
+	void analyse(NewsMessage message, long arrivalTime) {
+		if (isPositive(message)) {
+			reporter.add(message, arrivalTime);
+		}
+	}
+
+	NewsMessage convertToMessage(CharSequence inputLine) {
+		if (decoder.decode(inputLine)) {
+			return createMessage();
+		}
+		return convertWithDatabinding(inputLine.toString());
+	}
+
+	NewsMessage convertToMessage(WireFormat format, byte[] bytes, int offset, int length) {
+		if (decoder.decode(format, bytes, offset, length)) {
+			return createMessage();
+		}
+		if (!format.isLines()) {
+			return null;
+		}
+		return convertWithDatabinding(new String(bytes, offset, length, format.getCharset()));
+	}
+
+	private NewsMessage createMessage() {
+		NewsMessage message = new NewsMessage();
+		message.setHeadline(decoder.getHeadline());
+		message.setPriority(decoder.getPriority());
+		message.setSentAt(decoder.getSentAt());
+		return message;
+	}
+
+	private NewsMessage convertWithDatabinding(String inputLine) {
 		NewsMessage message = null;
 		try {
-			message = objectMapper.readValue(inputLine, NewsMessage.class);
+			message = OBJECT_MAPPER.readValue(inputLine, NewsMessage.class);
 		} catch (JsonProcessingException e) {
 			e.printStackTrace();
 		}
@@ -56,20 +135,14 @@ class Analyser {
 	}
 
 	boolean isPositive(NewsMessage message) {
-		if (message == null) {
+		if (message == null || message.getHeadline() == null) {
 			return false;
 		}
-
-		String[] words = message.getHeadline().split(" ");
-		int positiveCount = 0;
-
-		for (String word : words) {
-			if (positiveWords.contains(word)) {
-				positiveCount++;
-			}
+		long key = classifier.pack(message.getHeadline());
+		if (key != 0) {
+			message.setHeadlineKey(key);
+			return classifier.isPositive(key);
 		}
-		// cast to do floating point calculation
-		float ratio = positiveCount / (float) words.length;
-		return ratio > 0.5;
+		return classifier.isPositive(message.getHeadline());
 	}
 }
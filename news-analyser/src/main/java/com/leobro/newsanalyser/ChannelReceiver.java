@@ -0,0 +1,197 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.FrameReader;
+import com.leobro.newscodec.Handshake;
+import com.leobro.newscodec.WireFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Responsible for the connection with one TCP client in the {@link IngestionMode#SELECTOR} mode. Unlike
+ * {@link NewsReceiver}, does not own a thread: the {@link NewsEventLoop} calls {@link #read()} whenever the channel
+ * has data. The received bytes are accumulated in a buffer, the {@link FrameReader} cuts the complete frames out of it
+ * and every frame is passed to the {@link NewsSink} without being converted to a string. An incomplete frame stays in
+ * the buffer until the rest of it arrives.
+ * <p>To share the loop fairly between the connections, a call of {@link #read()} reads at most the read budget of
+ * bytes, and the rest waits for the next turn of the loop. A feed limited by the {@link FeedRateLimits} is not read
+ * while its {@link TokenBucket} is empty, so its messages wait in the socket buffers and TCP slows the feed down.
+ * <p>Every read of data is reported as an activity to the {@link IdleMonitor.Watch} of the connection, if it is
+ * watched. The empty frames are heartbeats and are not analysed.
+ */
+class ChannelReceiver implements FrameReader.FrameHandler, Closeable {
+
+	private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+	private static final int MAX_BUFFER_SIZE = 1024 * 1024;
+	private static final int DEFAULT_READ_BUDGET = 64 * 1024;
+
+	private final SocketChannel channel;
+	private final NewsSink sink;
+	private final FeedRateLimits limits;
+	private final int readBudget;
+	private final FrameReader frameReader;
+	private ByteBuffer buffer;
+	private TokenBucket bucket;
+	private int frameCount;
+	private IdleMonitor.Watch watch;
+
+	/**
+	 * Creates a new instance of the {@link ChannelReceiver} class.
+	 *
+	 * @param channel the channel with established connection from the client,
+	 * @param sink    the receiver of the news messages coming from the client, either an {@link Analyser} of
+	 *                the connection or the shared {@link IngestionPipeline}.
+	 */
+	public ChannelReceiver(SocketChannel channel, NewsSink sink) {
+		this(channel, sink, FeedRateLimits.unlimited(), DEFAULT_READ_BUDGET);
+	}
+
+	/**
+	 * Creates a new instance of the {@link ChannelReceiver} class with the limits of the rate of the feed and of
+	 * the bytes read at once.
+	 *
+	 * @param channel    the channel with established connection from the client,
+	 * @param sink       the receiver of the news messages coming from the client, either an {@link Analyser} of
+	 *                   the connection or the shared {@link IngestionPipeline},
+	 * @param limits     the limits of the rate of the feeds, applied when the feed has introduced itself,
+	 * @param readBudget the count of bytes read at most in one call of {@link #read()}.
+	 */
+	public ChannelReceiver(SocketChannel channel, NewsSink sink, FeedRateLimits limits, int readBudget) {
+		this.channel = channel;
+		this.sink = sink;
+		this.limits = limits;
+		this.readBudget = Math.max(readBudget, 1);
+		frameReader = new FrameReader(this);
+		buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+	}
+
+	/**
+	 * Reads the data available in the channel without blocking, up to the read budget, and analyses all complete
+	 * frames. Stops early when the feed has used up its tokens and does not read at all until they are repaid.
+	 * Closes the channel when the client disconnects.
+	 */
+	public void read() {
+		if (getThrottleNanos(System.nanoTime()) > 0) {
+			return;
+		}
+		try {
+			int count = 0;
+			int budget = readBudget;
+			while (budget > 0 && channel.isOpen() && (count = channel.read(buffer)) > 0) {
+				if (watch != null) {
+					watch.touch();
+				}
+				budget -= count;
+				frameCount = 0;
+				buffer.flip();
+				frameReader.read(buffer);
+				buffer.compact();
+
+				if (!buffer.hasRemaining()) {
+					growBuffer();
+				}
+				if (bucket != null) {
+					long now = System.nanoTime();
+					bucket.take(frameCount, now);
+					if (bucket.getWaitNanos(now) > 0) {
+						break;
+					}
+				}
+			}
+			if (budget < readBudget) {
+				sink.endBatch();
+			}
+			if (count < 0) {
+				close();
+			}
+		} catch (SocketException e) {
+			// client socket has disconnected (error message: Connection reset)
+			close();
+		} catch (ClosedChannelException e) {
+			// the channel has been closed meanwhile, e.g. by the IdleMonitor during the read
+			close();
+		} catch (IOException e) {
+			e.printStackTrace();
+			close();
+		}
+	}
+
+	/**
+	 * Reports the activity of the connection to the watch of an {@link IdleMonitor}.
+	 *
+	 * @param watch the watch of the connection.
+	 */
+	public void setWatch(IdleMonitor.Watch watch) {
+		this.watch = watch;
+	}
+
+	/**
+	 * Returns how long the channel must not be read because the feed has sent more than its limit.
+	 *
+	 * @param now the current time in nanoseconds.
+	 * @return the time to wait in nanoseconds, 0 if the channel can be read.
+	 */
+	public long getThrottleNanos(long now) {
+		return (bucket != null) ? bucket.getWaitNanos(now) : 0;
+	}
+
+	/**
+	 * Answers the handshake of the client and applies the rate limit of the feed. The answer is one byte, which fits
+	 * in the empty send buffer of the new connection, so it is written at once also in the non-blocking mode.
+	 */
+	@Override
+	public void onHandshake(Handshake handshake) {
+		bucket = limits.createBucket(handshake.getFeedName(), System.nanoTime());
+		if (handshake.isLegacy()) {
+			return;
+		}
+		try {
+			channel.write(ByteBuffer.wrap(new byte[]{handshake.getAcknowledgement()}));
+		} catch (IOException e) {
+			e.printStackTrace();
+			close();
+		}
+		if (!handshake.isAccepted()) {
+			close();
+		}
+	}
+
+	@Override
+	public void onFrame(WireFormat format, byte[] bytes, int offset, int length) {
+		if (length == 0) {
+			// a heartbeat
+			return;
+		}
+		frameCount++;
+		sink.analyse(format, bytes, offset, length);
+	}
+
+	private void growBuffer() throws IOException {
+		if (buffer.capacity() >= MAX_BUFFER_SIZE) {
+			throw new IOException("News message exceeds " + MAX_BUFFER_SIZE + " bytes");
+		}
+		ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+		buffer.flip();
+		larger.put(buffer);
+		buffer = larger;
+	}
+
+	/**
+	 * Closes the connection with the client.
+	 */
+	@Override
+	public void close() {
+		if (watch != null) {
+			watch.cancel();
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
@@ -2,6 +2,10 @@ package com.leobro.newsanalyser;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -14,10 +18,63 @@ class Configuration {
 	private static final String DEFAULT_PORT = "5555";
 	private static final String REPORTING_PERIOD_KEY = "reportingPeriodInMilliseconds";
 	private static final String DEFAULT_REPORTING_PERIOD = "10000";
+	private static final String WINDOW_LENGTH_KEY = "windowInMilliseconds";
+	private static final String HORIZONS_KEY = "horizonsInMilliseconds";
+	private static final String DEFAULT_HORIZONS = "";
 	private static final String NEWS_LIMIT_KEY = "maxNewsCountToShow";
 	private static final String DEFAULT_NEWS_LIMIT = "3";
 	private static final String POSITIVE_WORDS_KEY = "positiveWords";
 	private static final String DEFAULT_POSITIVE_WORDS = "up,rise,good,success,high,über";
+	private static final String INGESTION_MODE_KEY = "ingestionMode";
+	private static final String DEFAULT_INGESTION_MODE = "blocking";
+	private static final String EVENT_LOOP_THREADS_KEY = "eventLoopThreads";
+	private static final String DEFAULT_EVENT_LOOP_THREADS = "2";
+	private static final String RECEIVER_THREADS_KEY = "receiverThreads";
+	private static final String DEFAULT_RECEIVER_THREADS = "platform";
+	private static final String ANALYSIS_WORKERS_KEY = "analysisWorkers";
+	private static final String DEFAULT_ANALYSIS_WORKERS = "0";
+	private static final String INGESTION_BUFFER_SIZE_KEY = "ingestionBufferSize";
+	private static final String DEFAULT_INGESTION_BUFFER_SIZE = "65536";
+	private static final String ANALYSIS_BATCH_SIZE_KEY = "analysisBatchSize";
+	private static final String DEFAULT_ANALYSIS_BATCH_SIZE = "256";
+	private static final String WAIT_STRATEGY_KEY = "waitStrategy";
+	private static final String DEFAULT_WAIT_STRATEGY = "park";
+	private static final String LOAD_SHEDDING_KEY = "loadShedding";
+	private static final String DEFAULT_LOAD_SHEDDING = "false";
+	private static final String SHEDDING_START_FILL_KEY = "sheddingStartFill";
+	private static final String DEFAULT_SHEDDING_START_FILL = "0.5";
+	private static final String PROTECTED_PRIORITY_KEY = "protectedPriority";
+	private static final String DEFAULT_PROTECTED_PRIORITY = "9";
+	private static final String FEED_RATE_LIMIT_KEY = "feedRateLimit";
+	private static final String DEFAULT_FEED_RATE_LIMIT = "0";
+	private static final String FEED_BURST_KEY = "feedBurstInMilliseconds";
+	private static final String DEFAULT_FEED_BURST = "100";
+	private static final String EVENT_LOOP_READ_BUDGET_KEY = "eventLoopReadBudget";
+	private static final String DEFAULT_EVENT_LOOP_READ_BUDGET = "65536";
+	private static final String IDLE_TIMEOUT_KEY = "idleTimeoutInMilliseconds";
+	private static final String DEFAULT_IDLE_TIMEOUT = "0";
+	private static final String HEADLINE_CACHE_SIZE_KEY = "headlineCacheSize";
+	private static final String DEFAULT_HEADLINE_CACHE_SIZE = "65536";
+	private static final String HEADLINE_WORDS_KEY = "headlineWords";
+	private static final String DEFAULT_HEADLINE_WORDS = "";
+	private static final String WINDOW_STORE_CAPACITY_KEY = "windowStoreCapacity";
+	private static final String DEFAULT_WINDOW_STORE_CAPACITY = "0";
+	private static final String JOURNAL_DIRECTORY_KEY = "journalDirectory";
+	private static final String DEFAULT_JOURNAL_DIRECTORY = "";
+	private static final String JOURNAL_SEGMENT_SIZE_KEY = "journalSegmentSize";
+	private static final String DEFAULT_JOURNAL_SEGMENT_SIZE = "67108864";
+	private static final String JOURNAL_ROLL_INTERVAL_KEY = "journalRollIntervalInMilliseconds";
+	private static final String DEFAULT_JOURNAL_ROLL_INTERVAL = "3600000";
+	private static final String JOURNAL_DURABILITY_KEY = "journalDurability";
+	private static final String DEFAULT_JOURNAL_DURABILITY = "periodic";
+	private static final String JOURNAL_FORCE_INTERVAL_KEY = "journalForceIntervalInMilliseconds";
+	private static final String DEFAULT_JOURNAL_FORCE_INTERVAL = "1000";
+	private static final String WINDOW_TIME_KEY = "windowTime";
+	private static final String DEFAULT_WINDOW_TIME = "processing";
+	private static final String ALLOWED_LATENESS_KEY = "allowedLatenessInMilliseconds";
+	private static final String DEFAULT_ALLOWED_LATENESS = "2000";
+	private static final String CLOCK_TOLERANCE_KEY = "clockToleranceInMilliseconds";
+	private static final String DEFAULT_CLOCK_TOLERANCE = "60000";
 
 	Properties config;
 
@@ -59,6 +116,34 @@ class Configuration {
 		return Integer.parseInt(config.getProperty(REPORTING_PERIOD_KEY, DEFAULT_REPORTING_PERIOD));
 	}
 
+	/**
+	 * Returns the length in milliseconds of the sliding window every report covers. Unless configured, the window is
+	 * the reporting period and every report covers only the news since the previous one.
+	 *
+	 * @return the window length in milliseconds.
+	 */
+	public int getWindowLength() {
+		String length = config.getProperty(WINDOW_LENGTH_KEY);
+		return (length == null) ? getReportingPeriod() : Integer.parseInt(length);
+	}
+
+	/**
+	 * Returns the longer horizons, like a minute or an hour, each reported at its end in addition to the periodic
+	 * reports.
+	 *
+	 * @return the horizons in milliseconds in ascending order, or an empty array if none is configured.
+	 */
+	public int[] getHorizons() {
+		String horizons = config.getProperty(HORIZONS_KEY, DEFAULT_HORIZONS).trim();
+		if (horizons.isEmpty()) {
+			return new int[0];
+		}
+		return Arrays.stream(horizons.split(","))
+				.mapToInt(horizon -> Integer.parseInt(horizon.trim()))
+				.sorted()
+				.toArray();
+	}
+
 	/**
 	 * Returns the maximum number of positive news items reported periodically.
 	 *
@@ -72,4 +157,248 @@ class Configuration {
 		String positiveLine = config.getProperty(POSITIVE_WORDS_KEY, DEFAULT_POSITIVE_WORDS);
 		return positiveLine.trim().split(",");
 	}
+
+	/**
+	 * Returns the way the connections from news feeds are served: a blocking thread per connection or a small
+	 * number of event loops with non-blocking channels.
+	 *
+	 * @return the ingestion mode.
+	 */
+	public IngestionMode getIngestionMode() {
+		String mode = config.getProperty(INGESTION_MODE_KEY, DEFAULT_INGESTION_MODE);
+		return IngestionMode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+	}
+
+	/**
+	 * Returns the number of event loop threads serving the connections in the {@link IngestionMode#SELECTOR} mode.
+	 *
+	 * @return the count of event loop threads.
+	 */
+	public int getEventLoopThreads() {
+		return Integer.parseInt(config.getProperty(EVENT_LOOP_THREADS_KEY, DEFAULT_EVENT_LOOP_THREADS));
+	}
+
+	/**
+	 * Returns the kind of threads serving the connections in the {@link IngestionMode#BLOCKING} mode.
+	 *
+	 * @return platform or virtual threads.
+	 */
+	public ReceiverThreads getReceiverThreads() {
+		String threads = config.getProperty(RECEIVER_THREADS_KEY, DEFAULT_RECEIVER_THREADS);
+		return ReceiverThreads.valueOf(threads.trim().toUpperCase(Locale.ROOT));
+	}
+
+	/**
+	 * Returns the number of threads analysing the news messages put into the {@link IngestionPipeline} by
+	 * the receivers. With no workers, every message is analysed in the thread which has read it.
+	 *
+	 * @return the count of analysis workers, 0 if there is no pipeline.
+	 */
+	public int getAnalysisWorkers() {
+		return Integer.parseInt(config.getProperty(ANALYSIS_WORKERS_KEY, DEFAULT_ANALYSIS_WORKERS).trim());
+	}
+
+	/**
+	 * Returns the count of news messages the buffer of the {@link IngestionPipeline} holds.
+	 *
+	 * @return the count of messages, rounded up to a power of two by the pipeline.
+	 */
+	public int getIngestionBufferSize() {
+		return Integer.parseInt(config.getProperty(INGESTION_BUFFER_SIZE_KEY, DEFAULT_INGESTION_BUFFER_SIZE).trim());
+	}
+
+	/**
+	 * Returns the maximal count of news messages an analysis worker takes out of the buffer at once.
+	 *
+	 * @return the batch size.
+	 */
+	public int getAnalysisBatchSize() {
+		return Integer.parseInt(config.getProperty(ANALYSIS_BATCH_SIZE_KEY, DEFAULT_ANALYSIS_BATCH_SIZE).trim());
+	}
+
+	/**
+	 * Returns the way the threads of the {@link IngestionPipeline} wait: busy spinning, yielding or parking.
+	 *
+	 * @return the wait strategy.
+	 */
+	public WaitStrategy getWaitStrategy() {
+		String strategy = config.getProperty(WAIT_STRATEGY_KEY, DEFAULT_WAIT_STRATEGY);
+		return WaitStrategy.valueOf(strategy.trim().toUpperCase(Locale.ROOT));
+	}
+
+	/**
+	 * Tells if the {@link IngestionPipeline} drops the news messages of low priority when the analysis does not keep
+	 * up. Has effect only with analysis workers.
+	 *
+	 * @return {@code true} if the load shedding is on.
+	 */
+	public boolean isLoadShedding() {
+		return Boolean.parseBoolean(config.getProperty(LOAD_SHEDDING_KEY, DEFAULT_LOAD_SHEDDING).trim());
+	}
+
+	/**
+	 * Returns the share of the buffer of the {@link IngestionPipeline} filled at which the load shedding starts.
+	 *
+	 * @return the share from 0 to 1.
+	 */
+	public double getSheddingStartFill() {
+		return Double.parseDouble(config.getProperty(SHEDDING_START_FILL_KEY, DEFAULT_SHEDDING_START_FILL).trim());
+	}
+
+	/**
+	 * Returns the lowest priority of the news messages which are never dropped by the load shedding.
+	 *
+	 * @return the protected priority.
+	 */
+	public int getProtectedPriority() {
+		return Integer.parseInt(config.getProperty(PROTECTED_PRIORITY_KEY, DEFAULT_PROTECTED_PRIORITY).trim());
+	}
+
+	/**
+	 * Returns the limits of the rate of news messages from the feeds: the default limit of every connection
+	 * ({@code feedRateLimit}) and the limits of the named feeds ({@code feedRateLimit.<feed name>}), in messages per
+	 * second, 0 for no limit.
+	 *
+	 * @return the limits of the feeds.
+	 */
+	public FeedRateLimits getFeedRateLimits() {
+		double defaultRate = Double.parseDouble(
+				config.getProperty(FEED_RATE_LIMIT_KEY, DEFAULT_FEED_RATE_LIMIT).trim());
+		Map<String, Double> feedRates = new HashMap<>();
+		String prefix = FEED_RATE_LIMIT_KEY + ".";
+
+		for (String key : config.stringPropertyNames()) {
+			if (key.startsWith(prefix)) {
+				feedRates.put(key.substring(prefix.length()), Double.parseDouble(config.getProperty(key).trim()));
+			}
+		}
+		double burst = Integer.parseInt(config.getProperty(FEED_BURST_KEY, DEFAULT_FEED_BURST).trim()) / 1000.0;
+		return new FeedRateLimits(defaultRate, feedRates, burst);
+	}
+
+	/**
+	 * Returns the count of bytes an event loop reads at most from one connection before serving the next one.
+	 *
+	 * @return the read budget in bytes.
+	 */
+	public int getEventLoopReadBudget() {
+		return Integer.parseInt(
+				config.getProperty(EVENT_LOOP_READ_BUDGET_KEY, DEFAULT_EVENT_LOOP_READ_BUDGET).trim());
+	}
+
+	/**
+	 * Returns the time after which a connection on which nothing has been received, not even a heartbeat, is closed.
+	 *
+	 * @return the idle timeout in milliseconds, 0 to keep the idle connections open.
+	 */
+	public long getIdleTimeout() {
+		return Long.parseLong(config.getProperty(IDLE_TIMEOUT_KEY, DEFAULT_IDLE_TIMEOUT).trim());
+	}
+
+	/**
+	 * Returns the count of headlines whose verdicts are remembered by the {@link HeadlineCache}.
+	 *
+	 * @return the size of the cache, 0 to classify every headline anew.
+	 */
+	public int getHeadlineCacheSize() {
+		return Integer.parseInt(config.getProperty(HEADLINE_CACHE_SIZE_KEY, DEFAULT_HEADLINE_CACHE_SIZE).trim());
+	}
+
+	/**
+	 * Returns the words the headlines of the feeds are made of, which the {@link HeadlineVocabulary} packs the
+	 * headlines with.
+	 *
+	 * @return the words of the headlines, empty if the headlines are not packed.
+	 */
+	public String[] getHeadlineWords() {
+		String wordsLine = config.getProperty(HEADLINE_WORDS_KEY, DEFAULT_HEADLINE_WORDS).trim();
+		return wordsLine.isEmpty() ? new String[0] : wordsLine.split(",");
+	}
+
+	/**
+	 * Returns the count of positive messages of a reporting period kept in the {@link WindowStore}, e.g. for
+	 * the audit.
+	 *
+	 * @return the capacity of the store, 0 to keep no messages.
+	 */
+	public int getWindowStoreCapacity() {
+		return Integer.parseInt(
+				config.getProperty(WINDOW_STORE_CAPACITY_KEY, DEFAULT_WINDOW_STORE_CAPACITY).trim());
+	}
+
+	/**
+	 * Returns the directory of the {@link Journal} of the received frames.
+	 *
+	 * @return the directory, empty if nothing is journaled.
+	 */
+	public String getJournalDirectory() {
+		return config.getProperty(JOURNAL_DIRECTORY_KEY, DEFAULT_JOURNAL_DIRECTORY).trim();
+	}
+
+	/**
+	 * Returns the size of a segment file of the journal.
+	 *
+	 * @return the segment size in bytes.
+	 */
+	public int getJournalSegmentSize() {
+		return Integer.parseInt(config.getProperty(JOURNAL_SEGMENT_SIZE_KEY, DEFAULT_JOURNAL_SEGMENT_SIZE).trim());
+	}
+
+	/**
+	 * Returns the time after which the journal starts a new segment even if the current one is not full.
+	 *
+	 * @return the roll interval in milliseconds, 0 to start a new segment only when the current one is full.
+	 */
+	public long getJournalRollInterval() {
+		return Long.parseLong(config.getProperty(JOURNAL_ROLL_INTERVAL_KEY, DEFAULT_JOURNAL_ROLL_INTERVAL).trim());
+	}
+
+	/**
+	 * Returns when the journal forces the records to the disk.
+	 *
+	 * @return the durability of the journal.
+	 */
+	public JournalDurability getJournalDurability() {
+		String durability = config.getProperty(JOURNAL_DURABILITY_KEY, DEFAULT_JOURNAL_DURABILITY);
+		return JournalDurability.valueOf(durability.trim().toUpperCase(Locale.ROOT));
+	}
+
+	/**
+	 * Returns the interval at which the journal forces the records to the disk with
+	 * the {@link JournalDurability#PERIODIC} durability.
+	 *
+	 * @return the force interval in milliseconds.
+	 */
+	public long getJournalForceInterval() {
+		return Long.parseLong(config.getProperty(JOURNAL_FORCE_INTERVAL_KEY, DEFAULT_JOURNAL_FORCE_INTERVAL).trim());
+	}
+
+	/**
+	 * Returns the time by which the messages are assigned to the reporting periods.
+	 *
+	 * @return the window time.
+	 */
+	public WindowTime getWindowTime() {
+		String time = config.getProperty(WINDOW_TIME_KEY, DEFAULT_WINDOW_TIME);
+		return WindowTime.valueOf(time.trim().toUpperCase(Locale.ROOT));
+	}
+
+	/**
+	 * Returns the time a reporting period waits for the delayed messages in the {@link WindowTime#EVENT} window time.
+	 *
+	 * @return the allowed lateness in milliseconds.
+	 */
+	public int getAllowedLateness() {
+		return Integer.parseInt(config.getProperty(ALLOWED_LATENESS_KEY, DEFAULT_ALLOWED_LATENESS).trim());
+	}
+
+	/**
+	 * Returns the time a message may be stamped ahead of the clock of the analyser in the {@link WindowTime#EVENT}
+	 * window time. A message stamped further ahead is dropped as late.
+	 *
+	 * @return the clock tolerance in milliseconds.
+	 */
+	public int getClockTolerance() {
+		return Integer.parseInt(config.getProperty(CLOCK_TOLERANCE_KEY, DEFAULT_CLOCK_TOLERANCE).trim());
+	}
 }
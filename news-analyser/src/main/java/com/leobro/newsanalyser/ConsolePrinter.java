@@ -1,66 +1,184 @@
 package com.leobro.newsanalyser;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
 
 /**
- * Responsible for formatting and printing the report in the console. Selects the limited number of the most important
- * news messages (according to their priority) and prints their headlines together with the total number of
- * positive news messages received since the last reporting.
+ * Responsible for formatting and printing the report in the console. Prints the headlines of the most important news
+ * messages (according to their priority) together with the total number of positive news messages received since
+ * the last reporting.
  */
 class ConsolePrinter {
 
-	private final int newsLimit;
+	private static final String SINCE_LAST_DIGEST = "since the last digest";
+
+	private final PrintStream out;
+	private final String period;
+
+	/**
+	 * Creates a new instance of the {@link ConsolePrinter} printing the reports on the news since the last report
+	 * to the standard output.
+	 */
+	public ConsolePrinter() {
+		this(System.out, SINCE_LAST_DIGEST);
+	}
+
+	/**
+	 * Creates a new instance of the {@link ConsolePrinter} printing the reports on the news in a sliding window
+	 * to the standard output.
+	 *
+	 * @param windowLength the length of the window in milliseconds.
+	 */
+	public ConsolePrinter(int windowLength) {
+		this(System.out, "in the last " + windowLength + " ms");
+	}
 
 	/**
 	 * Creates a new instance of the {@link ConsolePrinter}.
 	 *
-	 * @param newsLimit the maximal count of news messages to be shown in the report.
+	 * @param out    the stream to print to,
+	 * @param period the description of the period the reports cover.
+	 */
+	ConsolePrinter(PrintStream out, String period) {
+		this.out = out;
+		this.period = period;
+	}
+
+	/**
+	 * Creates a new instance of the {@link ConsolePrinter} printing the reports on the news since the last report.
+	 *
+	 * @param out the stream to print to.
 	 */
-	public ConsolePrinter(int newsLimit) {
-		this.newsLimit = newsLimit;
+	ConsolePrinter(PrintStream out) {
+		this(out, SINCE_LAST_DIGEST);
 	}
 
 	/**
-	 * Prints a periodic report - total count of positive messages since the last report and the limited count
-	 * of headlines of the most important messages since the last report.
+	 * Prints a periodic report - total count of positive messages since the last report (or in the window), the count
+	 * of messages dropped without analysis under overload, if any, and the limited count of headlines of the most
+	 * important of them.
 	 *
-	 * @param messages all positive news messages received since the last report.
+	 * @param digest the digest of positive news messages to report.
 	 */
-	public void print(List<NewsMessage> messages) {
-		printHeading(messages.size());
+	public void print(NewsDigest digest) {
+		printHeading(digest.getCount(), digest.getShedCount());
 
-		for (NewsMessage message : selectImportantNews(messages)) {
+		for (NewsMessage message : digest.getTopNews()) {
 			printMessage(message);
 		}
 	}
 
-	private void printHeading(int totalCount) {
-		System.out.println("=======================================");
-		System.out.println("Positive news since the last digest: " + totalCount);
-		System.out.println("The most important news:");
-		System.out.println("---------------------------------------");
+	/**
+	 * Prints the percentiles of the latency of the news messages received during the reporting period.
+	 *
+	 * @param histogram the histogram of the latency in microseconds.
+	 */
+	public void printLatency(Histogram histogram) {
+		out.println("---------------------------------------");
+		out.println("Latency, us: p50 " + histogram.getValueAtPercentile(50)
+				+ ", p99 " + histogram.getValueAtPercentile(99)
+				+ ", p99.9 " + histogram.getValueAtPercentile(99.9)
+				+ ", max " + histogram.getMaxValue()
+				+ " (" + histogram.getTotalCount() + " messages)");
 	}
 
-	private void printMessage(NewsMessage message) {
-		System.out.println("Prio. " + message.getPriority() + ": " + message.getHeadline());
+	/**
+	 * Prints the state of the buffer of the ingestion pipeline. Waits of the receivers for room in the buffer mean
+	 * that the analysis does not keep up with the incoming news.
+	 *
+	 * @param queued    the count of messages waiting in the buffer,
+	 * @param capacity  the count of messages the buffer holds,
+	 * @param fullCount the count of times a receiver found the buffer full during the reporting period.
+	 */
+	public void printIngestion(long queued, int capacity, long fullCount) {
+		out.println("Ingestion buffer: " + queued + " of " + capacity + " messages queued, full " + fullCount
+				+ " times" + (fullCount > 0 ? " - the analysis does not keep up" : ""));
 	}
 
-	List<NewsMessage> selectImportantNews(List<NewsMessage> messages) {
-		return messages.stream()
-				.filter(distinctByKey(NewsMessage::getHeadline))
-				.sorted((m1, m2) -> Integer.compare(m2.getPriority(), m1.getPriority()))
-				.limit(newsLimit)
-				.collect(Collectors.toList());
+	/**
+	 * Prints the count of the positive messages of the reporting period kept for the audit, by priority, and
+	 * the count of those which did not fit into the store.
+	 *
+	 * @param window the messages kept during the reporting period.
+	 */
+	public void printRetained(WindowStore.Window window) {
+		int[] counts = new int[Byte.MAX_VALUE + 1];
+		WindowStore.Cursor cursor = window.cursor();
+		while (cursor.next()) {
+			counts[cursor.getPriority()]++;
+		}
+
+		StringBuilder line = new StringBuilder("Messages retained: " + window.size());
+		String separator = " (";
+		for (int priority = counts.length - 1; priority >= 0; priority--) {
+			if (counts[priority] > 0) {
+				line.append(separator).append("prio. ").append(priority).append(": ").append(counts[priority]);
+				separator = ", ";
+			}
+		}
+		if (window.size() > 0) {
+			line.append(')');
+		}
+		if (window.getOverflowCount() > 0) {
+			line.append(", not retained - the store is full: ").append(window.getOverflowCount());
+		}
+		out.println(line);
+	}
+
+	/**
+	 * Prints how many headlines were found in the cache of the headline verdicts and how many had to be classified.
+	 *
+	 * @param hitCount  the count of headlines found in the cache during the reporting period,
+	 * @param missCount the count of headlines classified during the reporting period.
+	 */
+	public void printHeadlineCache(long hitCount, long missCount) {
+		out.println("Headline cache: " + hitCount + " hits, " + missCount + " misses ("
+				+ hitCount * 100 / (hitCount + missCount) + "% hits)");
 	}
 
-	private static <T> Predicate<T> distinctByKey(Function<? super T, Object> keyExtractor)
-	{
-		Map<Object, Boolean> map = new HashMap<>();
-		return t -> map.putIfAbsent(keyExtractor.apply(t), Boolean.TRUE) == null;
+	/**
+	 * Prints the count of connections closed because nothing, not even a heartbeat, has been received on them for
+	 * the idle timeout.
+	 *
+	 * @param closedCount the count of connections closed during the reporting period.
+	 */
+	public void printIdleClosed(long closedCount) {
+		out.println("Idle connections closed: " + closedCount);
+	}
+
+	/**
+	 * Prints the count of news messages which came after the watermark had closed the reporting period they were
+	 * created in, or were stamped too far ahead of the clock. They are not counted in any digest.
+	 *
+	 * @param lateCount the count of late messages since the last report.
+	 */
+	public void printLate(long lateCount) {
+		out.println("Late or mistimed news dropped: " + lateCount);
+	}
+
+	/**
+	 * Prints the count of reporting periods without news skipped at once by the event time. The window and
+	 * the horizons start anew after them.
+	 *
+	 * @param periodCount the count of the skipped periods.
+	 */
+	public void printSkipped(long periodCount) {
+		out.println("=======================================");
+		out.println("No news for " + periodCount + " periods, the window and the horizons start anew");
+	}
+
+	private void printHeading(long totalCount, long shedCount) {
+		out.println("=======================================");
+		out.println("Positive news " + period + ": " + totalCount);
+		if (shedCount > 0) {
+			out.println("Low-priority news dropped unread under overload: " + shedCount);
+		}
+		out.println("The most important news:");
+		out.println("---------------------------------------");
+	}
+
+	private void printMessage(NewsMessage message) {
+		out.println("Prio. " + message.getPriority() + ": " + message.getHeadline());
 	}
 }
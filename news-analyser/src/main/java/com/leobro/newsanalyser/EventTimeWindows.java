@@ -0,0 +1,250 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.EpochClock;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Assigns the positive news messages to the reporting periods by the time they were created at (the event time)
+ * instead of the time they arrived at, so the delays of the network or of an overloaded analyser do not move a message
+ * into a later digest. The periods are aligned to the epoch: the window of a message is its event time divided by
+ * the period.
+ * <p>The watermark is the latest event time seen so far. A window closes when the watermark has passed its end by
+ * the allowed lateness: the messages delayed by less than the lateness still get into their window. A message for
+ * a window which has closed is late; it does not get into any digest, but the late messages are counted. So is
+ * a message stamped further ahead of the clock of the analyser than the clock tolerance, e.g. in nanoseconds instead
+ * of microseconds, which would otherwise move the watermark so far that every later message were late.
+ * <p>The windows close only as newer messages come. A jump of the watermark, e.g. after a pause of the feeds, closes
+ * every window up to it, the empty ones included, so the sliding window and the horizons of the reports stay aligned.
+ * A run of more empty windows than the reports remember is not closed one by one but skipped at once, and the reports
+ * start anew.
+ * <p>Only the windows which can still receive messages are kept, each with its own {@link StripedDigestCollector}, in
+ * a ring of panes: one for every period of the allowed lateness and two more. A message whose window falls on a pane
+ * still taken by an older window retires that window, which the watermark has closed anyway, and takes the pane.
+ * So the memory does not grow with the count of messages or the disorder of the feeds. A message which loses the race
+ * with the closing of its window is refused by the collector and counted as late, never lost.
+ * <p>The class is thread-safe. The windows are closed by the report thread only.
+ */
+class EventTimeWindows {
+
+	private final long periodMicros;
+	private final long latenessMicros;
+	private final long toleranceMicros;
+	private final int newsLimit;
+	private final long maxEmptyWindows;
+	private final AtomicReferenceArray<Pane> panes;
+	private final Queue<Pane> retired;
+	private final AtomicLong watermark;
+	private final LongAdder lateCount;
+	private long nextWindow;
+
+	/**
+	 * Creates a new instance of the {@link EventTimeWindows} class.
+	 *
+	 * @param period          the length of a window (the reporting period) in milliseconds,
+	 * @param allowedLateness the time in milliseconds a window waits for the delayed messages after the watermark has
+	 *                        passed its end,
+	 * @param clockTolerance  the time in milliseconds a message may be stamped ahead of the clock of the analyser,
+	 * @param newsLimit       the maximal count of the most important news messages to keep,
+	 * @param maxEmptyWindows the count of empty windows closed one by one at most; a longer run of them is skipped.
+	 */
+	public EventTimeWindows(int period, int allowedLateness, int clockTolerance, int newsLimit, int maxEmptyWindows) {
+		periodMicros = TimeUnit.MILLISECONDS.toMicros(period);
+		latenessMicros = TimeUnit.MILLISECONDS.toMicros(allowedLateness);
+		toleranceMicros = TimeUnit.MILLISECONDS.toMicros(clockTolerance);
+		this.newsLimit = newsLimit;
+		this.maxEmptyWindows = maxEmptyWindows;
+		long latePeriods = (latenessMicros + periodMicros - 1) / periodMicros;
+		panes = new AtomicReferenceArray<>((int) latePeriods + 2);
+		retired = new ConcurrentLinkedQueue<>();
+		watermark = new AtomicLong(Long.MIN_VALUE);
+		lateCount = new LongAdder();
+		nextWindow = Long.MIN_VALUE;
+	}
+
+	/**
+	 * Adds a positive news message to the window of its event time, or counts it as late if the window has closed or
+	 * the time is too far ahead of the clock. Moves the watermark on if the message is the latest one. Never waits for
+	 * the other threads.
+	 *
+	 * @param message   the news message,
+	 * @param eventTime the time the message was created at in microseconds since the epoch.
+	 */
+	public void add(NewsMessage message, long eventTime) {
+		if (eventTime > watermark.get()) {
+			if (eventTime > EpochClock.currentTimeMicros() + toleranceMicros) {
+				lateCount.increment();
+				return;
+			}
+			advanceWatermark(eventTime);
+		}
+		long window = Math.floorDiv(eventTime, periodMicros);
+		if (window < getClosedBefore(watermark.get())) {
+			lateCount.increment();
+			return;
+		}
+
+		while (true) {
+			int index = (int) Math.floorMod(window, (long) panes.length());
+			Pane pane = panes.get(index);
+			if (pane != null && pane.window == window) {
+				if (!pane.collector.add(message)) {
+					lateCount.increment();
+				}
+				return;
+			}
+			if (pane != null && pane.window > window) {
+				// a later window has taken the pane, so the watermark has closed this one
+				lateCount.increment();
+				return;
+			}
+			if (panes.compareAndSet(index, pane, new Pane(window, newsLimit)) && pane != null) {
+				retired.add(pane);
+			}
+		}
+	}
+
+	private void advanceWatermark(long eventTime) {
+		long mark = watermark.get();
+		while (eventTime > mark && !watermark.compareAndSet(mark, eventTime)) {
+			mark = watermark.get();
+		}
+	}
+
+	/**
+	 * Returns the first window which the watermark leaves open.
+	 */
+	private long getClosedBefore(long mark) {
+		return Math.floorDiv(mark - latenessMicros, periodMicros);
+	}
+
+	/**
+	 * Closes the windows which the watermark has passed by the allowed lateness and passes their digests to
+	 * the handler, the earliest first. A window without messages has an empty digest. Called by the report thread
+	 * only.
+	 *
+	 * @param handler the receiver of the closed windows.
+	 */
+	public void closeWindows(Handler handler) {
+		long mark = watermark.get();
+		if (mark == Long.MIN_VALUE) {
+			return;
+		}
+		long limit = getClosedBefore(mark);
+
+		List<Pane> closed = new ArrayList<>();
+		for (int i = 0; i < panes.length(); i++) {
+			Pane pane = panes.get(i);
+			if (pane != null && pane.window < limit && panes.compareAndSet(i, pane, null)) {
+				closed.add(pane);
+			}
+		}
+		Pane pane;
+		while ((pane = retired.poll()) != null) {
+			closed.add(pane);
+		}
+		if (closed.isEmpty() && nextWindow == Long.MIN_VALUE) {
+			return;
+		}
+		closed.sort(Comparator.comparingLong(p -> p.window));
+		if (nextWindow == Long.MIN_VALUE) {
+			nextWindow = closed.get(0).window;
+		}
+
+		int next = 0;
+		for (; next < closed.size() && closed.get(next).window < nextWindow; next++) {
+			// a pane opened for a window which had already been reported holds only late messages
+			lateCount.add(closed.get(next).collector.close().getCount());
+		}
+		long end = closed.isEmpty() ? limit : Math.max(limit, closed.get(closed.size() - 1).window + 1);
+		while (nextWindow < end) {
+			if (next < closed.size() && closed.get(next).window == nextWindow) {
+				NewsDigest digest = new NewsDigest(newsLimit);
+				for (; next < closed.size() && closed.get(next).window == nextWindow; next++) {
+					digest.addAll(closed.get(next).collector.close());
+				}
+				handler.onClosed(digest);
+				nextWindow++;
+				continue;
+			}
+			long emptyEnd = (next < closed.size()) ? closed.get(next).window : end;
+			if (emptyEnd - nextWindow > maxEmptyWindows) {
+				handler.onSkipped(emptyEnd - nextWindow);
+			} else {
+				for (long window = nextWindow; window < emptyEnd; window++) {
+					handler.onClosed(new NewsDigest(newsLimit));
+				}
+			}
+			nextWindow = emptyEnd;
+		}
+	}
+
+	/**
+	 * Moves the watermark past the end of every open window by the allowed lateness, so the next call of
+	 * {@link #closeWindows(Handler)} closes them all, e.g. at the end of a replay.
+	 */
+	public void expireAll() {
+		long last = Long.MIN_VALUE;
+		for (int i = 0; i < panes.length(); i++) {
+			Pane pane = panes.get(i);
+			if (pane != null) {
+				last = Math.max(last, pane.window);
+			}
+		}
+		if (last != Long.MIN_VALUE) {
+			advanceWatermark((last + 1) * periodMicros + latenessMicros);
+		}
+	}
+
+	/**
+	 * Returns the count of the messages which came after their window had closed, or were stamped too far ahead of
+	 * the clock, since the last call.
+	 *
+	 * @return the count of late messages.
+	 */
+	public long takeLateCount() {
+		return lateCount.sumThenReset();
+	}
+
+	/**
+	 * Receives the windows closed by {@link #closeWindows(Handler)}.
+	 */
+	interface Handler {
+
+		/**
+		 * Receives the digest of a closed window, in the order of the windows.
+		 *
+		 * @param digest the digest of the messages of the window.
+		 */
+		void onClosed(NewsDigest digest);
+
+		/**
+		 * Is told of a run of empty windows too long to be closed one by one, in their place.
+		 *
+		 * @param count the count of the skipped windows.
+		 */
+		void onSkipped(long count);
+	}
+
+	/**
+	 * The messages of one open window.
+	 */
+	private static class Pane {
+
+		private final long window;
+		private final StripedDigestCollector collector;
+
+		Pane(long window, int newsLimit) {
+			this.window = window;
+			collector = new StripedDigestCollector(newsLimit);
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.leobro.newsanalyser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The limits of the rate of news messages from the feeds: one default limit for every connection and the limits of
+ * the feeds named in their {@link com.leobro.newscodec.Handshake}. A feed which made no handshake or gave no name is
+ * limited by the default. A limit of zero means no limit.
+ */
+class FeedRateLimits {
+
+	private final double defaultRate;
+	private final Map<String, Double> feedRates;
+	private final double burstSeconds;
+
+	/**
+	 * Creates a new instance of the {@link FeedRateLimits} class.
+	 *
+	 * @param defaultRate  the limit of every connection in messages per second, 0 for no limit,
+	 * @param feedRates    the limits of the feeds by their names, overriding the default,
+	 * @param burstSeconds the time for which a connection can save the tokens, which gives the size of the burst
+	 *                     allowed after a pause.
+	 */
+	public FeedRateLimits(double defaultRate, Map<String, Double> feedRates, double burstSeconds) {
+		this.defaultRate = defaultRate;
+		this.feedRates = new HashMap<>(feedRates);
+		this.burstSeconds = burstSeconds;
+	}
+
+	/**
+	 * Creates the limits which do not limit any feed.
+	 *
+	 * @return the limits without limits.
+	 */
+	public static FeedRateLimits unlimited() {
+		return new FeedRateLimits(0, new HashMap<>(), 0);
+	}
+
+	/**
+	 * Returns the limit of a feed.
+	 *
+	 * @param feedName the name of the feed, empty if the feed gave no name.
+	 * @return the limit in messages per second, 0 for no limit.
+	 */
+	public double getRate(String feedName) {
+		return feedRates.getOrDefault(feedName, defaultRate);
+	}
+
+	/**
+	 * Creates the token bucket for a new connection of a feed.
+	 *
+	 * @param feedName the name of the feed, empty if the feed gave no name,
+	 * @param now      the current time in nanoseconds.
+	 * @return the bucket, or {@code null} if the feed is not limited.
+	 */
+	public TokenBucket createBucket(String feedName, long now) {
+		double rate = getRate(feedName);
+		if (rate <= 0) {
+			return null;
+		}
+		return new TokenBucket(rate, rate * burstSeconds, now);
+	}
+}
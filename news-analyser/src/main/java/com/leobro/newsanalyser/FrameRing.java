@@ -0,0 +1,179 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.WireFormat;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded ring buffer of news message frames between any number of producers and any number of consumers. All slots
+ * and their byte arrays are allocated in advance and reused, so passing a frame copies its bytes but creates no
+ * objects (a slot grows only for a frame longer than it ever had).
+ * <p>Every slot has a sequence number telling whether it is free for the producer of a given position or holds
+ * the frame for the consumer of the position. Producers claim one position at a time, consumers a batch of positions,
+ * each with a single compare-and-set on the shared position; the frames themselves are then written and read without
+ * contention. A producer which finds its slot still taken learns that the buffer is full.
+ * <p>The class is thread-safe.
+ */
+class FrameRing {
+
+	private static final int INITIAL_SLOT_SIZE = 256;
+
+	private final Slot[] slots;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong writePosition;
+	private final AtomicLong readPosition;
+
+	/**
+	 * Creates a new instance of the {@link FrameRing} class.
+	 *
+	 * @param capacity the count of frames the buffer holds, rounded up to a power of two.
+	 */
+	public FrameRing(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		slots = new Slot[size];
+		sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			slots[i] = new Slot();
+			sequences.set(i, i);
+		}
+		mask = size - 1;
+		writePosition = new AtomicLong();
+		readPosition = new AtomicLong();
+	}
+
+	/**
+	 * Returns the count of frames the buffer holds.
+	 *
+	 * @return the capacity.
+	 */
+	public int getCapacity() {
+		return slots.length;
+	}
+
+	/**
+	 * Returns the count of frames published or being published and not yet taken by the consumers.
+	 *
+	 * @return the approximate count of queued frames.
+	 */
+	public long getQueued() {
+		return Math.max(writePosition.get() - readPosition.get(), 0);
+	}
+
+	/**
+	 * Claims the next position for a producer.
+	 *
+	 * @return the position to write the frame to, or -1 if the buffer is full.
+	 */
+	public long tryClaim() {
+		long position = writePosition.get();
+		while (true) {
+			long difference = sequences.get(index(position)) - position;
+			if (difference == 0) {
+				if (writePosition.compareAndSet(position, position + 1)) {
+					return position;
+				}
+				position = writePosition.get();
+			} else if (difference < 0) {
+				return -1;
+			} else {
+				position = writePosition.get();
+			}
+		}
+	}
+
+	/**
+	 * Returns the slot of a claimed position.
+	 *
+	 * @param position the position.
+	 * @return the slot.
+	 */
+	public Slot get(long position) {
+		return slots[index(position)];
+	}
+
+	/**
+	 * Makes the frame written to the slot of a claimed position available to the consumers.
+	 *
+	 * @param position the position claimed by {@link #tryClaim()}.
+	 */
+	public void publish(long position) {
+		sequences.lazySet(index(position), position + 1);
+	}
+
+	/**
+	 * Claims the published frames in order for a consumer, as many as are published at the next positions up to
+	 * a limit.
+	 *
+	 * @param batch    the batch to fill with the claimed positions,
+	 * @param maxCount the maximal count of positions to claim.
+	 * @return {@code true} if at least one position is claimed, {@code false} if there is no published frame.
+	 */
+	public boolean tryClaim(Batch batch, int maxCount) {
+		while (true) {
+			long position = readPosition.get();
+			int count = 0;
+			while (count < maxCount && sequences.get(index(position + count)) == position + count + 1) {
+				count++;
+			}
+			if (count == 0) {
+				return false;
+			}
+			if (readPosition.compareAndSet(position, position + count)) {
+				batch.start = position;
+				batch.count = count;
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Frees the slots of a batch for the producers once the consumer is done with their frames.
+	 *
+	 * @param batch the batch claimed by {@link #tryClaim(Batch, int)}.
+	 */
+	public void release(Batch batch) {
+		for (long position = batch.start; position < batch.start + batch.count; position++) {
+			sequences.lazySet(index(position), position + slots.length);
+		}
+	}
+
+	private int index(long position) {
+		return (int) position & mask;
+	}
+
+	/**
+	 * One frame in the buffer: either a line of text or the bytes of a frame.
+	 */
+	static final class Slot {
+
+		WireFormat format;
+		String line;
+		byte[] bytes = new byte[INITIAL_SLOT_SIZE];
+		int length;
+
+		void set(CharSequence inputLine) {
+			line = inputLine.toString();
+		}
+
+		void set(WireFormat format, byte[] source, int offset, int length) {
+			if (bytes.length < length) {
+				bytes = new byte[Math.max(length, bytes.length * 2)];
+			}
+			System.arraycopy(source, offset, bytes, 0, length);
+			this.format = format;
+			this.length = length;
+			line = null;
+		}
+	}
+
+	/**
+	 * The positions claimed by a consumer at once. Reused by the consumer for batch after batch.
+	 */
+	static final class Batch {
+
+		long start;
+		int count;
+	}
+}
@@ -0,0 +1,128 @@
+package com.leobro.newsanalyser;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the verdicts of the {@link PositiveWordClassifier} for the headlines seen lately. The feeds build their
+ * headlines from a small vocabulary, so the same headlines come again and again, and a repeated headline is only
+ * hashed instead of being tokenised and classified again.
+ * <p>The cache is a table of sets of 8 entries. Every entry is one {@code long} holding a 60-bit hash of
+ * the headline, its verdict and a counter of its hits up to 7, so an entry is read and written atomically without
+ * locks and nothing is allocated. A hit increments the counter of the entry. A miss replaces an entry of the set
+ * of the headline, chosen like a clock hand does it: the entries are looked at from a position given by the hash,
+ * and every entry passed over loses one of its hits until an entry without hits is found. The headlines seen once are
+ * so evicted before the frequent ones, while the frequent headlines which are not seen any more age out.
+ * <p>The headlines are told apart by their hashes only. Two different headlines with the same 60-bit hash, which is
+ * unlikely even among millions of headlines, would share the verdict.
+ * <p>The cache is built for the positive words it is given and is never reused for other words: a new configuration
+ * of the words makes a new cache, empty.
+ * <p>The hits and the misses are counted for the periodic report.
+ * <p>The class is thread-safe.
+ */
+class HeadlineCache implements HeadlineClassifier {
+
+	private static final int WAY_BITS = 3;
+	private static final int WAYS = 1 << WAY_BITS;
+	private static final long POSITIVE = 1;
+	private static final long HIT = 2;
+	private static final long HITS_MASK = 7 * HIT;
+	private static final long HASH_MASK = ~(HITS_MASK | POSITIVE);
+
+	private final PositiveWordClassifier classifier;
+	private final AtomicLongArray entries;
+	private final int setMask;
+	private final LongAdder hitCount;
+	private final LongAdder missCount;
+
+	/**
+	 * Creates a new instance of the {@link HeadlineCache} class.
+	 *
+	 * @param positiveWords the words regarded positive,
+	 * @param size          the count of headlines remembered, rounded up to a power of two, at least 8.
+	 */
+	public HeadlineCache(String[] positiveWords, int size) {
+		classifier = new PositiveWordClassifier(positiveWords);
+		int length = Integer.highestOneBit(Math.max(size, WAYS) - 1) << 1;
+		entries = new AtomicLongArray(length);
+		setMask = (length >> WAY_BITS) - 1;
+		hitCount = new LongAdder();
+		missCount = new LongAdder();
+	}
+
+	/**
+	 * Tells if more than 50% of words in the headline are positive, as {@link PositiveWordClassifier} does it.
+	 *
+	 * @param headline the headline of a news message.
+	 * @return {@code true} if the headline is positive.
+	 */
+	@Override
+	public boolean isPositive(CharSequence headline) {
+		long hash = hash(headline);
+		long key = hash & HASH_MASK;
+		if (key == 0) {
+			key = HASH_MASK & -HASH_MASK;
+		}
+		int base = ((int) (hash >>> 32) & setMask) << WAY_BITS;
+
+		for (int i = base; i < base + WAYS; i++) {
+			long entry = entries.get(i);
+			if ((entry & HASH_MASK) == key) {
+				hitCount.increment();
+				if ((entry & HITS_MASK) != HITS_MASK) {
+					entries.compareAndSet(i, entry, entry + HIT);
+				}
+				return (entry & POSITIVE) != 0;
+			}
+		}
+
+		missCount.increment();
+		boolean isPositive = classifier.isPositive(headline);
+		replace(base, (int) hash, isPositive ? key | POSITIVE : key);
+		return isPositive;
+	}
+
+	private void replace(int base, int hand, long newEntry) {
+		for (int step = 0; step < WAYS * (HITS_MASK / HIT + 1); step++, hand++) {
+			int i = base + (hand & (WAYS - 1));
+			long entry = entries.get(i);
+			if ((entry & HITS_MASK) == 0) {
+				if (entries.compareAndSet(i, entry, newEntry)) {
+					return;
+				}
+			} else {
+				entries.compareAndSet(i, entry, entry - HIT);
+			}
+		}
+		// the hits keep coming in from other threads faster than the hand takes them
+		entries.set(base + (hand & (WAYS - 1)), newEntry);
+	}
+
+	/**
+	 * Returns the count of headlines found in the cache since the last call.
+	 *
+	 * @return the count of hits.
+	 */
+	public long takeHitCount() {
+		return hitCount.sumThenReset();
+	}
+
+	/**
+	 * Returns the count of headlines classified and added to the cache since the last call.
+	 *
+	 * @return the count of misses.
+	 */
+	public long takeMissCount() {
+		return missCount.sumThenReset();
+	}
+
+	private static long hash(CharSequence headline) {
+		long hash = headline.length();
+		for (int i = 0; i < headline.length(); i++) {
+			hash = (hash ^ headline.charAt(i)) * 0x100000001B3L;
+		}
+		hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+		hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return hash ^ (hash >>> 33);
+	}
+}
@@ -0,0 +1,50 @@
+package com.leobro.newsanalyser;
+
+/**
+ * Decides whether the headline of a news message is positive. The implementations are shared by all analysers and
+ * must be thread-safe.
+ * <p>A classifier may also pack the headlines into {@code long} keys, which tell the headlines apart exactly like
+ * their texts do and are classified without the text. The text is rebuilt from the key when it is needed.
+ */
+interface HeadlineClassifier {
+
+	/**
+	 * Tells if the headline is positive.
+	 *
+	 * @param headline the headline of a news message.
+	 * @return {@code true} if the headline is positive.
+	 */
+	boolean isPositive(CharSequence headline);
+
+	/**
+	 * Packs a headline into its key.
+	 *
+	 * @param headline the headline of a news message.
+	 * @return the key, or 0 if the headline cannot be packed.
+	 */
+	default long pack(CharSequence headline) {
+		return 0;
+	}
+
+	/**
+	 * Tells if the packed headline is positive.
+	 *
+	 * @param key the key of the headline returned by {@link #pack(CharSequence)}, not 0.
+	 * @return {@code true} if the headline is positive.
+	 * @throws UnsupportedOperationException if the classifier does not pack the headlines.
+	 */
+	default boolean isPositive(long key) {
+		throw new UnsupportedOperationException("The headlines are not packed");
+	}
+
+	/**
+	 * Rebuilds the text of a packed headline.
+	 *
+	 * @param key the key of the headline returned by {@link #pack(CharSequence)}, not 0.
+	 * @return the headline.
+	 * @throws UnsupportedOperationException if the classifier does not pack the headlines.
+	 */
+	default String unpack(long key) {
+		throw new UnsupportedOperationException("The headlines are not packed");
+	}
+}
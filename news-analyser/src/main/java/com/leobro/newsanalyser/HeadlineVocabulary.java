@@ -0,0 +1,168 @@
+package com.leobro.newsanalyser;
+
+/**
+ * Packs the headlines made of the configured words into {@code long} keys. Every word of the vocabulary gets an ID
+ * from 1 to 255, and a headline of up to 8 words separated by single spaces is packed into one byte per word, the
+ * first word in the highest used byte. So two headlines are equal exactly when their keys are, and the key is
+ * compared, hashed and classified without looking at the text again, and the text is rebuilt from the key when it
+ * is printed.
+ * <p>Which words are positive is known for every ID, so a packed headline is classified by counting its positive IDs.
+ * The headlines which cannot be packed, because of an unknown word, too many words or other separators than single
+ * spaces, get the key 0 and are classified as text by the fallback classifier.
+ * <p>The class is immutable and thread-safe.
+ */
+class HeadlineVocabulary implements HeadlineClassifier {
+
+	private static final int ID_BITS = 8;
+	private static final int MAX_ID = (1 << ID_BITS) - 1;
+	private static final int MAX_WORDS = Long.SIZE / ID_BITS;
+
+	private final String[] table;
+	private final int[] ids;
+	private final int mask;
+	private final boolean[] positiveIds;
+	private final String[] wordsById;
+	private final HeadlineClassifier fallback;
+
+	/**
+	 * Creates a new instance of the {@link HeadlineVocabulary} class.
+	 *
+	 * @param words         the words the headlines are made of; only the first 255 distinct words get IDs,
+	 * @param positiveWords the words regarded positive,
+	 * @param fallback      the classifier of the headlines which cannot be packed, built of the same positive words.
+	 */
+	public HeadlineVocabulary(String[] words, String[] positiveWords, HeadlineClassifier fallback) {
+		this.fallback = fallback;
+		int size = Integer.highestOneBit(Math.max(Math.min(words.length, MAX_ID), 1) * 4 - 1) << 1;
+		table = new String[size];
+		ids = new int[size];
+		mask = size - 1;
+		positiveIds = new boolean[MAX_ID + 1];
+		wordsById = new String[MAX_ID + 1];
+
+		int nextId = 1;
+		for (int i = 0; i < words.length && nextId <= MAX_ID; i++) {
+			if (words[i].isEmpty()) {
+				continue;
+			}
+			int slot = findSlot(words[i], 0, words[i].length());
+			if (table[slot] == null) {
+				table[slot] = words[i];
+				wordsById[nextId] = words[i];
+				ids[slot] = nextId++;
+			}
+		}
+		for (String word : positiveWords) {
+			int slot = findSlot(word, 0, word.length());
+			if (table[slot] != null) {
+				positiveIds[ids[slot]] = true;
+			}
+		}
+	}
+
+	/**
+	 * Packs a headline into its key.
+	 *
+	 * @param headline the headline of a news message.
+	 * @return the key, or 0 if the headline cannot be packed.
+	 */
+	@Override
+	public long pack(CharSequence headline) {
+		long key = 0;
+		int wordCount = 0;
+		int wordStart = 0;
+		int length = headline.length();
+
+		while (wordStart <= length) {
+			int wordEnd = wordStart;
+			while (wordEnd < length && headline.charAt(wordEnd) != ' ') {
+				wordEnd++;
+			}
+			int slot = findSlot(headline, wordStart, wordEnd);
+			if (table[slot] == null || ++wordCount > MAX_WORDS) {
+				return 0;
+			}
+			key = (key << ID_BITS) | ids[slot];
+			wordStart = wordEnd + 1;
+		}
+		return key;
+	}
+
+	/**
+	 * Rebuilds the text of a packed headline.
+	 *
+	 * @param key the key of the headline, not 0.
+	 * @return the headline.
+	 */
+	@Override
+	public String unpack(long key) {
+		int shift = Long.SIZE - ID_BITS;
+		while ((key >>> shift) == 0) {
+			shift -= ID_BITS;
+		}
+		StringBuilder headline = new StringBuilder(wordsById[(int) (key >>> shift) & MAX_ID]);
+		for (shift -= ID_BITS; shift >= 0; shift -= ID_BITS) {
+			headline.append(' ').append(wordsById[(int) (key >>> shift) & MAX_ID]);
+		}
+		return headline.toString();
+	}
+
+	/**
+	 * Tells if more than 50% of words in the packed headline are positive.
+	 *
+	 * @param key the key of the headline, not 0.
+	 * @return {@code true} if the headline is positive.
+	 */
+	@Override
+	public boolean isPositive(long key) {
+		int wordCount = 0;
+		int positiveCount = 0;
+		for (long rest = key; rest != 0; rest >>>= ID_BITS) {
+			wordCount++;
+			if (positiveIds[(int) rest & MAX_ID]) {
+				positiveCount++;
+			}
+		}
+		return positiveCount * 2 > wordCount;
+	}
+
+	/**
+	 * Tells if more than 50% of words in the headline are positive, packing it first if possible.
+	 *
+	 * @param headline the headline of a news message.
+	 * @return {@code true} if the headline is positive.
+	 */
+	@Override
+	public boolean isPositive(CharSequence headline) {
+		long key = pack(headline);
+		return (key != 0) ? isPositive(key) : fallback.isPositive(headline);
+	}
+
+	/**
+	 * Returns the slot of the word in the table, or the empty slot where it would be.
+	 */
+	private int findSlot(CharSequence text, int start, int end) {
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + text.charAt(i);
+		}
+
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while (table[slot] != null && !matches(table[slot], text, start, end)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private static boolean matches(String word, CharSequence text, int start, int end) {
+		if (word.length() != end - start) {
+			return false;
+		}
+		for (int i = 0; i < word.length(); i++) {
+			if (word.charAt(i) != text.charAt(start + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,58 @@
+package com.leobro.newsanalyser;
+
+import java.util.function.Consumer;
+
+/**
+ * One tier of the digests over a longer horizon, like a minute or an hour. The tier is fed the digests of the next
+ * shorter horizon and merges them into its own digest; when it has received as many of them as make up its horizon,
+ * it publishes the digest, passes it on to the next longer tier and starts a new one.
+ * <p>So the 10 s slices roll up into minutes, the minutes into quarters of an hour and so on, and every tier holds just
+ * one digest whatever the horizon and the message volume.
+ * <p>The class is not thread-safe; it is used by the report thread only.
+ */
+class HorizonTier {
+
+	private final int partCount;
+	private final int newsLimit;
+	private final Consumer<NewsDigest> publisher;
+	private final HorizonTier next;
+	private NewsDigest digest;
+	private int receivedParts;
+
+	/**
+	 * Creates a new instance of the {@link HorizonTier} class.
+	 *
+	 * @param partCount the count of digests of the shorter horizon making up the horizon of the tier,
+	 * @param newsLimit the maximal count of the most important news messages to keep,
+	 * @param publisher the receiver of the digest of every complete horizon,
+	 * @param next      the tier of the next longer horizon or {@code null}.
+	 */
+	public HorizonTier(int partCount, int newsLimit, Consumer<NewsDigest> publisher, HorizonTier next) {
+		this.partCount = Math.max(partCount, 1);
+		this.newsLimit = newsLimit;
+		this.publisher = publisher;
+		this.next = next;
+		digest = new NewsDigest(newsLimit);
+	}
+
+	/**
+	 * Adds the digest of a complete shorter horizon.
+	 *
+	 * @param part the digest of the shorter horizon.
+	 */
+	public void add(NewsDigest part) {
+		digest.addAll(part);
+		if (++receivedParts < partCount) {
+			return;
+		}
+
+		NewsDigest complete = digest;
+		digest = new NewsDigest(newsLimit);
+		receivedParts = 0;
+
+		publisher.accept(complete);
+		if (next != null) {
+			next.add(complete);
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package com.leobro.newsanalyser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Closes the connections on which nothing has been received for the configured idle timeout, like the half-open
+ * connections of the feeds which have gone away without closing them. The feeds with nothing to say send heartbeats,
+ * which keep their connections open.
+ * <p>One thread serves all connections with a {@link TimingWheel}. A connection is watched with a {@link Watch},
+ * which the thread reading the connection touches on every activity: the touch only writes the current tick of
+ * the wheel into the watch, at most once per tick, without any lock or rescheduling. The watch is scheduled to expire
+ * one idle timeout after the last activity known to the wheel; when it expires, the wheel looks at the last activity
+ * and either schedules the watch again for the rest of the timeout or closes the connection. So the cost of watching
+ * does not grow with the count of connections or of messages.
+ * <p>The closed connections are counted for the periodic report.
+ * <p>The class is thread-safe.
+ */
+class IdleMonitor {
+
+	private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	private static final int WHEEL_SIZE = 512;
+
+	private final long timeoutTicks;
+	private final TimingWheel wheel;
+	private final Queue<Watch> newWatches;
+	private final LongAdder closedCount;
+	private final Thread thread;
+	private volatile long currentTick;
+	private volatile boolean isRunning;
+
+	/**
+	 * Creates a new instance of the {@link IdleMonitor} class. The connections are not closed until
+	 * {@link #start()} is called.
+	 *
+	 * @param idleTimeout the time in milliseconds after which a connection without activity is closed, rounded up
+	 *                    to a tick of 100 ms.
+	 */
+	public IdleMonitor(long idleTimeout) {
+		long ticks = (TimeUnit.MILLISECONDS.toNanos(idleTimeout) + TICK_NANOS - 1) / TICK_NANOS;
+		timeoutTicks = Math.max(ticks, 1);
+		wheel = new TimingWheel(WHEEL_SIZE);
+		newWatches = new ConcurrentLinkedQueue<>();
+		closedCount = new LongAdder();
+		thread = new Thread(this::run, "idle-connection-monitor");
+		thread.setDaemon(true);
+	}
+
+	/**
+	 * Starts watching the connections.
+	 */
+	public void start() {
+		isRunning = true;
+		thread.start();
+	}
+
+	/**
+	 * Stops watching the connections. No connection is closed afterwards.
+	 */
+	public void stop() {
+		isRunning = false;
+		LockSupport.unpark(thread);
+	}
+
+	/**
+	 * Starts watching a connection. This method is thread-safe.
+	 *
+	 * @param connection the connection to close when it is idle.
+	 * @return the watch, to be touched on every activity of the connection and cancelled when it is closed.
+	 */
+	public Watch watch(Closeable connection) {
+		Watch watch = new Watch(connection);
+		newWatches.add(watch);
+		return watch;
+	}
+
+	/**
+	 * Returns the count of connections closed as idle since the last call.
+	 *
+	 * @return the count of closed connections.
+	 */
+	public long takeClosedCount() {
+		return closedCount.sumThenReset();
+	}
+
+	private void run() {
+		long start = System.nanoTime();
+		while (isRunning) {
+			LockSupport.parkNanos(start + (wheel.getTick() + 1) * TICK_NANOS - System.nanoTime());
+			long tick = (System.nanoTime() - start) / TICK_NANOS;
+			while (isRunning && wheel.getTick() < tick) {
+				advance();
+			}
+		}
+	}
+
+	/**
+	 * Moves the wheel on by one tick. Called by the thread of the monitor; visible to the tests to drive the wheel
+	 * without waiting.
+	 */
+	void advance() {
+		Watch watch;
+		while ((watch = newWatches.poll()) != null) {
+			schedule(watch);
+		}
+		wheel.advance(this::expire);
+		currentTick = wheel.getTick();
+	}
+
+	private void schedule(Watch watch) {
+		if (!watch.isCancelled) {
+			wheel.schedule(watch, Math.max(watch.lastActivity, wheel.getTick()) + timeoutTicks);
+		}
+	}
+
+	private void expire(TimingWheel.Timeout timeout) {
+		Watch watch = (Watch) timeout;
+		if (watch.isCancelled) {
+			return;
+		}
+		if (watch.lastActivity + timeoutTicks > wheel.getTick()) {
+			schedule(watch);
+			return;
+		}
+		watch.isCancelled = true;
+		closedCount.increment();
+		try {
+			watch.connection.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * The watch of one connection, scheduled in the wheel.
+	 */
+	final class Watch extends TimingWheel.Timeout {
+
+		private final Closeable connection;
+		private volatile long lastActivity;
+		private volatile boolean isCancelled;
+
+		private Watch(Closeable connection) {
+			this.connection = connection;
+			lastActivity = currentTick;
+		}
+
+		/**
+		 * Records an activity of the connection. Called by the thread reading the connection; writes to the watch
+		 * only once per tick.
+		 */
+		void touch() {
+			long tick = currentTick;
+			if (lastActivity != tick) {
+				lastActivity = tick;
+			}
+		}
+
+		/**
+		 * Stops watching the connection, e.g. when it is closed by the client. The watch is dropped by the wheel when
+		 * it expires next time.
+		 */
+		void cancel() {
+			isCancelled = true;
+		}
+	}
+}
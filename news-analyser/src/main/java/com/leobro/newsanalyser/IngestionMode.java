@@ -0,0 +1,17 @@
+package com.leobro.newsanalyser;
+
+/**
+ * The way the {@link NewsAnalyserServer} serves connections from news feeds.
+ */
+enum IngestionMode {
+
+	/**
+	 * Every connection is served by its own {@link NewsReceiver} thread blocking on the socket input.
+	 */
+	BLOCKING,
+
+	/**
+	 * All connections are served by a small number of {@link NewsEventLoop} threads with non-blocking channels.
+	 */
+	SELECTOR
+}
@@ -0,0 +1,217 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.PriorityPeek;
+import com.leobro.newscodec.WireFormat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Separates reading the connections from analysing the news messages. The receivers, whatever their threads, only
+ * copy the received frames into a preallocated {@link FrameRing}; a pool of analysis workers takes the frames out in
+ * batches, each worker with its own {@link Analyser}, and passes the positive news to the {@link Reporter}. So a slow
+ * analysis does not hold up reading the sockets until the buffer is full, and the count of receivers and of workers
+ * can be sized separately.
+ * <p>When the buffer is full, a receiver waits for room by the configured {@link WaitStrategy} and so stops reading
+ * its connection, which lets TCP slow the feed down. Every such wait is counted as a sign of backpressure and reported
+ * with the count of queued frames in the periodic report.
+ * <p>With a {@link LoadShedder}, a receiver reads the priority of a frame before putting it into the buffer and drops
+ * the frame if the shedder tells so at the current fill of the buffer. The count of dropped frames is reported with
+ * the digest.
+ * <p>The class is thread-safe.
+ */
+class IngestionPipeline implements NewsSink {
+
+	private final FrameRing ring;
+	private final WaitStrategy waitStrategy;
+	private final LoadShedder shedder;
+	private final List<Worker> workers;
+	private final LongAdder fullCount;
+	private volatile boolean isRunning;
+
+	/**
+	 * Creates a new instance of the {@link IngestionPipeline} class. The workers are not started until
+	 * {@link #start()} is called.
+	 *
+	 * @param capacity     the count of frames the buffer holds, rounded up to a power of two,
+	 * @param workerCount  the count of analysis workers,
+	 * @param batchSize    the maximal count of frames a worker takes out at once,
+	 * @param waitStrategy the way the receivers and the workers wait,
+	 * @param reporter     an instance of the {@link Reporter} class to collect and then report news messages,
+	 * @param classifier   the classifier of the headlines.
+	 */
+	public IngestionPipeline(int capacity, int workerCount, int batchSize, WaitStrategy waitStrategy,
+							 Reporter reporter, HeadlineClassifier classifier) {
+		this(capacity, workerCount, batchSize, waitStrategy, null, reporter, classifier);
+	}
+
+	/**
+	 * Creates a new instance of the {@link IngestionPipeline} class dropping the frames of low priority under
+	 * overload. The workers are not started until {@link #start()} is called.
+	 *
+	 * @param capacity     the count of frames the buffer holds, rounded up to a power of two,
+	 * @param workerCount  the count of analysis workers,
+	 * @param batchSize    the maximal count of frames a worker takes out at once,
+	 * @param waitStrategy the way the receivers and the workers wait,
+	 * @param shedder      the judge of the frames to drop, or {@code null} to analyse all frames,
+	 * @param reporter     an instance of the {@link Reporter} class to collect and then report news messages,
+	 * @param classifier   the classifier of the headlines.
+	 */
+	public IngestionPipeline(int capacity, int workerCount, int batchSize, WaitStrategy waitStrategy,
+							 LoadShedder shedder, Reporter reporter, HeadlineClassifier classifier) {
+		ring = new FrameRing(capacity);
+		this.waitStrategy = waitStrategy;
+		this.shedder = shedder;
+		fullCount = new LongAdder();
+		workers = new ArrayList<>();
+		for (int i = 0; i < workerCount; i++) {
+			workers.add(new Worker("news-analysis-" + i, new Analyser(reporter, classifier), Math.max(batchSize, 1)));
+		}
+	}
+
+	/**
+	 * Starts the analysis workers.
+	 */
+	public void start() {
+		isRunning = true;
+		workers.forEach(Thread::start);
+	}
+
+	/**
+	 * Stops the analysis workers after their current batches. The frames still in the buffer are not analysed.
+	 */
+	public void stop() {
+		isRunning = false;
+	}
+
+	/**
+	 * Puts a line of text into the buffer, waiting for room if the buffer is full, unless the line is dropped.
+	 *
+	 * @param inputLine the news message in JSON format.
+	 */
+	@Override
+	public void analyse(CharSequence inputLine) {
+		if (shedder != null && isShed(PriorityPeek.peek(inputLine))) {
+			return;
+		}
+		long position = claim();
+		ring.get(position).set(inputLine);
+		ring.publish(position);
+	}
+
+	/**
+	 * Copies a frame into the buffer, waiting for room if the buffer is full, unless the frame is dropped.
+	 *
+	 * @param format the format of the frame,
+	 * @param bytes  the array containing the frame,
+	 * @param offset the start of the frame in the array,
+	 * @param length the length of the frame.
+	 */
+	@Override
+	public void analyse(WireFormat format, byte[] bytes, int offset, int length) {
+		if (shedder != null && isShed(PriorityPeek.peek(format, bytes, offset, length))) {
+			return;
+		}
+		long position = claim();
+		ring.get(position).set(format, bytes, offset, length);
+		ring.publish(position);
+	}
+
+	private boolean isShed(int priority) {
+		return shedder.shed(priority, ring.getQueued(), ring.getCapacity());
+	}
+
+	private long claim() {
+		long position = ring.tryClaim();
+		if (position < 0) {
+			fullCount.increment();
+			do {
+				waitStrategy.idle();
+			} while ((position = ring.tryClaim()) < 0);
+		}
+		return position;
+	}
+
+	/**
+	 * Returns the count of frames in the buffer waiting for the workers.
+	 *
+	 * @return the approximate count of queued frames.
+	 */
+	public long getQueued() {
+		return ring.getQueued();
+	}
+
+	/**
+	 * Returns the count of frames the buffer holds.
+	 *
+	 * @return the capacity.
+	 */
+	public int getCapacity() {
+		return ring.getCapacity();
+	}
+
+	/**
+	 * Returns how many times a receiver found the buffer full since the last call and had to wait.
+	 *
+	 * @return the count of waits.
+	 */
+	public long takeFullCount() {
+		return fullCount.sumThenReset();
+	}
+
+	/**
+	 * Returns the count of frames dropped under overload since the last call.
+	 *
+	 * @return the count of dropped frames, 0 if the pipeline does not drop frames.
+	 */
+	public long takeShedCount() {
+		return (shedder != null) ? shedder.takeShedCount() : 0;
+	}
+
+	/**
+	 * The thread taking the frames out of the buffer in batches and analysing them.
+	 */
+	private class Worker extends Thread {
+
+		private final Analyser analyser;
+		private final int batchSize;
+		private final FrameRing.Batch batch;
+
+		Worker(String name, Analyser analyser, int batchSize) {
+			super(name);
+			this.analyser = analyser;
+			this.batchSize = batchSize;
+			batch = new FrameRing.Batch();
+		}
+
+		@Override
+		public void run() {
+			while (isRunning) {
+				if (!ring.tryClaim(batch, batchSize)) {
+					waitStrategy.idle();
+					continue;
+				}
+				for (long position = batch.start; position < batch.start + batch.count; position++) {
+					analyse(ring.get(position));
+				}
+				ring.release(batch);
+			}
+		}
+
+		private void analyse(FrameRing.Slot slot) {
+			try {
+				String line = slot.line;
+				if (line != null) {
+					slot.line = null;
+					analyser.analyse(line);
+				} else {
+					analyser.analyse(slot.format, slot.bytes, 0, slot.length);
+				}
+			} catch (RuntimeException e) {
+				// one malformed message must not stop the worker
+				e.printStackTrace();
+			}
+		}
+	}
+}
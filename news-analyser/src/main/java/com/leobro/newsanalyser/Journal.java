@@ -0,0 +1,256 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.EpochClock;
+import com.leobro.newscodec.Utf8;
+import com.leobro.newscodec.WireFormat;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only journal of the frames received from the feeds, for the replay and the recovery. Every frame is written
+ * as it came, with the time of arrival and the ID of the connection, into a memory-mapped segment file, so appending
+ * a frame is copying its bytes into the page cache, without a system call.
+ * <p>A segment file starts with the magic bytes {@code NWSJ} and the version, followed by the records: the length of
+ * the record, the arrival time in microseconds since the epoch, the connection ID, the code of the {@link WireFormat}
+ * and the bytes of the frame. The length 0 marks the end of the records, as the rest of the file is zeros. A new
+ * segment is started when the record does not fit into the current one or the segment is older than the roll
+ * interval. The segments are numbered in the order they are written, continuing the numbers found in the directory.
+ * <p>The records are forced to the disk as set by the {@link JournalDurability}; the hot path never forces them
+ * unless every batch is to be forced. The lines received as text are journaled in UTF-8 whatever their original
+ * format, encoded straight into the segment.
+ * <p>A record which does not fit even into an empty segment is not journaled. If a segment cannot be created,
+ * the journal prints the error and stops writing, while the analysis goes on.
+ * <p>The class is thread-safe.
+ */
+class Journal {
+
+	static final byte[] MAGIC = {'N', 'W', 'S', 'J'};
+	static final int VERSION = 1;
+	static final int FILE_HEADER_SIZE = MAGIC.length + Integer.BYTES;
+	static final int RECORD_HEADER_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES + 1;
+	static final String SEGMENT_SUFFIX = ".journal";
+
+	static final String SEGMENT_PREFIX = "news-";
+
+	private final Path directory;
+	private final int segmentSize;
+	private final long rollIntervalNanos;
+	private final JournalDurability durability;
+	private final long forceIntervalNanos;
+	private final AtomicInteger connectionIds;
+	private final Thread forceThread;
+	private volatile MappedByteBuffer segment;
+	private long segmentStart;
+	private int segmentNumber;
+	private volatile boolean isOpen;
+
+	/**
+	 * Creates a new instance of the {@link Journal} class and its first segment.
+	 *
+	 * @param directory          the directory of the segment files, created if missing,
+	 * @param segmentSize        the size of a segment file in bytes,
+	 * @param rollInterval       the time in milliseconds after which a new segment is started, 0 to start one only
+	 *                           when the current one is full,
+	 * @param durability         when the records are forced to the disk,
+	 * @param forceInterval      the interval of forcing in milliseconds with the {@link JournalDurability#PERIODIC}
+	 *                           durability.
+	 * @throws IOException if the directory or the segment file cannot be created.
+	 */
+	public Journal(Path directory, int segmentSize, long rollInterval, JournalDurability durability,
+				   long forceInterval) throws IOException {
+		this.directory = directory;
+		this.segmentSize = Math.max(segmentSize, FILE_HEADER_SIZE + RECORD_HEADER_SIZE + Integer.BYTES);
+		rollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(rollInterval);
+		this.durability = durability;
+		forceIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(forceInterval, 1));
+		connectionIds = new AtomicInteger();
+
+		Files.createDirectories(directory);
+		segmentNumber = findLastSegmentNumber();
+		startSegment();
+		isOpen = true;
+
+		if (durability == JournalDurability.PERIODIC) {
+			forceThread = new Thread(this::forcePeriodically, "journal-force");
+			forceThread.setDaemon(true);
+			forceThread.start();
+		} else {
+			forceThread = null;
+		}
+	}
+
+	/**
+	 * Returns the ID for a new connection, unique within the run of the analyser.
+	 *
+	 * @return the connection ID.
+	 */
+	public int newConnectionId() {
+		return connectionIds.incrementAndGet();
+	}
+
+	/**
+	 * Appends a frame received from a connection.
+	 *
+	 * @param connectionId the ID of the connection,
+	 * @param format       the format of the frame,
+	 * @param bytes        the array containing the frame,
+	 * @param offset       the start of the frame in the array,
+	 * @param length       the length of the frame.
+	 */
+	public void append(int connectionId, WireFormat format, byte[] bytes, int offset, int length) {
+		int recordLength = RECORD_HEADER_SIZE + length;
+		if (!fits(recordLength)) {
+			return;
+		}
+
+		synchronized (this) {
+			MappedByteBuffer buffer = startRecord(connectionId, format, recordLength);
+			if (buffer != null) {
+				buffer.put(bytes, offset, length);
+			}
+		}
+	}
+
+	/**
+	 * Appends a line received from a connection, in UTF-8.
+	 *
+	 * @param connectionId the ID of the connection,
+	 * @param line         the line without the line terminator.
+	 */
+	public void append(int connectionId, CharSequence line) {
+		int recordLength = RECORD_HEADER_SIZE + Utf8.encodedLength(line);
+		if (!fits(recordLength)) {
+			return;
+		}
+
+		synchronized (this) {
+			MappedByteBuffer buffer = startRecord(connectionId, WireFormat.UTF8_LINES, recordLength);
+			if (buffer != null) {
+				for (int i = 0; i < line.length(); ) {
+					i += Utf8.encode(line, i, buffer);
+				}
+			}
+		}
+	}
+
+	private boolean fits(int recordLength) {
+		return recordLength + Integer.BYTES <= segmentSize - FILE_HEADER_SIZE;
+	}
+
+	/**
+	 * Writes the header of a record, to be followed by the bytes of the frame. Called under the lock.
+	 *
+	 * @return the segment to write the frame to, or {@code null} if the journal is closed.
+	 */
+	private MappedByteBuffer startRecord(int connectionId, WireFormat format, int recordLength) {
+		if (!isOpen || !makeRoom(recordLength)) {
+			return null;
+		}
+		MappedByteBuffer buffer = segment;
+		// taken under the lock, so the records of the connections follow each other in the order of time
+		buffer.putInt(recordLength)
+				.putLong(EpochClock.currentTimeMicros())
+				.putInt(connectionId)
+				.put(format.getCode());
+		return buffer;
+	}
+
+	/**
+	 * Marks the end of a batch of frames read from a connection. Forces the records to the disk with
+	 * the {@link JournalDurability#BATCH} durability.
+	 */
+	public void endBatch() {
+		if (durability == JournalDurability.BATCH) {
+			force();
+		}
+	}
+
+	/**
+	 * Forces the records to the disk and stops journaling. The records appended afterwards are dropped.
+	 */
+	public void close() {
+		synchronized (this) {
+			isOpen = false;
+		}
+		if (forceThread != null) {
+			LockSupport.unpark(forceThread);
+		}
+		if (durability != JournalDurability.NONE) {
+			force();
+		}
+	}
+
+	private void force() {
+		MappedByteBuffer buffer = segment;
+		if (buffer != null) {
+			buffer.force();
+		}
+	}
+
+	private void forcePeriodically() {
+		while (isOpen) {
+			LockSupport.parkNanos(forceIntervalNanos);
+			force();
+		}
+	}
+
+	/**
+	 * Starts a new segment if the record does not fit into the current one or the current one is too old.
+	 */
+	private boolean makeRoom(int recordLength) {
+		boolean isExpired = rollIntervalNanos > 0 && System.nanoTime() - segmentStart >= rollIntervalNanos;
+		// the length 0 after the last record marks the end, so it must fit as well
+		if (!isExpired && segment.remaining() >= recordLength + Integer.BYTES) {
+			return true;
+		}
+		if (durability != JournalDurability.NONE) {
+			segment.force();
+		}
+		try {
+			startSegment();
+			return true;
+		} catch (IOException e) {
+			e.printStackTrace();
+			isOpen = false;
+			return false;
+		}
+	}
+
+	private void startSegment() throws IOException {
+		segmentNumber++;
+		Path file = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+			buffer.put(MAGIC).putInt(VERSION);
+			segment = buffer;
+		}
+		segmentStart = System.nanoTime();
+	}
+
+	private int findLastSegmentNumber() throws IOException {
+		int last = 0;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+				SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				try {
+					last = Math.max(last, Integer.parseInt(
+							name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+				} catch (NumberFormatException e) {
+					// not a segment of the journal
+				}
+			}
+		}
+		return last;
+	}
+}
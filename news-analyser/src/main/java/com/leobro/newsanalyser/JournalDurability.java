@@ -0,0 +1,24 @@
+package com.leobro.newsanalyser;
+
+/**
+ * When the {@link Journal} forces the written records from the page cache to the disk. Until then, the records
+ * survive a crash of the analyser, which leaves the page cache to the operating system, but not a crash of the machine.
+ */
+enum JournalDurability {
+
+	/**
+	 * Never forces the records; the operating system writes them back when it decides to.
+	 */
+	NONE,
+
+	/**
+	 * Forces the records in the background at a fixed interval, so a crash of the machine loses at most
+	 * the records of the last interval.
+	 */
+	PERIODIC,
+
+	/**
+	 * Forces the records after every batch of frames read from a connection, before the receiver reads again.
+	 */
+	BATCH
+}
@@ -0,0 +1,133 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.WireFormat;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the records written by the {@link Journal}: the segment files of a journal directory in the order they were
+ * written, or a single segment file. A segment is read up to the end mark or up to the first record which is cut off,
+ * as it may be after a crash of the machine.
+ */
+class JournalReader {
+
+	/**
+	 * Takes the records of the journal.
+	 */
+	interface RecordHandler {
+
+		/**
+		 * Takes one record. The bytes may be overwritten as soon as the method returns.
+		 *
+		 * @param arrivalTime  the time the frame arrived at in microseconds since the epoch,
+		 * @param connectionId the ID of the connection the frame came from,
+		 * @param format       the format of the frame,
+		 * @param bytes        the array containing the frame,
+		 * @param offset       the start of the frame in the array,
+		 * @param length       the length of the frame.
+		 */
+		void onRecord(long arrivalTime, int connectionId, WireFormat format, byte[] bytes, int offset, int length);
+	}
+
+	private final List<Path> segments;
+	private byte[] frame = new byte[256];
+
+	/**
+	 * Creates a new instance of the {@link JournalReader} class.
+	 *
+	 * @param path a journal directory or a segment file.
+	 * @throws IOException if the directory cannot be listed.
+	 */
+	public JournalReader(Path path) throws IOException {
+		segments = new ArrayList<>();
+		if (Files.isDirectory(path)) {
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(path,
+					Journal.SEGMENT_PREFIX + "*" + Journal.SEGMENT_SUFFIX)) {
+				files.forEach(segments::add);
+			}
+			// the numbers of the segments are zero-padded
+			Collections.sort(segments);
+		} else {
+			segments.add(path);
+		}
+	}
+
+	/**
+	 * Tells if the file is a segment of a journal.
+	 *
+	 * @param file the file.
+	 * @return {@code true} if the file starts with the magic bytes of the journal.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public static boolean isSegment(Path file) throws IOException {
+		if (Files.size(file) < Journal.FILE_HEADER_SIZE) {
+			return false;
+		}
+		byte[] magic = new byte[Journal.MAGIC.length];
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			channel.map(FileChannel.MapMode.READ_ONLY, 0, magic.length).get(magic);
+		}
+		return Arrays.equals(magic, Journal.MAGIC);
+	}
+
+	/**
+	 * Reads all records of the journal in the order they were written.
+	 *
+	 * @param handler the handler of the records.
+	 * @throws IOException if a segment cannot be read or is not a segment of a journal of a known version.
+	 */
+	public void read(RecordHandler handler) throws IOException {
+		for (Path segment : segments) {
+			read(segment, handler);
+		}
+	}
+
+	private void read(Path file, RecordHandler handler) throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (!isSegmentHeader(buffer)) {
+			throw new IOException("Not a journal segment of version " + Journal.VERSION + ": " + file);
+		}
+
+		while (buffer.remaining() >= Journal.RECORD_HEADER_SIZE) {
+			int recordLength = buffer.getInt();
+			if (recordLength < Journal.RECORD_HEADER_SIZE
+					|| recordLength - Integer.BYTES > buffer.remaining()) {
+				// the end mark or a record cut off
+				return;
+			}
+			long arrivalTime = buffer.getLong();
+			int connectionId = buffer.getInt();
+			WireFormat format = WireFormat.fromCode(buffer.get());
+			int length = recordLength - Journal.RECORD_HEADER_SIZE;
+			if (length > frame.length) {
+				frame = new byte[Math.max(length, frame.length * 2)];
+			}
+			buffer.get(frame, 0, length);
+			if (format != null) {
+				handler.onRecord(arrivalTime, connectionId, format, frame, 0, length);
+			}
+		}
+	}
+
+	private static boolean isSegmentHeader(MappedByteBuffer buffer) {
+		if (buffer.remaining() < Journal.FILE_HEADER_SIZE) {
+			return false;
+		}
+		byte[] magic = new byte[Journal.MAGIC.length];
+		buffer.get(magic);
+		return Arrays.equals(magic, Journal.MAGIC) && buffer.getInt() == Journal.VERSION;
+	}
+}
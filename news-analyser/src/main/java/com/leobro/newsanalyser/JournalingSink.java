@@ -0,0 +1,44 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.WireFormat;
+
+/**
+ * Writes the news messages of one connection to the {@link Journal} before passing them on to the sink which
+ * analyses them.
+ */
+class JournalingSink implements NewsSink {
+
+	private final Journal journal;
+	private final int connectionId;
+	private final NewsSink sink;
+
+	/**
+	 * Creates a new instance of the {@link JournalingSink} class for a new connection.
+	 *
+	 * @param journal the journal,
+	 * @param sink    the receiver of the news messages of the connection.
+	 */
+	public JournalingSink(Journal journal, NewsSink sink) {
+		this.journal = journal;
+		connectionId = journal.newConnectionId();
+		this.sink = sink;
+	}
+
+	@Override
+	public void analyse(CharSequence inputLine) {
+		journal.append(connectionId, inputLine);
+		sink.analyse(inputLine);
+	}
+
+	@Override
+	public void analyse(WireFormat format, byte[] bytes, int offset, int length) {
+		journal.append(connectionId, format, bytes, offset, length);
+		sink.analyse(format, bytes, offset, length);
+	}
+
+	@Override
+	public void endBatch() {
+		journal.endBatch();
+		sink.endBatch();
+	}
+}
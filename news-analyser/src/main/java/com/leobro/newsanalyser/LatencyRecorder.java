@@ -0,0 +1,48 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.EpochClock;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Records the end-to-end latency of the news messages, from the time the feed sent (or, under load, was to send)
+ * a message till the time the message is decoded here, into a high-resolution histogram. The receiver threads record
+ * without locking; the report thread takes away the histogram of the reporting period and a fresh one is started.
+ * <p>The class is thread-safe for the recording threads; {@link #drain()} is called by one thread only.
+ */
+class LatencyRecorder {
+
+	private static final int SIGNIFICANT_DIGITS = 3;
+
+	private final Recorder recorder;
+	private Histogram interval;
+
+	/**
+	 * Creates a new instance of the {@link LatencyRecorder} class.
+	 */
+	public LatencyRecorder() {
+		recorder = new Recorder(SIGNIFICANT_DIGITS);
+	}
+
+	/**
+	 * Records the latency of a news message. A message seemingly received before it was sent, because of
+	 * the inaccuracy of the clocks, is recorded with zero latency.
+	 *
+	 * @param sentAt the time the message was sent at in microseconds since the epoch.
+	 */
+	public void record(long sentAt) {
+		long latency = EpochClock.currentTimeMicros() - sentAt;
+		recorder.recordValue(Math.max(latency, 0));
+	}
+
+	/**
+	 * Returns the latency recorded since the last call and starts recording anew. The returned histogram is reused
+	 * by the next call.
+	 *
+	 * @return the histogram of the latency in microseconds.
+	 */
+	public Histogram drain() {
+		interval = recorder.getIntervalHistogram(interval);
+		return interval;
+	}
+}
@@ -0,0 +1,75 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.PriorityPeek;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which news messages to drop when the analysis does not keep up, judging a message only by its priority read
+ * with {@link PriorityPeek}. Nothing is dropped while the buffer of the {@link IngestionPipeline} is filled less than
+ * the configured share; above it, the threshold priority rises in proportion to the fill up to the protected
+ * priority at a full buffer, and the messages with a lower priority are dropped. So the lowest priorities are given
+ * up first, and the messages with the protected priority or higher, as well as those with the priority not found,
+ * are always analysed and can reach the most important news of the report.
+ * <p>The dropped messages are counted, to be reported with the digest they would have gone to.
+ * <p>The class is thread-safe.
+ */
+class LoadShedder {
+
+	private final double startFill;
+	private final int protectedPriority;
+	private final LongAdder shedCount;
+
+	/**
+	 * Creates a new instance of the {@link LoadShedder} class.
+	 *
+	 * @param startFill         the share of the buffer, from 0 to 1, filled at which the dropping starts,
+	 * @param protectedPriority the lowest priority which is never dropped.
+	 */
+	public LoadShedder(double startFill, int protectedPriority) {
+		this.startFill = Math.min(Math.max(startFill, 0), 1);
+		this.protectedPriority = Math.max(protectedPriority, 0);
+		shedCount = new LongAdder();
+	}
+
+	/**
+	 * Returns the priority below which the messages are dropped at the given fill of the buffer.
+	 *
+	 * @param queued   the count of messages waiting in the buffer,
+	 * @param capacity the count of messages the buffer holds.
+	 * @return the threshold priority, 0 if nothing is dropped.
+	 */
+	int getThreshold(long queued, int capacity) {
+		double fill = (double) queued / capacity;
+		if (fill <= startFill || startFill == 1) {
+			return 0;
+		}
+		double overload = (fill - startFill) / (1 - startFill);
+		return (int) Math.min(Math.ceil(overload * protectedPriority), protectedPriority);
+	}
+
+	/**
+	 * Tells if a message is to be dropped at the given fill of the buffer, and counts it if so.
+	 *
+	 * @param priority the priority of the message, or {@link PriorityPeek#UNKNOWN},
+	 * @param queued   the count of messages waiting in the buffer,
+	 * @param capacity the count of messages the buffer holds.
+	 * @return {@code true} if the message is to be dropped.
+	 */
+	public boolean shed(int priority, long queued, int capacity) {
+		if (priority == PriorityPeek.UNKNOWN || priority >= getThreshold(queued, capacity)) {
+			return false;
+		}
+		shedCount.increment();
+		return true;
+	}
+
+	/**
+	 * Returns the count of messages dropped since the last call.
+	 *
+	 * @return the count of dropped messages.
+	 */
+	public long takeShedCount() {
+		return shedCount.sumThenReset();
+	}
+}
@@ -1,53 +1,243 @@
 package com.leobro.newsanalyser;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
 import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * TCP server. Opens TCP socket on the configured port and waits for the news feed client to connect.
  * When the connection with the news feed is obtained, creates a {@link NewsReceiver} in a separate thread
- * to receive messages from the client. Can maintain any number of simultaneous connections.
+ * to receive messages from the client. Can maintain any number of simultaneous connections. The receiver threads
+ * are platform threads by default; on Java 21 or newer they can be configured to be virtual threads, which allows
+ * to serve tens of thousands of mostly idle connections.
+ * <p>In the {@link IngestionMode#SELECTOR} mode, the connections are not given their own threads but are distributed
+ * in turn among the configured number of {@link NewsEventLoop} threads.
+ * <p>The rate of the news messages from every feed can be limited (see {@link FeedRateLimits}).
+ * <p>By default, the messages of a connection are analysed in the thread reading it. With analysis workers configured,
+ * the reading threads only put the messages into the {@link IngestionPipeline} and the workers analyse them; under
+ * overload, the pipeline can drop the messages of low priority (see {@link LoadShedder}).
+ * <p>The messages are reported by the time they arrive at or, if configured, by the time the feeds created them at
+ * (see {@link EventTimeWindows}).
+ * <p>With a journal directory configured, every received frame is written to the {@link Journal} before it is
+ * analysed.
  */
 class NewsAnalyserServer {
 
-	private final ServerSocket serverSocket;
+	private final int port;
+	private final IngestionMode ingestionMode;
+	private final int eventLoopThreads;
+	private final int eventLoopReadBudget;
+	private final FeedRateLimits limits;
+	private final ThreadFactory receiverThreadFactory;
 	private final Reporter reporter;
+	private final HeadlineClassifier classifier;
+	private final IngestionPipeline pipeline;
+	private final IdleMonitor idleMonitor;
+	private final Journal journal;
 
 	/**
 	 * Creates a new instance of the server.
 	 *
-	 * @throws IOException              if an I/O error occurs when opening the socket.
-	 * @throws SecurityException        if a security manager exists and its checkListen method doesn't allow the operation.
-	 * @throws IllegalArgumentException if the port parameter is outside the specified range of valid port values,
-	 *                                  which is between 0 and 65535, inclusive.
+	 * @throws UnsupportedOperationException if virtual receiver threads are configured and the running JVM
+	 *                                       does not support them.
+	 * @throws UncheckedIOException          if the journal is configured and cannot be created.
 	 */
-	public NewsAnalyserServer() throws IOException {
-		Configuration config = new Configuration();
-		serverSocket = new ServerSocket(config.getServerPort());
-		reporter = new Reporter(config.getReportingPeriod(), config.getNewsLimit(), config.getPositiveWords());
+	public NewsAnalyserServer() {
+		this(new Configuration());
+	}
+
+	private NewsAnalyserServer(Configuration config) {
+		this(config, new Reporter(config.getReportingPeriod(), config.getWindowLength(), config.getHorizons(),
+				config.getNewsLimit(), config.getPositiveWords()));
+	}
+
+	NewsAnalyserServer(Configuration config, Reporter reporter) {
+		port = config.getServerPort();
+		ingestionMode = config.getIngestionMode();
+		eventLoopThreads = config.getEventLoopThreads();
+		eventLoopReadBudget = config.getEventLoopReadBudget();
+		limits = config.getFeedRateLimits();
+		receiverThreadFactory = config.getReceiverThreads().createFactory();
+		this.reporter = reporter;
+		configureWindows(config, reporter);
+		classifier = createClassifier(config, reporter);
+		if (config.getWindowStoreCapacity() > 0) {
+			reporter.retain(new WindowStore(config.getWindowStoreCapacity(), classifier));
+		}
+		pipeline = createPipeline(config);
+		idleMonitor = createIdleMonitor(config);
+		journal = createJournal(config);
+	}
+
+	private static Journal createJournal(Configuration config) {
+		if (config.getJournalDirectory().isEmpty()) {
+			return null;
+		}
+		try {
+			return new Journal(Paths.get(config.getJournalDirectory()), config.getJournalSegmentSize(),
+					config.getJournalRollInterval(), config.getJournalDurability(), config.getJournalForceInterval());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Sets the reporter to assign the messages to the reporting periods by the configured time. By the event time,
+	 * a run of empty periods longer than the window and the longest horizon together is skipped at once, as closing
+	 * them one by one would only empty the reports.
+	 *
+	 * @param config   the configuration,
+	 * @param reporter the reporter.
+	 */
+	static void configureWindows(Configuration config, Reporter reporter) {
+		if (config.getWindowTime() == WindowTime.EVENT) {
+			int period = config.getReportingPeriod();
+			int[] horizons = config.getHorizons();
+			int longestHorizon = (horizons.length > 0) ? horizons[horizons.length - 1] : 0;
+			int maxEmptyWindows = Math.max(config.getWindowLength() / period, 1) + longestHorizon / period;
+			reporter.windowByEventTime(new EventTimeWindows(period, config.getAllowedLateness(),
+					config.getClockTolerance(), config.getNewsLimit(), maxEmptyWindows));
+		}
 	}
 
 	/**
-	 * Starts listening to the connections from news feed TCP clients. Creates a {@link NewsReceiver}
-	 * in a separate thread to receive messages from the client.
+	 * Creates the classifier of the headlines as configured, shared by all analysers.
 	 *
-	 * @throws IOException                  if an I/O error occurs when waiting for a connection.
-	 * @throws SecurityException            if a security manager exists and its checkAccept method doesn't allow the operation.
+	 * @param config   the configuration,
+	 * @param reporter the reporter to report the hits of the headline cache to.
+	 * @return the classifier.
+	 */
+	static HeadlineClassifier createClassifier(Configuration config, Reporter reporter) {
+		HeadlineClassifier classifier = createTextClassifier(config, reporter);
+		String[] headlineWords = config.getHeadlineWords();
+		if (headlineWords.length == 0) {
+			return classifier;
+		}
+		return new HeadlineVocabulary(headlineWords, config.getPositiveWords(), classifier);
+	}
+
+	private static HeadlineClassifier createTextClassifier(Configuration config, Reporter reporter) {
+		if (config.getHeadlineCacheSize() == 0) {
+			return new PositiveWordClassifier(config.getPositiveWords());
+		}
+		HeadlineCache cache = new HeadlineCache(config.getPositiveWords(), config.getHeadlineCacheSize());
+		reporter.monitor(cache);
+		return cache;
+	}
+
+	private IngestionPipeline createPipeline(Configuration config) {
+		if (config.getAnalysisWorkers() == 0) {
+			return null;
+		}
+		LoadShedder shedder = config.isLoadShedding()
+				? new LoadShedder(config.getSheddingStartFill(), config.getProtectedPriority())
+				: null;
+		IngestionPipeline pipeline = new IngestionPipeline(config.getIngestionBufferSize(),
+				config.getAnalysisWorkers(), config.getAnalysisBatchSize(), config.getWaitStrategy(), shedder,
+				reporter, classifier);
+		reporter.monitor(pipeline);
+		return pipeline;
+	}
+
+	private IdleMonitor createIdleMonitor(Configuration config) {
+		if (config.getIdleTimeout() == 0) {
+			return null;
+		}
+		IdleMonitor monitor = new IdleMonitor(config.getIdleTimeout());
+		reporter.monitor(monitor);
+		return monitor;
+	}
+
+	/**
+	 * Returns the receiver of the news messages of a new connection.
+	 *
+	 * @return the shared ingestion pipeline, if configured, or a new analyser for the connection, behind
+	 * a {@link JournalingSink} if the journal is configured.
+	 */
+	private NewsSink createSink() {
+		NewsSink sink = (pipeline != null) ? pipeline : new Analyser(reporter, classifier);
+		return (journal != null) ? new JournalingSink(journal, sink) : sink;
+	}
+
+	/**
+	 * Starts listening to the connections from news feed TCP clients in the configured ingestion mode.
+	 *
+	 * @throws IOException                  if an I/O error occurs when opening the socket or waiting for a connection.
+	 * @throws SecurityException            if a security manager exists and its checkListen or checkAccept method
+	 *                                      doesn't allow the operation.
+	 * @throws IllegalArgumentException     if the port parameter is outside the specified range of valid port values,
+	 *                                      which is between 0 and 65535, inclusive.
 	 * @throws SocketTimeoutException       if a timeout was previously set with setSoTimeout and the timeout has been reached.
 	 * @throws IllegalBlockingModeException if this socket has an associated channel, the channel is in non-blocking
 	 *                                      mode, and there is no connection ready to be accepted.
 	 */
 	public void listenForNews() throws IOException {
+		if (pipeline != null) {
+			pipeline.start();
+		}
+		if (idleMonitor != null) {
+			idleMonitor.start();
+		}
+		if (ingestionMode == IngestionMode.SELECTOR) {
+			listenWithEventLoops();
+		} else {
+			listenWithThreads();
+		}
+	}
+
+	/**
+	 * Creates a {@link NewsReceiver} in a separate thread for every connection to receive messages from the client.
+	 */
+	private void listenWithThreads() throws IOException {
+		listenWithThreads(new ServerSocket(port));
+	}
+
+	void listenWithThreads(ServerSocket serverSocket) throws IOException {
 		while (true) {
 			Socket clientSocket = serverSocket.accept();
 			if (clientSocket == null) {
 				break;
 			}
-			NewsReceiver receiver = new NewsReceiver(clientSocket, reporter);
-			receiver.start();
+			NewsReceiver receiver = new NewsReceiver(clientSocket, createSink(), limits, idleMonitor);
+			receiverThreadFactory.newThread(receiver).start();
+		}
+	}
+
+	/**
+	 * Accepts connections in the blocking mode and hands them over to the {@link NewsEventLoop}s in turn.
+	 */
+	private void listenWithEventLoops() throws IOException {
+		ServerSocketChannel serverChannel = ServerSocketChannel.open();
+		serverChannel.bind(new InetSocketAddress(port));
+		NewsEventLoop[] loops = startEventLoops();
+		int next = 0;
+
+		while (true) {
+			SocketChannel clientChannel = serverChannel.accept();
+			if (clientChannel == null) {
+				break;
+			}
+			loops[next].addChannel(clientChannel);
+			next = (next + 1) % loops.length;
+		}
+	}
+
+	private NewsEventLoop[] startEventLoops() throws IOException {
+		NewsEventLoop[] loops = new NewsEventLoop[eventLoopThreads];
+
+		for (int i = 0; i < loops.length; i++) {
+			loops[i] = new NewsEventLoop("news-event-loop-" + i, this::createSink, limits, eventLoopReadBudget,
+					idleMonitor);
+			loops[i].start();
 		}
+		return loops;
 	}
 }
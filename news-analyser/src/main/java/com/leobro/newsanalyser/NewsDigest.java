@@ -0,0 +1,152 @@
+package com.leobro.newsanalyser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The running summary of positive news messages: their total count and the limited number of the most important
+ * ones. Messages are folded in as they arrive, so the memory and the time to report do not depend on the number of
+ * messages.
+ * <p>A headline appears in the summary only once, with the highest priority it was received with. The headlines
+ * packed by the {@link HeadlineVocabulary} are compared by their keys instead of the text. Of the messages
+ * with the same priority, the one received earlier is more important. Every message is added with its sequence
+ * number, which tells the order of receiving.
+ * <p>The most important messages are kept in an array sorted by importance. With the few messages shown in a report,
+ * scanning the array is cheaper than maintaining a heap and a map of headlines; most messages are rejected after one
+ * comparison with the least important kept message.
+ * <p>The messages dropped unread under overload are counted separately, as they may or may not have been positive.
+ * <p>The class is not thread-safe.
+ */
+class NewsDigest {
+
+	private final int limit;
+	private final NewsMessage[] top;
+	private final long[] sequences;
+	private int size;
+	private long count;
+	private long shedCount;
+
+	/**
+	 * Creates a new instance of the {@link NewsDigest} class.
+	 *
+	 * @param limit the maximal count of the most important news messages to keep.
+	 */
+	public NewsDigest(int limit) {
+		this.limit = Math.max(limit, 0);
+		top = new NewsMessage[this.limit];
+		sequences = new long[this.limit];
+	}
+
+	/**
+	 * Adds a positive news message.
+	 *
+	 * @param message  the news message,
+	 * @param sequence the number telling the order of receiving; a smaller number means an earlier message.
+	 */
+	public void add(NewsMessage message, long sequence) {
+		count++;
+		offer(message, sequence);
+	}
+
+	/**
+	 * Adds all messages summarised in another digest.
+	 *
+	 * @param other the digest to add.
+	 */
+	public void addAll(NewsDigest other) {
+		count += other.count;
+		shedCount += other.shedCount;
+		for (int i = 0; i < other.size; i++) {
+			offer(other.top[i], other.sequences[i]);
+		}
+	}
+
+	/**
+	 * Returns the count of all added messages.
+	 *
+	 * @return the count of positive news messages.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Adds the count of messages dropped without analysis under overload.
+	 *
+	 * @param count the count of dropped messages.
+	 */
+	public void addShed(long count) {
+		shedCount += count;
+	}
+
+	/**
+	 * Returns the count of messages dropped without analysis under overload.
+	 *
+	 * @return the count of dropped messages.
+	 */
+	public long getShedCount() {
+		return shedCount;
+	}
+
+	/**
+	 * Returns the most important messages with distinct headlines, the most important first.
+	 *
+	 * @return the list of at most {@code limit} messages.
+	 */
+	public List<NewsMessage> getTopNews() {
+		return new ArrayList<>(Arrays.asList(top).subList(0, size));
+	}
+
+	private void offer(NewsMessage message, long sequence) {
+		if (size == limit && (size == 0 || !isMoreImportant(message, sequence, size - 1))) {
+			// the headline, if kept, has at least this priority
+			return;
+		}
+
+		int index = indexOf(message);
+		if (index >= 0) {
+			if (!isMoreImportant(message, sequence, index)) {
+				return;
+			}
+			remove(index);
+		} else if (size == limit) {
+			remove(size - 1);
+		}
+		insert(message, sequence);
+	}
+
+	private boolean isMoreImportant(NewsMessage message, long sequence, int index) {
+		int priority = top[index].getPriority();
+		return message.getPriority() > priority
+				|| message.getPriority() == priority && sequence < sequences[index];
+	}
+
+	private int indexOf(NewsMessage message) {
+		for (int i = 0; i < size; i++) {
+			if (top[i].hasSameHeadline(message)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void remove(int index) {
+		size--;
+		System.arraycopy(top, index + 1, top, index, size - index);
+		System.arraycopy(sequences, index + 1, sequences, index, size - index);
+		top[size] = null;
+	}
+
+	private void insert(NewsMessage message, long sequence) {
+		int index = size;
+		while (index > 0 && isMoreImportant(message, sequence, index - 1)) {
+			top[index] = top[index - 1];
+			sequences[index] = sequences[index - 1];
+			index--;
+		}
+		top[index] = message;
+		sequences[index] = sequence;
+		size++;
+	}
+}
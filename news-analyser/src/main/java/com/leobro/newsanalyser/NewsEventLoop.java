@@ -0,0 +1,179 @@
+package com.leobro.newsanalyser;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Serves many connections with news feeds in one thread. Connections accepted by the {@link NewsAnalyserServer}
+ * are handed over to the loop, switched to the non-blocking mode and registered with the loop's {@link Selector}.
+ * Whenever a connection has data to read, its {@link ChannelReceiver} reads it and passes complete news messages
+ * to its {@link NewsSink}.
+ * <p>The loop serves the readable connections in turn, each for at most its read budget, so a flooding feed cannot
+ * take the loop from the others. A connection whose feed has sent more than its rate limit is taken off the selector
+ * until its tokens are repaid.
+ * <p>If an {@link IdleMonitor} is given, it watches every connection of the loop; a connection closed as idle is
+ * removed from the selector at once.
+ */
+class NewsEventLoop extends Thread {
+
+	private final Selector selector;
+	private final Supplier<NewsSink> sinks;
+	private final FeedRateLimits limits;
+	private final int readBudget;
+	private final IdleMonitor idleMonitor;
+	private final Queue<SocketChannel> newChannels;
+	private final List<SelectionKey> throttledKeys;
+
+	/**
+	 * Creates a new instance of the {@link NewsEventLoop} class.
+	 *
+	 * @param name        the name of the loop thread,
+	 * @param sinks       the supplier of the receiver of the news messages for every new connection,
+	 * @param limits      the limits of the rate of the feeds,
+	 * @param readBudget  the count of bytes read at most from one connection in one turn of the loop,
+	 * @param idleMonitor the monitor closing the idle connections, or {@code null} to keep them open.
+	 * @throws IOException if an I/O error occurs when opening the selector.
+	 */
+	public NewsEventLoop(String name, Supplier<NewsSink> sinks, FeedRateLimits limits, int readBudget,
+						 IdleMonitor idleMonitor) throws IOException {
+		super(name);
+		this.sinks = sinks;
+		this.limits = limits;
+		this.readBudget = readBudget;
+		this.idleMonitor = idleMonitor;
+		selector = Selector.open();
+		newChannels = new ConcurrentLinkedQueue<>();
+		throttledKeys = new ArrayList<>();
+	}
+
+	/**
+	 * Hands over a newly accepted connection to the loop. This method is thread-safe; the channel is registered
+	 * with the selector in the loop thread.
+	 *
+	 * @param channel the channel of the connection with a news feed.
+	 */
+	public void addChannel(SocketChannel channel) {
+		newChannels.add(channel);
+		selector.wakeup();
+	}
+
+	/**
+	 * Called by JVM to perform the work in a separate thread. Waits for any of the registered connections to become
+	 * readable and lets its {@link ChannelReceiver} process the data. While any connection is throttled, waits no
+	 * longer than until the first of them can be read again.
+	 */
+	@Override
+	public void run() {
+		try {
+			while (!isInterrupted()) {
+				selector.select(getSelectTimeout());
+				registerNewChannels();
+				resumeThrottledKeys();
+				processSelectedKeys();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			tearDown();
+		}
+	}
+
+	private void registerNewChannels() {
+		SocketChannel channel;
+		while ((channel = newChannels.poll()) != null) {
+			try {
+				channel.configureBlocking(false);
+				ChannelReceiver receiver = new ChannelReceiver(channel, sinks.get(), limits, readBudget);
+				channel.register(selector, SelectionKey.OP_READ, receiver);
+				if (idleMonitor != null) {
+					receiver.setWatch(idleMonitor.watch(() -> closeIdle(receiver)));
+				}
+			} catch (ClosedChannelException e) {
+				// client has disconnected before the registration
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Closes an idle connection. Called by the thread of the {@link IdleMonitor}; the selector is woken up to release
+	 * the channel at once.
+	 */
+	private void closeIdle(ChannelReceiver receiver) {
+		receiver.close();
+		selector.wakeup();
+	}
+
+	private void processSelectedKeys() {
+		Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+
+		while (keys.hasNext()) {
+			SelectionKey key = keys.next();
+			keys.remove();
+
+			if (key.isValid() && key.isReadable()) {
+				ChannelReceiver receiver = (ChannelReceiver) key.attachment();
+				receiver.read();
+				if (key.isValid() && receiver.getThrottleNanos(System.nanoTime()) > 0) {
+					key.interestOps(0);
+					throttledKeys.add(key);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the time until the first throttled connection can be read again.
+	 *
+	 * @return the timeout in milliseconds for {@link Selector#select(long)}, 0 to wait without a timeout.
+	 */
+	private long getSelectTimeout() {
+		if (throttledKeys.isEmpty()) {
+			return 0;
+		}
+		long now = System.nanoTime();
+		long wait = Long.MAX_VALUE;
+		for (SelectionKey key : throttledKeys) {
+			wait = Math.min(wait, ((ChannelReceiver) key.attachment()).getThrottleNanos(now));
+		}
+		// a zero timeout would mean no timeout
+		return Math.max(TimeUnit.NANOSECONDS.toMillis(wait), 1);
+	}
+
+	private void resumeThrottledKeys() {
+		long now = System.nanoTime();
+		Iterator<SelectionKey> keys = throttledKeys.iterator();
+
+		while (keys.hasNext()) {
+			SelectionKey key = keys.next();
+			if (!key.isValid()) {
+				keys.remove();
+			} else if (((ChannelReceiver) key.attachment()).getThrottleNanos(now) == 0) {
+				key.interestOps(SelectionKey.OP_READ);
+				keys.remove();
+			}
+		}
+	}
+
+	private void tearDown() {
+		for (SelectionKey key : selector.keys()) {
+			((ChannelReceiver) key.attachment()).close();
+		}
+		try {
+			selector.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package com.leobro.newsanalyser;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * Data class to hold information on one news message.
  */
@@ -7,6 +9,8 @@ public class NewsMessage {
 
 	private String headline;
 	private int priority = -1;
+	private long sentAt;
+	private long headlineKey;
 
 	public String getHeadline() {
 		return headline;
@@ -23,4 +27,46 @@ public class NewsMessage {
 	public void setPriority(int priority) {
 		this.priority = priority;
 	}
+
+	/**
+	 * Returns the time the message was sent at.
+	 *
+	 * @return the time in microseconds since the epoch or 0 if it is not known.
+	 */
+	public long getSentAt() {
+		return sentAt;
+	}
+
+	public void setSentAt(long sentAt) {
+		this.sentAt = sentAt;
+	}
+
+	/**
+	 * Returns the headline packed into a key by the {@link HeadlineVocabulary}. Two messages with keys have equal
+	 * headlines exactly when their keys are equal.
+	 *
+	 * @return the key of the headline or 0 if it is not packed.
+	 */
+	@JsonIgnore
+	public long getHeadlineKey() {
+		return headlineKey;
+	}
+
+	public void setHeadlineKey(long headlineKey) {
+		this.headlineKey = headlineKey;
+	}
+
+	/**
+	 * Tells if the headline of the message is equal to the headline of another message, comparing their keys if
+	 * both are packed.
+	 *
+	 * @param other the other message.
+	 * @return {@code true} if the headlines are equal.
+	 */
+	boolean hasSameHeadline(NewsMessage other) {
+		if (headlineKey != 0 && other.headlineKey != 0) {
+			return headlineKey == other.headlineKey;
+		}
+		return headline.equals(other.headline);
+	}
 }
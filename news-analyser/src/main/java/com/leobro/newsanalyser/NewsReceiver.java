@@ -1,49 +1,93 @@
 package com.leobro.newsanalyser;
 
+import com.leobro.newscodec.Handshake;
+import com.leobro.newscodec.WireFormat;
+
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Responsible for the connection with one TCP client, which is a news feeder. Makes its work in a separate thread.
- * Created by {@link NewsAnalyserServer} for a new connection with a client. Accepts news messages and passes them
- * to the instance of the {@link Analyser} class for the analysis and further reporting.
+ * Responsible for the connection with one TCP client, which is a news feeder. Makes its work in a separate thread,
+ * which is either a platform or a virtual thread (see {@link ReceiverThreads}). Created by {@link NewsAnalyserServer}
+ * for a new connection with a client. Accepts news messages and passes them to the {@link NewsSink}: the
+ * {@link Analyser} of the connection or the shared {@link IngestionPipeline}, for the analysis and further reporting.
+ * <p>The client chooses the wire format in the {@link Handshake}. The lines of JSON are read with a
+ * {@link BufferedReader}, the binary frames are read into a reusable array.
+ * <p>A feed limited by the {@link FeedRateLimits} is not read while its {@link TokenBucket} is empty: the thread
+ * sleeps, the messages wait in the socket buffers and TCP slows the feed down.
+ * <p>If an {@link IdleMonitor} is given, every line or frame received, including the empty heartbeats, is reported to
+ * it as an activity, and the monitor closes the socket if the feed is silent for too long.
  */
-class NewsReceiver extends Thread {
+class NewsReceiver implements Runnable {
+
+	private static final int INITIAL_FRAME_SIZE = 256;
 
 	private final Socket clientSocket;
-	private BufferedReader in;
-	private final Analyser analyser;
+	private InputStream in;
+	private final NewsSink sink;
+	private final FeedRateLimits limits;
+	private final IdleMonitor idleMonitor;
+	private TokenBucket bucket;
+	private IdleMonitor.Watch watch;
 
 	/**
-	 * Creates a new instance of the {@link NewsReceiver} class. Creates as well an {@link Analyser} instance
-	 * to analyse news messages coming from the client.
+	 * Creates a new instance of the {@link NewsReceiver} class.
 	 *
 	 * @param clientSocket TCP socket with established connection from the client,
-	 * @param reporter     an instance of the {@link Reporter} class to collect and then report news messages.
+	 * @param sink         the receiver of the news messages coming from the client.
 	 */
-	public NewsReceiver(Socket clientSocket, Reporter reporter) {
+	public NewsReceiver(Socket clientSocket, NewsSink sink) {
+		this(clientSocket, sink, FeedRateLimits.unlimited(), null);
+	}
+
+	/**
+	 * Creates a new instance of the {@link NewsReceiver} class with the limits of the rate of the feed and
+	 * the detection of the idle connection.
+	 *
+	 * @param clientSocket TCP socket with established connection from the client,
+	 * @param sink         the receiver of the news messages coming from the client,
+	 * @param limits       the limits of the rate of the feeds, applied when the feed has introduced itself,
+	 * @param idleMonitor  the monitor closing the idle connections, or {@code null} to keep them open.
+	 */
+	public NewsReceiver(Socket clientSocket, NewsSink sink, FeedRateLimits limits, IdleMonitor idleMonitor) {
 		this.clientSocket = clientSocket;
-		analyser = new Analyser(reporter);
+		this.sink = sink;
+		this.limits = limits;
+		this.idleMonitor = idleMonitor;
 	}
 
 	/**
-	 * Called by JVM to perform the work in a separate thread. Waits indefinitely for the news message from the
-	 * client to come and passes it to the instance of the {@link Analyser}. Finishes when the client disconnects.
+	 * Called by the receiver thread to perform the work. Waits indefinitely for the news message from the
+	 * client to come and passes it to the {@link NewsSink}. Finishes when the client disconnects.
 	 */
 	@Override
 	public void run() {
+		if (idleMonitor != null) {
+			watch = idleMonitor.watch(clientSocket);
+		}
 		try {
-			in = createInputReader();
-			String inputLine;
+			PushbackInputStream input = new PushbackInputStream(clientSocket.getInputStream(), 3);
+			in = input;
+			Handshake handshake = Handshake.readRequest(input);
+			acknowledge(handshake);
+			bucket = limits.createBucket(handshake.getFeedName(), System.nanoTime());
 
-			while ((inputLine = in.readLine()) != null) {
-				analyser.analyse(inputLine);
+			if (handshake.isAccepted()) {
+				receive(handshake.getFormat());
 			}
-		} catch (SocketException e) {
+		} catch (EOFException | SocketException e) {
 			// client socket has disconnected (error message: Connection reset)
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -52,11 +96,90 @@ class NewsReceiver extends Thread {
 		}
 	}
 
-	private BufferedReader createInputReader() throws IOException {
-		return new BufferedReader(new InputStreamReader(clientSocket.getInputStream(), StandardCharsets.UTF_16));
+	private void acknowledge(Handshake handshake) throws IOException {
+		if (!handshake.isLegacy()) {
+			OutputStream out = clientSocket.getOutputStream();
+			out.write(handshake.getAcknowledgement());
+			out.flush();
+		}
+	}
+
+	private void receive(WireFormat format) throws IOException {
+		if (format.isLines()) {
+			receiveLines(createInputReader(format));
+		} else {
+			receiveFrames(new DataInputStream(new BufferedInputStream(in)));
+		}
+	}
+
+	private void receiveLines(BufferedReader reader) throws IOException {
+		String inputLine;
+
+		while ((inputLine = reader.readLine()) != null) {
+			touch();
+			if (!inputLine.isEmpty()) {
+				sink.analyse(inputLine);
+				if (!reader.ready()) {
+					// the lines read from the socket at once have all been passed on
+					sink.endBatch();
+				}
+				throttle();
+			}
+		}
+	}
+
+	private BufferedReader createInputReader(WireFormat format) {
+		// unlike the frame charset, UTF-16 consumes the byte order mark at the start of the stream
+		Charset charset = (format == WireFormat.UTF16_LINES) ? StandardCharsets.UTF_16 : format.getCharset();
+		return new BufferedReader(new InputStreamReader(in, charset));
+	}
+
+	private void receiveFrames(DataInputStream input) throws IOException {
+		byte[] frame = new byte[INITIAL_FRAME_SIZE];
+
+		while (true) {
+			int length = input.readUnsignedShort();
+			if (length > frame.length) {
+				frame = new byte[length];
+			}
+			input.readFully(frame, 0, length);
+			touch();
+			if (length > 0) {
+				sink.analyse(WireFormat.BINARY_FRAMES, frame, 0, length);
+				if (input.available() == 0) {
+					sink.endBatch();
+				}
+				throttle();
+			}
+		}
+	}
+
+	private void touch() {
+		if (watch != null) {
+			watch.touch();
+		}
+	}
+
+	/**
+	 * Takes the token of the received message and sleeps while the feed is over its limit.
+	 */
+	private void throttle() {
+		if (bucket == null) {
+			return;
+		}
+		long now = System.nanoTime();
+		bucket.take(1, now);
+		long wait;
+		while ((wait = bucket.getWaitNanos(now)) > 0) {
+			LockSupport.parkNanos(wait);
+			now = System.nanoTime();
+		}
 	}
 
 	private void tearDown() {
+		if (watch != null) {
+			watch.cancel();
+		}
 		try {
 			if (in != null) {
 				in.close();
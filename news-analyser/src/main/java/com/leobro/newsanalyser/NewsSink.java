@@ -0,0 +1,36 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.WireFormat;
+
+/**
+ * Takes the news messages read from the connections with news feeds for analysis. The {@link Analyser} analyses them
+ * at once in the thread reading the connection; the {@link IngestionPipeline} hands them over to the analysis workers;
+ * the {@link JournalingSink} writes them to the {@link Journal} before passing them on.
+ */
+interface NewsSink {
+
+	/**
+	 * Takes a news message received as a line of JSON.
+	 *
+	 * @param inputLine the news message in JSON format.
+	 */
+	void analyse(CharSequence inputLine);
+
+	/**
+	 * Takes a news message received as a frame of the negotiated wire format. The bytes may be overwritten as soon
+	 * as the method returns.
+	 *
+	 * @param format the format of the frame,
+	 * @param bytes  the array containing the frame,
+	 * @param offset the start of the frame in the array,
+	 * @param length the length of the frame.
+	 */
+	void analyse(WireFormat format, byte[] bytes, int offset, int length);
+
+	/**
+	 * Marks the end of a batch of news messages read from the connection at once, before the receiver reads
+	 * again. Does nothing by default.
+	 */
+	default void endBatch() {
+	}
+}
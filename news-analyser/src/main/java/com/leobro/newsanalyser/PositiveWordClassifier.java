@@ -0,0 +1,151 @@
+package com.leobro.newsanalyser;
+
+/**
+ * Decides whether a headline is positive: more than 50% of its words are positive. Built once from the configured
+ * positive words into an open-addressing hash table, so looking up a word costs one hash computation and usually one
+ * comparison. The headline is tokenised in place, without splitting it into strings, and the scan stops as soon as
+ * the majority is decided either way.
+ * <p>Words are separated by single spaces exactly like {@code headline.split(" ")} does it: consecutive spaces
+ * make empty words, which count in the total, and the trailing empty words are dropped.
+ * <p>The class is immutable and thread-safe.
+ */
+class PositiveWordClassifier implements HeadlineClassifier {
+
+	/**
+	 * Up to this word count, comparing {@code 2 * positive} with the total gives the same result as the floating
+	 * point ratio {@code positive / (float) total > 0.5}.
+	 */
+	private static final int EXACT_WORD_COUNT_LIMIT = 1 << 24;
+
+	private final String[] table;
+	private final int mask;
+
+	/**
+	 * Creates a new instance of the {@link PositiveWordClassifier} class.
+	 *
+	 * @param positiveWords the words regarded positive.
+	 */
+	public PositiveWordClassifier(String[] positiveWords) {
+		int size = Integer.highestOneBit(Math.max(positiveWords.length, 1) * 4 - 1) << 1;
+		table = new String[size];
+		mask = size - 1;
+
+		for (String word : positiveWords) {
+			int slot = spread(word.hashCode()) & mask;
+			while (table[slot] != null && !table[slot].equals(word)) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = word;
+		}
+	}
+
+	/**
+	 * Tells if more than 50% of words in the headline are positive.
+	 *
+	 * @param headline the headline of a news message.
+	 * @return {@code true} if the headline is positive.
+	 */
+	@Override
+	public boolean isPositive(CharSequence headline) {
+		int end = trimTrailingSpaces(headline);
+		int wordCount = countWords(headline, end);
+		if (wordCount == 0) {
+			return false;
+		}
+		if (wordCount >= EXACT_WORD_COUNT_LIMIT) {
+			return positiveCount(headline, end, wordCount) / (float) wordCount > 0.5;
+		}
+
+		int positiveCount = 0;
+		int wordStart = 0;
+		for (int word = 1; word <= wordCount; word++) {
+			int wordEnd = findWordEnd(headline, wordStart, end);
+			if (contains(headline, wordStart, wordEnd)) {
+				positiveCount++;
+				if (positiveCount * 2 > wordCount) {
+					return true;
+				}
+			} else if ((positiveCount + wordCount - word) * 2 <= wordCount) {
+				return false;
+			}
+			wordStart = wordEnd + 1;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the end of the headline without the trailing spaces, which produce the dropped empty words. A headline
+	 * without any space is a single word even if it is empty.
+	 */
+	private static int trimTrailingSpaces(CharSequence headline) {
+		int end = headline.length();
+		while (end > 0 && headline.charAt(end - 1) == ' ') {
+			end--;
+		}
+		return end;
+	}
+
+	private static int countWords(CharSequence headline, int end) {
+		if (end == 0) {
+			return headline.length() == 0 ? 1 : 0;
+		}
+		int count = 1;
+		for (int i = 0; i < end; i++) {
+			if (headline.charAt(i) == ' ') {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private int positiveCount(CharSequence headline, int end, int wordCount) {
+		int positiveCount = 0;
+		int wordStart = 0;
+		for (int word = 0; word < wordCount; word++) {
+			int wordEnd = findWordEnd(headline, wordStart, end);
+			if (contains(headline, wordStart, wordEnd)) {
+				positiveCount++;
+			}
+			wordStart = wordEnd + 1;
+		}
+		return positiveCount;
+	}
+
+	private static int findWordEnd(CharSequence headline, int start, int end) {
+		int i = start;
+		while (i < end && headline.charAt(i) != ' ') {
+			i++;
+		}
+		return i;
+	}
+
+	private boolean contains(CharSequence text, int start, int end) {
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + text.charAt(i);
+		}
+
+		for (int slot = spread(hash) & mask; table[slot] != null; slot = (slot + 1) & mask) {
+			if (matches(table[slot], text, start, end)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean matches(String word, CharSequence text, int start, int end) {
+		if (word.length() != end - start) {
+			return false;
+		}
+		for (int i = 0; i < word.length(); i++) {
+			if (word.charAt(i) != text.charAt(start + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+}
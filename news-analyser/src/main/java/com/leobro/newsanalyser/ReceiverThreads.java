@@ -0,0 +1,38 @@
+package com.leobro.newsanalyser;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The kind of threads running {@link NewsReceiver}s in the {@link IngestionMode#BLOCKING} mode.
+ */
+enum ReceiverThreads {
+
+	/**
+	 * Every connection is served by an ordinary platform thread.
+	 */
+	PLATFORM {
+		@Override
+		ThreadFactory createFactory() {
+			AtomicLong counter = new AtomicLong();
+			return runnable -> new Thread(runnable, "news-receiver-" + counter.getAndIncrement());
+		}
+	},
+
+	/**
+	 * Every connection is served by a virtual thread. Requires Java 21 or newer at runtime.
+	 */
+	VIRTUAL {
+		@Override
+		ThreadFactory createFactory() {
+			return VirtualThreads.factory();
+		}
+	};
+
+	/**
+	 * Creates the factory of threads of this kind.
+	 *
+	 * @return the factory creating unstarted threads.
+	 */
+	abstract ThreadFactory createFactory();
+}
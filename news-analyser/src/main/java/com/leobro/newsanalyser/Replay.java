@@ -0,0 +1,28 @@
+package com.leobro.newsanalyser;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Replays recorded news with the configuration of the News Analyser (see {@link ReplayEngine}).
+ * <p>Arguments: the journal directory, a journal segment or a file of JSON lines, and optionally the factor of
+ * the recorded speed to replay at, 0 (the default) to replay as fast as possible.
+ */
+public class Replay {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.out.println("Usage: Replay <journal directory | journal segment | JSON lines file> [speed factor]");
+			return;
+		}
+		double speed = (args.length > 1) ? Double.parseDouble(args[1]) : 0;
+		Configuration config = new Configuration();
+		Reporter reporter = new Reporter(config.getReportingPeriod(), config.getWindowLength(), config.getHorizons(),
+				config.getNewsLimit(), config.getPositiveWords(), false);
+		NewsAnalyserServer.configureWindows(config, reporter);
+		Analyser analyser = new Analyser(reporter, NewsAnalyserServer.createClassifier(config, reporter));
+
+		new ReplayEngine(reporter, analyser, config.getReportingPeriod(), speed, System.out)
+				.replay(Paths.get(args[0]));
+	}
+}
@@ -0,0 +1,173 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.WireFormat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays recorded news through the {@link Analyser} and the {@link Reporter} without sockets, either as fast as
+ * possible or at the recorded speed multiplied by a factor.
+ * <p>The records are a {@link Journal}, whose frames carry their arrival time, or a file of JSON lines, whose
+ * messages carry the time they were sent at (a line without it takes the time of the line before). The messages are
+ * passed to the reporter with this time as their arrival time, so by the event time a message without a timestamp
+ * counts in the period it was recorded in, not in the period it is replayed in. The reports are run by this time
+ * instead of the wall clock: every time the event time passes the end of a reporting period,
+ * the reporter reports, and the last period is reported at the end. So an hour of recorded traffic gives the same
+ * digests as it gave live, in the time it takes to analyse it. The periods start with the first record.
+ * <p>At the end, the throughput and the time spent in every stage are printed: reading the records, decoding them,
+ * analysing them and running the reports, and waiting to keep the recorded speed.
+ * <p>The class is not thread-safe.
+ */
+class ReplayEngine {
+
+	private final Reporter reporter;
+	private final Analyser analyser;
+	private final long periodMicros;
+	private final double speed;
+	private final PrintStream out;
+
+	private long startNanos;
+	private long firstEventTime;
+	private long eventTime;
+	private long nextReportTime;
+	private long messageCount;
+	private long decodeNanos;
+	private long analyseNanos;
+	private long reportNanos;
+	private long pacingNanos;
+
+	/**
+	 * Creates a new instance of the {@link ReplayEngine} class.
+	 *
+	 * @param reporter the reporter whose reports are not scheduled,
+	 * @param analyser the analyser adding the positive messages to the reporter,
+	 * @param period   the reporting period in milliseconds,
+	 * @param speed    the factor of the recorded speed to replay at, 0 to replay as fast as possible,
+	 * @param out      the stream to print the throughput to.
+	 */
+	public ReplayEngine(Reporter reporter, Analyser analyser, int period, double speed, PrintStream out) {
+		this.reporter = reporter;
+		this.analyser = analyser;
+		periodMicros = TimeUnit.MILLISECONDS.toMicros(period);
+		this.speed = speed;
+		this.out = out;
+	}
+
+	/**
+	 * Replays the records, reports the last period and prints the throughput.
+	 *
+	 * @param path a journal directory, a journal segment or a file of JSON lines in UTF-8.
+	 * @throws IOException if the records cannot be read.
+	 */
+	public void replay(Path path) throws IOException {
+		startNanos = System.nanoTime();
+		if (Files.isDirectory(path) || JournalReader.isSegment(path)) {
+			new JournalReader(path).read(this::replayFrame);
+		} else {
+			replayLines(path);
+		}
+		long start = System.nanoTime();
+		reporter.reportLast();
+		reportNanos += System.nanoTime() - start;
+		printThroughput(System.nanoTime() - startNanos);
+	}
+
+	private void replayLines(Path file) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.isEmpty()) {
+					long start = System.nanoTime();
+					NewsMessage message = analyser.convertToMessage(line);
+					decodeNanos += System.nanoTime() - start;
+					long sentAt = (message != null) ? message.getSentAt() : 0;
+					if (sentAt > 0) {
+						advanceTo(sentAt);
+					}
+					analyse(message, eventTime);
+				}
+			}
+		}
+	}
+
+	private void replayFrame(long arrivalTime, int connectionId, WireFormat format, byte[] bytes, int offset,
+							 int length) {
+		long start = System.nanoTime();
+		NewsMessage message = analyser.convertToMessage(format, bytes, offset, length);
+		decodeNanos += System.nanoTime() - start;
+		advanceTo(arrivalTime);
+		analyse(message, arrivalTime);
+	}
+
+	private void analyse(NewsMessage message, long arrivalTime) {
+		long start = System.nanoTime();
+		analyser.analyse(message, arrivalTime);
+		analyseNanos += System.nanoTime() - start;
+		messageCount++;
+	}
+
+	/**
+	 * Moves the event time on, runs the reports of the periods which have ended and, at a limited speed, waits until
+	 * the time of the record has come. The event time never goes back.
+	 */
+	private void advanceTo(long time) {
+		if (firstEventTime == 0) {
+			firstEventTime = time;
+			eventTime = time;
+			nextReportTime = time + periodMicros;
+		}
+		if (time <= eventTime) {
+			return;
+		}
+		eventTime = time;
+		if (speed > 0) {
+			pace();
+		}
+		while (eventTime >= nextReportTime) {
+			report();
+			nextReportTime += periodMicros;
+		}
+	}
+
+	private void pace() {
+		long start = System.nanoTime();
+		long due = startNanos + (long) (TimeUnit.MICROSECONDS.toNanos(eventTime - firstEventTime) / speed);
+		for (long wait = due - start; wait > 0; wait = due - System.nanoTime()) {
+			LockSupport.parkNanos(wait);
+		}
+		pacingNanos += System.nanoTime() - start;
+	}
+
+	private void report() {
+		long start = System.nanoTime();
+		reporter.report();
+		reportNanos += System.nanoTime() - start;
+	}
+
+	private void printThroughput(long totalNanos) {
+		long readNanos = Math.max(totalNanos - decodeNanos - analyseNanos - reportNanos - pacingNanos, 0);
+		long totalMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(totalNanos), 1);
+		long eventMillis = TimeUnit.MICROSECONDS.toMillis(eventTime - firstEventTime);
+
+		out.println("=======================================");
+		out.println("Replayed " + messageCount + " messages in " + totalMillis + " ms: "
+				+ messageCount * 1000 / totalMillis + " messages/s, " + eventMillis + " ms of recorded time ("
+				+ String.format("%.1f", eventMillis / (double) totalMillis) + "x)");
+		out.println("Stages: read " + formatStage(readNanos, totalNanos)
+				+ ", decode " + formatStage(decodeNanos, totalNanos)
+				+ ", analyse " + formatStage(analyseNanos, totalNanos)
+				+ ", report " + formatStage(reportNanos, totalNanos)
+				+ ", wait " + formatStage(pacingNanos, totalNanos));
+	}
+
+	private static String formatStage(long nanos, long totalNanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos) + " ms (" + nanos * 100 / Math.max(totalNanos, 1) + "%)";
+	}
+}
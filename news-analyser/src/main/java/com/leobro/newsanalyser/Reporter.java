@@ -1,5 +1,8 @@
 package com.leobro.newsanalyser;
 
+import com.leobro.newscodec.EpochClock;
+import org.HdrHistogram.Histogram;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Timer;
@@ -7,14 +10,40 @@ import java.util.TimerTask;
 
 /**
  * Responsible for accepting positive news messages from separate threads and periodically running a report on the
- * messages received since the last report. After the reporting, the accumulated messages are discarded.
+ * messages received during the last window. By default, the window is the reporting period; a longer window slides
+ * by one reporting period with every report (see {@link SlidingWindow}).
+ * <p>Longer horizons, like a minute or an hour, are reported at the end of each horizon by a chain of
+ * {@link HorizonTier}s rolling up the digests of the reporting periods.
+ * <p>The messages themselves are not kept: a {@link StripedDigestCollector} counts them and keeps only the most
+ * important ones, so neither the receiver threads nor the report make each other wait. If all messages of
+ * the reporting period are needed, e.g. for the audit, they are kept off the heap in a {@link WindowStore}.
+ * <p>By default, a message counts in the reporting period it arrives in. With {@link EventTimeWindows}, it counts in
+ * the period it was created in, as stamped by the feed, and a report covers the periods which the watermark has closed
+ * since the previous report. After a run of empty periods too long to report one by one, the window and the horizons
+ * start anew.
+ * <p>If the feeds send the messages with timestamps, the latency of every message, positive or not, is recorded by
+ * the {@link LatencyRecorder} and its percentiles are printed with every report.
  * <p>The class is thread-safe.
  */
 public class Reporter {
 
-	private final List<NewsMessage> messages;
+	private final StripedDigestCollector collector;
 	private final String[] positiveWords;
+	private final int period;
+	private final int sliceCount;
+	private final int[] horizons;
+	private final int newsLimit;
+	private SlidingWindow window;
 	private final ConsolePrinter printer;
+	private HorizonTier firstTier;
+	private final LatencyRecorder latency;
+	private volatile IngestionPipeline pipeline;
+	private volatile IdleMonitor idleMonitor;
+	private volatile HeadlineCache headlineCache;
+	private volatile WindowStore windowStore;
+	private volatile EventTimeWindows eventTimeWindows;
+	private final ReporterTask task;
+	private final Timer timer;
 
 	/**
 	 * Creates a new instance of the {@link Reporter} class. Runs a Timer task at the configured interval
@@ -25,30 +54,211 @@ public class Reporter {
 	 * @param positiveWords array of words that regarded positive.
 	 */
 	public Reporter(int period, int newsLimit, String[] positiveWords) {
-		this.messages = new ArrayList<>();
+		this(period, period, newsLimit, positiveWords);
+	}
+
+	/**
+	 * Creates a new instance of the {@link Reporter} class with a sliding window. Runs a Timer task at the configured
+	 * interval in a separate thread to print the report on the messages received during the window.
+	 *
+	 * @param period        the period between reports in milliseconds,
+	 * @param windowLength  the length of the window in milliseconds, rounded down to a multiple of the period,
+	 * @param newsLimit     the maximal count of most important news to show in the report,
+	 * @param positiveWords array of words that regarded positive.
+	 */
+	public Reporter(int period, int windowLength, int newsLimit, String[] positiveWords) {
+		this(period, windowLength, new int[0], newsLimit, positiveWords);
+	}
+
+	/**
+	 * Creates a new instance of the {@link Reporter} class with a sliding window and longer horizons. Runs a Timer
+	 * task at the configured interval in a separate thread to print the report on the messages received during
+	 * the window and, at the end of every horizon, the report on the messages received during the horizon.
+	 *
+	 * @param period        the period between reports in milliseconds,
+	 * @param windowLength  the length of the window in milliseconds, rounded down to a multiple of the period,
+	 * @param horizons      the longer horizons in milliseconds in ascending order, each rounded down to a multiple
+	 *                      of the previous one,
+	 * @param newsLimit     the maximal count of most important news to show in the report,
+	 * @param positiveWords array of words that regarded positive.
+	 */
+	public Reporter(int period, int windowLength, int[] horizons, int newsLimit, String[] positiveWords) {
+		this(period, windowLength, horizons, newsLimit, positiveWords, true);
+	}
+
+	/**
+	 * Creates a new instance of the {@link Reporter} class, which runs the reports in a Timer thread or, for
+	 * the replay of recorded news, only when {@link #report()} is called. Without the Timer, the latency of
+	 * the messages is not recorded, as the time they were sent at is long gone.
+	 *
+	 * @param period        the period between reports in milliseconds,
+	 * @param windowLength  the length of the window in milliseconds, rounded down to a multiple of the period,
+	 * @param horizons      the longer horizons in milliseconds in ascending order, each rounded down to a multiple
+	 *                      of the previous one,
+	 * @param newsLimit     the maximal count of most important news to show in the report,
+	 * @param positiveWords array of words that regarded positive,
+	 * @param isScheduled   {@code true} to run the reports in a Timer thread every period.
+	 */
+	Reporter(int period, int windowLength, int[] horizons, int newsLimit, String[] positiveWords,
+			 boolean isScheduled) {
+		collector = new StripedDigestCollector(newsLimit);
 		this.positiveWords = positiveWords;
+		this.period = period;
+		sliceCount = Math.max(windowLength / period, 1);
+		this.horizons = horizons;
+		this.newsLimit = newsLimit;
+		window = new SlidingWindow(sliceCount, newsLimit);
+		printer = (sliceCount == 1) ? new ConsolePrinter() : new ConsolePrinter(sliceCount * period);
+		firstTier = createTiers(period, horizons, newsLimit);
+		latency = new LatencyRecorder();
 
-		scheduleReports(period);
-		printer = new ConsolePrinter(newsLimit);
+		task = new ReporterTask();
+		timer = isScheduled ? new Timer() : null;
+		if (isScheduled) {
+			timer.scheduleAtFixedRate(task, period, period);
+		}
 	}
 
-	private void scheduleReports(int period) {
-		TimerTask printTask = new ReporterTask(this);
-		Timer timer = new Timer();
-		timer.scheduleAtFixedRate(printTask, period, period);
+	private static HorizonTier createTiers(int period, int[] horizons, int newsLimit) {
+		int[] lengths = new int[horizons.length];
+		int[] partCounts = new int[horizons.length];
+		int shorter = period;
+
+		for (int i = 0; i < horizons.length; i++) {
+			partCounts[i] = Math.max(horizons[i] / shorter, 1);
+			lengths[i] = partCounts[i] * shorter;
+			shorter = lengths[i];
+		}
+
+		HorizonTier tier = null;
+		for (int i = horizons.length - 1; i >= 0; i--) {
+			tier = new HorizonTier(partCounts[i], newsLimit, new ConsolePrinter(lengths[i])::print, tier);
+		}
+		return tier;
 	}
 
 	/**
-	 * Adds a news message to the collection of last messages. This method is thread-safe.
+	 * Adds a news message which has just arrived to the digest of last messages. This method is thread-safe.
 	 *
 	 * @param message the news message to add.
 	 */
 	public void add(NewsMessage message) {
-		synchronized (this) {
-			messages.add(message);
+		if (eventTimeWindows == null && windowStore == null) {
+			collector.add(message);
+		} else {
+			add(message, EpochClock.currentTimeMicros());
 		}
 	}
 
+	/**
+	 * Adds a news message to the digest of last messages. By the event time, a message without a timestamp counts
+	 * in the period of its arrival time, e.g. the time it was journaled at when replayed. This method is thread-safe.
+	 *
+	 * @param message     the news message to add,
+	 * @param arrivalTime the time the message arrived at in microseconds since the epoch.
+	 */
+	public void add(NewsMessage message, long arrivalTime) {
+		EventTimeWindows windows = eventTimeWindows;
+		if (windows != null) {
+			long sentAt = message.getSentAt();
+			windows.add(message, (sentAt > 0) ? sentAt : arrivalTime);
+		} else {
+			collector.add(message);
+		}
+		WindowStore store = windowStore;
+		if (store != null) {
+			store.add(message, arrivalTime);
+		}
+	}
+
+	/**
+	 * Records the latency of a news message sent with a timestamp. This method is thread-safe.
+	 *
+	 * @param sentAt the time the message was sent at in microseconds since the epoch.
+	 */
+	public void recordLatency(long sentAt) {
+		if (timer != null) {
+			latency.record(sentAt);
+		}
+	}
+
+	/**
+	 * Adds the state of the buffer of the ingestion pipeline to the periodic reports.
+	 *
+	 * @param pipeline the ingestion pipeline.
+	 */
+	public void monitor(IngestionPipeline pipeline) {
+		this.pipeline = pipeline;
+	}
+
+	/**
+	 * Adds the count of the connections closed as idle to the periodic reports.
+	 *
+	 * @param idleMonitor the monitor of the idle connections.
+	 */
+	public void monitor(IdleMonitor idleMonitor) {
+		this.idleMonitor = idleMonitor;
+	}
+
+	/**
+	 * Keeps every positive message of the reporting period in the store. The kept messages are summarised in
+	 * the periodic reports and the store is emptied for the next period.
+	 *
+	 * @param windowStore the store of the messages.
+	 */
+	public void retain(WindowStore windowStore) {
+		this.windowStore = windowStore;
+	}
+
+	/**
+	 * Assigns the messages to the reporting periods by the time they were created at instead of the time they
+	 * arrive at. Each report then covers the periods closed by the watermark and counts the late messages. To be
+	 * called before the messages come.
+	 *
+	 * @param eventTimeWindows the windows of the event time.
+	 */
+	public void windowByEventTime(EventTimeWindows eventTimeWindows) {
+		this.eventTimeWindows = eventTimeWindows;
+	}
+
+	/**
+	 * Adds the hits and the misses of the cache of the headline verdicts to the periodic reports.
+	 *
+	 * @param headlineCache the cache of the headline verdicts.
+	 */
+	public void monitor(HeadlineCache headlineCache) {
+		this.headlineCache = headlineCache;
+	}
+
+	/**
+	 * Stops the periodic reports. The messages added after the last report are not reported.
+	 */
+	public void stop() {
+		if (timer != null) {
+			timer.cancel();
+		}
+	}
+
+	/**
+	 * Runs the report at once in the calling thread. Used to run the reports by the time of the replayed messages
+	 * when the reports are not scheduled.
+	 */
+	void report() {
+		task.run();
+	}
+
+	/**
+	 * Runs the last report at once in the calling thread, closing the periods of the event time which are still
+	 * waiting for late messages. Used at the end of a replay.
+	 */
+	void reportLast() {
+		EventTimeWindows windows = eventTimeWindows;
+		if (windows != null) {
+			windows.expireAll();
+		}
+		task.run();
+	}
+
 	/**
 	 * Returns the array of configured positive words.
 	 *
@@ -61,38 +271,95 @@ public class Reporter {
 	/**
 	 * The task running in the Timer thread to print the report.
 	 */
-	private class ReporterTask extends TimerTask {
+	private class ReporterTask extends TimerTask implements EventTimeWindows.Handler {
 
-		private final Reporter reporter;
+		private final List<NewsDigest> slices = new ArrayList<>();
+		private long pendingShedCount;
 
 		/**
-		 * Creates a new {@link ReporterTask}.
-		 *
-		 * @param reporter the reference to the parent creator class to perform the thread synchronisation.
+		 * Started periodically by the Timer to print the report. Takes away the digest of the last messages, slides
+		 * the window over it and passes the digest of the window to the {@link ConsolePrinter}, followed by
+		 * the latency of the messages received during the reporting period, if they had timestamps, and the state of
+		 * the ingestion pipeline, if there is one. The messages dropped by the pipeline under overload are counted in
+		 * the digest. The messages added meanwhile go to the next report.
+		 * <p>By the event time, every period closed since the last report gets its digest, possibly none, and the count
+		 * of the late messages is printed; the dropped messages wait for the next digest.
 		 */
-		public ReporterTask(Reporter reporter) {
-			this.reporter = reporter;
+		@Override
+		public void run() {
+			WindowStore store = windowStore;
+			WindowStore.Window retained = (store != null) ? store.drain() : null;
+			IngestionPipeline monitored = pipeline;
+			if (monitored != null) {
+				pendingShedCount += monitored.takeShedCount();
+			}
+			EventTimeWindows windows = eventTimeWindows;
+			if (windows != null) {
+				windows.closeWindows(this);
+			} else {
+				onClosed(collector.drain());
+			}
+			Histogram histogram = latency.drain();
+			if (histogram.getTotalCount() > 0) {
+				printer.printLatency(histogram);
+			}
+			if (monitored != null) {
+				printer.printIngestion(monitored.getQueued(), monitored.getCapacity(), monitored.takeFullCount());
+			}
+			HeadlineCache cache = headlineCache;
+			if (cache != null) {
+				long hitCount = cache.takeHitCount();
+				long missCount = cache.takeMissCount();
+				if (hitCount + missCount > 0) {
+					printer.printHeadlineCache(hitCount, missCount);
+				}
+			}
+			IdleMonitor idle = idleMonitor;
+			if (idle != null) {
+				long closedCount = idle.takeClosedCount();
+				if (closedCount > 0) {
+					printer.printIdleClosed(closedCount);
+				}
+			}
+			if (windows != null) {
+				long lateCount = windows.takeLateCount();
+				if (lateCount > 0) {
+					printer.printLate(lateCount);
+				}
+			}
+			if (retained != null) {
+				printer.printRetained(retained);
+				retained.release();
+			}
+			if (firstTier != null) {
+				for (NewsDigest slice : slices) {
+					firstTier.add(slice);
+				}
+			}
+			slices.clear();
 		}
 
 		/**
-		 * Started periodically by the Timer to print the report. Passes accumulated messages to the
-		 * {@link ConsolePrinter} and clears their original collection. The clearing of the collection is synchronised
-		 * to avoid race condition with adding of new messages from different threads.
+		 * Slides the window over the digest of a closed period and prints it. The horizons get the digest after
+		 * the rest of the report.
 		 */
 		@Override
-		public void run() {
-			List<NewsMessage> lastNews;
-
-			synchronized (reporter) {
-				lastNews = copyMessages(messages);
-				messages.clear();
-			}
-
-			printer.print(lastNews);
+		public void onClosed(NewsDigest slice) {
+			slice.addShed(pendingShedCount);
+			pendingShedCount = 0;
+			printer.print(window.slide(slice));
+			slices.add(slice);
 		}
 
-		private List<NewsMessage> copyMessages(List<NewsMessage> messages) {
-			return new ArrayList<>(messages);
+		/**
+		 * Starts the window and the horizons anew after a run of empty periods longer than they remember.
+		 */
+		@Override
+		public void onSkipped(long count) {
+			printer.printSkipped(count);
+			window = new SlidingWindow(sliceCount, newsLimit);
+			firstTier = createTiers(period, horizons, newsLimit);
+			slices.clear();
 		}
 	}
 }
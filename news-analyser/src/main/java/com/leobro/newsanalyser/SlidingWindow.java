@@ -0,0 +1,49 @@
+package com.leobro.newsanalyser;
+
+/**
+ * The digest of positive news over the last few reporting periods. Each period ends with a slice: the digest of
+ * the messages received during this period. The window keeps the last slices in a ring and, on every report,
+ * merges them into one digest. The messages themselves are never looked at again, so the cost of a report depends
+ * only on the number of slices and the count of news to show.
+ * <p>A window of one slice is the tumbling window: every report covers only the messages since the previous one.
+ * <p>The class is not thread-safe; it is used by the report thread only.
+ */
+class SlidingWindow {
+
+	private final NewsDigest[] slices;
+	private final int newsLimit;
+	private int next;
+
+	/**
+	 * Creates a new instance of the {@link SlidingWindow} class.
+	 *
+	 * @param sliceCount the number of reporting periods covered by the window,
+	 * @param newsLimit  the maximal count of the most important news messages to keep.
+	 */
+	public SlidingWindow(int sliceCount, int newsLimit) {
+		slices = new NewsDigest[Math.max(sliceCount, 1)];
+		this.newsLimit = newsLimit;
+	}
+
+	/**
+	 * Adds the slice of the period which has just ended, drops the oldest slice and returns the digest of the window.
+	 *
+	 * @param slice the digest of the messages received during the last period.
+	 * @return the digest of the messages received during the window ending now.
+	 */
+	public NewsDigest slide(NewsDigest slice) {
+		slices[next] = slice;
+		next = (next + 1) % slices.length;
+
+		if (slices.length == 1) {
+			return slice;
+		}
+		NewsDigest window = new NewsDigest(newsLimit);
+		for (NewsDigest digest : slices) {
+			if (digest != null) {
+				window.addAll(digest);
+			}
+		}
+		return window;
+	}
+}
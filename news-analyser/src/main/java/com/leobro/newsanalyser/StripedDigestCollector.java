@@ -0,0 +1,161 @@
+package com.leobro.newsanalyser;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects news messages from many receiver threads into a {@link NewsDigest} without making them wait for each other
+ * or for the report.
+ * <p>Messages are added to one of several stripes, each with its own digest. A thread takes its stripe with
+ * a try-lock and, if the stripe is busy, moves on to the next one instead of waiting. The stripes form an epoch;
+ * {@link #drain()} installs a fresh epoch, so new messages go there at once, and then merges the digests of the old
+ * stripes one by one. A thread which still holds a stripe of the old epoch only delays the report thread, never
+ * the other way round.
+ * <p>A collector which covers a window of its own is closed with {@link #close()} instead: the messages added
+ * afterwards are refused, so the caller can count them as late instead of losing them in an epoch nobody drains.
+ * <p>Every message gets a sequence number when it is added, so the merged digest is the same as if all messages were
+ * added to one digest in this order.
+ * <p>The class is thread-safe.
+ */
+class StripedDigestCollector {
+
+	private final int stripeCount;
+	private final int newsLimit;
+	private final AtomicLong sequence;
+	private volatile Epoch epoch;
+
+	/**
+	 * Creates a new instance of the {@link StripedDigestCollector} class with the stripe count fitting the number of
+	 * processors.
+	 *
+	 * @param newsLimit the maximal count of the most important news messages to keep.
+	 */
+	public StripedDigestCollector(int newsLimit) {
+		this(newsLimit, Runtime.getRuntime().availableProcessors() * 2);
+	}
+
+	/**
+	 * Creates a new instance of the {@link StripedDigestCollector} class.
+	 *
+	 * @param newsLimit the maximal count of the most important news messages to keep,
+	 * @param stripes   the number of stripes, rounded up to a power of two.
+	 */
+	StripedDigestCollector(int newsLimit, int stripes) {
+		this.newsLimit = newsLimit;
+		stripeCount = Integer.highestOneBit(Math.max(stripes, 1) * 2 - 1);
+		sequence = new AtomicLong();
+		epoch = new Epoch(stripeCount, newsLimit);
+	}
+
+	/**
+	 * Adds a news message. Never waits for the other threads.
+	 *
+	 * @param message the news message to add.
+	 * @return {@code true} if the message was added, {@code false} if the collector is closed.
+	 */
+	public boolean add(NewsMessage message) {
+		long number = sequence.getAndIncrement();
+		int index = stripeIndex();
+
+		while (true) {
+			Epoch current = epoch;
+			if (current == null) {
+				return false;
+			}
+			Stripe stripe = current.stripes[index];
+			if (stripe.tryLock()) {
+				try {
+					if (!stripe.isDrained) {
+						stripe.digest.add(message, number);
+						return true;
+					}
+				} finally {
+					stripe.unlock();
+				}
+			}
+			// the stripe is busy or already drained with its epoch; the next attempt reads the current epoch again
+			index = (index + 1) & (stripeCount - 1);
+		}
+	}
+
+	/**
+	 * Takes away the digest of all messages added since the previous call.
+	 *
+	 * @return the digest of the added messages.
+	 */
+	public NewsDigest drain() {
+		Epoch drained = epoch;
+		epoch = new Epoch(stripeCount, newsLimit);
+		return merge(drained);
+	}
+
+	/**
+	 * Takes away the digest of all messages added since the previous drain and refuses the messages added afterwards.
+	 *
+	 * @return the digest of the added messages.
+	 */
+	public NewsDigest close() {
+		Epoch drained = epoch;
+		epoch = null;
+		return merge(drained);
+	}
+
+	private NewsDigest merge(Epoch drained) {
+		NewsDigest digest = new NewsDigest(newsLimit);
+		for (Stripe stripe : drained.stripes) {
+			while (!stripe.tryLock()) {
+				Thread.yield();
+			}
+			try {
+				stripe.isDrained = true;
+				digest.addAll(stripe.digest);
+			} finally {
+				stripe.unlock();
+			}
+		}
+		return digest;
+	}
+
+	private int stripeIndex() {
+		long id = Thread.currentThread().getId();
+		int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & (stripeCount - 1);
+	}
+
+	/**
+	 * The stripes which receive messages between two reports.
+	 */
+	private static class Epoch {
+
+		private final Stripe[] stripes;
+
+		Epoch(int stripeCount, int newsLimit) {
+			stripes = new Stripe[stripeCount];
+			for (int i = 0; i < stripeCount; i++) {
+				stripes[i] = new Stripe(newsLimit);
+			}
+		}
+	}
+
+	/**
+	 * A digest guarded by a try-lock. The fields other than the lock are accessed only by the thread holding the lock.
+	 */
+	private static class Stripe {
+
+		private final AtomicBoolean lock = new AtomicBoolean();
+		private final NewsDigest digest;
+		private boolean isDrained;
+
+		Stripe(int newsLimit) {
+			digest = new NewsDigest(newsLimit);
+		}
+
+		boolean tryLock() {
+			return !lock.get() && lock.compareAndSet(false, true);
+		}
+
+		void unlock() {
+			lock.set(false);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package com.leobro.newsanalyser;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: a ring of slots, one per tick, each holding a doubly linked list of the timeouts expiring at
+ * the ticks which fall into the slot. Scheduling and removing a timeout take constant time whatever the count of
+ * timeouts, and every tick visits only the timeouts of one slot. A timeout further away than one turn of the wheel
+ * waits in its slot for the later turns.
+ * <p>The time of the wheel is counted in ticks, and the wheel moves on by one tick at every call of
+ * {@link #advance(Consumer)}; the length of a tick is up to the caller.
+ * <p>The class is not thread-safe: the wheel is meant to be driven by one thread.
+ */
+class TimingWheel {
+
+	private final Timeout[] slots;
+	private final int mask;
+	private long tick;
+
+	/**
+	 * Creates a new instance of the {@link TimingWheel} class.
+	 *
+	 * @param size the count of slots, rounded up to a power of two.
+	 */
+	public TimingWheel(int size) {
+		int length = Integer.highestOneBit(Math.max(size, 2) - 1) << 1;
+		slots = new Timeout[length];
+		mask = length - 1;
+	}
+
+	/**
+	 * Returns the current tick.
+	 *
+	 * @return the count of ticks the wheel has moved on.
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Schedules a timeout, which must not be scheduled already.
+	 *
+	 * @param timeout  the timeout,
+	 * @param deadline the tick at which the timeout expires; a tick not after the current one is taken as the next
+	 *                 tick.
+	 */
+	public void schedule(Timeout timeout, long deadline) {
+		timeout.deadline = Math.max(deadline, tick + 1);
+		int index = slotOf(timeout);
+		timeout.previous = null;
+		timeout.next = slots[index];
+		if (timeout.next != null) {
+			timeout.next.previous = timeout;
+		}
+		slots[index] = timeout;
+	}
+
+	/**
+	 * Removes a scheduled timeout before it expires.
+	 *
+	 * @param timeout the scheduled timeout.
+	 */
+	public void remove(Timeout timeout) {
+		if (timeout.previous != null) {
+			timeout.previous.next = timeout.next;
+		} else {
+			slots[slotOf(timeout)] = timeout.next;
+		}
+		if (timeout.next != null) {
+			timeout.next.previous = timeout.previous;
+		}
+		timeout.previous = null;
+		timeout.next = null;
+	}
+
+	/**
+	 * Moves on by one tick and removes the timeouts expiring at it. Each of them is passed to the handler, which may
+	 * schedule it again.
+	 *
+	 * @param handler the handler of the expired timeouts.
+	 */
+	public void advance(Consumer<Timeout> handler) {
+		tick++;
+		Timeout timeout = slots[(int) tick & mask];
+
+		while (timeout != null) {
+			Timeout next = timeout.next;
+			if (timeout.deadline <= tick) {
+				remove(timeout);
+				handler.accept(timeout);
+			}
+			timeout = next;
+		}
+	}
+
+	private int slotOf(Timeout timeout) {
+		return (int) timeout.deadline & mask;
+	}
+
+	/**
+	 * An entry of the wheel. Subclasses carry what is to be done when it expires.
+	 */
+	static class Timeout {
+
+		private long deadline;
+		private Timeout previous;
+		private Timeout next;
+
+		/**
+		 * Returns the tick at which the timeout expires.
+		 *
+		 * @return the deadline tick.
+		 */
+		long getDeadline() {
+			return deadline;
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.leobro.newsanalyser;
+
+/**
+ * Limits the rate of news messages from one connection. The bucket fills with tokens at the configured rate up to
+ * the burst size; every received message takes a token. The messages are counted after they have been read, so
+ * the tokens may go below zero by the messages of one read; the connection is then not read until the bucket has
+ * refilled to zero, which keeps the average rate at the limit.
+ * <p>The time is passed in by the caller as readings of {@link System#nanoTime()}.
+ * <p>The class is not thread-safe: a bucket belongs to the one thread reading its connection.
+ */
+class TokenBucket {
+
+	private final double tokensPerNano;
+	private final double burst;
+	private double tokens;
+	private long lastTime;
+
+	/**
+	 * Creates a new instance of the {@link TokenBucket} class, full of tokens.
+	 *
+	 * @param rate  the limit of the rate in messages per second,
+	 * @param burst the count of messages which can come at once after a pause, at least one,
+	 * @param now   the current time in nanoseconds.
+	 */
+	public TokenBucket(double rate, double burst, long now) {
+		tokensPerNano = rate / 1e9;
+		this.burst = Math.max(burst, 1);
+		tokens = this.burst;
+		lastTime = now;
+	}
+
+	/**
+	 * Takes the tokens of the received messages.
+	 *
+	 * @param count the count of messages,
+	 * @param now   the current time in nanoseconds.
+	 */
+	public void take(int count, long now) {
+		refill(now);
+		tokens -= count;
+	}
+
+	/**
+	 * Returns how long the connection must not be read before the tokens taken in advance are repaid.
+	 *
+	 * @param now the current time in nanoseconds.
+	 * @return the time to wait in nanoseconds, 0 if the connection can be read now.
+	 */
+	public long getWaitNanos(long now) {
+		refill(now);
+		if (tokens >= 0) {
+			return 0;
+		}
+		return (long) Math.ceil(-tokens / tokensPerNano);
+	}
+
+	private void refill(long now) {
+		tokens = Math.min(tokens + (now - lastTime) * tokensPerNano, burst);
+		lastTime = now;
+	}
+}
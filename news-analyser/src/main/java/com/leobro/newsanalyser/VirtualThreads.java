@@ -0,0 +1,58 @@
+package com.leobro.newsanalyser;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Utility class to create virtual threads when the application runs on Java 21 or newer. The application itself
+ * is built for Java 8, therefore the virtual thread API is reached through reflection.
+ */
+final class VirtualThreads {
+
+	private static final ThreadFactory FACTORY = lookUpFactory();
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * Tells if the running JVM supports virtual threads.
+	 *
+	 * @return {@code true} if virtual threads can be created.
+	 */
+	static boolean isSupported() {
+		return FACTORY != null;
+	}
+
+	/**
+	 * Returns the factory of virtual threads.
+	 *
+	 * @return the factory creating unstarted virtual threads.
+	 * @throws UnsupportedOperationException if the running JVM does not support virtual threads.
+	 */
+	static ThreadFactory factory() {
+		if (FACTORY == null) {
+			throw new UnsupportedOperationException("Virtual threads require Java 21 or newer, running on Java "
+					+ System.getProperty("java.version"));
+		}
+		return FACTORY;
+	}
+
+	/**
+	 * Does the same as {@code Thread.ofVirtual().name("news-receiver-", 0).factory()}.
+	 */
+	private static ThreadFactory lookUpFactory() {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Method name = builderClass.getMethod("name", String.class, long.class);
+			builder = name.invoke(builder, "news-receiver-", 0L);
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+		} catch (NoSuchMethodException | ClassNotFoundException e) {
+			return null;
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+}
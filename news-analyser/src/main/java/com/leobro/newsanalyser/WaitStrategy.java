@@ -0,0 +1,48 @@
+package com.leobro.newsanalyser;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The way a thread of the {@link IngestionPipeline} waits while there is nothing it can do: an analysis worker for
+ * frames to come, a receiver for room in the full buffer. The choice trades the CPU spent while waiting against
+ * the delay of noticing that the wait is over.
+ */
+enum WaitStrategy {
+
+	/**
+	 * Keeps checking in a busy loop. Reacts within nanoseconds but takes a whole core per waiting thread.
+	 */
+	SPIN {
+		@Override
+		void idle() {
+		}
+	},
+
+	/**
+	 * Gives the processor to other threads between the checks.
+	 */
+	YIELD {
+		@Override
+		void idle() {
+			Thread.yield();
+		}
+	},
+
+	/**
+	 * Sleeps for a short time between the checks. Takes almost no CPU but reacts only after tens of microseconds.
+	 */
+	PARK {
+		@Override
+		void idle() {
+			LockSupport.parkNanos(PARK_NANOS);
+		}
+	};
+
+	private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	/**
+	 * Waits once before the next check.
+	 */
+	abstract void idle();
+}
@@ -0,0 +1,264 @@
+package com.leobro.newsanalyser;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps every positive news message of the reporting period, e.g. for the audit, without a {@link NewsMessage} object
+ * per message on the heap. The messages are kept in columns: the priority, the key of the headline packed by
+ * the {@link HeadlineClassifier} and the arrival time, each in its own region of a direct {@link ByteBuffer}.
+ * Only the headlines which cannot be packed keep their strings, in a side array.
+ * <p>The priority takes one byte. The feeds send priorities from 0 to 9; a priority below 0 is kept as 0 and one above
+ * 127 as 127, which keeps such a message in the audit under the nearest priority the column can hold.
+ * <p>The columns are cut into chunks of 8192 messages. The chunks are taken from a pool as the period fills up and
+ * returned to it when the report has read the period, so the store allocates nothing once the chunks for the busiest
+ * period exist. The store holds at most the configured count of messages per period; the messages over that are only
+ * counted.
+ * <p>A receiver thread claims the index of its message with one atomic increment and writes the columns without
+ * a lock. {@link #drain()} installs a fresh period and waits until the threads still writing to the old one have
+ * finished, which takes only as long as writing one message.
+ * <p>The class is thread-safe.
+ */
+class WindowStore {
+
+	private static final int CHUNK_BITS = 13;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int KEYS = CHUNK_SIZE;
+	private static final int ARRIVALS = KEYS + CHUNK_SIZE * Long.BYTES;
+	private static final int CHUNK_BYTES = ARRIVALS + CHUNK_SIZE * Long.BYTES;
+
+	private final int capacity;
+	private final HeadlineClassifier classifier;
+	private final Queue<Chunk> pool;
+	private volatile Period period;
+
+	/**
+	 * Creates a new instance of the {@link WindowStore} class.
+	 *
+	 * @param capacity   the maximal count of messages kept per period,
+	 * @param classifier the classifier which has packed the headlines and rebuilds their texts.
+	 */
+	public WindowStore(int capacity, HeadlineClassifier classifier) {
+		this.capacity = capacity;
+		this.classifier = classifier;
+		pool = new ConcurrentLinkedQueue<>();
+		period = new Period();
+	}
+
+	/**
+	 * Adds a positive news message. Never waits for the other threads.
+	 *
+	 * @param message     the news message,
+	 * @param arrivalTime the time the message was received at in microseconds since the epoch.
+	 */
+	public void add(NewsMessage message, long arrivalTime) {
+		Period current;
+		while (true) {
+			current = period;
+			current.writerCount.incrementAndGet();
+			if (current == period) {
+				break;
+			}
+			// the period has been drained meanwhile
+			current.writerCount.decrementAndGet();
+		}
+		try {
+			int index = current.size.getAndIncrement();
+			if (index < capacity) {
+				current.getChunk(index >>> CHUNK_BITS).put(index & (CHUNK_SIZE - 1), message, arrivalTime);
+			}
+		} finally {
+			current.writerCount.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Takes away the messages added since the previous call. The messages added meanwhile go to the next period.
+	 *
+	 * @return the messages of the period, which must be released when they have been read.
+	 */
+	public Window drain() {
+		Period drained = period;
+		period = new Period();
+		while (drained.writerCount.get() > 0) {
+			Thread.yield();
+		}
+		return new Window(drained);
+	}
+
+	/**
+	 * The messages of a period: the chunks of 8192 messages, created or taken from the pool on demand.
+	 */
+	private class Period {
+
+		private final AtomicInteger size = new AtomicInteger();
+		private final AtomicInteger writerCount = new AtomicInteger();
+		private final AtomicReferenceArray<Chunk> chunks =
+				new AtomicReferenceArray<>((capacity + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+
+		Chunk getChunk(int index) {
+			Chunk chunk = chunks.get(index);
+			if (chunk != null) {
+				return chunk;
+			}
+			Chunk pooled = pool.poll();
+			Chunk created = (pooled != null) ? pooled : new Chunk();
+			if (chunks.compareAndSet(index, null, created)) {
+				return created;
+			}
+			// another thread has installed its chunk first
+			pool.add(created);
+			return chunks.get(index);
+		}
+	}
+
+	/**
+	 * The columns of 8192 messages in one direct buffer, and the texts of the headlines which are not packed.
+	 */
+	private static class Chunk {
+
+		private final ByteBuffer columns = ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.nativeOrder());
+		private final String[] texts = new String[CHUNK_SIZE];
+
+		void put(int index, NewsMessage message, long arrivalTime) {
+			int priority = Math.max(Math.min(message.getPriority(), Byte.MAX_VALUE), 0);
+			columns.put(index, (byte) priority);
+			columns.putLong(KEYS + index * Long.BYTES, message.getHeadlineKey());
+			columns.putLong(ARRIVALS + index * Long.BYTES, arrivalTime);
+			texts[index] = (message.getHeadlineKey() == 0) ? message.getHeadline() : null;
+		}
+
+		void clear() {
+			Arrays.fill(texts, null);
+		}
+	}
+
+	/**
+	 * The messages of a drained period.
+	 */
+	final class Window {
+
+		private final Period period;
+		private final int size;
+		private final int addedCount;
+
+		private Window(Period period) {
+			this.period = period;
+			addedCount = period.size.get();
+			size = Math.min(addedCount, capacity);
+		}
+
+		/**
+		 * Returns the count of messages kept.
+		 *
+		 * @return the count of messages to read.
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * Returns the count of messages which were not kept because the store was full.
+		 *
+		 * @return the count of messages over the capacity.
+		 */
+		public int getOverflowCount() {
+			return addedCount - size;
+		}
+
+		/**
+		 * Returns a new cursor before the first message.
+		 *
+		 * @return the cursor over the messages in the order of their indices.
+		 */
+		public Cursor cursor() {
+			return new Cursor(this);
+		}
+
+		/**
+		 * Returns the chunks of the window to the pool for the next periods. The window must not be read afterwards.
+		 */
+		public void release() {
+			for (int i = 0; i < period.chunks.length(); i++) {
+				Chunk chunk = period.chunks.getAndSet(i, null);
+				if (chunk != null) {
+					chunk.clear();
+					pool.add(chunk);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Iterates over the messages of a {@link Window} without creating an object per message: {@link #next()} moves to
+	 * the next message, whose fields the getters return.
+	 */
+	final class Cursor {
+
+		private final Window window;
+		private int index = -1;
+		private Chunk chunk;
+		private int offset;
+
+		private Cursor(Window window) {
+			this.window = window;
+		}
+
+		/**
+		 * Moves to the next message.
+		 *
+		 * @return {@code true} if there is a next message, {@code false} if all messages have been read.
+		 */
+		public boolean next() {
+			if (index + 1 >= window.size) {
+				return false;
+			}
+			index++;
+			chunk = window.period.chunks.get(index >>> CHUNK_BITS);
+			offset = index & (CHUNK_SIZE - 1);
+			return true;
+		}
+
+		/**
+		 * Returns the priority of the message.
+		 *
+		 * @return the priority from 0 to 127.
+		 */
+		public int getPriority() {
+			return chunk.columns.get(offset);
+		}
+
+		/**
+		 * Returns the headline packed into a key.
+		 *
+		 * @return the key of the headline, 0 if it is not packed.
+		 */
+		public long getHeadlineKey() {
+			return chunk.columns.getLong(KEYS + offset * Long.BYTES);
+		}
+
+		/**
+		 * Returns the text of the headline, rebuilt from its key if it is packed.
+		 *
+		 * @return the headline.
+		 */
+		public String getHeadline() {
+			long key = getHeadlineKey();
+			return (key != 0) ? classifier.unpack(key) : chunk.texts[offset];
+		}
+
+		/**
+		 * Returns the time the message was received at.
+		 *
+		 * @return the arrival time in microseconds since the epoch.
+		 */
+		public long getArrivalTime() {
+			return chunk.columns.getLong(ARRIVALS + offset * Long.BYTES);
+		}
+	}
+}
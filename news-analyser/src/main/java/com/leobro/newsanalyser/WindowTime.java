@@ -0,0 +1,18 @@
+package com.leobro.newsanalyser;
+
+/**
+ * The time by which the {@link Reporter} assigns the news messages to the reporting periods.
+ */
+enum WindowTime {
+
+	/**
+	 * A message counts in the period it arrives in.
+	 */
+	PROCESSING,
+
+	/**
+	 * A message counts in the period it was created in, as stamped by the feed (see {@link EventTimeWindows}).
+	 * A message without a timestamp takes the time it arrives at.
+	 */
+	EVENT
+}
@@ -30,7 +30,7 @@ public class AnalyserTest {
 
 		stubbedAnalyser = new Analyser(reporter) {
 			@Override
-			NewsMessage convertToMessage(String inputLine) {
+			NewsMessage convertToMessage(CharSequence inputLine) {
 				return new NewsMessage();
 			}
 
@@ -56,6 +56,15 @@ public class AnalyserTest {
 		Mockito.verify(reporter, never()).add(any(NewsMessage.class));
 	}
 
+	@Test
+	public void when_messageHasTimestamp_then_latencyIsRecordedWhetherPositiveOrNot() {
+		analyser.analyse("{\"headline\":\"bad down\",\"priority\":1,\"sentAt\":1234}");
+		Mockito.verify(reporter, times(1)).recordLatency(1234);
+
+		analyser.analyse("{\"headline\":\"bad down\",\"priority\":1}");
+		Mockito.verify(reporter, times(1)).recordLatency(Mockito.anyLong());
+	}
+
 	@Test
 	public void when_moreThanHalfWordsArePositive_then_messageIsPositive() {
 		NewsMessage message = new NewsMessage();
@@ -67,6 +76,23 @@ public class AnalyserTest {
 		assertTrue(isPositive);
 	}
 
+	@Test
+	public void when_vocabularyIsConfigured_then_headlineIsPackedAndClassifiedByKey() {
+		String[] words = new String[]{"up", "good", "high", "success", "bad", "failure", "down", "fall"};
+		HeadlineVocabulary vocabulary = new HeadlineVocabulary(words, GOOD_WORDS,
+				new PositiveWordClassifier(GOOD_WORDS));
+		Analyser packingAnalyser = new Analyser(reporter, vocabulary);
+		NewsMessage packed = new NewsMessage();
+		packed.setHeadline("up good bad");
+		NewsMessage unknown = new NewsMessage();
+		unknown.setHeadline("up good sideways");
+
+		assertTrue(packingAnalyser.isPositive(packed));
+		assertTrue(packingAnalyser.isPositive(unknown));
+		assertThat(packed.getHeadlineKey(), is(vocabulary.pack("up good bad")));
+		assertThat(unknown.getHeadlineKey(), is(0L));
+	}
+
 	@Test
 	public void when_AllWordsArePositive_then_messageIsPositive() {
 		NewsMessage message = new NewsMessage();
@@ -0,0 +1,183 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.Handshake;
+import com.leobro.newscodec.WireFormat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.times;
+
+public class ChannelReceiverTest {
+
+	private static final String[] GOOD_WORDS = new String[]{"up", "good", "high", "über"};
+	private static final String FIRST_MESSAGE = "{\"headline\":\"up good high\",\"priority\":7}";
+	private static final String SECOND_MESSAGE = "{\"headline\":\"good high\",\"priority\":3}";
+
+	private ServerSocketChannel serverChannel;
+	private Socket clientSocket;
+	private SocketChannel channel;
+	private Reporter reporter;
+	private ChannelReceiver receiver;
+
+	@Before
+	public void setUp() throws IOException {
+		serverChannel = ServerSocketChannel.open();
+		serverChannel.bind(new InetSocketAddress("127.0.0.1", 0));
+		clientSocket = new Socket("127.0.0.1", serverChannel.socket().getLocalPort());
+		channel = serverChannel.accept();
+		channel.configureBlocking(false);
+
+		reporter = Mockito.mock(Reporter.class);
+		Mockito.when(reporter.getPositiveWords()).thenReturn(GOOD_WORDS);
+		receiver = new ChannelReceiver(channel, new Analyser(reporter, new PositiveWordClassifier(GOOD_WORDS)));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		clientSocket.close();
+		channel.close();
+		serverChannel.close();
+	}
+
+	@Test
+	public void when_linesArriveInPieces_then_everyCompleteLineIsAnalysed() throws Exception {
+		byte[] bytes = (FIRST_MESSAGE + "\r\n" + SECOND_MESSAGE + "\n").getBytes(StandardCharsets.UTF_16);
+		OutputStream out = clientSocket.getOutputStream();
+		int half = bytes.length / 2 + 1;
+
+		out.write(bytes, 0, half);
+		out.flush();
+		readFor(200);
+		out.write(bytes, half, bytes.length - half);
+		out.flush();
+		readFor(200);
+
+		ArgumentCaptor<NewsMessage> captor = ArgumentCaptor.forClass(NewsMessage.class);
+		Mockito.verify(reporter, times(2)).add(captor.capture());
+		List<NewsMessage> messages = captor.getAllValues();
+
+		assertThat(messages.get(0).getPriority(), is(7));
+		assertThat(messages.get(0).getHeadline(), is("up good high"));
+		assertThat(messages.get(1).getPriority(), is(3));
+		assertThat(messages.get(1).getHeadline(), is("good high"));
+	}
+
+	@Test
+	public void when_clientRequestsBinaryFrames_then_handshakeIsAnsweredAndFramesAreAnalysed() throws Exception {
+		byte[] headline = "über good".getBytes(StandardCharsets.UTF_8);
+		ByteBuffer bytes = ByteBuffer.allocate(64);
+		bytes.put(new byte[]{'N', 'W', 'S', Handshake.VERSION, WireFormat.BINARY_FRAMES.getCode(), 0});
+		bytes.putShort((short) (headline.length + 1)).put((byte) 8).put(headline);
+
+		clientSocket.getOutputStream().write(bytes.array(), 0, bytes.position());
+		readFor(200);
+
+		assertThat((byte) clientSocket.getInputStream().read(), is(WireFormat.BINARY_FRAMES.getCode()));
+		ArgumentCaptor<NewsMessage> captor = ArgumentCaptor.forClass(NewsMessage.class);
+		Mockito.verify(reporter).add(captor.capture());
+		assertThat(captor.getValue().getPriority(), is(8));
+		assertThat(captor.getValue().getHeadline(), is("über good"));
+	}
+
+	@Test
+	public void when_feedExceedsItsLimit_then_itIsNotReadUntilTokensAreRepaid() throws Exception {
+		Map<String, Double> feedRates = new HashMap<>();
+		feedRates.put("flood", 1.0);
+		receiver = new ChannelReceiver(channel, new Analyser(reporter, new PositiveWordClassifier(GOOD_WORDS)),
+				new FeedRateLimits(0, feedRates, 0), 1024);
+		byte[] headline = "up good".getBytes(StandardCharsets.UTF_8);
+		ByteBuffer bytes = ByteBuffer.allocate(256);
+		bytes.put(new byte[]{'N', 'W', 'S', Handshake.VERSION, WireFormat.BINARY_FRAMES.getCode(), 5});
+		bytes.put("flood".getBytes(StandardCharsets.UTF_8));
+		for (int i = 0; i < 3; i++) {
+			bytes.putShort((short) (headline.length + 1)).put((byte) i).put(headline);
+		}
+		OutputStream out = clientSocket.getOutputStream();
+		out.write(bytes.array(), 0, bytes.position());
+		out.flush();
+		readFor(200);
+
+		Mockito.verify(reporter, times(3)).add(Mockito.any(NewsMessage.class));
+		assertThat(receiver.getThrottleNanos(System.nanoTime()) > 0, is(true));
+
+		out.write(bytes.array(), bytes.position() - headline.length - 3, headline.length + 3);
+		out.flush();
+		readFor(200);
+
+		Mockito.verify(reporter, times(3)).add(Mockito.any(NewsMessage.class));
+	}
+
+	@Test
+	public void when_heartbeatsArrive_then_theyAreNotAnalysed() throws Exception {
+		byte[] headline = "up good".getBytes(StandardCharsets.UTF_8);
+		ByteBuffer bytes = ByteBuffer.allocate(64);
+		bytes.put(new byte[]{'N', 'W', 'S', Handshake.VERSION, WireFormat.BINARY_FRAMES.getCode(), 0});
+		bytes.putShort((short) 0);
+		bytes.putShort((short) (headline.length + 1)).put((byte) 5).put(headline);
+		bytes.putShort((short) 0);
+
+		clientSocket.getOutputStream().write(bytes.array(), 0, bytes.position());
+		readFor(200);
+
+		ArgumentCaptor<NewsMessage> captor = ArgumentCaptor.forClass(NewsMessage.class);
+		Mockito.verify(reporter).add(captor.capture());
+		assertThat(captor.getValue().getHeadline(), is("up good"));
+		assertThat(channel.isOpen(), is(true));
+	}
+
+	@Test
+	public void when_clientDisconnects_then_channelIsClosed() throws Exception {
+		clientSocket.close();
+		readFor(200);
+
+		assertThat(channel.isOpen(), is(false));
+	}
+
+	@Test
+	public void when_channelIsClosedDuringRead_then_noErrorIsPrinted() throws Exception {
+		channel.configureBlocking(true);
+		Thread reader = new Thread(receiver::read);
+		ByteArrayOutputStream errors = new ByteArrayOutputStream();
+		PrintStream systemErr = System.err;
+		System.setErr(new PrintStream(errors, true));
+		try {
+			reader.start();
+			Thread.sleep(200);
+			receiver.close();
+			reader.join(1000);
+		} finally {
+			System.setErr(systemErr);
+		}
+
+		assertThat(reader.isAlive(), is(false));
+		assertThat(channel.isOpen(), is(false));
+		assertThat(errors.toString(), is(""));
+	}
+
+	private void readFor(long millis) throws InterruptedException {
+		long end = System.currentTimeMillis() + millis;
+		while (System.currentTimeMillis() < end && channel.isOpen()) {
+			receiver.read();
+			Thread.sleep(10);
+		}
+	}
+}
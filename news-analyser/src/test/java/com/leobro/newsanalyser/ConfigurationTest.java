@@ -5,6 +5,7 @@ import org.junit.Test;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.Locale;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
@@ -15,10 +16,57 @@ public class ConfigurationTest {
 	private static final int PORT = 7777;
 	private static final String PERIOD_KEY = "reportingPeriod";
 	private static final int PERIOD = 10000;
+	private static final String WINDOW_KEY = "windowInMilliseconds";
+	private static final int WINDOW = 30000;
+	private static final String HORIZONS_KEY = "horizonsInMilliseconds";
+	private static final String HORIZONS = "3600000, 60000";
 	private static final String NEWS_LIMIT_KEY = "maxNewsCountToShow";
 	private static final int NEWS_LIMIT = 3;
 	private static final String POSITIVE_WORDS_KEY = "positiveWords";
 	private static final String[] POSITIVE_WORDS = new String[]{"positive", "good"};
+	private static final String INGESTION_MODE_KEY = "ingestionMode";
+	private static final String INGESTION_MODE = "selector";
+	private static final String EVENT_LOOP_THREADS_KEY = "eventLoopThreads";
+	private static final int EVENT_LOOP_THREADS = 4;
+	private static final String ANALYSIS_WORKERS_KEY = "analysisWorkers";
+	private static final int ANALYSIS_WORKERS = 3;
+	private static final String INGESTION_BUFFER_SIZE_KEY = "ingestionBufferSize";
+	private static final int INGESTION_BUFFER_SIZE = 1024;
+	private static final String ANALYSIS_BATCH_SIZE_KEY = "analysisBatchSize";
+	private static final int ANALYSIS_BATCH_SIZE = 32;
+	private static final String WAIT_STRATEGY_KEY = "waitStrategy";
+	private static final String WAIT_STRATEGY = "yield";
+	private static final String LOAD_SHEDDING_KEY = "loadShedding";
+	private static final String SHEDDING_START_FILL_KEY = "sheddingStartFill";
+	private static final double SHEDDING_START_FILL = 0.75;
+	private static final String PROTECTED_PRIORITY_KEY = "protectedPriority";
+	private static final int PROTECTED_PRIORITY = 8;
+	private static final String FEED_RATE_LIMIT_KEY = "feedRateLimit";
+	private static final double FEED_RATE_LIMIT = 1000;
+	private static final String FEED_NAME = "feed-1";
+	private static final double FEED_NAME_RATE_LIMIT = 50;
+	private static final String EVENT_LOOP_READ_BUDGET_KEY = "eventLoopReadBudget";
+	private static final int EVENT_LOOP_READ_BUDGET = 4096;
+	private static final String IDLE_TIMEOUT_KEY = "idleTimeoutInMilliseconds";
+	private static final long IDLE_TIMEOUT = 15000;
+	private static final String HEADLINE_CACHE_SIZE_KEY = "headlineCacheSize";
+	private static final int HEADLINE_CACHE_SIZE = 1024;
+	private static final String WINDOW_STORE_CAPACITY_KEY = "windowStoreCapacity";
+	private static final int WINDOW_STORE_CAPACITY = 100000;
+	private static final String JOURNAL_DIRECTORY_KEY = "journalDirectory";
+	private static final String JOURNAL_DIRECTORY = "/var/news/journal";
+	private static final String JOURNAL_SEGMENT_SIZE_KEY = "journalSegmentSize";
+	private static final int JOURNAL_SEGMENT_SIZE = 1048576;
+	private static final String JOURNAL_ROLL_INTERVAL_KEY = "journalRollIntervalInMilliseconds";
+	private static final long JOURNAL_ROLL_INTERVAL = 60000;
+	private static final String JOURNAL_DURABILITY_KEY = "journalDurability";
+	private static final String JOURNAL_FORCE_INTERVAL_KEY = "journalForceIntervalInMilliseconds";
+	private static final long JOURNAL_FORCE_INTERVAL = 200;
+	private static final String WINDOW_TIME_KEY = "windowTime";
+	private static final String ALLOWED_LATENESS_KEY = "allowedLatenessInMilliseconds";
+	private static final int ALLOWED_LATENESS = 5000;
+	private static final String CLOCK_TOLERANCE_KEY = "clockToleranceInMilliseconds";
+	private static final int CLOCK_TOLERANCE = 30000;
 
 	private Configuration config;
 
@@ -26,8 +74,33 @@ public class ConfigurationTest {
 	public void setUp() {
 		String properties = PORT_KEY + "=" + PORT + "\n"
 				+ PERIOD_KEY + "=" + PERIOD + "\n"
+				+ WINDOW_KEY + "=" + WINDOW + "\n"
+				+ HORIZONS_KEY + "=" + HORIZONS + "\n"
 				+ NEWS_LIMIT_KEY + "=" + NEWS_LIMIT + "\n"
-				+ POSITIVE_WORDS_KEY + "=" + POSITIVE_WORDS[0] + "," + POSITIVE_WORDS[1];
+				+ POSITIVE_WORDS_KEY + "=" + POSITIVE_WORDS[0] + "," + POSITIVE_WORDS[1] + "\n"
+				+ INGESTION_MODE_KEY + "=" + INGESTION_MODE + "\n"
+				+ EVENT_LOOP_THREADS_KEY + "=" + EVENT_LOOP_THREADS + "\n"
+				+ ANALYSIS_WORKERS_KEY + "=" + ANALYSIS_WORKERS + "\n"
+				+ INGESTION_BUFFER_SIZE_KEY + "=" + INGESTION_BUFFER_SIZE + "\n"
+				+ ANALYSIS_BATCH_SIZE_KEY + "=" + ANALYSIS_BATCH_SIZE + "\n"
+				+ WAIT_STRATEGY_KEY + "=" + WAIT_STRATEGY + "\n"
+				+ LOAD_SHEDDING_KEY + "=true\n"
+				+ SHEDDING_START_FILL_KEY + "=" + SHEDDING_START_FILL + "\n"
+				+ PROTECTED_PRIORITY_KEY + "=" + PROTECTED_PRIORITY + "\n"
+				+ FEED_RATE_LIMIT_KEY + "=" + FEED_RATE_LIMIT + "\n"
+				+ FEED_RATE_LIMIT_KEY + "." + FEED_NAME + "=" + FEED_NAME_RATE_LIMIT + "\n"
+				+ EVENT_LOOP_READ_BUDGET_KEY + "=" + EVENT_LOOP_READ_BUDGET + "\n"
+				+ IDLE_TIMEOUT_KEY + "=" + IDLE_TIMEOUT + "\n"
+				+ HEADLINE_CACHE_SIZE_KEY + "=" + HEADLINE_CACHE_SIZE + "\n"
+				+ WINDOW_STORE_CAPACITY_KEY + "=" + WINDOW_STORE_CAPACITY + "\n"
+				+ JOURNAL_DIRECTORY_KEY + "=" + JOURNAL_DIRECTORY + "\n"
+				+ JOURNAL_SEGMENT_SIZE_KEY + "=" + JOURNAL_SEGMENT_SIZE + "\n"
+				+ JOURNAL_ROLL_INTERVAL_KEY + "=" + JOURNAL_ROLL_INTERVAL + "\n"
+				+ JOURNAL_DURABILITY_KEY + "=batch\n"
+				+ JOURNAL_FORCE_INTERVAL_KEY + "=" + JOURNAL_FORCE_INTERVAL + "\n"
+				+ WINDOW_TIME_KEY + "=event\n"
+				+ ALLOWED_LATENESS_KEY + "=" + ALLOWED_LATENESS + "\n"
+				+ CLOCK_TOLERANCE_KEY + "=" + CLOCK_TOLERANCE;
 
 		config = new Configuration(){
 			@Override
@@ -52,6 +125,34 @@ public class ConfigurationTest {
 		assertThat(period, is(PERIOD));
 	}
 
+	@Test
+	public void when_propertiesAreGiven_then_windowLengthIsRead() {
+		int window = config.getWindowLength();
+		assertThat(window, is(WINDOW));
+	}
+
+	@Test
+	public void when_windowLengthIsNotGiven_then_itIsReportingPeriod() {
+		Configuration emptyConfig = new Configuration() {
+			@Override
+			Reader getPropertiesFileReader() {
+				return new StringReader("");
+			}
+		};
+
+		assertThat(emptyConfig.getWindowLength(), is(emptyConfig.getReportingPeriod()));
+		assertThat(emptyConfig.getHorizons().length, is(0));
+	}
+
+	@Test
+	public void when_propertiesAreGiven_then_horizonsAreReadInAscendingOrder() {
+		int[] horizons = config.getHorizons();
+
+		assertThat(horizons.length, is(2));
+		assertThat(horizons[0], is(60000));
+		assertThat(horizons[1], is(3600000));
+	}
+
 	@Test
 	public void when_propertiesAreGiven_then_newsLimitIsRead() {
 		int newsLimit = config.getNewsLimit();
@@ -66,4 +167,93 @@ public class ConfigurationTest {
 		assertThat(words[0], is(POSITIVE_WORDS[0]));
 		assertThat(words[1], is(POSITIVE_WORDS[1]));
 	}
+
+	@Test
+	public void when_propertiesAreGiven_then_ingestionModeIsRead() {
+		IngestionMode mode = config.getIngestionMode();
+		assertThat(mode, is(IngestionMode.SELECTOR));
+	}
+
+	@Test
+	public void when_propertiesAreGiven_then_eventLoopThreadsAreRead() {
+		int threads = config.getEventLoopThreads();
+		assertThat(threads, is(EVENT_LOOP_THREADS));
+	}
+
+	@Test
+	public void when_propertiesAreGiven_then_pipelineSettingsAreRead() {
+		assertThat(config.getAnalysisWorkers(), is(ANALYSIS_WORKERS));
+		assertThat(config.getIngestionBufferSize(), is(INGESTION_BUFFER_SIZE));
+		assertThat(config.getAnalysisBatchSize(), is(ANALYSIS_BATCH_SIZE));
+		assertThat(config.getWaitStrategy(), is(WaitStrategy.YIELD));
+	}
+
+	@Test
+	public void when_propertiesAreGiven_then_sheddingSettingsAreRead() {
+		assertThat(config.isLoadShedding(), is(true));
+		assertThat(config.getSheddingStartFill(), is(SHEDDING_START_FILL));
+		assertThat(config.getProtectedPriority(), is(PROTECTED_PRIORITY));
+	}
+
+	@Test
+	public void when_propertiesAreGiven_then_feedLimitsAreRead() {
+		FeedRateLimits limits = config.getFeedRateLimits();
+
+		assertThat(limits.getRate(""), is(FEED_RATE_LIMIT));
+		assertThat(limits.getRate("feed-2"), is(FEED_RATE_LIMIT));
+		assertThat(limits.getRate(FEED_NAME), is(FEED_NAME_RATE_LIMIT));
+		assertThat(config.getEventLoopReadBudget(), is(EVENT_LOOP_READ_BUDGET));
+	}
+
+	@Test
+	public void when_propertyIsGiven_then_idleTimeoutIsRead() {
+		assertThat(config.getIdleTimeout(), is(IDLE_TIMEOUT));
+	}
+
+	@Test
+	public void when_propertyIsGiven_then_headlineCacheSizeIsRead() {
+		assertThat(config.getHeadlineCacheSize(), is(HEADLINE_CACHE_SIZE));
+	}
+
+	@Test
+	public void when_propertyIsGiven_then_windowStoreCapacityIsRead() {
+		assertThat(config.getWindowStoreCapacity(), is(WINDOW_STORE_CAPACITY));
+		assertThat(config.getHeadlineWords().length, is(0));
+	}
+
+	@Test
+	public void when_propertiesAreGiven_then_journalSettingsAreRead() {
+		assertThat(config.getJournalDirectory(), is(JOURNAL_DIRECTORY));
+		assertThat(config.getJournalSegmentSize(), is(JOURNAL_SEGMENT_SIZE));
+		assertThat(config.getJournalRollInterval(), is(JOURNAL_ROLL_INTERVAL));
+		assertThat(config.getJournalDurability(), is(JournalDurability.BATCH));
+		assertThat(config.getJournalForceInterval(), is(JOURNAL_FORCE_INTERVAL));
+	}
+
+	@Test
+	public void when_propertiesAreGiven_then_eventTimeSettingsAreRead() {
+		assertThat(config.getWindowTime(), is(WindowTime.EVENT));
+		assertThat(config.getAllowedLateness(), is(ALLOWED_LATENESS));
+		assertThat(config.getClockTolerance(), is(CLOCK_TOLERANCE));
+	}
+
+	@Test
+	public void when_defaultLocaleIsTurkish_then_modesWithLetterIAreRead() {
+		Locale defaultLocale = Locale.getDefault();
+		Locale.setDefault(new Locale("tr", "TR"));
+		try {
+			Configuration turkishConfig = new Configuration() {
+				@Override
+				Reader getPropertiesFileReader() {
+					return new StringReader("ingestionMode=blocking\nwaitStrategy=spin\njournalDurability=periodic");
+				}
+			};
+
+			assertThat(turkishConfig.getIngestionMode(), is(IngestionMode.BLOCKING));
+			assertThat(turkishConfig.getWaitStrategy(), is(WaitStrategy.SPIN));
+			assertThat(turkishConfig.getJournalDurability(), is(JournalDurability.PERIODIC));
+		} finally {
+			Locale.setDefault(defaultLocale);
+		}
+	}
 }
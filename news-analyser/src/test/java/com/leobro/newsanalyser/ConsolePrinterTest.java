@@ -1,10 +1,12 @@
 package com.leobro.newsanalyser;
 
+import org.HdrHistogram.Histogram;
 import org.junit.Test;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
@@ -13,33 +15,90 @@ public class ConsolePrinterTest {
 	private static final int NEWS_LIMIT = 3;
 
 	@Test
-	public void when_selectImportantNews_then_selectsDistinctAndSortsAndLimitsCount() {
-		ConsolePrinter printer = new ConsolePrinter(NEWS_LIMIT);
-		List<NewsMessage> messages = createMessages();
+	public void when_print_then_printsCountAndImportantNewsInOrder() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ConsolePrinter printer = new ConsolePrinter(new PrintStream(bytes, true));
+		NewsDigest digest = new NewsDigest(NEWS_LIMIT);
+		digest.add(createMessage("headline1", 1), 0);
+		digest.add(createMessage("headline2", 0), 1);
+		digest.add(createMessage("headline3", 2), 2);
+		digest.add(createMessage("headline4", 0), 3);
 
-		List<NewsMessage> selectedMessages = printer.selectImportantNews(messages);
+		printer.print(digest);
 
-		assertThat(selectedMessages.size(), is(NEWS_LIMIT));
+		String report = bytes.toString();
+		assertThat(report, containsString("Positive news since the last digest: 4"));
+		assertThat(report.indexOf("Prio. 2: headline3") < report.indexOf("Prio. 1: headline1"), is(true));
+		assertThat(report.indexOf("Prio. 1: headline1") < report.indexOf("Prio. 0: headline2"), is(true));
+		assertThat(report.contains("headline4"), is(false));
+		assertThat(report.contains("dropped"), is(false));
+	}
+
+	@Test
+	public void when_messagesWereShed_then_printsTheirCount() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ConsolePrinter printer = new ConsolePrinter(new PrintStream(bytes, true));
+		NewsDigest digest = new NewsDigest(NEWS_LIMIT);
+		digest.addShed(42);
+
+		printer.print(digest);
+
+		assertThat(bytes.toString(), containsString("Low-priority news dropped unread under overload: 42"));
+	}
+
+	@Test
+	public void when_printLatency_then_printsPercentilesAndCount() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ConsolePrinter printer = new ConsolePrinter(new PrintStream(bytes, true));
+		Histogram histogram = new Histogram(3);
+		for (int i = 1; i <= 1000; i++) {
+			histogram.recordValue(i);
+		}
+
+		printer.printLatency(histogram);
 
-		assertThat(selectedMessages.get(0).getPriority(), is(2));
-		assertThat(selectedMessages.get(0).getHeadline(), is("headline3"));
+		assertThat(bytes.toString(), containsString("Latency, us: p50 500, p99 990, p99.9 999, max 1000 (1000 messages)"));
+	}
+
+	@Test
+	public void when_printIngestionWithWaits_then_printsWarning() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ConsolePrinter printer = new ConsolePrinter(new PrintStream(bytes, true));
 
-		assertThat(selectedMessages.get(1).getPriority(), is(1));
-		assertThat(selectedMessages.get(1).getHeadline(), is("headline1"));
+		printer.printIngestion(10, 1024, 0);
+		printer.printIngestion(1024, 1024, 7);
 
-		assertThat(selectedMessages.get(2).getPriority(), is(0));
-		assertThat(selectedMessages.get(2).getHeadline(), is("headline2"));
+		String report = bytes.toString();
+		assertThat(report, containsString("Ingestion buffer: 10 of 1024 messages queued, full 0 times"
+				+ System.lineSeparator()));
+		assertThat(report, containsString("Ingestion buffer: 1024 of 1024 messages queued, full 7 times"
+				+ " - the analysis does not keep up"));
 	}
 
-	private List<NewsMessage> createMessages() {
-		List<NewsMessage> messages = new ArrayList<>();
+	@Test
+	public void when_printHeadlineCache_then_printsHitRatio() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ConsolePrinter printer = new ConsolePrinter(new PrintStream(bytes, true));
+
+		printer.printHeadlineCache(900, 100);
+
+		assertThat(bytes.toString(), containsString("Headline cache: 900 hits, 100 misses (90% hits)"));
+	}
+
+	@Test
+	public void when_printRetained_then_printsCountsByPriority() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ConsolePrinter printer = new ConsolePrinter(new PrintStream(bytes, true));
+		WindowStore store = new WindowStore(3, new PositiveWordClassifier(new String[]{"up"}));
+		store.add(createMessage("up", 9), 0);
+		store.add(createMessage("up up", 2), 0);
+		store.add(createMessage("up", 9), 0);
+		store.add(createMessage("up", 1), 0);
 
-		messages.add(createMessage("headline1", 1));
-		messages.add(createMessage("headline2", 0));
-		messages.add(createMessage("headline3", 2));
-		messages.add(createMessage("headline4", 0));
+		printer.printRetained(store.drain());
 
-		return messages;
+		assertThat(bytes.toString(), containsString("Messages retained: 3 (prio. 9: 2, prio. 2: 1),"
+				+ " not retained - the store is full: 1"));
 	}
 
 	private NewsMessage createMessage(String headline, int priority) {
@@ -0,0 +1,192 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.EpochClock;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class EventTimeWindowsTest {
+
+	private static final int PERIOD = 1000;
+	private static final int ALLOWED_LATENESS = 500;
+	private static final int CLOCK_TOLERANCE = 60000;
+	private static final int NEWS_LIMIT = 3;
+	private static final int MAX_EMPTY_WINDOWS = 10;
+
+	@Test
+	public void when_watermarkPassesWindowByAllowedLateness_then_windowIsClosed() {
+		EventTimeWindows windows = createWindows(ALLOWED_LATENESS);
+		windows.add(createMessage("first", 1), millis(100));
+		windows.add(createMessage("second", 2), millis(900));
+		windows.add(createMessage("third", 3), millis(1400));
+
+		assertThat(closeWindows(windows).size(), is(0));
+
+		windows.add(createMessage("fourth", 4), millis(1500));
+		List<NewsDigest> digests = closeWindows(windows);
+
+		assertThat(digests.size(), is(1));
+		assertThat(digests.get(0).getCount(), is(2L));
+		assertThat(digests.get(0).getTopNews().get(0).getHeadline(), is("second"));
+	}
+
+	@Test
+	public void when_messageIsDelayedLessThanAllowedLateness_then_itCountsInItsWindow() {
+		EventTimeWindows windows = createWindows(ALLOWED_LATENESS);
+		windows.add(createMessage("on time", 1), millis(1200));
+		windows.add(createMessage("delayed", 1), millis(800));
+		windows.add(createMessage("latest", 1), millis(2600));
+
+		List<NewsDigest> digests = closeWindows(windows);
+
+		assertThat(digests.size(), is(2));
+		assertThat(digests.get(0).getTopNews().get(0).getHeadline(), is("delayed"));
+		assertThat(digests.get(1).getTopNews().get(0).getHeadline(), is("on time"));
+		assertThat(windows.takeLateCount(), is(0L));
+	}
+
+	@Test
+	public void when_messageComesAfterItsWindowClosed_then_itIsCountedAsLate() {
+		EventTimeWindows windows = createWindows(ALLOWED_LATENESS);
+		windows.add(createMessage("early", 1), millis(100));
+		windows.add(createMessage("latest", 1), millis(1600));
+		closeWindows(windows);
+
+		windows.add(createMessage("late", 1), millis(200));
+		windows.add(createMessage("latest", 1), millis(2600));
+		List<NewsDigest> digests = closeWindows(windows);
+
+		assertThat(digests.size(), is(1));
+		assertThat(digests.get(0).getCount(), is(1L));
+		assertThat(windows.takeLateCount(), is(1L));
+		assertThat(windows.takeLateCount(), is(0L));
+	}
+
+	@Test
+	public void when_watermarkJumps_then_emptyWindowsAreClosedToo() {
+		EventTimeWindows windows = createWindows(ALLOWED_LATENESS);
+		windows.add(createMessage("before pause", 1), millis(100));
+		windows.add(createMessage("after pause", 1), millis(5600));
+
+		List<NewsDigest> digests = closeWindows(windows);
+
+		assertThat(digests.size(), is(5));
+		assertThat(digests.get(0).getCount(), is(1L));
+		for (int i = 1; i < digests.size(); i++) {
+			assertThat(digests.get(i).getCount(), is(0L));
+		}
+	}
+
+	@Test
+	public void when_manyWindowsPassBetweenReports_then_eachIsReportedWithItsMessages() {
+		EventTimeWindows windows = createWindows(0);
+		for (int i = 0; i < 10; i++) {
+			windows.add(createMessage("window" + i, 1), millis(i * PERIOD + 10));
+			windows.add(createMessage("window" + i, 1), millis(i * PERIOD + 20));
+		}
+
+		List<NewsDigest> digests = closeWindows(windows);
+
+		assertThat(digests.size(), is(9));
+		for (int i = 0; i < digests.size(); i++) {
+			assertThat(digests.get(i).getCount(), is(2L));
+			assertThat(digests.get(i).getTopNews().get(0).getHeadline(), is("window" + i));
+		}
+		assertThat(windows.takeLateCount(), is(0L));
+	}
+
+	@Test
+	public void when_allAreExpired_then_openWindowsAreClosedAtOnce() {
+		EventTimeWindows windows = createWindows(ALLOWED_LATENESS);
+		windows.add(createMessage("first", 1), millis(100));
+		windows.add(createMessage("second", 1), millis(1100));
+
+		windows.expireAll();
+		List<NewsDigest> digests = closeWindows(windows);
+
+		assertThat(digests.size(), is(2));
+		assertThat(digests.get(1).getTopNews().get(0).getHeadline(), is("second"));
+	}
+
+	@Test
+	public void when_messageIsStampedFarAhead_then_itIsLateAndWatermarkStays() {
+		EventTimeWindows windows = createWindows(ALLOWED_LATENESS);
+		long now = EpochClock.currentTimeMicros();
+		windows.add(createMessage("on time", 1), now);
+		windows.add(createMessage("in nanoseconds", 1), now * 1000);
+
+		assertThat(windows.takeLateCount(), is(1L));
+		assertThat(closeWindows(windows).size(), is(0));
+
+		windows.add(createMessage("next", 1), now + millis(PERIOD + ALLOWED_LATENESS));
+		List<NewsDigest> digests = closeWindows(windows);
+
+		assertThat(digests.size(), is(1));
+		assertThat(digests.get(0).getTopNews().get(0).getHeadline(), is("on time"));
+		assertThat(windows.takeLateCount(), is(0L));
+	}
+
+	@Test
+	public void when_messageIsStampedFarBehind_then_emptyWindowsUpToWatermarkAreSkipped() {
+		EventTimeWindows windows = createWindows(ALLOWED_LATENESS);
+		long now = EpochClock.currentTimeMicros();
+		windows.add(createMessage("stamped near the epoch", 1), 1);
+		windows.add(createMessage("on time", 1), now);
+		windows.add(createMessage("far behind", 1), 2);
+
+		RecordingHandler handler = new RecordingHandler();
+		windows.closeWindows(handler);
+
+		assertThat(handler.digests.size(), is(1));
+		assertThat(handler.digests.get(0).getTopNews().get(0).getHeadline(), is("stamped near the epoch"));
+		assertThat(handler.skipped, is(Math.floorDiv(now - millis(ALLOWED_LATENESS), millis(PERIOD)) - 1));
+		assertThat(windows.takeLateCount(), is(1L));
+
+		windows.add(createMessage("next", 1), now + millis(PERIOD + ALLOWED_LATENESS));
+		List<NewsDigest> digests = closeWindows(windows);
+
+		assertThat(digests.get(digests.size() - 1).getTopNews().get(0).getHeadline(), is("on time"));
+	}
+
+	private static EventTimeWindows createWindows(int allowedLateness) {
+		return new EventTimeWindows(PERIOD, allowedLateness, CLOCK_TOLERANCE, NEWS_LIMIT, MAX_EMPTY_WINDOWS);
+	}
+
+	private static List<NewsDigest> closeWindows(EventTimeWindows windows) {
+		RecordingHandler handler = new RecordingHandler();
+		windows.closeWindows(handler);
+		assertThat(handler.skipped, is(0L));
+		return handler.digests;
+	}
+
+	private static long millis(long time) {
+		return time * 1000;
+	}
+
+	private static NewsMessage createMessage(String headline, int priority) {
+		NewsMessage message = new NewsMessage();
+		message.setHeadline(headline);
+		message.setPriority(priority);
+		return message;
+	}
+
+	private static class RecordingHandler implements EventTimeWindows.Handler {
+
+		private final List<NewsDigest> digests = new ArrayList<>();
+		private long skipped;
+
+		@Override
+		public void onClosed(NewsDigest digest) {
+			digests.add(digest);
+		}
+
+		@Override
+		public void onSkipped(long count) {
+			skipped += count;
+		}
+	}
+}
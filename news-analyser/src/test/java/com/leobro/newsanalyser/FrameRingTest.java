@@ -0,0 +1,109 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.WireFormat;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class FrameRingTest {
+
+	@Test
+	public void when_capacityIsNotPowerOfTwo_then_itIsRoundedUp() {
+		assertThat(new FrameRing(5).getCapacity(), is(8));
+		assertThat(new FrameRing(8).getCapacity(), is(8));
+		assertThat(new FrameRing(1).getCapacity(), is(2));
+	}
+
+	@Test
+	public void when_bufferIsFull_then_claimFailsUntilBatchIsReleased() {
+		FrameRing ring = new FrameRing(2);
+		ring.publish(ring.tryClaim());
+		ring.publish(ring.tryClaim());
+
+		assertThat(ring.tryClaim(), is(-1L));
+		assertThat(ring.getQueued(), is(2L));
+
+		FrameRing.Batch batch = new FrameRing.Batch();
+		assertThat(ring.tryClaim(batch, 1), is(true));
+		ring.release(batch);
+
+		assertThat(ring.tryClaim(), is(2L));
+	}
+
+	@Test
+	public void when_framesArePublished_then_consumerTakesThemInOrder() {
+		FrameRing ring = new FrameRing(4);
+		for (int i = 0; i < 3; i++) {
+			long position = ring.tryClaim();
+			byte[] frame = ("frame" + i).getBytes(StandardCharsets.UTF_8);
+			ring.get(position).set(WireFormat.UTF8_LINES, frame, 0, frame.length);
+			ring.publish(position);
+		}
+
+		FrameRing.Batch batch = new FrameRing.Batch();
+		assertThat(ring.tryClaim(batch, 10), is(true));
+
+		assertThat(batch.count, is(3));
+		for (int i = 0; i < batch.count; i++) {
+			FrameRing.Slot slot = ring.get(batch.start + i);
+			assertThat(new String(slot.bytes, 0, slot.length, StandardCharsets.UTF_8), is("frame" + i));
+		}
+		ring.release(batch);
+		assertThat(ring.tryClaim(batch, 10), is(false));
+	}
+
+	@Test
+	public void when_manyProducersAndConsumers_then_everyFrameIsTakenOnce() throws InterruptedException {
+		int producerCount = 4;
+		int framesPerProducer = 100_000;
+		FrameRing ring = new FrameRing(64);
+		AtomicIntegerArray taken = new AtomicIntegerArray(producerCount * framesPerProducer);
+		AtomicInteger takenCount = new AtomicInteger();
+		List<Thread> threads = new ArrayList<>();
+
+		for (int p = 0; p < producerCount; p++) {
+			int first = p * framesPerProducer;
+			threads.add(new Thread(() -> {
+				for (int i = first; i < first + framesPerProducer; i++) {
+					long position;
+					while ((position = ring.tryClaim()) < 0) {
+						Thread.yield();
+					}
+					ring.get(position).set(Integer.toString(i));
+					ring.publish(position);
+				}
+			}));
+		}
+		for (int c = 0; c < 2; c++) {
+			threads.add(new Thread(() -> {
+				FrameRing.Batch batch = new FrameRing.Batch();
+				while (takenCount.get() < taken.length()) {
+					if (!ring.tryClaim(batch, 16)) {
+						Thread.yield();
+						continue;
+					}
+					for (int i = 0; i < batch.count; i++) {
+						taken.incrementAndGet(Integer.parseInt(ring.get(batch.start + i).line));
+					}
+					takenCount.addAndGet(batch.count);
+					ring.release(batch);
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join(30_000);
+		}
+
+		for (int i = 0; i < taken.length(); i++) {
+			assertThat(taken.get(i), is(1));
+		}
+	}
+}
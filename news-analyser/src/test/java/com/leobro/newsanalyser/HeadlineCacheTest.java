@@ -0,0 +1,69 @@
+package com.leobro.newsanalyser;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class HeadlineCacheTest {
+
+	private static final String[] GOOD_WORDS = new String[]{"up", "good", "high"};
+	private static final String HOT_HEADLINE = "up good high";
+
+	@Test
+	public void when_headlinesAreClassified_then_verdictsAreThoseOfClassifier() {
+		HeadlineCache cache = new HeadlineCache(GOOD_WORDS, 64);
+		PositiveWordClassifier classifier = new PositiveWordClassifier(GOOD_WORDS);
+		String[] headlines = {"up good high", "up down", "up good down", "down", "", " up", "up  good"};
+
+		for (int round = 0; round < 2; round++) {
+			for (String headline : headlines) {
+				assertThat(headline, cache.isPositive(headline), is(classifier.isPositive(headline)));
+			}
+		}
+	}
+
+	@Test
+	public void when_headlineIsRepeated_then_itIsHit() {
+		HeadlineCache cache = new HeadlineCache(GOOD_WORDS, 64);
+
+		cache.isPositive(HOT_HEADLINE);
+		cache.isPositive(HOT_HEADLINE);
+		cache.isPositive(new StringBuilder(HOT_HEADLINE));
+
+		assertThat(cache.takeMissCount(), is(1L));
+		assertThat(cache.takeHitCount(), is(2L));
+		assertThat(cache.takeHitCount(), is(0L));
+	}
+
+	@Test
+	public void when_cacheIsFull_then_frequentHeadlineStays() {
+		// one set of 8 entries
+		HeadlineCache cache = new HeadlineCache(GOOD_WORDS, 8);
+		for (int i = 0; i < 8; i++) {
+			cache.isPositive(HOT_HEADLINE);
+		}
+		for (int i = 0; i < 7; i++) {
+			cache.isPositive("up down " + i);
+		}
+		cache.takeHitCount();
+		cache.takeMissCount();
+
+		cache.isPositive(HOT_HEADLINE);
+
+		assertThat(cache.takeHitCount(), is(1L));
+	}
+
+	@Test
+	public void when_headlinesAreSeenOnce_then_theyAreEvicted() {
+		HeadlineCache cache = new HeadlineCache(GOOD_WORDS, 8);
+		for (int i = 0; i < 100; i++) {
+			cache.isPositive("up down " + i);
+		}
+		cache.takeMissCount();
+
+		cache.isPositive("up down 0");
+
+		assertThat(cache.takeMissCount(), is(1L));
+	}
+}
@@ -0,0 +1,75 @@
+package com.leobro.newsanalyser;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.SplittableRandom;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+public class HeadlineVocabularyTest {
+
+	private static final String[] WORDS = {"up", "down", "rise", "fall", "good", "bad", "high", "low", "über"};
+	private static final String[] GOOD_WORDS = {"up", "rise", "good", "high", "über"};
+
+	private final PositiveWordClassifier classifier = new PositiveWordClassifier(GOOD_WORDS);
+	private final HeadlineVocabulary vocabulary = new HeadlineVocabulary(WORDS, GOOD_WORDS, classifier);
+
+	@Test
+	public void when_headlinesAreEqual_then_keysAreEqual() {
+		long key = vocabulary.pack("up down über");
+
+		assertThat(key, not(0L));
+		assertThat(vocabulary.pack(new StringBuilder("up down über")), is(key));
+		assertThat(vocabulary.pack("down up über"), not(key));
+		assertThat(vocabulary.pack("up down"), not(key));
+	}
+
+	@Test
+	public void when_keyIsUnpacked_then_headlineIsRebuilt() {
+		assertThat(vocabulary.unpack(vocabulary.pack("up down über")), is("up down über"));
+		assertThat(vocabulary.unpack(vocabulary.pack("über")), is("über"));
+		assertThat(vocabulary.unpack(vocabulary.pack("low low low low low low low low")),
+				is("low low low low low low low low"));
+	}
+
+	@Test
+	public void when_headlineCannotBePacked_then_keyIsZero() {
+		assertThat(vocabulary.pack("up sideways"), is(0L));
+		assertThat(vocabulary.pack("up  down"), is(0L));
+		assertThat(vocabulary.pack(" up"), is(0L));
+		assertThat(vocabulary.pack("up "), is(0L));
+		assertThat(vocabulary.pack(""), is(0L));
+		assertThat(vocabulary.pack("up up up up up up up up"), not(0L));
+		assertThat(vocabulary.pack("up up up up up up up up up"), is(0L));
+	}
+
+	@Test
+	public void when_headlinesAreClassified_then_verdictsAreThoseOfClassifier() {
+		SplittableRandom random = new SplittableRandom(7);
+		for (int i = 0; i < 10000; i++) {
+			StringBuilder headline = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+			int wordCount = random.nextInt(8);
+			for (int j = 0; j < wordCount; j++) {
+				headline.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+			}
+			long key = vocabulary.pack(headline);
+
+			assertThat(headline.toString(), vocabulary.isPositive(key), is(classifier.isPositive(headline)));
+		}
+	}
+
+	@Test
+	public void when_headlineCannotBePacked_then_fallbackClassifiesIt() {
+		HeadlineClassifier fallback = Mockito.mock(HeadlineClassifier.class);
+		Mockito.when(fallback.isPositive("up sideways")).thenReturn(true);
+		HeadlineVocabulary vocabulary = new HeadlineVocabulary(WORDS, GOOD_WORDS, fallback);
+
+		assertThat(vocabulary.isPositive("up sideways"), is(true));
+		assertThat(vocabulary.isPositive("up down good"), is(true));
+		Mockito.verify(fallback).isPositive("up sideways");
+		Mockito.verifyNoMoreInteractions(fallback);
+	}
+}
@@ -0,0 +1,73 @@
+package com.leobro.newsanalyser;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class HorizonTierTest {
+
+	private static final int NEWS_LIMIT = 2;
+
+	private long sequence;
+
+	@Test
+	public void when_horizonIsNotComplete_then_nothingIsPublished() {
+		List<NewsDigest> published = new ArrayList<>();
+		HorizonTier tier = new HorizonTier(3, NEWS_LIMIT, published::add, null);
+
+		tier.add(part("headline1", 1));
+		tier.add(part("headline2", 2));
+
+		assertTrue(published.isEmpty());
+	}
+
+	@Test
+	public void when_horizonIsComplete_then_mergedDigestIsPublishedAndNewOneIsStarted() {
+		List<NewsDigest> published = new ArrayList<>();
+		HorizonTier tier = new HorizonTier(2, NEWS_LIMIT, published::add, null);
+
+		tier.add(part("headline1", 1));
+		tier.add(part("headline2", 2));
+		tier.add(part("headline3", 3));
+		tier.add(part("headline4", 0));
+
+		assertThat(published.size(), is(2));
+		assertThat(published.get(0).getCount(), is(2L));
+		assertThat(published.get(0).getTopNews().get(0).getHeadline(), is("headline2"));
+		assertThat(published.get(1).getCount(), is(2L));
+		assertThat(published.get(1).getTopNews().get(0).getHeadline(), is("headline3"));
+	}
+
+	@Test
+	public void when_tiersAreChained_then_longerHorizonRollsUpShorterOnes() {
+		List<NewsDigest> minutes = new ArrayList<>();
+		List<NewsDigest> hours = new ArrayList<>();
+		HorizonTier hourTier = new HorizonTier(2, NEWS_LIMIT, hours::add, null);
+		HorizonTier minuteTier = new HorizonTier(3, NEWS_LIMIT, minutes::add, hourTier);
+
+		for (int i = 0; i < 6; i++) {
+			minuteTier.add(part("headline" + i, i));
+		}
+
+		assertThat(minutes.size(), is(2));
+		assertThat(hours.size(), is(1));
+		assertThat(hours.get(0).getCount(), is(6L));
+		assertThat(hours.get(0).getTopNews().get(0).getHeadline(), is("headline5"));
+		assertThat(hours.get(0).getTopNews().get(1).getHeadline(), is("headline4"));
+	}
+
+	private NewsDigest part(String headline, int priority) {
+		NewsMessage message = new NewsMessage();
+		message.setHeadline(headline);
+		message.setPriority(priority);
+
+		NewsDigest part = new NewsDigest(NEWS_LIMIT);
+		part.add(message, sequence++);
+		return part;
+	}
+}
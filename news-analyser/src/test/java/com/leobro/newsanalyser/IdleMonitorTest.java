@@ -0,0 +1,63 @@
+package com.leobro.newsanalyser;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class IdleMonitorTest {
+
+	// 500 ms is 5 ticks of the monitor
+	private final IdleMonitor monitor = new IdleMonitor(500);
+
+	@Test
+	public void when_connectionIsIdle_then_itIsClosedAfterTimeout() throws IOException {
+		Closeable connection = Mockito.mock(Closeable.class);
+		monitor.watch(connection);
+
+		advance(4);
+		Mockito.verify(connection, Mockito.never()).close();
+		advance(1);
+		Mockito.verify(connection).close();
+		assertThat(monitor.takeClosedCount(), is(1L));
+		assertThat(monitor.takeClosedCount(), is(0L));
+	}
+
+	@Test
+	public void when_connectionIsTouched_then_itIsKeptOpen() throws IOException {
+		Closeable connection = Mockito.mock(Closeable.class);
+		IdleMonitor.Watch watch = monitor.watch(connection);
+
+		for (int i = 0; i < 20; i++) {
+			advance(1);
+			watch.touch();
+		}
+		Mockito.verify(connection, Mockito.never()).close();
+
+		advance(4);
+		Mockito.verify(connection, Mockito.never()).close();
+		advance(1);
+		Mockito.verify(connection).close();
+	}
+
+	@Test
+	public void when_watchIsCancelled_then_connectionIsNotClosed() throws IOException {
+		Closeable connection = Mockito.mock(Closeable.class);
+		monitor.watch(connection).cancel();
+
+		advance(20);
+
+		Mockito.verify(connection, Mockito.never()).close();
+		assertThat(monitor.takeClosedCount(), is(0L));
+	}
+
+	private void advance(int ticks) {
+		for (int i = 0; i < ticks; i++) {
+			monitor.advance();
+		}
+	}
+}
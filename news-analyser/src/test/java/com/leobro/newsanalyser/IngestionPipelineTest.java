@@ -0,0 +1,80 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.WireFormat;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+
+public class IngestionPipelineTest {
+
+	private static final String[] GOOD_WORDS = new String[]{"up", "good"};
+
+	@Test
+	public void when_framesArePut_then_workersPassPositiveNewsToReporter() {
+		Reporter reporter = Mockito.mock(Reporter.class);
+		IngestionPipeline pipeline = new IngestionPipeline(4, 2, 2, WaitStrategy.YIELD, reporter,
+				new PositiveWordClassifier(GOOD_WORDS));
+		pipeline.start();
+
+		byte[] frame = "{\"headline\":\"up good\",\"priority\":5}".getBytes(StandardCharsets.UTF_8);
+		for (int i = 0; i < 10; i++) {
+			pipeline.analyse(WireFormat.UTF8_LINES, frame, 0, frame.length);
+		}
+		pipeline.analyse("{\"headline\":\"good\",\"priority\":1}");
+		pipeline.analyse("{\"headline\":\"bad\",\"priority\":1}");
+
+		Mockito.verify(reporter, timeout(5000).times(11)).add(any(NewsMessage.class));
+		pipeline.stop();
+	}
+
+	@Test
+	public void when_bufferIsFull_then_waitIsCounted() throws InterruptedException {
+		Reporter reporter = Mockito.mock(Reporter.class);
+		IngestionPipeline pipeline = new IngestionPipeline(2, 1, 1, WaitStrategy.PARK, reporter,
+				new PositiveWordClassifier(GOOD_WORDS));
+		Thread receiver = new Thread(() -> {
+			for (int i = 0; i < 3; i++) {
+				pipeline.analyse("{\"headline\":\"up\",\"priority\":1}");
+			}
+		});
+		receiver.start();
+		receiver.join(200);
+
+		assertThat(pipeline.getQueued(), is(2L));
+		assertThat(pipeline.getCapacity(), is(2));
+
+		pipeline.start();
+		receiver.join(5000);
+		Mockito.verify(reporter, timeout(5000).times(3)).add(any(NewsMessage.class));
+		pipeline.stop();
+
+		assertThat(pipeline.takeFullCount(), is(1L));
+		assertThat(pipeline.takeFullCount(), is(0L));
+	}
+
+	@Test
+	public void when_bufferIsFullAndSheddingIsOn_then_lowPriorityIsDroppedAndCounted() {
+		Reporter reporter = Mockito.mock(Reporter.class);
+		IngestionPipeline pipeline = new IngestionPipeline(4, 1, 4, WaitStrategy.YIELD, new LoadShedder(0.5, 9),
+				reporter, new PositiveWordClassifier(GOOD_WORDS));
+		for (int i = 0; i < 4; i++) {
+			pipeline.analyse("{\"headline\":\"up\",\"priority\":1}");
+		}
+		pipeline.analyse("{\"headline\":\"good\",\"priority\":9}");
+
+		// the fourth message comes to the buffer filled by three quarters
+		assertThat(pipeline.getQueued(), is(4L));
+		assertThat(pipeline.takeShedCount(), is(1L));
+
+		pipeline.start();
+		Mockito.verify(reporter, timeout(5000).times(4)).add(any(NewsMessage.class));
+		pipeline.stop();
+	}
+}
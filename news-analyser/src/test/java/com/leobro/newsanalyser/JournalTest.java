@@ -0,0 +1,118 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.WireFormat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class JournalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void when_lineIsAppended_then_itIsJournaledAsByTheStandardEncoder() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		Journal journal = new Journal(directory, 4096, 0, JournalDurability.NONE, 1000);
+		String line = "é € \uD83D\uDE00 lone \uD800 end \uDC00";
+		journal.append(1, new StringBuilder(line));
+		journal.close();
+
+		List<String> records = readAll(directory);
+
+		assertThat(records.size(), is(1));
+		assertThat(records.get(0), is("1 UTF8_LINES " + new String(line.getBytes(StandardCharsets.UTF_8),
+				StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void when_framesAreAppended_then_theyAreReadBackInOrder() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		Journal journal = new Journal(directory, 4096, 0, JournalDurability.BATCH, 1000);
+		byte[] frame = {0, 1, 2, 3, 4, 5};
+		journal.append(7, WireFormat.BINARY_FRAMES, frame, 1, 4);
+		journal.append(8, "{\"headline\":\"über\",\"priority\":1}");
+		journal.endBatch();
+		journal.close();
+
+		List<String> records = readAll(directory);
+
+		assertThat(records.size(), is(2));
+		assertThat(records.get(0), is("7 BINARY_FRAMES 1,2,3,4"));
+		assertThat(records.get(1), is("8 UTF8_LINES {\"headline\":\"über\",\"priority\":1}"));
+	}
+
+	@Test
+	public void when_segmentIsFull_then_newSegmentIsStarted() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		Journal journal = new Journal(directory, 256, 0, JournalDurability.NONE, 1000);
+		for (int i = 0; i < 40; i++) {
+			journal.append(1, "line " + i);
+		}
+		journal.close();
+
+		List<String> records = readAll(directory);
+
+		assertThat(folder.getRoot().listFiles().length > 1, is(true));
+		assertThat(records.size(), is(40));
+		for (int i = 0; i < 40; i++) {
+			assertThat(records.get(i), is("1 UTF8_LINES line " + i));
+		}
+	}
+
+	@Test
+	public void when_journalIsReopened_then_segmentNumbersContinue() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		Journal first = new Journal(directory, 256, 0, JournalDurability.NONE, 1000);
+		first.append(1, "first");
+		first.close();
+		Journal second = new Journal(directory, 256, 0, JournalDurability.NONE, 1000);
+		second.append(1, "second");
+		second.close();
+
+		File[] files = folder.getRoot().listFiles();
+
+		assertThat(files.length, is(2));
+		assertThat(readAll(directory).toString(), is("[1 UTF8_LINES first, 1 UTF8_LINES second]"));
+	}
+
+	@Test
+	public void when_recordDoesNotFitIntoSegment_then_itIsSkipped() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		Journal journal = new Journal(directory, 64, 0, JournalDurability.NONE, 1000);
+		journal.append(1, new String(new char[100]).replace('\0', 'x'));
+		journal.append(1, "short");
+		journal.close();
+
+		assertThat(readAll(directory).toString(), is("[1 UTF8_LINES short]"));
+	}
+
+	private static List<String> readAll(Path path) throws IOException {
+		List<String> records = new ArrayList<>();
+		new JournalReader(path).read((arrivalTime, connectionId, format, bytes, offset, length) -> {
+			String frame;
+			if (format.isLines()) {
+				frame = new String(bytes, offset, length, StandardCharsets.UTF_8);
+			} else {
+				StringBuilder text = new StringBuilder();
+				for (int i = offset; i < offset + length; i++) {
+					text.append(i > offset ? "," : "").append(bytes[i]);
+				}
+				frame = text.toString();
+			}
+			assertThat(arrivalTime > 0, is(true));
+			records.add(connectionId + " " + format + " " + frame);
+		});
+		return records;
+	}
+}
@@ -0,0 +1,42 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.PriorityPeek;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LoadShedderTest {
+
+	private static final int CAPACITY = 1000;
+	private static final int PROTECTED_PRIORITY = 9;
+
+	private final LoadShedder shedder = new LoadShedder(0.5, PROTECTED_PRIORITY);
+
+	@Test
+	public void when_bufferIsFilledUpToStart_then_nothingIsShed() {
+		assertThat(shedder.getThreshold(0, CAPACITY), is(0));
+		assertThat(shedder.getThreshold(500, CAPACITY), is(0));
+		assertThat(shedder.shed(0, 500, CAPACITY), is(false));
+	}
+
+	@Test
+	public void when_bufferFills_then_thresholdRisesUpToProtectedPriority() {
+		assertThat(shedder.getThreshold(501, CAPACITY), is(1));
+		assertThat(shedder.getThreshold(750, CAPACITY), is(5));
+		assertThat(shedder.getThreshold(CAPACITY, CAPACITY), is(PROTECTED_PRIORITY));
+	}
+
+	@Test
+	public void when_bufferIsFull_then_onlyProtectedAndUnknownPrioritiesPass() {
+		for (int priority = 0; priority < PROTECTED_PRIORITY; priority++) {
+			assertThat(shedder.shed(priority, CAPACITY, CAPACITY), is(true));
+		}
+		assertThat(shedder.shed(PROTECTED_PRIORITY, CAPACITY, CAPACITY), is(false));
+		assertThat(shedder.shed(PROTECTED_PRIORITY + 1, CAPACITY, CAPACITY), is(false));
+		assertThat(shedder.shed(PriorityPeek.UNKNOWN, CAPACITY, CAPACITY), is(false));
+
+		assertThat(shedder.takeShedCount(), is((long) PROTECTED_PRIORITY));
+		assertThat(shedder.takeShedCount(), is(0L));
+	}
+}
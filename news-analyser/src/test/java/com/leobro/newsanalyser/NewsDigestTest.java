@@ -0,0 +1,150 @@
+package com.leobro.newsanalyser;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class NewsDigestTest {
+
+	private static final int NEWS_LIMIT = 3;
+
+	private long sequence;
+
+	@Test
+	public void when_digestsAreMerged_then_shedCountsAreAdded() {
+		NewsDigest digest = new NewsDigest(NEWS_LIMIT);
+		NewsDigest other = new NewsDigest(NEWS_LIMIT);
+		digest.addShed(3);
+		other.addShed(4);
+		add(other, "headline1", 9);
+
+		digest.addAll(other);
+
+		assertThat(digest.getShedCount(), is(7L));
+		assertThat(digest.getCount(), is(1L));
+	}
+
+	@Test
+	public void when_messagesAreAdded_then_selectsDistinctAndSortsAndLimitsCount() {
+		NewsDigest digest = new NewsDigest(NEWS_LIMIT);
+		add(digest, "headline1", 1);
+		add(digest, "headline2", 0);
+		add(digest, "headline3", 2);
+		add(digest, "headline4", 0);
+
+		List<NewsMessage> selectedMessages = digest.getTopNews();
+
+		assertThat(digest.getCount(), is(4L));
+		assertThat(selectedMessages.size(), is(NEWS_LIMIT));
+
+		assertThat(selectedMessages.get(0).getPriority(), is(2));
+		assertThat(selectedMessages.get(0).getHeadline(), is("headline3"));
+
+		assertThat(selectedMessages.get(1).getPriority(), is(1));
+		assertThat(selectedMessages.get(1).getHeadline(), is("headline1"));
+
+		assertThat(selectedMessages.get(2).getPriority(), is(0));
+		assertThat(selectedMessages.get(2).getHeadline(), is("headline2"));
+	}
+
+	@Test
+	public void when_headlineIsRepeated_then_itIsShownOnceWithHighestPriority() {
+		NewsDigest digest = new NewsDigest(NEWS_LIMIT);
+		add(digest, "headline1", 1);
+		add(digest, "headline2", 2);
+		add(digest, "headline1", 5);
+		add(digest, "headline1", 3);
+
+		List<NewsMessage> selectedMessages = digest.getTopNews();
+
+		assertThat(digest.getCount(), is(4L));
+		assertThat(selectedMessages.size(), is(2));
+		assertThat(selectedMessages.get(0).getHeadline(), is("headline1"));
+		assertThat(selectedMessages.get(0).getPriority(), is(5));
+		assertThat(selectedMessages.get(1).getHeadline(), is("headline2"));
+	}
+
+	@Test
+	public void when_evictedHeadlineComesWithHigherPriority_then_itIsShownAgain() {
+		NewsDigest digest = new NewsDigest(1);
+		add(digest, "headline1", 1);
+		add(digest, "headline2", 2);
+		add(digest, "headline1", 3);
+
+		List<NewsMessage> selectedMessages = digest.getTopNews();
+
+		assertThat(selectedMessages.size(), is(1));
+		assertThat(selectedMessages.get(0).getHeadline(), is("headline1"));
+		assertThat(selectedMessages.get(0).getPriority(), is(3));
+	}
+
+	@Test
+	public void when_digestsAreMerged_then_resultIsSameAsAddingToOneDigest() {
+		NewsDigest first = new NewsDigest(NEWS_LIMIT);
+		NewsDigest second = new NewsDigest(NEWS_LIMIT);
+		NewsDigest all = new NewsDigest(NEWS_LIMIT);
+		String[] headlines = {"a", "b", "c", "d", "e", "a", "c", "f", "b", "g"};
+		int[] priorities = {3, 5, 5, 1, 4, 6, 2, 5, 0, 6};
+
+		for (int i = 0; i < headlines.length; i++) {
+			NewsMessage message = createMessage(headlines[i], priorities[i]);
+			(i % 3 == 0 ? first : second).add(message, i);
+			all.add(message, i);
+		}
+		NewsDigest merged = new NewsDigest(NEWS_LIMIT);
+		merged.addAll(second);
+		merged.addAll(first);
+
+		assertThat(merged.getCount(), is(all.getCount()));
+		assertThat(merged.getTopNews(), is(all.getTopNews()));
+	}
+
+	@Test
+	public void when_headlinesArePacked_then_theyAreComparedByKeys() {
+		HeadlineVocabulary vocabulary = new HeadlineVocabulary(new String[]{"up", "down"}, new String[]{"up"},
+				new PositiveWordClassifier(new String[]{"up"}));
+		NewsDigest digest = new NewsDigest(NEWS_LIMIT);
+		digest.add(createPackedMessage(vocabulary, "up down", 1), sequence++);
+		digest.add(createPackedMessage(vocabulary, "down up", 2), sequence++);
+		digest.add(createPackedMessage(vocabulary, "up down", 4), sequence++);
+		add(digest, "up  down", 3);
+
+		List<NewsMessage> selectedMessages = digest.getTopNews();
+
+		assertThat(selectedMessages.size(), is(3));
+		assertThat(selectedMessages.get(0).getHeadline(), is("up down"));
+		assertThat(selectedMessages.get(0).getPriority(), is(4));
+		assertThat(selectedMessages.get(1).getHeadline(), is("up  down"));
+		assertThat(selectedMessages.get(2).getHeadline(), is("down up"));
+	}
+
+	@Test
+	public void when_limitIsZero_then_onlyCountIsKept() {
+		NewsDigest digest = new NewsDigest(0);
+		add(digest, "headline1", 1);
+
+		assertThat(digest.getCount(), is(1L));
+		assertTrue(digest.getTopNews().isEmpty());
+	}
+
+	private void add(NewsDigest digest, String headline, int priority) {
+		digest.add(createMessage(headline, priority), sequence++);
+	}
+
+	private static NewsMessage createPackedMessage(HeadlineVocabulary vocabulary, String headline, int priority) {
+		NewsMessage message = createMessage(headline, priority);
+		message.setHeadlineKey(vocabulary.pack(headline));
+		return message;
+	}
+
+	private static NewsMessage createMessage(String headline, int priority) {
+		NewsMessage message = new NewsMessage();
+		message.setHeadline(headline);
+		message.setPriority(priority);
+		return message;
+	}
+}
@@ -0,0 +1,112 @@
+package com.leobro.newsanalyser;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class PositiveWordClassifierTest {
+
+	private static final String[] GOOD_WORDS = new String[]{"up", "good", "high", "success", "über"};
+	private static final String[] BAD_WORDS = new String[]{"bad", "failure", "down", "fall", "", "goods", "u"};
+
+	private PositiveWordClassifier classifier;
+
+	@Before
+	public void setUp() {
+		classifier = new PositiveWordClassifier(GOOD_WORDS);
+	}
+
+	@Test
+	public void when_moreThanHalfWordsArePositive_then_headlineIsPositive() {
+		assertTrue(classifier.isPositive("up good bad"));
+	}
+
+	@Test
+	public void when_exactlyHalfWordsArePositive_then_headlineIsNegative() {
+		assertFalse(classifier.isPositive("up good bad down"));
+	}
+
+	@Test
+	public void when_wordDiffersInCaseOrLength_then_wordIsNotPositive() {
+		assertFalse(classifier.isPositive("Up"));
+		assertFalse(classifier.isPositive("goods"));
+		assertFalse(classifier.isPositive("goo"));
+	}
+
+	@Test
+	public void when_wordIsNotAscii_then_wordIsFound() {
+		assertTrue(classifier.isPositive("über"));
+	}
+
+	@Test
+	public void when_headlineHasDoubleSpaces_then_emptyWordsCount() {
+		assertTrue(classifier.isPositive("up  good"));
+		assertFalse(classifier.isPositive("up   good"));
+		assertFalse(classifier.isPositive(" up"));
+	}
+
+	@Test
+	public void when_headlineHasTrailingSpaces_then_theyAreIgnored() {
+		assertTrue(classifier.isPositive("up good   "));
+	}
+
+	@Test
+	public void when_headlineIsEmptyOrBlank_then_headlineIsNegative() {
+		assertFalse(classifier.isPositive(""));
+		assertFalse(classifier.isPositive("   "));
+	}
+
+	@Test
+	public void when_headlineIsStringBuilder_then_resultIsTheSame() {
+		assertTrue(classifier.isPositive(new StringBuilder("high success fall")));
+	}
+
+	@Test
+	public void when_noPositiveWordsAreConfigured_then_everyHeadlineIsNegative() {
+		PositiveWordClassifier emptyClassifier = new PositiveWordClassifier(new String[0]);
+
+		assertFalse(emptyClassifier.isPositive("up good high"));
+	}
+
+	@Test
+	public void when_randomHeadlinesAreClassified_then_resultIsSameAsSplittingIntoWords() {
+		Random random = new Random(42);
+		String[] words = Arrays.copyOf(GOOD_WORDS, GOOD_WORDS.length + BAD_WORDS.length);
+		System.arraycopy(BAD_WORDS, 0, words, GOOD_WORDS.length, BAD_WORDS.length);
+
+		for (int i = 0; i < 10_000; i++) {
+			StringBuilder headline = new StringBuilder();
+			int wordCount = random.nextInt(8);
+			for (int j = 0; j < wordCount; j++) {
+				if (j > 0) {
+					headline.append(' ');
+				}
+				headline.append(words[random.nextInt(words.length)]);
+			}
+			if (random.nextInt(4) == 0) {
+				headline.append(' ');
+			}
+
+			assertThat(headline.toString(), classifier.isPositive(headline), is(isPositiveBySplitting(headline.toString())));
+		}
+	}
+
+	private static boolean isPositiveBySplitting(String headline) {
+		List<String> positiveWords = Arrays.asList(GOOD_WORDS);
+		String[] words = headline.split(" ");
+		int positiveCount = 0;
+
+		for (String word : words) {
+			if (positiveWords.contains(word)) {
+				positiveCount++;
+			}
+		}
+		return positiveCount / (float) words.length > 0.5;
+	}
+}
@@ -0,0 +1,123 @@
+package com.leobro.newsanalyser;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+
+public class ReplayEngineTest {
+
+	private static final String[] GOOD_WORDS = new String[]{"up", "good"};
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Reporter reporter;
+	private ByteArrayOutputStream output;
+	private ReplayEngine engine;
+
+	@Before
+	public void setUp() {
+		reporter = Mockito.mock(Reporter.class);
+		Mockito.when(reporter.getPositiveWords()).thenReturn(GOOD_WORDS);
+		output = new ByteArrayOutputStream();
+		engine = new ReplayEngine(reporter, new Analyser(reporter), 1000, 0, new PrintStream(output));
+	}
+
+	@Test
+	public void when_jsonLinesAreReplayed_then_reportsAreRunByTheirSendingTime() throws IOException {
+		Path file = folder.newFile("news.ndjson").toPath();
+		Files.write(file, Arrays.asList(
+				message("up good", 1_000_000),
+				message("prices down", 1_500_000),
+				"",
+				message("good", 2_200_000),
+				message("up and up", 3_500_000)), StandardCharsets.UTF_8);
+
+		engine.replay(file);
+
+		// periods end at 2.0 s and 3.0 s of the recorded time, and the last one is reported at the end
+		Mockito.verify(reporter, times(2)).report();
+		Mockito.verify(reporter).reportLast();
+		Mockito.verify(reporter, times(3)).add(any(NewsMessage.class), anyLong());
+		assertThat(output.toString(), containsString("Replayed 4 messages"));
+	}
+
+	@Test
+	public void when_journalIsReplayed_then_everyFrameIsAnalysed() throws IOException {
+		Path directory = folder.getRoot().toPath().resolve("journal");
+		Journal journal = new Journal(directory, 4096, 0, JournalDurability.NONE, 1000);
+		int connectionId = journal.newConnectionId();
+		for (int i = 0; i < 100; i++) {
+			journal.append(connectionId, "{\"headline\":\"" + ((i % 2 == 0) ? "up" : "down") + "\",\"priority\":1}");
+		}
+		journal.close();
+
+		engine.replay(directory);
+
+		Mockito.verify(reporter, times(50)).add(any(NewsMessage.class), anyLong());
+		Mockito.verify(reporter, Mockito.never()).add(any(NewsMessage.class));
+		Mockito.verify(reporter).reportLast();
+		assertThat(output.toString(), containsString("Replayed 100 messages"));
+	}
+
+	@Test
+	public void when_unstampedLinesAreReplayed_then_theyTakeTheTimeOfTheLineBefore() throws IOException {
+		Path file = folder.newFile("news.ndjson").toPath();
+		Files.write(file, Arrays.asList(
+				message("up", 1_000_000),
+				"{\"headline\":\"good\",\"priority\":1}"), StandardCharsets.UTF_8);
+
+		engine.replay(file);
+
+		Mockito.verify(reporter, times(2)).add(any(NewsMessage.class), eq(1_000_000L));
+	}
+
+	@Test
+	public void when_mixedLinesAreReplayedByEventTime_then_unstampedOnesCountInTheirRecordedPeriod()
+			throws IOException {
+		Path file = folder.newFile("news.ndjson").toPath();
+		Files.write(file, Arrays.asList(
+				message("up good", 1_000_000),
+				"{\"headline\":\"good\",\"priority\":2}",
+				message("up", 2_500_000),
+				"{\"headline\":\"good news up\",\"priority\":3}"), StandardCharsets.UTF_8);
+		ByteArrayOutputStream reports = new ByteArrayOutputStream();
+		PrintStream stdout = System.out;
+		System.setOut(new PrintStream(reports, true));
+		try {
+			Reporter eventReporter = new Reporter(1000, 1000, new int[0], 3, GOOD_WORDS, false);
+			eventReporter.windowByEventTime(new EventTimeWindows(1000, 0, 60000, 3, 10));
+			new ReplayEngine(eventReporter, new Analyser(eventReporter), 1000, 0, new PrintStream(output)).replay(file);
+		} finally {
+			System.setOut(stdout);
+		}
+
+		String printed = reports.toString();
+		assertThat(printed.split("Positive news since the last digest: 2", -1).length, is(3));
+		assertThat(printed, not(containsString("dropped")));
+		assertThat(printed, not(containsString("No news")));
+	}
+
+	private static String message(String headline, long sentAt) {
+		return "{\"headline\":\"" + headline + "\",\"priority\":1,\"sentAt\":" + sentAt + "}";
+	}
+}
@@ -0,0 +1,73 @@
+package com.leobro.newsanalyser;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class SlidingWindowTest {
+
+	private static final int NEWS_LIMIT = 2;
+
+	private long sequence;
+
+	@Test
+	public void when_windowHasOneSlice_then_everyReportCoversOnlyTheLastSlice() {
+		SlidingWindow window = new SlidingWindow(1, NEWS_LIMIT);
+
+		window.slide(slice("headline1", 5));
+		NewsDigest digest = window.slide(slice("headline2", 1));
+
+		assertThat(digest.getCount(), is(1L));
+		assertThat(digest.getTopNews().get(0).getHeadline(), is("headline2"));
+	}
+
+	@Test
+	public void when_windowIsNotFull_then_allSlicesAreMerged() {
+		SlidingWindow window = new SlidingWindow(3, NEWS_LIMIT);
+
+		window.slide(slice("headline1", 1));
+		NewsDigest digest = window.slide(slice("headline2", 5));
+
+		assertThat(digest.getCount(), is(2L));
+		assertThat(digest.getTopNews().get(0).getHeadline(), is("headline2"));
+		assertThat(digest.getTopNews().get(1).getHeadline(), is("headline1"));
+	}
+
+	@Test
+	public void when_windowSlides_then_oldestSliceIsDropped() {
+		SlidingWindow window = new SlidingWindow(2, NEWS_LIMIT);
+
+		window.slide(slice("headline1", 9));
+		window.slide(slice("headline2", 1));
+		NewsDigest digest = window.slide(slice("headline3", 2));
+
+		assertThat(digest.getCount(), is(2L));
+		assertThat(digest.getTopNews().get(0).getHeadline(), is("headline3"));
+		assertThat(digest.getTopNews().get(1).getHeadline(), is("headline2"));
+	}
+
+	@Test
+	public void when_headlineIsInSeveralSlices_then_itIsShownOnceWithHighestPriority() {
+		SlidingWindow window = new SlidingWindow(3, NEWS_LIMIT);
+
+		window.slide(slice("headline1", 3));
+		window.slide(slice("headline1", 7));
+		NewsDigest digest = window.slide(slice("headline2", 4));
+
+		assertThat(digest.getCount(), is(3L));
+		assertThat(digest.getTopNews().size(), is(2));
+		assertThat(digest.getTopNews().get(0).getHeadline(), is("headline1"));
+		assertThat(digest.getTopNews().get(0).getPriority(), is(7));
+	}
+
+	private NewsDigest slice(String headline, int priority) {
+		NewsMessage message = new NewsMessage();
+		message.setHeadline(headline);
+		message.setPriority(priority);
+
+		NewsDigest slice = new NewsDigest(NEWS_LIMIT);
+		slice.add(message, sequence++);
+		return slice;
+	}
+}
@@ -0,0 +1,130 @@
+package com.leobro.newsanalyser;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class StripedDigestCollectorTest {
+
+	private static final int NEWS_LIMIT = 3;
+	private static final int THREADS = 8;
+	private static final int MESSAGES_PER_THREAD = 50_000;
+
+	@Test
+	public void when_drain_then_returnsDigestOfAddedMessages() {
+		StripedDigestCollector collector = new StripedDigestCollector(NEWS_LIMIT, 4);
+		collector.add(createMessage("first", 1));
+		collector.add(createMessage("second", 1));
+
+		NewsDigest digest = collector.drain();
+
+		assertThat(digest.getCount(), is(2L));
+		assertThat(digest.getTopNews().get(0).getHeadline(), is("first"));
+		assertThat(digest.getTopNews().get(1).getHeadline(), is("second"));
+	}
+
+	@Test
+	public void when_drainIsCalledAgain_then_onlyNewMessagesAreReturned() {
+		StripedDigestCollector collector = new StripedDigestCollector(NEWS_LIMIT, 4);
+		collector.add(createMessage("old", 1));
+		collector.drain();
+
+		collector.add(createMessage("new", 2));
+		NewsDigest digest = collector.drain();
+
+		assertThat(digest.getCount(), is(1L));
+		assertThat(digest.getTopNews().get(0).getHeadline(), is("new"));
+		assertThat(collector.drain().getCount(), is(0L));
+	}
+
+	@Test
+	public void when_threadsAddWhileDraining_then_noMessageIsLost() throws InterruptedException {
+		StripedDigestCollector collector = new StripedDigestCollector(NEWS_LIMIT, 2);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+
+		for (int t = 0; t < THREADS; t++) {
+			String headline = "thread" + t;
+			Thread thread = new Thread(() -> {
+				awaitQuietly(start);
+				for (int i = 0; i < MESSAGES_PER_THREAD; i++) {
+					collector.add(createMessage(headline, i));
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+
+		long count = 0;
+		int maxPriority = -1;
+		start.countDown();
+		for (Thread thread : threads) {
+			while (thread.isAlive()) {
+				NewsDigest digest = collector.drain();
+				count += digest.getCount();
+				maxPriority = Math.max(maxPriority, topPriority(digest));
+			}
+		}
+		NewsDigest digest = collector.drain();
+		count += digest.getCount();
+		maxPriority = Math.max(maxPriority, topPriority(digest));
+
+		assertThat(count, is((long) THREADS * MESSAGES_PER_THREAD));
+		assertThat(maxPriority, is(MESSAGES_PER_THREAD - 1));
+	}
+
+	@Test
+	public void when_threadsAddWhileClosing_then_everyMessageIsEitherCollectedOrRefused() throws InterruptedException {
+		StripedDigestCollector collector = new StripedDigestCollector(NEWS_LIMIT, 2);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicLong refusedCount = new AtomicLong();
+		List<Thread> threads = new ArrayList<>();
+
+		for (int t = 0; t < THREADS; t++) {
+			Thread thread = new Thread(() -> {
+				awaitQuietly(start);
+				for (int i = 0; i < MESSAGES_PER_THREAD; i++) {
+					if (!collector.add(createMessage("headline", 1))) {
+						refusedCount.incrementAndGet();
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+
+		start.countDown();
+		long count = collector.drain().getCount() + collector.close().getCount();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertThat(count + refusedCount.get(), is((long) THREADS * MESSAGES_PER_THREAD));
+		assertThat(collector.add(createMessage("late", 1)), is(false));
+	}
+
+	private static int topPriority(NewsDigest digest) {
+		return digest.getTopNews().isEmpty() ? -1 : digest.getTopNews().get(0).getPriority();
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static NewsMessage createMessage(String headline, int priority) {
+		NewsMessage message = new NewsMessage();
+		message.setHeadline(headline);
+		message.setPriority(priority);
+		return message;
+	}
+}
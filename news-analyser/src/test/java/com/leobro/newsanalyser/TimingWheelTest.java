@@ -0,0 +1,73 @@
+package com.leobro.newsanalyser;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TimingWheelTest {
+
+	private final TimingWheel wheel = new TimingWheel(8);
+	private final List<TimingWheel.Timeout> expired = new ArrayList<>();
+
+	@Test
+	public void when_deadlineIsReached_then_timeoutExpires() {
+		TimingWheel.Timeout timeout = new TimingWheel.Timeout();
+		wheel.schedule(timeout, 3);
+
+		advance(2);
+		assertThat(expired.isEmpty(), is(true));
+		advance(1);
+		assertThat(expired.size(), is(1));
+		assertThat(expired.get(0) == timeout, is(true));
+	}
+
+	@Test
+	public void when_deadlineIsBeyondOneTurn_then_timeoutWaitsForItsTurn() {
+		TimingWheel.Timeout timeout = new TimingWheel.Timeout();
+		wheel.schedule(timeout, 19);
+
+		advance(18);
+		assertThat(expired.isEmpty(), is(true));
+		advance(1);
+		assertThat(expired.size(), is(1));
+		assertThat(wheel.getTick(), is(19L));
+	}
+
+	@Test
+	public void when_timeoutIsRemoved_then_itDoesNotExpire() {
+		TimingWheel.Timeout first = new TimingWheel.Timeout();
+		TimingWheel.Timeout second = new TimingWheel.Timeout();
+		TimingWheel.Timeout third = new TimingWheel.Timeout();
+		wheel.schedule(first, 2);
+		wheel.schedule(second, 2);
+		wheel.schedule(third, 10);
+
+		wheel.remove(second);
+		advance(10);
+
+		assertThat(expired.size(), is(2));
+		assertThat(expired.get(0) == first, is(true));
+		assertThat(expired.get(1) == third, is(true));
+	}
+
+	@Test
+	public void when_deadlineHasPassed_then_timeoutExpiresAtNextTick() {
+		advance(5);
+		TimingWheel.Timeout timeout = new TimingWheel.Timeout();
+		wheel.schedule(timeout, 2);
+
+		assertThat(timeout.getDeadline(), is(6L));
+		advance(1);
+		assertThat(expired.size(), is(1));
+	}
+
+	private void advance(int ticks) {
+		for (int i = 0; i < ticks; i++) {
+			wheel.advance(expired::add);
+		}
+	}
+}
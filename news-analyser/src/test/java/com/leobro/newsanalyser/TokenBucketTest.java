@@ -0,0 +1,38 @@
+package com.leobro.newsanalyser;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TokenBucketTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	public void when_burstIsTaken_then_noWait() {
+		TokenBucket bucket = new TokenBucket(100, 10, 0);
+		bucket.take(10, 0);
+
+		assertThat(bucket.getWaitNanos(0), is(0L));
+	}
+
+	@Test
+	public void when_moreThanBurstIsTaken_then_waitUntilDebtIsRepaid() {
+		TokenBucket bucket = new TokenBucket(100, 10, 0);
+		bucket.take(15, 0);
+
+		assertThat(bucket.getWaitNanos(0), is(SECOND / 20));
+		assertThat(bucket.getWaitNanos(SECOND / 20), is(0L));
+	}
+
+	@Test
+	public void when_pauseIsLong_then_tokensDoNotExceedBurst() {
+		TokenBucket bucket = new TokenBucket(100, 10, 0);
+		bucket.take(11, 10 * SECOND);
+
+		assertThat(bucket.getWaitNanos(10 * SECOND), is(SECOND / 100));
+	}
+}
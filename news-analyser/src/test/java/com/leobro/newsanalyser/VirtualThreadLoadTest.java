@@ -0,0 +1,147 @@
+package com.leobro.newsanalyser;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Opens many mostly idle loopback connections to the server running virtual receiver threads. Runs only with
+ * the {@code jdk21} build profile; the connection count can be changed with the {@code loadTest.connections}
+ * system property. Each connection takes two file descriptors in this JVM, so the count is scaled down to the limit
+ * of the open files, and the test is skipped if fewer than {@value #MIN_CONNECTIONS} connections fit.
+ */
+public class VirtualThreadLoadTest {
+
+	private static final int CONNECTIONS = Integer.getInteger("loadTest.connections", 10000);
+	private static final int MIN_CONNECTIONS = 1000;
+	private static final int RESERVED_FILE_DESCRIPTORS = 256;
+	private static final int MAX_ADDITIONAL_PLATFORM_THREADS = 64;
+	private static final long MAX_HEAP_BYTES_PER_CONNECTION = 64 * 1024;
+	private static final long RECEIVING_TIMEOUT_IN_MS = 60000;
+	private static final String[] GOOD_WORDS = new String[]{"up", "good", "high"};
+	private static final byte[] MESSAGE =
+			"{\"headline\":\"up good high\",\"priority\":5}\n".getBytes(StandardCharsets.UTF_16);
+
+	private final AtomicInteger receivedCount = new AtomicInteger();
+	private final List<Socket> feeds = new ArrayList<>();
+	private int connections;
+	private ServerSocket serverSocket;
+	private NewsAnalyserServer server;
+
+	@Before
+	public void setUp() throws IOException {
+		Assume.assumeTrue("Virtual threads are not supported", VirtualThreads.isSupported());
+		connections = fitToFileDescriptors(CONNECTIONS);
+		Assume.assumeTrue("Too few file descriptors for " + MIN_CONNECTIONS + " connections",
+				connections >= MIN_CONNECTIONS);
+
+		Reporter reporter = Mockito.mock(Reporter.class, withSettings().stubOnly());
+		Mockito.when(reporter.getPositiveWords()).thenReturn(GOOD_WORDS);
+		Mockito.doAnswer(invocation -> receivedCount.incrementAndGet()).when(reporter).add(any(NewsMessage.class));
+
+		Configuration config = new Configuration() {
+			@Override
+			Reader getPropertiesFileReader() {
+				return new StringReader("receiverThreads=virtual");
+			}
+		};
+		server = new NewsAnalyserServer(config, reporter);
+		serverSocket = new ServerSocket(0, connections, InetAddress.getLoopbackAddress());
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		for (Socket feed : feeds) {
+			feed.close();
+		}
+		if (serverSocket != null) {
+			serverSocket.close();
+		}
+	}
+
+	@Test
+	public void when_manyIdleFeedsAreConnected_then_threadCountAndMemoryStayBounded() throws Exception {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		startAccepting();
+		int threadsBefore = threads.getThreadCount();
+		long heapBefore = usedHeapAfterGc();
+
+		for (int i = 0; i < connections; i++) {
+			Socket feed = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+			feeds.add(feed);
+			feed.getOutputStream().write(MESSAGE);
+		}
+		waitUntilAllMessagesAreReceived();
+
+		int additionalThreads = threads.getThreadCount() - threadsBefore;
+		long heapPerConnection = (usedHeapAfterGc() - heapBefore) / connections;
+
+		assertTrue("Too many platform threads for " + connections + " connections: " + additionalThreads,
+				additionalThreads <= MAX_ADDITIONAL_PLATFORM_THREADS);
+		assertTrue("Too much heap per connection of " + connections + ": " + heapPerConnection,
+				heapPerConnection <= MAX_HEAP_BYTES_PER_CONNECTION);
+	}
+
+	private void startAccepting() {
+		Thread acceptor = new Thread(() -> {
+			try {
+				server.listenWithThreads(serverSocket);
+			} catch (IOException e) {
+				// server socket is closed by the test
+			}
+		});
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	private void waitUntilAllMessagesAreReceived() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + RECEIVING_TIMEOUT_IN_MS;
+		while (receivedCount.get() < connections && System.currentTimeMillis() < deadline) {
+			Thread.sleep(100);
+		}
+		assertTrue("Received " + receivedCount.get() + " of " + connections + " messages",
+				receivedCount.get() == connections);
+	}
+
+	/**
+	 * Returns the count of connections whose both ends fit in the file descriptors left to the JVM, at most
+	 * the requested count.
+	 */
+	private static int fitToFileDescriptors(int requested) {
+		OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+		if (!(os instanceof UnixOperatingSystemMXBean)) {
+			return requested;
+		}
+		UnixOperatingSystemMXBean unix = (UnixOperatingSystemMXBean) os;
+		long free = unix.getMaxFileDescriptorCount() - unix.getOpenFileDescriptorCount() - RESERVED_FILE_DESCRIPTORS;
+		return (int) Math.max(Math.min(requested, free / 2), 0);
+	}
+
+	private static long usedHeapAfterGc() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		System.gc();
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+}
@@ -0,0 +1,128 @@
+package com.leobro.newsanalyser;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class WindowStoreTest {
+
+	private static final String[] WORDS = {"up", "down", "good"};
+	private static final String[] GOOD_WORDS = {"up", "good"};
+
+	private final HeadlineVocabulary vocabulary = new HeadlineVocabulary(WORDS, GOOD_WORDS,
+			new PositiveWordClassifier(GOOD_WORDS));
+
+	@Test
+	public void when_messagesAreAdded_then_cursorReadsThemInOrder() {
+		WindowStore store = new WindowStore(100, vocabulary);
+		store.add(createMessage("up good", 7), 1000);
+		store.add(createMessage("up good sideways", 3), 2000);
+
+		WindowStore.Window window = store.drain();
+		WindowStore.Cursor cursor = window.cursor();
+
+		assertThat(window.size(), is(2));
+		assertThat(cursor.next(), is(true));
+		assertThat(cursor.getPriority(), is(7));
+		assertThat(cursor.getHeadlineKey(), is(vocabulary.pack("up good")));
+		assertThat(cursor.getHeadline(), is("up good"));
+		assertThat(cursor.getArrivalTime(), is(1000L));
+		assertThat(cursor.next(), is(true));
+		assertThat(cursor.getPriority(), is(3));
+		assertThat(cursor.getHeadlineKey(), is(0L));
+		assertThat(cursor.getHeadline(), is("up good sideways"));
+		assertThat(cursor.getArrivalTime(), is(2000L));
+		assertThat(cursor.next(), is(false));
+	}
+
+	@Test
+	public void when_storeIsDrained_then_nextPeriodStartsEmpty() {
+		WindowStore store = new WindowStore(100, vocabulary);
+		store.add(createMessage("up good", 7), 1000);
+		store.drain().release();
+		store.add(createMessage("down good", 5), 3000);
+
+		WindowStore.Window window = store.drain();
+		WindowStore.Cursor cursor = window.cursor();
+
+		assertThat(window.size(), is(1));
+		assertThat(cursor.next(), is(true));
+		assertThat(cursor.getHeadline(), is("down good"));
+		assertThat(cursor.getArrivalTime(), is(3000L));
+	}
+
+	@Test
+	public void when_priorityDoesNotFitInByte_then_nearestPriorityIsKept() {
+		WindowStore store = new WindowStore(100, vocabulary);
+		store.add(createMessage("up", -5), 0);
+		store.add(createMessage("up", 1000), 0);
+		store.add(createMessage("up", 127), 0);
+
+		WindowStore.Cursor cursor = store.drain().cursor();
+
+		assertThat(cursor.next(), is(true));
+		assertThat(cursor.getPriority(), is(0));
+		assertThat(cursor.next(), is(true));
+		assertThat(cursor.getPriority(), is(127));
+		assertThat(cursor.next(), is(true));
+		assertThat(cursor.getPriority(), is(127));
+	}
+
+	@Test
+	public void when_storeIsFull_then_messagesOverCapacityAreCounted() {
+		WindowStore store = new WindowStore(3, vocabulary);
+		for (int i = 0; i < 5; i++) {
+			store.add(createMessage("up", i), i);
+		}
+
+		WindowStore.Window window = store.drain();
+
+		assertThat(window.size(), is(3));
+		assertThat(window.getOverflowCount(), is(2));
+	}
+
+	@Test
+	public void when_manyThreadsAddAcrossChunks_then_everyMessageIsKept() throws InterruptedException {
+		int threadCount = 4;
+		int perThread = 10000;
+		WindowStore store = new WindowStore(threadCount * perThread, vocabulary);
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < threadCount; t++) {
+			int priority = t;
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < perThread; i++) {
+					store.add(createMessage("good up", priority), i);
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		WindowStore.Window window = store.drain();
+		int[] counts = new int[threadCount];
+		WindowStore.Cursor cursor = window.cursor();
+		while (cursor.next()) {
+			counts[cursor.getPriority()]++;
+			assertThat(cursor.getHeadline(), is("good up"));
+		}
+		window.release();
+
+		for (int count : counts) {
+			assertThat(count, is(perThread));
+		}
+	}
+
+	private NewsMessage createMessage(String headline, int priority) {
+		NewsMessage message = new NewsMessage();
+		message.setHeadline(headline);
+		message.setPriority(priority);
+		message.setHeadlineKey(vocabulary.pack(headline));
+		return message;
+	}
+}
@@ -0,0 +1,85 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.WireFormat;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the decoding and the classification of one news message by the {@link Analyser}, and the classification
+ * through the {@link HeadlineCache} holding all headlines of the corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalyserBenchmark {
+
+	private static final int CORPUS_SIZE = 4096;
+
+	private Reporter reporter;
+	private Analyser analyser;
+	private Analyser cachingAnalyser;
+	private NewsMessage[] messages;
+	private String[] jsonLines;
+	private byte[][] utf8Frames;
+	private byte[][] binaryFrames;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		reporter = new Reporter(Integer.MAX_VALUE, 3, HeadlineCorpus.POSITIVE_WORDS);
+		analyser = new Analyser(reporter);
+		cachingAnalyser = new Analyser(reporter, new HeadlineCache(HeadlineCorpus.POSITIVE_WORDS, CORPUS_SIZE * 4));
+
+		HeadlineCorpus corpus = new HeadlineCorpus(CORPUS_SIZE, 1);
+		messages = corpus.getMessages();
+		jsonLines = corpus.getJsonLines();
+		utf8Frames = corpus.getFrames(WireFormat.UTF8_LINES);
+		binaryFrames = corpus.getFrames(WireFormat.BINARY_FRAMES);
+	}
+
+	@TearDown
+	public void tearDown() {
+		reporter.stop();
+	}
+
+	private int nextIndex() {
+		next = (next + 1) & (CORPUS_SIZE - 1);
+		return next;
+	}
+
+	@Benchmark
+	public NewsMessage convertJsonLine() {
+		return analyser.convertToMessage(jsonLines[nextIndex()]);
+	}
+
+	@Benchmark
+	public NewsMessage convertUtf8Frame() {
+		byte[] frame = utf8Frames[nextIndex()];
+		return analyser.convertToMessage(WireFormat.UTF8_LINES, frame, 0, frame.length);
+	}
+
+	@Benchmark
+	public NewsMessage convertBinaryFrame() {
+		byte[] frame = binaryFrames[nextIndex()];
+		return analyser.convertToMessage(WireFormat.BINARY_FRAMES, frame, 0, frame.length);
+	}
+
+	@Benchmark
+	public boolean isPositive() {
+		return analyser.isPositive(messages[nextIndex()]);
+	}
+
+	@Benchmark
+	public boolean isPositiveCached() {
+		return cachingAnalyser.isPositive(messages[nextIndex()]);
+	}
+
+	@Benchmark
+	public void analyseJsonLine() {
+		analyser.analyse(jsonLines[nextIndex()]);
+	}
+}
@@ -0,0 +1,155 @@
+package com.leobro.newsanalyser;
+
+import com.leobro.newscodec.NewsMessageEncoder;
+import com.leobro.newscodec.WireFormat;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A reproducible corpus of news messages for the benchmarks. Headlines are 4 to 14 words long and drawn from
+ * a vocabulary of common news words, with the frequent words much more likely than the rare ones. Each headline has
+ * its own share of positive words, so about half of the headlines are positive, like in a busy news stream.
+ */
+class HeadlineCorpus {
+
+	static final String[] POSITIVE_WORDS = {"up", "rise", "good", "success", "high", "\u00fcber"};
+
+	private static final String[] NEUTRAL_WORDS = {
+			"the", "a", "of", "to", "in", "for", "on", "as", "at", "by", "with", "after", "over", "new", "says",
+			"market", "stocks", "shares", "government", "minister", "report", "bank", "rates", "year", "week", "deal",
+			"talks", "china", "europe", "us", "uk", "company", "profit", "sales", "oil", "prices", "election", "vote",
+			"court", "police", "city", "team", "season", "league", "cup", "final", "world", "first", "record",
+			"storm", "weather", "health", "study", "scientists", "tech", "apple", "google", "energy", "climate",
+			"down", "fall", "bad", "failure", "low", "unter", "crisis", "cuts", "loss", "fears", "warning", "strike",
+			"quarter", "inflation", "jobs", "housing", "budget", "tax", "trade", "tariffs", "investors", "central",
+			"president", "parliament", "plan", "bill", "ruling", "appeal", "trial", "charges", "launch", "update"
+	};
+
+	private static final int MIN_WORDS = 4;
+	private static final int MAX_WORDS = 14;
+
+	private final NewsMessage[] messages;
+
+	/**
+	 * Creates a corpus.
+	 *
+	 * @param size the count of news messages,
+	 * @param seed the seed of the random generator; the same seed gives the same corpus.
+	 */
+	HeadlineCorpus(int size, long seed) {
+		Random random = new Random(seed);
+		messages = new NewsMessage[size];
+
+		for (int i = 0; i < size; i++) {
+			NewsMessage message = new NewsMessage();
+			message.setHeadline(createHeadline(random));
+			message.setPriority(createPriority(random));
+			messages[i] = message;
+		}
+	}
+
+	private static String createHeadline(Random random) {
+		int wordCount = MIN_WORDS + random.nextInt(MAX_WORDS - MIN_WORDS + 1);
+		double positiveShare = random.nextDouble();
+		StringBuilder headline = new StringBuilder();
+
+		for (int i = 0; i < wordCount; i++) {
+			if (i > 0) {
+				headline.append(' ');
+			}
+			if (random.nextDouble() < positiveShare) {
+				headline.append(POSITIVE_WORDS[random.nextInt(POSITIVE_WORDS.length)]);
+			} else {
+				headline.append(NEUTRAL_WORDS[zipfIndex(random, NEUTRAL_WORDS.length)]);
+			}
+		}
+		return headline.toString();
+	}
+
+	/**
+	 * Returns an index from 0 to {@code count - 1}, the small ones being much more frequent.
+	 */
+	private static int zipfIndex(Random random, int count) {
+		return (int) Math.floor(Math.pow(count + 1, random.nextDouble())) - 1;
+	}
+
+	/**
+	 * Returns a priority from 0 to 9 with the distribution of the mock news feed.
+	 */
+	private static int createPriority(Random random) {
+		double[] weights = {29.3, 19.3, 14.3, 10.9, 8.4, 6.5, 4.8, 3.4, 2.1, 1};
+		double value = random.nextDouble() * 100.0d;
+		for (int i = 0; i < weights.length; i++) {
+			value -= weights[i];
+			if (value < 0) {
+				return i;
+			}
+		}
+		return weights.length - 1;
+	}
+
+	/**
+	 * Returns the news messages of the corpus.
+	 *
+	 * @return the messages.
+	 */
+	NewsMessage[] getMessages() {
+		return messages;
+	}
+
+	/**
+	 * Returns the headlines of the corpus.
+	 *
+	 * @return the headlines.
+	 */
+	String[] getHeadlines() {
+		return Arrays.stream(messages).map(NewsMessage::getHeadline).toArray(String[]::new);
+	}
+
+	/**
+	 * Returns the messages as the JSON lines sent by the news feeds, without the line feed.
+	 *
+	 * @return the JSON lines.
+	 */
+	String[] getJsonLines() {
+		NewsMessageEncoder encoder = new NewsMessageEncoder(WireFormat.UTF16_LINES);
+		String[] lines = new String[messages.length];
+		ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+		for (int i = 0; i < messages.length; i++) {
+			buffer.clear();
+			encoder.encode(messages[i].getPriority(), messages[i].getHeadline(), buffer);
+			buffer.flip();
+			String line = buffer.asCharBuffer().toString();
+			lines[i] = line.substring(0, line.length() - 1);
+		}
+		return lines;
+	}
+
+	/**
+	 * Returns the messages encoded as the frames of the given format, as passed to the analyser by
+	 * the {@code FrameReader}: without the line feed or the length bytes.
+	 *
+	 * @param format the wire format.
+	 * @return the frames, one array per message.
+	 */
+	byte[][] getFrames(WireFormat format) {
+		NewsMessageEncoder encoder = new NewsMessageEncoder(format);
+		byte[][] frames = new byte[messages.length][];
+		ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+		for (int i = 0; i < messages.length; i++) {
+			buffer.clear();
+			encoder.encode(messages[i].getPriority(), messages[i].getHeadline(), buffer);
+			if (format.isLines()) {
+				int lineFeedLength = (format == WireFormat.UTF16_LINES) ? 2 : 1;
+				frames[i] = Arrays.copyOf(buffer.array(), buffer.position() - lineFeedLength);
+			} else {
+				frames[i] = Arrays.copyOfRange(buffer.array(), 2, buffer.position());
+			}
+		}
+		return frames;
+	}
+}
@@ -0,0 +1,42 @@
+package com.leobro.newsanalyser;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the selection of the most important news of one report: folding all positive messages of a reporting
+ * period into a {@link NewsDigest} and taking its top news. The selection was made by
+ * {@code ConsolePrinter.selectImportantNews} before the digest replaced it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NewsDigestBenchmark {
+
+	@Param({"1000", "100000"})
+	private int messagesPerPeriod;
+
+	@Param({"3", "50"})
+	private int newsLimit;
+
+	private NewsMessage[] messages;
+
+	@Setup
+	public void setUp() {
+		messages = new HeadlineCorpus(messagesPerPeriod, 2).getMessages();
+	}
+
+	@Benchmark
+	public List<NewsMessage> selectImportantNews() {
+		NewsDigest digest = new NewsDigest(newsLimit);
+		for (int i = 0; i < messages.length; i++) {
+			digest.add(messages[i], i);
+		}
+		return digest.getTopNews();
+	}
+}
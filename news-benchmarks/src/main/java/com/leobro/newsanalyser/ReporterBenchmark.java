@@ -0,0 +1,77 @@
+package com.leobro.newsanalyser;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Reporter#add(NewsMessage)} with as many concurrent receiver threads as a few, a typical and a busy
+ * analyser would have. The reports are printed once a second during the measurement, so the adding threads also meet
+ * the report taking their digest.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReporterBenchmark {
+
+	private static final int CORPUS_SIZE = 4096;
+
+	@State(Scope.Benchmark)
+	public static class SharedReporter {
+
+		private Reporter reporter;
+
+		@Setup
+		public void setUp() {
+			reporter = new Reporter(1000, 3, HeadlineCorpus.POSITIVE_WORDS);
+		}
+
+		@TearDown
+		public void tearDown() {
+			reporter.stop();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ReceiverMessages {
+
+		private NewsMessage[] messages;
+		private int next;
+
+		@Setup
+		public void setUp() {
+			messages = new HeadlineCorpus(CORPUS_SIZE, Thread.currentThread().getId()).getMessages();
+		}
+
+		NewsMessage nextMessage() {
+			next = (next + 1) & (CORPUS_SIZE - 1);
+			return messages[next];
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void add1Thread(SharedReporter shared, ReceiverMessages receiver) {
+		shared.reporter.add(receiver.nextMessage());
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void add4Threads(SharedReporter shared, ReceiverMessages receiver) {
+		shared.reporter.add(receiver.nextMessage());
+	}
+
+	@Benchmark
+	@Threads(16)
+	public void add16Threads(SharedReporter shared, ReceiverMessages receiver) {
+		shared.reporter.add(receiver.nextMessage());
+	}
+
+	@Benchmark
+	@Threads(64)
+	public void add64Threads(SharedReporter shared, ReceiverMessages receiver) {
+		shared.reporter.add(receiver.nextMessage());
+	}
+}
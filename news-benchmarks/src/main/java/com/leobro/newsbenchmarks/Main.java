@@ -0,0 +1,41 @@
+package com.leobro.newsbenchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Runs the benchmarks with the GC profiler, which also reports the allocation rate per operation, and writes
+ * the results in JSON into the {@code results} directory, one file per run named after its start time. The command
+ * line accepts the usual JMH options, e.g. a regular expression selecting the benchmarks to run.
+ */
+public class Main {
+
+	private static final String RESULTS_DIRECTORY = "results";
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		File results = new File(RESULTS_DIRECTORY);
+		if (!results.isDirectory() && !results.mkdirs()) {
+			throw new IllegalStateException("Cannot create the directory " + results.getAbsolutePath());
+		}
+		String runName = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result(new File(results, "jmh-" + runName + ".json").getPath())
+				.build();
+
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,56 @@
+package com.leobro.newsfeed;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.leobro.newscodec.WireFormat;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of one news message by the {@link NewsGenerator}, without the pause between messages.
+ * The words and the weights are those of the shipped feed configuration.
+ * <p>{@code generateMessage} is the old path of a bean databound to a JSON string; {@code encodeMessage} is
+ * the path the feeds send by, a reused {@link WordMessage} written into a reused buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NewsGeneratorBenchmark {
+
+	static final String[] HEADLINE_WORDS = {"up", "down", "rise", "fall", "good", "bad", "success", "failure", "high",
+			"low", "\u00fcber", "unter"};
+	static final double[] PRIORITY_WEIGHTS = {29.3, 19.3, 14.3, 10.9, 8.4, 6.5, 4.8, 3.4, 2.1, 1};
+
+	@Param({"UTF8_LINES", "BINARY_FRAMES"})
+	public WireFormat format;
+
+	private NewsGenerator generator;
+	private WordMessage message;
+	private WordMessageEncoder encoder;
+	private ByteBuffer buffer;
+
+	@Setup
+	public void setUp() {
+		generator = new NewsGenerator(0, HEADLINE_WORDS, PRIORITY_WEIGHTS);
+		message = new WordMessage();
+		encoder = new WordMessageEncoder(format, HEADLINE_WORDS);
+		buffer = ByteBuffer.allocate(1024);
+	}
+
+	@Benchmark
+	public String generateMessage() throws JsonProcessingException {
+		return generator.generateMessage();
+	}
+
+	@Benchmark
+	public int encodeMessage() {
+		buffer.clear();
+		generator.createMessage(message);
+		encoder.encode(message, buffer);
+		return buffer.position();
+	}
+}
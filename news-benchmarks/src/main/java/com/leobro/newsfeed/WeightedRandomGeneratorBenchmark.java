@@ -0,0 +1,41 @@
+package com.leobro.newsfeed;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures drawing one priority from the {@link WeightedRandomGenerator} with the weights of the shipped feed
+ * configuration, and filling an array of a thousand priorities at once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeightedRandomGeneratorBenchmark {
+
+	private static final int FILL_SIZE = 1000;
+
+	private WeightedRandomGenerator generator;
+	private int[] priorities;
+
+	@Setup
+	public void setUp() {
+		generator = new WeightedRandomGenerator(NewsGeneratorBenchmark.PRIORITY_WEIGHTS);
+		priorities = new int[FILL_SIZE];
+	}
+
+	@Benchmark
+	public int getWeightedRandom() {
+		return generator.getWeightedRandom();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FILL_SIZE)
+	public int[] fill() {
+		generator.fill(priorities);
+		return priorities;
+	}
+}
@@ -0,0 +1,50 @@
+package com.leobro.newscodec;
+
+/**
+ * Wall clock with microsecond resolution for the timestamps of the news messages. {@link System#currentTimeMillis()}
+ * is too coarse to measure the latency of a message over the loopback, and {@link System#nanoTime()} has no fixed
+ * origin, so the clock pairs a tick of the former with a reading of the latter once and then counts the time on the
+ * monotonic clock.
+ * <p>The feed and the News Analyser server on one machine share the wall clock, so the timestamp of one can be
+ * compared with the time of the other. On different machines the difference includes the offset of their clocks.
+ */
+public final class EpochClock {
+
+	private static final long ORIGIN_NANOS;
+	private static final long ORIGIN_MICROS;
+
+	static {
+		// wait for the millisecond to change, so that the anchor is at its very start
+		long millis = System.currentTimeMillis();
+		long nanos;
+		long now;
+		do {
+			nanos = System.nanoTime();
+			now = System.currentTimeMillis();
+		} while (now == millis);
+		ORIGIN_NANOS = nanos;
+		ORIGIN_MICROS = now * 1000;
+	}
+
+	private EpochClock() {
+	}
+
+	/**
+	 * Returns the current time.
+	 *
+	 * @return the time in microseconds since the epoch.
+	 */
+	public static long currentTimeMicros() {
+		return toEpochMicros(System.nanoTime());
+	}
+
+	/**
+	 * Converts a reading of {@link System#nanoTime()} into the time since the epoch.
+	 *
+	 * @param nanoTime the reading of {@link System#nanoTime()}, possibly in the future.
+	 * @return the time in microseconds since the epoch.
+	 */
+	public static long toEpochMicros(long nanoTime) {
+		return ORIGIN_MICROS + (nanoTime - ORIGIN_NANOS) / 1000;
+	}
+}
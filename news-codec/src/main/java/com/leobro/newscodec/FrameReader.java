@@ -0,0 +1,165 @@
+package com.leobro.newscodec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Splits the bytes received from one news feed into frames, each holding one news message. Intended for non-blocking
+ * input: the received bytes are accumulated in a buffer and {@link #read(ByteBuffer)} is called after every read;
+ * it passes all complete frames to the {@link FrameHandler} and leaves an incomplete frame in the buffer until the
+ * rest of it arrives.
+ * <p>The first bytes of the connection are the {@link Handshake} which decides the {@link WireFormat} of the frames.
+ * Line frames are passed without the line feed and the preceding carriage return; binary frames are passed without
+ * the length bytes. An empty frame is a heartbeat of a feed (see {@link NewsMessageEncoder#encodeHeartbeat}) and is
+ * passed as well.
+ * <p>An instance keeps the state of one connection and is not thread-safe.
+ */
+public class FrameReader {
+
+	private static final int UTF16_CHAR_LENGTH = 2;
+	private static final char BYTE_ORDER_MARK = '\uFEFF';
+	private static final int BINARY_LENGTH_BYTES = 2;
+
+	/**
+	 * Receives the handshake and the frames found by the {@link FrameReader}.
+	 */
+	public interface FrameHandler {
+
+		/**
+		 * Called once, when the handshake is received. If the handshake is not {@link Handshake#isLegacy() legacy},
+		 * the handler should send {@link Handshake#getAcknowledgement()} to the feed. If the format is not
+		 * {@link Handshake#isAccepted() accepted}, all further bytes are discarded.
+		 *
+		 * @param handshake the received handshake.
+		 */
+		void onHandshake(Handshake handshake);
+
+		/**
+		 * Called for every complete frame. The bytes are valid only during the call.
+		 *
+		 * @param format the format of the frame,
+		 * @param bytes  the array containing the frame,
+		 * @param offset the start of the frame in the array,
+		 * @param length the length of the frame.
+		 */
+		void onFrame(WireFormat format, byte[] bytes, int offset, int length);
+	}
+
+	private final FrameHandler handler;
+	private Handshake handshake;
+	private boolean isStartOfText = true;
+
+	/**
+	 * Creates a new instance of the {@link FrameReader} class.
+	 *
+	 * @param handler the receiver of the handshake and the frames.
+	 */
+	public FrameReader(FrameHandler handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * Returns the handshake of the connection.
+	 *
+	 * @return the handshake or {@code null} if it is not yet received.
+	 */
+	public Handshake getHandshake() {
+		return handshake;
+	}
+
+	/**
+	 * Passes all complete frames from the buffer to the handler. On return, the position of the buffer is at the
+	 * first byte not yet consumed, so the buffer should be compacted before reading more bytes into it.
+	 *
+	 * @param buffer the received bytes, ready for reading; must be backed by an array.
+	 */
+	public void read(ByteBuffer buffer) {
+		if (handshake == null) {
+			handshake = Handshake.parseRequest(buffer);
+			if (handshake == null) {
+				return;
+			}
+			handler.onHandshake(handshake);
+		}
+		if (!handshake.isAccepted()) {
+			buffer.position(buffer.limit());
+			return;
+		}
+
+		switch (handshake.getFormat()) {
+			case UTF16_LINES:
+				readUtf16Lines(buffer);
+				break;
+			case UTF8_LINES:
+				readUtf8Lines(buffer);
+				break;
+			case BINARY_FRAMES:
+				readBinaryFrames(buffer);
+				break;
+		}
+	}
+
+	private void readUtf16Lines(ByteBuffer buffer) {
+		byte[] bytes = buffer.array();
+		int offset = buffer.arrayOffset();
+		int start = offset + buffer.position();
+		int end = offset + buffer.limit();
+
+		if (isStartOfText) {
+			if (end - start < UTF16_CHAR_LENGTH) {
+				return;
+			}
+			if (utf16CharAt(bytes, start) == BYTE_ORDER_MARK) {
+				start += UTF16_CHAR_LENGTH;
+			}
+			isStartOfText = false;
+		}
+
+		int lineStart = start;
+		for (int i = start; i + 1 < end; i += UTF16_CHAR_LENGTH) {
+			if (utf16CharAt(bytes, i) == '\n') {
+				int lineEnd = i;
+				if (lineEnd > lineStart && utf16CharAt(bytes, lineEnd - UTF16_CHAR_LENGTH) == '\r') {
+					lineEnd -= UTF16_CHAR_LENGTH;
+				}
+				handler.onFrame(WireFormat.UTF16_LINES, bytes, lineStart, lineEnd - lineStart);
+				lineStart = i + UTF16_CHAR_LENGTH;
+			}
+		}
+		buffer.position(lineStart - offset);
+	}
+
+	private static char utf16CharAt(byte[] bytes, int index) {
+		return (char) (((bytes[index] & 0xFF) << 8) | (bytes[index + 1] & 0xFF));
+	}
+
+	private void readUtf8Lines(ByteBuffer buffer) {
+		byte[] bytes = buffer.array();
+		int offset = buffer.arrayOffset();
+		int lineStart = offset + buffer.position();
+		int end = offset + buffer.limit();
+
+		for (int i = lineStart; i < end; i++) {
+			if (bytes[i] == '\n') {
+				int lineEnd = (i > lineStart && bytes[i - 1] == '\r') ? i - 1 : i;
+				handler.onFrame(WireFormat.UTF8_LINES, bytes, lineStart, lineEnd - lineStart);
+				lineStart = i + 1;
+			}
+		}
+		buffer.position(lineStart - offset);
+	}
+
+	private void readBinaryFrames(ByteBuffer buffer) {
+		byte[] bytes = buffer.array();
+		int offset = buffer.arrayOffset();
+
+		while (buffer.remaining() >= BINARY_LENGTH_BYTES) {
+			int start = buffer.position();
+			int length = buffer.getShort(start) & 0xFFFF;
+			if (buffer.remaining() < BINARY_LENGTH_BYTES + length) {
+				return;
+			}
+			handler.onFrame(WireFormat.BINARY_FRAMES, bytes, offset + start + BINARY_LENGTH_BYTES, length);
+			buffer.position(start + BINARY_LENGTH_BYTES + length);
+		}
+	}
+}
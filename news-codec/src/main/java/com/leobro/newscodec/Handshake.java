@@ -0,0 +1,208 @@
+package com.leobro.newscodec;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The first exchange on a new connection, in which the news feed chooses the {@link WireFormat} of its messages.
+ * <p>The feed sends the request: the magic bytes {@code NWS}, the protocol version, the format code, then the length
+ * of the feed name (one byte) and the feed name in UTF-8. The analyser answers with one byte: the code of the accepted
+ * format or {@link #REJECTED}. The feeds which start sending without the request are treated as sending
+ * {@link WireFormat#UTF16_LINES}, which is what the feeds did before the handshake was introduced.
+ */
+public final class Handshake {
+
+	/**
+	 * The version of the protocol.
+	 */
+	public static final byte VERSION = 1;
+
+	/**
+	 * The answer of the analyser when it does not support the requested version or format.
+	 */
+	public static final byte REJECTED = (byte) 0xFF;
+
+	private static final byte[] MAGIC = {'N', 'W', 'S'};
+	private static final int MAX_FEED_NAME_LENGTH = 255;
+	private static final int HEADER_LENGTH = MAGIC.length + 3;
+
+	private final WireFormat format;
+	private final String feedName;
+	private final boolean isLegacy;
+
+	private Handshake(WireFormat format, String feedName, boolean isLegacy) {
+		this.format = format;
+		this.feedName = feedName;
+		this.isLegacy = isLegacy;
+	}
+
+	/**
+	 * Returns the format requested by the feed.
+	 *
+	 * @return the format or {@code null} if the feed requested an unsupported version or format.
+	 */
+	public WireFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Returns the name the feed introduced itself with.
+	 *
+	 * @return the feed name, empty if the feed did not give it or made no handshake.
+	 */
+	public String getFeedName() {
+		return feedName;
+	}
+
+	/**
+	 * Tells if the feed started sending without the handshake.
+	 *
+	 * @return {@code true} if the feed made no handshake and nothing should be answered to it.
+	 */
+	public boolean isLegacy() {
+		return isLegacy;
+	}
+
+	/**
+	 * Tells if the analyser can receive messages in the requested format.
+	 *
+	 * @return {@code true} if the format is supported.
+	 */
+	public boolean isAccepted() {
+		return format != null;
+	}
+
+	/**
+	 * Returns the byte the analyser answers to the request.
+	 *
+	 * @return the code of the accepted format or {@link #REJECTED}.
+	 */
+	public byte getAcknowledgement() {
+		return isAccepted() ? format.getCode() : REJECTED;
+	}
+
+	/**
+	 * Sends the handshake request. Used by the news feed.
+	 *
+	 * @param out      the output stream of the connection,
+	 * @param format   the requested format,
+	 * @param feedName the name of the feed, at most 255 bytes in UTF-8.
+	 * @throws IOException              if an I/O error occurs.
+	 * @throws IllegalArgumentException if the feed name is too long.
+	 */
+	public static void writeRequest(OutputStream out, WireFormat format, String feedName) throws IOException {
+		byte[] name = feedName.getBytes(StandardCharsets.UTF_8);
+		if (name.length > MAX_FEED_NAME_LENGTH) {
+			throw new IllegalArgumentException("Feed name is longer than " + MAX_FEED_NAME_LENGTH + " bytes: "
+					+ feedName);
+		}
+		byte[] request = new byte[HEADER_LENGTH + name.length];
+		System.arraycopy(MAGIC, 0, request, 0, MAGIC.length);
+		request[MAGIC.length] = VERSION;
+		request[MAGIC.length + 1] = format.getCode();
+		request[MAGIC.length + 2] = (byte) name.length;
+		System.arraycopy(name, 0, request, HEADER_LENGTH, name.length);
+
+		out.write(request);
+		out.flush();
+	}
+
+	/**
+	 * Waits for the answer to the handshake request. Used by the news feed.
+	 *
+	 * @param in     the input stream of the connection,
+	 * @param format the requested format.
+	 * @throws IOException if an I/O error occurs, the connection is closed or the analyser has rejected the format.
+	 */
+	public static void readAcknowledgement(InputStream in, WireFormat format) throws IOException {
+		int answer = in.read();
+		if (answer < 0) {
+			throw new EOFException("Connection closed during the handshake");
+		}
+		if ((byte) answer != format.getCode()) {
+			throw new IOException("News analyser has rejected the wire format " + format);
+		}
+	}
+
+	/**
+	 * Reads the handshake request from a blocking stream. Used by the news analyser. If the feed does not start with
+	 * the request, the read bytes are pushed back to the stream.
+	 *
+	 * @param in the input stream of the connection able to push back at least three bytes.
+	 * @return the received handshake.
+	 * @throws IOException if an I/O error occurs or the connection is closed.
+	 */
+	public static Handshake readRequest(PushbackInputStream in) throws IOException {
+		byte[] magic = new byte[MAGIC.length];
+		int count = 0;
+
+		while (count < MAGIC.length) {
+			int b = in.read();
+			if (b < 0) {
+				throw new EOFException("Connection closed before the first message");
+			}
+			magic[count++] = (byte) b;
+			if (magic[count - 1] != MAGIC[count - 1]) {
+				in.unread(magic, 0, count);
+				return legacy();
+			}
+		}
+
+		DataInputStream data = new DataInputStream(in);
+		byte version = data.readByte();
+		byte code = data.readByte();
+		byte[] name = new byte[data.readUnsignedByte()];
+		data.readFully(name);
+		return requested(version, code, new String(name, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Parses the handshake request from the bytes received so far. Used by the news analyser with non-blocking
+	 * channels. If the request is complete, its bytes are consumed from the buffer; if the feed does not start with
+	 * the request, nothing is consumed.
+	 *
+	 * @param buffer the received bytes, ready for reading.
+	 * @return the received handshake or {@code null} if more bytes are needed to decide.
+	 */
+	public static Handshake parseRequest(ByteBuffer buffer) {
+		int start = buffer.position();
+
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (start + i >= buffer.limit()) {
+				return null;
+			}
+			if (buffer.get(start + i) != MAGIC[i]) {
+				return legacy();
+			}
+		}
+		if (buffer.remaining() < HEADER_LENGTH) {
+			return null;
+		}
+		int nameLength = buffer.get(start + HEADER_LENGTH - 1) & 0xFF;
+		if (buffer.remaining() < HEADER_LENGTH + nameLength) {
+			return null;
+		}
+
+		byte version = buffer.get(start + MAGIC.length);
+		byte code = buffer.get(start + MAGIC.length + 1);
+		byte[] name = new byte[nameLength];
+		buffer.position(start + HEADER_LENGTH);
+		buffer.get(name);
+		return requested(version, code, new String(name, StandardCharsets.UTF_8));
+	}
+
+	private static Handshake legacy() {
+		return new Handshake(WireFormat.UTF16_LINES, "", true);
+	}
+
+	private static Handshake requested(byte version, byte code, String feedName) {
+		WireFormat format = (version == VERSION) ? WireFormat.fromCode(code) : null;
+		return new Handshake(format, feedName, false);
+	}
+}
@@ -0,0 +1,382 @@
+package com.leobro.newscodec;
+
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decoder of news messages in any {@link WireFormat}. The decoded fields are available through the getters until
+ * the next decoding.
+ * <p>The JSON decoding is hand-written for the news message having the fields {@code headline} (string) and
+ * {@code priority} (integer) and optionally {@code sentAt} (non-negative integer), in any order and with any
+ * whitespace between the tokens. It scans the text once without building a tree or using reflection; the only object
+ * created for a message is its headline string. Any other shape of the text (unknown or missing fields, other value
+ * types, numbers with fraction or exponent, trailing garbage) is not decoded: the decoding methods return
+ * {@code false} and the caller should fall back to the general-purpose JSON databinding.
+ * <p>An instance keeps scratch buffers for converting bytes to characters and for unescaping the headline, so it is
+ * meant to be used by one thread only, e.g. one instance per connection.
+ */
+public class NewsMessageDecoder {
+
+	private static final String HEADLINE = "headline";
+	private static final String PRIORITY = "priority";
+	private static final String SENT_AT = "sentAt";
+	private static final int TIMESTAMP_FLAG = 0x80;
+	private static final int PRIORITY_MASK = 0x7F;
+	private static final int TIMESTAMP_LENGTH = 8;
+	private static final int NOT_FOUND = -1;
+
+	private static final int INITIAL_SCRATCH_SIZE = 256;
+
+	private final StringBuilder scratch = new StringBuilder();
+	private char[] chars = new char[INITIAL_SCRATCH_SIZE];
+	private CharBuffer charView = CharBuffer.wrap(chars);
+
+	private CharSequence text;
+	private int position;
+	private String headline;
+	private int priority;
+	private long sentAt;
+	private boolean isSentAtFound;
+	private long number;
+
+	/**
+	 * Returns the headline of the last decoded news message.
+	 *
+	 * @return the headline.
+	 */
+	public String getHeadline() {
+		return headline;
+	}
+
+	/**
+	 * Returns the priority of the last decoded news message.
+	 *
+	 * @return the priority.
+	 */
+	public int getPriority() {
+		return priority;
+	}
+
+	/**
+	 * Returns the time the last decoded news message was sent at, as given by the feed.
+	 *
+	 * @return the time in microseconds since the epoch (see {@link EpochClock}) or 0 if the message has no timestamp.
+	 */
+	public long getSentAt() {
+		return sentAt;
+	}
+
+	/**
+	 * Decodes a news message in JSON format.
+	 *
+	 * @param text the news message in JSON format.
+	 * @return {@code true} if the message is decoded, {@code false} if the text does not have the expected shape.
+	 */
+	public boolean decode(CharSequence text) {
+		this.text = text;
+		position = 0;
+		headline = null;
+		priority = NOT_FOUND;
+		sentAt = 0;
+		isSentAtFound = false;
+
+		boolean isDecoded = parseObject();
+		this.text = null;
+		return isDecoded;
+	}
+
+	/**
+	 * Decodes a news message from a frame received by the {@link FrameReader}. The text of the line formats is
+	 * converted into the scratch buffer of characters without creating a string.
+	 *
+	 * @param format the format of the frame,
+	 * @param bytes  the array containing the frame,
+	 * @param offset the start of the frame in the array,
+	 * @param length the length of the frame.
+	 * @return {@code true} if the message is decoded, {@code false} if the frame does not have the expected shape.
+	 */
+	public boolean decode(WireFormat format, byte[] bytes, int offset, int length) {
+		switch (format) {
+			case UTF16_LINES:
+				return decode(utf16ToChars(bytes, offset, length));
+			case UTF8_LINES:
+				return decode(utf8ToChars(bytes, offset, length));
+			default:
+				return decodeBinary(bytes, offset, length);
+		}
+	}
+
+	private boolean decodeBinary(byte[] bytes, int offset, int length) {
+		if (length < 1) {
+			return false;
+		}
+		int first = bytes[offset] & 0xFF;
+		int headlineStart = offset + 1;
+		sentAt = 0;
+
+		if ((first & TIMESTAMP_FLAG) != 0) {
+			if (length < 1 + TIMESTAMP_LENGTH) {
+				return false;
+			}
+			for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+				sentAt = (sentAt << 8) | (bytes[headlineStart++] & 0xFF);
+			}
+		}
+		priority = first & PRIORITY_MASK;
+		headline = new String(bytes, headlineStart, offset + length - headlineStart, StandardCharsets.UTF_8);
+		return true;
+	}
+
+	private CharSequence utf16ToChars(byte[] bytes, int offset, int length) {
+		int count = length / 2;
+		ensureCharCapacity(count);
+		for (int i = 0; i < count; i++) {
+			int index = offset + i * 2;
+			chars[i] = (char) (((bytes[index] & 0xFF) << 8) | (bytes[index + 1] & 0xFF));
+		}
+		return charView(count);
+	}
+
+	private CharSequence utf8ToChars(byte[] bytes, int offset, int length) {
+		ensureCharCapacity(length);
+		return charView(Utf8.decode(bytes, offset, length, chars));
+	}
+
+	private void ensureCharCapacity(int count) {
+		if (chars.length < count) {
+			chars = new char[Math.max(count, chars.length * 2)];
+			charView = CharBuffer.wrap(chars);
+		}
+	}
+
+	private CharSequence charView(int count) {
+		charView.clear();
+		charView.limit(count);
+		return charView;
+	}
+
+	private boolean parseObject() {
+		if (!consume('{')) {
+			return false;
+		}
+		do {
+			if (!parseField()) {
+				return false;
+			}
+		} while (consume(','));
+		if (!consume('}')) {
+			return false;
+		}
+		skipWhitespace();
+		return position == text.length() && headline != null && priority != NOT_FOUND;
+	}
+
+	private boolean parseField() {
+		skipWhitespace();
+		if (matchesKey(HEADLINE) && headline == null) {
+			return consume(':') && parseHeadline();
+		}
+		if (matchesKey(PRIORITY) && priority == NOT_FOUND) {
+			return consume(':') && parsePriority();
+		}
+		if (matchesKey(SENT_AT) && !isSentAtFound) {
+			return consume(':') && parseSentAt();
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if the quoted key starts at the current position and moves past it if so. The key is compared literally,
+	 * so a key written with escape sequences is not recognised.
+	 */
+	private boolean matchesKey(String key) {
+		int end = position + key.length() + 2;
+		if (end > text.length() || text.charAt(position) != '"' || text.charAt(end - 1) != '"') {
+			return false;
+		}
+		for (int i = 0; i < key.length(); i++) {
+			if (text.charAt(position + 1 + i) != key.charAt(i)) {
+				return false;
+			}
+		}
+		position = end;
+		return true;
+	}
+
+	private boolean parseHeadline() {
+		skipWhitespace();
+		if (position >= text.length() || text.charAt(position) != '"') {
+			return false;
+		}
+		int start = ++position;
+
+		while (position < text.length()) {
+			char c = text.charAt(position);
+			if (c == '"') {
+				headline = text.subSequence(start, position++).toString();
+				return true;
+			}
+			if (c == '\\') {
+				return parseEscapedHeadline(start);
+			}
+			if (c < 0x20) {
+				return false;
+			}
+			position++;
+		}
+		return false;
+	}
+
+	/**
+	 * Continues parsing of the headline containing escape sequences, which are replaced in the scratch buffer.
+	 */
+	private boolean parseEscapedHeadline(int start) {
+		scratch.setLength(0);
+		scratch.append(text, start, position);
+
+		while (position < text.length()) {
+			char c = text.charAt(position++);
+			if (c == '"') {
+				headline = scratch.toString();
+				return true;
+			}
+			if (c < 0x20) {
+				return false;
+			}
+			if (c == '\\') {
+				if (!appendEscapedChar()) {
+					return false;
+				}
+			} else {
+				scratch.append(c);
+			}
+		}
+		return false;
+	}
+
+	private boolean appendEscapedChar() {
+		if (position >= text.length()) {
+			return false;
+		}
+		char c = text.charAt(position++);
+		switch (c) {
+			case '"':
+			case '\\':
+			case '/':
+				scratch.append(c);
+				return true;
+			case 'b':
+				scratch.append('\b');
+				return true;
+			case 'f':
+				scratch.append('\f');
+				return true;
+			case 'n':
+				scratch.append('\n');
+				return true;
+			case 'r':
+				scratch.append('\r');
+				return true;
+			case 't':
+				scratch.append('\t');
+				return true;
+			case 'u':
+				return appendUnicodeChar();
+			default:
+				return false;
+		}
+	}
+
+	private boolean appendUnicodeChar() {
+		if (position + 4 > text.length()) {
+			return false;
+		}
+		int code = 0;
+		for (int i = 0; i < 4; i++) {
+			int digit = Character.digit(text.charAt(position++), 16);
+			if (digit < 0) {
+				return false;
+			}
+			code = (code << 4) | digit;
+		}
+		scratch.append((char) code);
+		return true;
+	}
+
+	private boolean parsePriority() {
+		skipWhitespace();
+		boolean isNegative = position < text.length() && text.charAt(position) == '-';
+		if (isNegative) {
+			position++;
+		}
+		if (!parseNumber(Integer.MAX_VALUE)) {
+			return false;
+		}
+		priority = (int) (isNegative ? -number : number);
+		return priority != NOT_FOUND;
+	}
+
+	private boolean parseSentAt() {
+		skipWhitespace();
+		if (!parseNumber(Long.MAX_VALUE)) {
+			return false;
+		}
+		sentAt = number;
+		isSentAtFound = true;
+		return true;
+	}
+
+	/**
+	 * Parses the digits of an integer number into {@link #number}.
+	 *
+	 * @param max the maximal value of the number.
+	 * @return {@code false} if the number is missing, too big, has leading zeros, a fraction or an exponent.
+	 */
+	private boolean parseNumber(long max) {
+		int start = position;
+		long value = 0;
+
+		while (position < text.length() && isDigit(text.charAt(position))) {
+			int digit = text.charAt(position++) - '0';
+			if (value > (max - digit) / 10) {
+				return false;
+			}
+			value = value * 10 + digit;
+		}
+		if (position == start || (position - start > 1 && text.charAt(start) == '0')) {
+			return false;
+		}
+		if (position < text.length() && isNumberContinuation(text.charAt(position))) {
+			return false;
+		}
+		number = value;
+		return true;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isNumberContinuation(char c) {
+		return c == '.' || c == 'e' || c == 'E';
+	}
+
+	private boolean consume(char expected) {
+		skipWhitespace();
+		if (position < text.length() && text.charAt(position) == expected) {
+			position++;
+			return true;
+		}
+		return false;
+	}
+
+	private void skipWhitespace() {
+		while (position < text.length()) {
+			char c = text.charAt(position);
+			if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+				return;
+			}
+			position++;
+		}
+	}
+}
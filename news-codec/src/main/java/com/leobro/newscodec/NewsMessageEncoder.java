@@ -0,0 +1,280 @@
+package com.leobro.newscodec;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encoder of news messages in one {@link WireFormat}. Writes the bytes directly into the given buffer, so no strings
+ * or arrays are created for a message. The JSON produced for the line formats is the same as the JSON databinding
+ * of the news message bean produces: {@code {"headline":"...","priority":N}}, with {@code ,"sentAt":T} before
+ * the closing brace if the message has a timestamp.
+ * <p>A binary frame holds the priority byte and the headline in UTF-8. If the message has a timestamp, the highest bit
+ * of the priority byte is set and the 8 bytes of the timestamp follow it.
+ * <p>An empty frame - an empty line or a binary frame of zero length - is a heartbeat, which a feed having nothing to
+ * say sends to show that the connection is alive.
+ * <p>The encoder has no state except of its format and can be shared.
+ */
+public class NewsMessageEncoder {
+
+	private static final char BYTE_ORDER_MARK = '\uFEFF';
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+	private static final String HEADLINE_START = "{\"headline\":\"";
+	private static final String PRIORITY_START = "\",\"priority\":";
+	private static final String SENT_AT_START = ",\"sentAt\":";
+	private static final String MESSAGE_END = "}\n";
+	private static final int TIMESTAMP_FLAG = 0x80;
+	private static final int MAX_BINARY_FRAME_LENGTH = 0xFFFF;
+	private static final int MAX_BINARY_PRIORITY = Byte.MAX_VALUE;
+	/**
+	 * The longest encoding of a character, which is an escaped control character in UTF-16.
+	 */
+	private static final int MAX_BYTES_PER_CHAR = 12;
+
+	private final WireFormat format;
+
+	/**
+	 * Creates a new instance of the {@link NewsMessageEncoder} class.
+	 *
+	 * @param format the format to encode the messages in.
+	 */
+	public NewsMessageEncoder(WireFormat format) {
+		this.format = format;
+	}
+
+	/**
+	 * Returns the format of the encoded messages.
+	 *
+	 * @return the wire format.
+	 */
+	public WireFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Writes the bytes which precede the first message in the stream, which is the byte order mark for
+	 * {@link WireFormat#UTF16_LINES} and nothing for other formats.
+	 *
+	 * @param out the buffer to write to.
+	 * @throws BufferOverflowException if there is not enough space in the buffer.
+	 */
+	public void encodeStreamStart(ByteBuffer out) {
+		if (format == WireFormat.UTF16_LINES) {
+			out.putChar(BYTE_ORDER_MARK);
+		}
+	}
+
+	/**
+	 * Writes a heartbeat: an empty line or a binary frame of zero length.
+	 *
+	 * @param out the buffer to write to.
+	 * @throws BufferOverflowException if there is not enough space in the buffer.
+	 */
+	public void encodeHeartbeat(ByteBuffer out) {
+		if (format == WireFormat.BINARY_FRAMES) {
+			out.putShort((short) 0);
+		} else {
+			putChar('\n', out);
+		}
+	}
+
+	/**
+	 * Writes one news message.
+	 *
+	 * @param priority the priority of the message, from 0 to 127 for {@link WireFormat#BINARY_FRAMES},
+	 * @param headline the headline of the message,
+	 * @param out      the buffer to write to.
+	 * @throws BufferOverflowException  if there is not enough space in the buffer; the buffer position is then
+	 *                                  undefined.
+	 * @throws IllegalArgumentException if the priority does not fit the binary frame or the binary frame is too long.
+	 */
+	public void encode(int priority, CharSequence headline, ByteBuffer out) {
+		encode(priority, headline, 0, out);
+	}
+
+	/**
+	 * Writes one news message with the time it was sent at.
+	 *
+	 * @param priority the priority of the message, from 0 to 127 for {@link WireFormat#BINARY_FRAMES},
+	 * @param headline the headline of the message,
+	 * @param sentAt   the time in microseconds since the epoch (see {@link EpochClock}) or 0 to send no timestamp,
+	 * @param out      the buffer to write to.
+	 * @throws BufferOverflowException  if there is not enough space in the buffer; the buffer position is then
+	 *                                  undefined.
+	 * @throws IllegalArgumentException if the priority does not fit the binary frame or the binary frame is too long.
+	 */
+	public void encode(int priority, CharSequence headline, long sentAt, ByteBuffer out) {
+		int start = encodeStart(priority, sentAt, out);
+		putHeadlinePart(headline, out);
+		encodeEnd(start, priority, sentAt, out);
+	}
+
+	/**
+	 * Writes the beginning of a news message up to its headline. The headline is then written by the caller, as
+	 * parts pre-encoded by {@link #encodeHeadlinePart(CharSequence)}, and the message is finished by
+	 * {@link #encodeEnd(int, int, long, ByteBuffer)}. This way a headline composed of known words is written without
+	 * encoding the words again for every message.
+	 *
+	 * @param priority the priority of the message, from 0 to 127 for {@link WireFormat#BINARY_FRAMES},
+	 * @param sentAt   the time in microseconds since the epoch (see {@link EpochClock}) or 0 to send no timestamp,
+	 * @param out      the buffer to write to.
+	 * @return the position of the message in the buffer, to be passed to {@link #encodeEnd(int, int, long, ByteBuffer)}.
+	 * @throws BufferOverflowException  if there is not enough space in the buffer; the buffer position is then
+	 *                                  undefined.
+	 * @throws IllegalArgumentException if the priority does not fit the binary frame.
+	 */
+	public int encodeStart(int priority, long sentAt, ByteBuffer out) {
+		int start = out.position();
+		if (format == WireFormat.BINARY_FRAMES) {
+			if (priority < 0 || priority > MAX_BINARY_PRIORITY) {
+				throw new IllegalArgumentException("Priority of a binary frame must be from 0 to "
+						+ MAX_BINARY_PRIORITY + ": " + priority);
+			}
+			out.putShort((short) 0);
+			if (sentAt == 0) {
+				out.put((byte) priority);
+			} else {
+				out.put((byte) (priority | TIMESTAMP_FLAG));
+				out.putLong(sentAt);
+			}
+		} else {
+			putAscii(HEADLINE_START, out);
+		}
+		return start;
+	}
+
+	/**
+	 * Writes the end of a news message after its headline.
+	 *
+	 * @param start    the position of the message returned by {@link #encodeStart(int, long, ByteBuffer)},
+	 * @param priority the priority of the message, the same as given to {@link #encodeStart(int, long, ByteBuffer)},
+	 * @param sentAt   the time the message was sent at, the same as given to
+	 *                 {@link #encodeStart(int, long, ByteBuffer)},
+	 * @param out      the buffer to write to.
+	 * @throws BufferOverflowException  if there is not enough space in the buffer; the buffer position is then
+	 *                                  undefined.
+	 * @throws IllegalArgumentException if the binary frame is too long.
+	 */
+	public void encodeEnd(int start, int priority, long sentAt, ByteBuffer out) {
+		if (format == WireFormat.BINARY_FRAMES) {
+			int length = out.position() - start - 2;
+			if (length > MAX_BINARY_FRAME_LENGTH) {
+				throw new IllegalArgumentException("Binary frame is longer than " + MAX_BINARY_FRAME_LENGTH
+						+ " bytes");
+			}
+			out.putShort(start, (short) length);
+		} else {
+			putAscii(PRIORITY_START, out);
+			putNumber(priority, out);
+			if (sentAt != 0) {
+				putAscii(SENT_AT_START, out);
+				putNumber(sentAt, out);
+			}
+			putAscii(MESSAGE_END, out);
+		}
+	}
+
+	/**
+	 * Encodes a part of a headline, e.g. a word, the way it is written within a message: escaped for JSON in the line
+	 * formats and in the charset of the format.
+	 *
+	 * @param text the part of a headline.
+	 * @return the bytes to write between {@link #encodeStart(int, long, ByteBuffer)} and
+	 * {@link #encodeEnd(int, int, long, ByteBuffer)}.
+	 */
+	public byte[] encodeHeadlinePart(CharSequence text) {
+		ByteBuffer buffer = ByteBuffer.allocate(text.length() * MAX_BYTES_PER_CHAR);
+		putHeadlinePart(text, buffer);
+		byte[] bytes = new byte[buffer.position()];
+		buffer.flip();
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	private void putHeadlinePart(CharSequence text, ByteBuffer out) {
+		if (format == WireFormat.BINARY_FRAMES) {
+			for (int i = 0; i < text.length(); ) {
+				i += Utf8.encode(text, i, out);
+			}
+		} else {
+			for (int i = 0; i < text.length(); ) {
+				i += putEscaped(text, i, out);
+			}
+		}
+	}
+
+	private int putEscaped(CharSequence text, int index, ByteBuffer out) {
+		char c = text.charAt(index);
+
+		if (c == '"' || c == '\\') {
+			putChar('\\', out);
+			putChar(c, out);
+		} else if (c < 0x20) {
+			putControlChar(c, out);
+		} else if (format == WireFormat.UTF8_LINES) {
+			return Utf8.encode(text, index, out);
+		} else {
+			putChar(c, out);
+		}
+		return 1;
+	}
+
+	private void putControlChar(char c, ByteBuffer out) {
+		putChar('\\', out);
+		switch (c) {
+			case '\b':
+				putChar('b', out);
+				break;
+			case '\f':
+				putChar('f', out);
+				break;
+			case '\n':
+				putChar('n', out);
+				break;
+			case '\r':
+				putChar('r', out);
+				break;
+			case '\t':
+				putChar('t', out);
+				break;
+			default:
+				putAscii("u00", out);
+				putChar(HEX_DIGITS[c >> 4], out);
+				putChar(HEX_DIGITS[c & 0xF], out);
+		}
+	}
+
+	private void putNumber(long number, ByteBuffer out) {
+		if (number < 0) {
+			putChar('-', out);
+			if (number == Long.MIN_VALUE) {
+				putAscii("9223372036854775808", out);
+				return;
+			}
+			number = -number;
+		}
+		long divisor = 1;
+		while (number / divisor >= 10) {
+			divisor *= 10;
+		}
+		for (; divisor > 0; divisor /= 10) {
+			putChar((char) ('0' + number / divisor % 10), out);
+		}
+	}
+
+	private void putAscii(String text, ByteBuffer out) {
+		for (int i = 0; i < text.length(); i++) {
+			putChar(text.charAt(i), out);
+		}
+	}
+
+	/**
+	 * Writes a character which is not a part of a surrogate pair.
+	 */
+	private void putChar(char c, ByteBuffer out) {
+		if (format == WireFormat.UTF16_LINES) {
+			out.putChar(c);
+		} else {
+			out.put((byte) c);
+		}
+	}
+}
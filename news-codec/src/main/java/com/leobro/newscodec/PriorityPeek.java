@@ -0,0 +1,152 @@
+package com.leobro.newscodec;
+
+/**
+ * Reads the priority of a news message without decoding the message, so that a message can be judged before any
+ * work is spent on it. The priority of a binary frame is its first byte; in the line formats the text is searched for
+ * the {@code "priority"} key and the integer following it.
+ * <p>The search in the text is a cheap guess, not a parse: it does not check the shape of the message and takes
+ * the first occurrence of the key which is not preceded by a backslash. A message whose priority is not found this
+ * way is reported as {@link #UNKNOWN} and should be treated as if it could have any priority.
+ */
+public final class PriorityPeek {
+
+	/**
+	 * The result for a message whose priority is not found.
+	 */
+	public static final int UNKNOWN = -1;
+
+	private static final String KEY = "\"priority\"";
+	private static final int PRIORITY_MASK = 0x7F;
+	private static final int MAX_DIGITS = 9;
+
+	private PriorityPeek() {
+	}
+
+	/**
+	 * Reads the priority of a news message in JSON format.
+	 *
+	 * @param text the news message in JSON format.
+	 * @return the priority, or {@link #UNKNOWN} if it is not found.
+	 */
+	public static int peek(CharSequence text) {
+		int length = text.length();
+		for (int i = 0; i + KEY.length() <= length; i++) {
+			if (matchesKey(text, i)) {
+				return parseValue(text, i + KEY.length());
+			}
+		}
+		return UNKNOWN;
+	}
+
+	/**
+	 * Reads the priority of a news message received as a frame of a wire format.
+	 *
+	 * @param format the format of the frame,
+	 * @param bytes  the array containing the frame,
+	 * @param offset the start of the frame in the array,
+	 * @param length the length of the frame.
+	 * @return the priority, or {@link #UNKNOWN} if it is not found.
+	 */
+	public static int peek(WireFormat format, byte[] bytes, int offset, int length) {
+		if (!format.isLines()) {
+			return (length < 1) ? UNKNOWN : bytes[offset] & PRIORITY_MASK;
+		}
+		int width = (format == WireFormat.UTF16_LINES) ? 2 : 1;
+		int count = length / width;
+		for (int i = 0; i + KEY.length() <= count; i++) {
+			if (matchesKey(bytes, offset, width, i)) {
+				return parseValue(bytes, offset, width, i + KEY.length(), count);
+			}
+		}
+		return UNKNOWN;
+	}
+
+	private static boolean matchesKey(CharSequence text, int start) {
+		if (start > 0 && text.charAt(start - 1) == '\\') {
+			return false;
+		}
+		for (int i = 0; i < KEY.length(); i++) {
+			if (text.charAt(start + i) != KEY.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean matchesKey(byte[] bytes, int offset, int width, int start) {
+		if (start > 0 && charAt(bytes, offset, width, start - 1) == '\\') {
+			return false;
+		}
+		for (int i = 0; i < KEY.length(); i++) {
+			if (charAt(bytes, offset, width, start + i) != KEY.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Parses the colon and the non-negative integer following the key, skipping the whitespace around the colon.
+	 */
+	private static int parseValue(CharSequence text, int position) {
+		int length = text.length();
+		position = skipWhitespace(text, position);
+		if (position == length || text.charAt(position) != ':') {
+			return UNKNOWN;
+		}
+		position = skipWhitespace(text, position + 1);
+		int value = 0;
+		int digits = 0;
+		while (position < length && isDigit(text.charAt(position)) && digits < MAX_DIGITS) {
+			value = value * 10 + text.charAt(position++) - '0';
+			digits++;
+		}
+		return (digits == 0) ? UNKNOWN : value;
+	}
+
+	private static int parseValue(byte[] bytes, int offset, int width, int position, int count) {
+		while (position < count && isWhitespace(charAt(bytes, offset, width, position))) {
+			position++;
+		}
+		if (position == count || charAt(bytes, offset, width, position) != ':') {
+			return UNKNOWN;
+		}
+		position++;
+		while (position < count && isWhitespace(charAt(bytes, offset, width, position))) {
+			position++;
+		}
+		int value = 0;
+		int digits = 0;
+		while (position < count && isDigit(charAt(bytes, offset, width, position)) && digits < MAX_DIGITS) {
+			value = value * 10 + charAt(bytes, offset, width, position++) - '0';
+			digits++;
+		}
+		return (digits == 0) ? UNKNOWN : value;
+	}
+
+	/**
+	 * Returns the character at an index of the text in UTF-8 (for the ASCII characters searched for) or in UTF-16BE.
+	 */
+	private static char charAt(byte[] bytes, int offset, int width, int index) {
+		if (width == 1) {
+			return (char) (bytes[offset + index] & 0xFF);
+		}
+		int start = offset + index * 2;
+		return (char) (((bytes[start] & 0xFF) << 8) | (bytes[start + 1] & 0xFF));
+	}
+
+	private static int skipWhitespace(CharSequence text, int position) {
+		while (position < text.length() && isWhitespace(text.charAt(position))) {
+			position++;
+		}
+		return position;
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+}
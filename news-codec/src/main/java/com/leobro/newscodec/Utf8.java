@@ -0,0 +1,126 @@
+package com.leobro.newscodec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Utility methods to convert between characters and UTF-8 bytes without creating intermediate objects.
+ * Malformed input is replaced with the replacement character {@code U+FFFD} when decoding and with {@code '?'}
+ * when encoding, like the standard charset coders do.
+ */
+public final class Utf8 {
+
+	private static final char REPLACEMENT_CHAR = '\uFFFD';
+	private static final byte REPLACEMENT_BYTE = '?';
+
+	private Utf8() {
+	}
+
+	/**
+	 * Decodes UTF-8 bytes into characters.
+	 *
+	 * @param bytes  the array with the bytes,
+	 * @param offset the start of the bytes,
+	 * @param length the count of the bytes,
+	 * @param chars  the array to put the characters to, must be at least {@code length} long.
+	 * @return the count of the decoded characters.
+	 */
+	static int decode(byte[] bytes, int offset, int length, char[] chars) {
+		int end = offset + length;
+		int count = 0;
+		int i = offset;
+
+		while (i < end) {
+			int b = bytes[i++];
+			if (b >= 0) {
+				chars[count++] = (char) b;
+			} else if ((b & 0xE0) == 0xC0 && i < end && isContinuation(bytes[i]) && (b & 0x1E) != 0) {
+				chars[count++] = (char) (((b & 0x1F) << 6) | (bytes[i++] & 0x3F));
+			} else if ((b & 0xF0) == 0xE0 && i + 1 < end && isContinuation(bytes[i]) && isContinuation(bytes[i + 1])) {
+				char c = (char) (((b & 0x0F) << 12) | ((bytes[i] & 0x3F) << 6) | (bytes[i + 1] & 0x3F));
+				boolean isMalformed = c < 0x800 || Character.isSurrogate(c);
+				chars[count++] = isMalformed ? REPLACEMENT_CHAR : c;
+				i += 2;
+			} else if ((b & 0xF8) == 0xF0 && i + 2 < end && isContinuation(bytes[i]) && isContinuation(bytes[i + 1])
+					&& isContinuation(bytes[i + 2])) {
+				int codePoint = ((b & 0x07) << 18) | ((bytes[i] & 0x3F) << 12) | ((bytes[i + 1] & 0x3F) << 6)
+						| (bytes[i + 2] & 0x3F);
+				i += 3;
+				if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT && codePoint <= Character.MAX_CODE_POINT) {
+					chars[count++] = Character.highSurrogate(codePoint);
+					chars[count++] = Character.lowSurrogate(codePoint);
+				} else {
+					chars[count++] = REPLACEMENT_CHAR;
+				}
+			} else {
+				chars[count++] = REPLACEMENT_CHAR;
+			}
+		}
+		return count;
+	}
+
+	private static boolean isContinuation(byte b) {
+		return (b & 0xC0) == 0x80;
+	}
+
+	/**
+	 * Returns the count of UTF-8 bytes the text is encoded into by {@link #encode(CharSequence, int, ByteBuffer)}.
+	 *
+	 * @param text the text.
+	 * @return the count of the bytes.
+	 */
+	public static int encodedLength(CharSequence text) {
+		int length = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) {
+				length++;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (!Character.isSurrogate(c)) {
+				length += 3;
+			} else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+					&& Character.isLowSurrogate(text.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else {
+				length++;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Encodes one character into UTF-8 bytes. A surrogate pair is encoded as one code point.
+	 *
+	 * @param text  the text containing the character,
+	 * @param index the index of the character,
+	 * @param out   the buffer to put the bytes to.
+	 * @return the count of consumed characters, 2 for a surrogate pair, 1 otherwise.
+	 * @throws java.nio.BufferOverflowException if there is not enough space in the buffer.
+	 */
+	public static int encode(CharSequence text, int index, ByteBuffer out) {
+		char c = text.charAt(index);
+
+		if (c < 0x80) {
+			out.put((byte) c);
+		} else if (c < 0x800) {
+			out.put((byte) (0xC0 | (c >> 6)));
+			out.put((byte) (0x80 | (c & 0x3F)));
+		} else if (!Character.isSurrogate(c)) {
+			out.put((byte) (0xE0 | (c >> 12)));
+			out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+			out.put((byte) (0x80 | (c & 0x3F)));
+		} else if (Character.isHighSurrogate(c) && index + 1 < text.length()
+				&& Character.isLowSurrogate(text.charAt(index + 1))) {
+			int codePoint = Character.toCodePoint(c, text.charAt(index + 1));
+			out.put((byte) (0xF0 | (codePoint >> 18)));
+			out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+			out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+			out.put((byte) (0x80 | (codePoint & 0x3F)));
+			return 2;
+		} else {
+			out.put(REPLACEMENT_BYTE);
+		}
+		return 1;
+	}
+}
@@ -0,0 +1,80 @@
+package com.leobro.newscodec;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The format in which a news feed sends news messages to the News Analyser.
+ */
+public enum WireFormat {
+
+	/**
+	 * News messages in JSON format, one per line, in UTF-16 starting with the byte order mark. This is the format of
+	 * the feeds which do not make the {@link Handshake}.
+	 */
+	UTF16_LINES(0, StandardCharsets.UTF_16BE),
+
+	/**
+	 * News messages in JSON format, one per line, in UTF-8.
+	 */
+	UTF8_LINES(1, StandardCharsets.UTF_8),
+
+	/**
+	 * News messages in binary frames: two bytes of the frame length (big-endian, not including these two bytes),
+	 * one byte of the priority in its lower seven bits, so the priority is 0 to 127, then, if the bit 0x80 of that
+	 * byte is set, eight bytes of the time the message was sent at in microseconds since the epoch (big-endian), then
+	 * the headline in UTF-8. A frame of zero length is a heartbeat.
+	 */
+	BINARY_FRAMES(2, StandardCharsets.UTF_8);
+
+	private final byte code;
+	private final Charset charset;
+
+	WireFormat(int code, Charset charset) {
+		this.code = (byte) code;
+		this.charset = charset;
+	}
+
+	/**
+	 * Returns the code identifying the format in the {@link Handshake}.
+	 *
+	 * @return the format code.
+	 */
+	public byte getCode() {
+		return code;
+	}
+
+	/**
+	 * Returns the charset of the text in the frames of this format. The byte order mark of the
+	 * {@link #UTF16_LINES} stream is not a part of any frame, so the frames are always big-endian.
+	 *
+	 * @return the charset of the frame text.
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Tells if the frames of this format are lines of JSON text.
+	 *
+	 * @return {@code true} for the line formats.
+	 */
+	public boolean isLines() {
+		return this != BINARY_FRAMES;
+	}
+
+	/**
+	 * Finds the format by its code.
+	 *
+	 * @param code the format code from the {@link Handshake}.
+	 * @return the format or {@code null} if there is no format with the code.
+	 */
+	public static WireFormat fromCode(byte code) {
+		for (WireFormat format : values()) {
+			if (format.code == code) {
+				return format;
+			}
+		}
+		return null;
+	}
+}
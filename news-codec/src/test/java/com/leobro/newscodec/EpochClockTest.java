@@ -0,0 +1,24 @@
+package com.leobro.newscodec;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EpochClockTest {
+
+	@Test
+	public void when_timeIsRead_then_itIsCloseToWallClock() {
+		long before = System.currentTimeMillis() * 1000;
+		long now = EpochClock.currentTimeMicros();
+		long after = (System.currentTimeMillis() + 1) * 1000;
+
+		assertTrue(now >= before - 1000 && now <= after + 1000);
+	}
+
+	@Test
+	public void when_nanoTimeIsConverted_then_differenceIsKept() {
+		long nanoTime = System.nanoTime();
+
+		assertEquals(2500, EpochClock.toEpochMicros(nanoTime + 2_500_000) - EpochClock.toEpochMicros(nanoTime), 1);
+	}
+}
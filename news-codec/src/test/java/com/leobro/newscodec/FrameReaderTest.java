@@ -0,0 +1,106 @@
+package com.leobro.newscodec;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class FrameReaderTest {
+
+	private final List<String> frames = new ArrayList<>();
+	private final List<Handshake> handshakes = new ArrayList<>();
+	private FrameReader reader;
+	private ByteBuffer buffer;
+
+	@Before
+	public void setUp() {
+		reader = new FrameReader(new FrameReader.FrameHandler() {
+			@Override
+			public void onHandshake(Handshake handshake) {
+				handshakes.add(handshake);
+			}
+
+			@Override
+			public void onFrame(WireFormat format, byte[] bytes, int offset, int length) {
+				Charset charset = format.getCharset();
+				if (format.isLines() || length == 0) {
+					frames.add(new String(bytes, offset, length, charset));
+				} else {
+					frames.add(bytes[offset] + ":" + new String(bytes, offset + 1, length - 1, charset));
+				}
+			}
+		});
+		buffer = ByteBuffer.allocate(256);
+	}
+
+	@Test
+	public void when_legacyStreamArrivesInPieces_then_utf16LinesAreFramedWithoutByteOrderMark() {
+		byte[] bytes = "first\r\nüber\nthi".getBytes(StandardCharsets.UTF_16);
+
+		receive(bytes, 0, 1);
+		receive(bytes, 1, 8);
+		receive(bytes, 9, bytes.length - 9);
+
+		assertThat(handshakes.size(), is(1));
+		assertTrue(handshakes.get(0).isLegacy());
+		assertThat(frames.size(), is(2));
+		assertThat(frames.get(0), is("first"));
+		assertThat(frames.get(1), is("über"));
+		assertThat(buffer.position(), is(6));
+	}
+
+	@Test
+	public void when_utf8LinesFollowHandshake_then_linesAreFramed() {
+		byte[] request = {'N', 'W', 'S', Handshake.VERSION, WireFormat.UTF8_LINES.getCode(), 0};
+		byte[] lines = "über\r\n\nlast\n".getBytes(StandardCharsets.UTF_8);
+
+		receive(request, 0, request.length);
+		receive(lines, 0, lines.length);
+
+		assertThat(handshakes.get(0).getFormat(), is(WireFormat.UTF8_LINES));
+		assertThat(frames.size(), is(3));
+		assertThat(frames.get(0), is("über"));
+		assertThat(frames.get(1), is(""));
+		assertThat(frames.get(2), is("last"));
+	}
+
+	@Test
+	public void when_binaryFramesArriveInPieces_then_completeFramesArePassed() {
+		byte[] bytes = {'N', 'W', 'S', Handshake.VERSION, WireFormat.BINARY_FRAMES.getCode(), 0,
+				0, 3, 7, 'u', 'p', 0, 0, 0, 2, 1};
+
+		receive(bytes, 0, 9);
+		assertThat(frames.size(), is(0));
+		receive(bytes, 9, bytes.length - 9);
+
+		assertThat(frames.size(), is(2));
+		assertThat(frames.get(0), is("7:up"));
+		assertThat(frames.get(1), is(""));
+		assertThat(buffer.position(), is(3));
+	}
+
+	@Test
+	public void when_formatIsRejected_then_bytesAreDiscarded() {
+		byte[] bytes = {'N', 'W', 'S', Handshake.VERSION, 99, 0, 'u', 'p', '\n'};
+
+		receive(bytes, 0, bytes.length);
+
+		assertFalse(handshakes.get(0).isAccepted());
+		assertThat(frames.size(), is(0));
+		assertThat(buffer.position(), is(0));
+	}
+
+	private void receive(byte[] bytes, int offset, int length) {
+		buffer.put(bytes, offset, length);
+		buffer.flip();
+		reader.read(buffer);
+		buffer.compact();
+	}
+}
@@ -0,0 +1,109 @@
+package com.leobro.newscodec;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class HandshakeTest {
+
+	private static final String FEED_NAME = "feed-ü";
+
+	@Test
+	public void when_requestIsWritten_then_streamReadsIt() throws IOException {
+		PushbackInputStream in = new PushbackInputStream(new ByteArrayInputStream(
+				concat(request(WireFormat.BINARY_FRAMES), new byte[]{42})), 3);
+
+		Handshake handshake = Handshake.readRequest(in);
+
+		assertFalse(handshake.isLegacy());
+		assertTrue(handshake.isAccepted());
+		assertThat(handshake.getFormat(), is(WireFormat.BINARY_FRAMES));
+		assertThat(handshake.getFeedName(), is(FEED_NAME));
+		assertThat(handshake.getAcknowledgement(), is(WireFormat.BINARY_FRAMES.getCode()));
+		assertThat(in.read(), is(42));
+	}
+
+	@Test
+	public void when_streamStartsWithoutRequest_then_handshakeIsLegacyAndBytesAreKept() throws IOException {
+		byte[] text = "Not a handshake".getBytes(StandardCharsets.UTF_16);
+		PushbackInputStream in = new PushbackInputStream(new ByteArrayInputStream(text), 3);
+
+		Handshake handshake = Handshake.readRequest(in);
+
+		assertTrue(handshake.isLegacy());
+		assertThat(handshake.getFormat(), is(WireFormat.UTF16_LINES));
+		assertThat(in.read(), is(text[0] & 0xFF));
+	}
+
+	@Test
+	public void when_requestArrivesInPieces_then_bufferIsParsedWhenComplete() throws IOException {
+		byte[] request = request(WireFormat.UTF8_LINES);
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+
+		buffer.put(request, 0, request.length - 1).flip();
+		assertNull(Handshake.parseRequest(buffer));
+		assertThat(buffer.position(), is(0));
+
+		buffer.compact();
+		buffer.put(request, request.length - 1, 1).put((byte) '{').flip();
+		Handshake handshake = Handshake.parseRequest(buffer);
+
+		assertThat(handshake.getFormat(), is(WireFormat.UTF8_LINES));
+		assertThat(handshake.getFeedName(), is(FEED_NAME));
+		assertThat(buffer.get(), is((byte) '{'));
+	}
+
+	@Test
+	public void when_bufferStartsWithoutRequest_then_nothingIsConsumed() {
+		ByteBuffer buffer = ByteBuffer.wrap("NO".getBytes(StandardCharsets.US_ASCII));
+
+		Handshake handshake = Handshake.parseRequest(buffer);
+
+		assertTrue(handshake.isLegacy());
+		assertThat(buffer.position(), is(0));
+	}
+
+	@Test
+	public void when_formatIsUnknown_then_requestIsRejected() throws IOException {
+		byte[] request = request(WireFormat.UTF8_LINES);
+		request[4] = 99;
+
+		Handshake handshake = Handshake.parseRequest(ByteBuffer.wrap(request));
+
+		assertFalse(handshake.isAccepted());
+		assertThat(handshake.getAcknowledgement(), is(Handshake.REJECTED));
+	}
+
+	@Test
+	public void when_acknowledgementMatches_then_feedProceeds() throws IOException {
+		Handshake.readAcknowledgement(new ByteArrayInputStream(new byte[]{WireFormat.UTF8_LINES.getCode()}),
+				WireFormat.UTF8_LINES);
+	}
+
+	@Test(expected = IOException.class)
+	public void when_requestIsRejected_then_feedFails() throws IOException {
+		Handshake.readAcknowledgement(new ByteArrayInputStream(new byte[]{Handshake.REJECTED}),
+				WireFormat.UTF8_LINES);
+	}
+
+	private static byte[] request(WireFormat format) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Handshake.writeRequest(out, format, FEED_NAME);
+		return out.toByteArray();
+	}
+
+	private static byte[] concat(byte[] first, byte[] second) {
+		byte[] result = new byte[first.length + second.length];
+		System.arraycopy(first, 0, result, 0, first.length);
+		System.arraycopy(second, 0, result, first.length, second.length);
+		return result;
+	}
+}
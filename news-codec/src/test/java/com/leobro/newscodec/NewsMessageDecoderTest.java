@@ -0,0 +1,125 @@
+package com.leobro.newscodec;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class NewsMessageDecoderTest {
+
+	private NewsMessageDecoder decoder;
+
+	@Before
+	public void setUp() {
+		decoder = new NewsMessageDecoder();
+	}
+
+	@Test
+	public void when_fieldsAreInAnyOrder_then_messageIsDecoded() {
+		assertTrue(decoder.decode("{\"headline\":\"up good\",\"priority\":7}"));
+		assertThat(decoder.getHeadline(), is("up good"));
+		assertThat(decoder.getPriority(), is(7));
+
+		assertTrue(decoder.decode("{\"priority\":3,\"headline\":\"down bad\"}"));
+		assertThat(decoder.getHeadline(), is("down bad"));
+		assertThat(decoder.getPriority(), is(3));
+	}
+
+	@Test
+	public void when_whitespaceIsBetweenTokens_then_messageIsDecoded() {
+		assertTrue(decoder.decode(" { \"headline\" :\t\"high\" ,\r\n \"priority\" : 12 } "));
+
+		assertThat(decoder.getHeadline(), is("high"));
+		assertThat(decoder.getPriority(), is(12));
+	}
+
+	@Test
+	public void when_headlineHasEscapes_then_theyAreReplaced() {
+		assertTrue(decoder.decode("{\"headline\":\"\\u00fcber \\\"up\\\"\\\\\",\"priority\":1}"));
+
+		assertThat(decoder.getHeadline(), is("über \"up\"\\"));
+	}
+
+	@Test
+	public void when_headlineHasNonAsciiCharacters_then_theyAreKept() {
+		assertTrue(decoder.decode("{\"headline\":\"über unter\",\"priority\":0}"));
+
+		assertThat(decoder.getHeadline(), is("über unter"));
+		assertThat(decoder.getPriority(), is(0));
+	}
+
+	@Test
+	public void when_shapeIsUnexpected_then_messageIsNotDecoded() {
+		assertFalse(decoder.decode("{\"headline\":\"up\"}"));
+		assertFalse(decoder.decode("{\"headline\":\"up\",\"priority\":1,\"extra\":2}"));
+		assertFalse(decoder.decode("{\"headline\":\"up\",\"headline\":\"down\"}"));
+		assertFalse(decoder.decode("{\"headline\":null,\"priority\":1}"));
+		assertFalse(decoder.decode("{\"headline\":\"up\",\"priority\":1.5}"));
+		assertFalse(decoder.decode("{\"headline\":\"up\",\"priority\":\"1\"}"));
+		assertFalse(decoder.decode("{\"headline\":\"up\",\"priority\":01}"));
+		assertFalse(decoder.decode("{\"headline\":\"up\",\"priority\":1}}"));
+		assertFalse(decoder.decode("{\"headline\":\"up"));
+		assertFalse(decoder.decode(""));
+	}
+
+	@Test
+	public void when_lineFramesAreGiven_then_bytesAreDecodedInTheirCharset() {
+		String json = "{\"headline\":\"über up\",\"priority\":4}";
+		byte[] utf8 = ("__" + json).getBytes(StandardCharsets.UTF_8);
+		byte[] utf16 = json.getBytes(StandardCharsets.UTF_16BE);
+
+		assertTrue(decoder.decode(WireFormat.UTF8_LINES, utf8, 2, utf8.length - 2));
+		assertThat(decoder.getHeadline(), is("über up"));
+		assertThat(decoder.getPriority(), is(4));
+
+		assertTrue(decoder.decode(WireFormat.UTF16_LINES, utf16, 0, utf16.length));
+		assertThat(decoder.getHeadline(), is("über up"));
+		assertThat(decoder.getPriority(), is(4));
+	}
+
+	@Test
+	public void when_binaryFrameIsGiven_then_priorityAndHeadlineAreDecoded() {
+		byte[] headline = "über down".getBytes(StandardCharsets.UTF_8);
+		byte[] frame = new byte[headline.length + 1];
+		frame[0] = 9;
+		System.arraycopy(headline, 0, frame, 1, headline.length);
+
+		assertTrue(decoder.decode(WireFormat.BINARY_FRAMES, frame, 0, frame.length));
+		assertThat(decoder.getHeadline(), is("über down"));
+		assertThat(decoder.getPriority(), is(9));
+		assertFalse(decoder.decode(WireFormat.BINARY_FRAMES, frame, 0, 0));
+	}
+
+	@Test
+	public void when_messageHasTimestamp_then_itIsDecoded() {
+		assertTrue(decoder.decode("{\"headline\":\"up\",\"priority\":2,\"sentAt\":1700000000123456}"));
+		assertThat(decoder.getSentAt(), is(1700000000123456L));
+
+		assertTrue(decoder.decode("{\"sentAt\":5,\"priority\":2,\"headline\":\"up\"}"));
+		assertThat(decoder.getSentAt(), is(5L));
+
+		assertTrue(decoder.decode("{\"headline\":\"up\",\"priority\":2}"));
+		assertThat(decoder.getSentAt(), is(0L));
+	}
+
+	@Test
+	public void when_timestampIsInvalid_then_messageIsNotDecoded() {
+		assertFalse(decoder.decode("{\"headline\":\"up\",\"priority\":2,\"sentAt\":-5}"));
+		assertFalse(decoder.decode("{\"headline\":\"up\",\"priority\":2,\"sentAt\":9223372036854775808}"));
+		assertFalse(decoder.decode("{\"headline\":\"up\",\"priority\":2,\"sentAt\":1,\"sentAt\":2}"));
+	}
+
+	@Test
+	public void when_binaryFrameHasTimestamp_then_itIsDecoded() {
+		byte[] frame = {(byte) 0x89, 0, 0, 0, 0, 0, 0, 1, 2, 'u', 'p'};
+
+		assertTrue(decoder.decode(WireFormat.BINARY_FRAMES, frame, 0, frame.length));
+		assertThat(decoder.getPriority(), is(9));
+		assertThat(decoder.getSentAt(), is(258L));
+		assertThat(decoder.getHeadline(), is("up"));
+		assertFalse(decoder.decode(WireFormat.BINARY_FRAMES, frame, 0, 8));
+	}
+}
@@ -0,0 +1,156 @@
+package com.leobro.newscodec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class NewsMessageEncoderTest {
+
+	private static final String HEADLINE = "über \"up\"\\\n";
+	private static final String JSON = "{\"headline\":\"über \\\"up\\\"\\\\\\n\",\"priority\":7}\n";
+
+	@Test
+	public void when_encodedAsUtf8Lines_then_jsonLineIsWritten() {
+		byte[] bytes = encode(WireFormat.UTF8_LINES, 7, HEADLINE);
+
+		assertThat(new String(bytes, StandardCharsets.UTF_8), is(JSON));
+	}
+
+	@Test
+	public void when_encodedAsUtf16Lines_then_streamStartsWithByteOrderMark() {
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		NewsMessageEncoder encoder = new NewsMessageEncoder(WireFormat.UTF16_LINES);
+
+		encoder.encodeStreamStart(buffer);
+		encoder.encode(7, HEADLINE, buffer);
+
+		byte[] bytes = Arrays.copyOf(buffer.array(), buffer.position());
+		assertThat(bytes, is(JSON.getBytes(StandardCharsets.UTF_16)));
+	}
+
+	@Test
+	public void when_encodedAsBinaryFrame_then_lengthPriorityAndHeadlineAreWritten() {
+		byte[] headline = "über up".getBytes(StandardCharsets.UTF_8);
+
+		byte[] bytes = encode(WireFormat.BINARY_FRAMES, 9, "über up");
+
+		assertThat(bytes.length, is(3 + headline.length));
+		assertThat(ByteBuffer.wrap(bytes).getShort(), is((short) (1 + headline.length)));
+		assertThat(bytes[2], is((byte) 9));
+		assertThat(Arrays.copyOfRange(bytes, 3, bytes.length), is(headline));
+	}
+
+	@Test
+	public void when_heartbeatIsEncoded_then_emptyFrameIsWritten() {
+		assertThat(encodeHeartbeat(WireFormat.UTF8_LINES), is(new byte[]{'\n'}));
+		assertThat(encodeHeartbeat(WireFormat.UTF16_LINES), is(new byte[]{0, '\n'}));
+		assertThat(encodeHeartbeat(WireFormat.BINARY_FRAMES), is(new byte[]{0, 0}));
+	}
+
+	@Test
+	public void when_headlineHasControlCharacters_then_theyAreEscapedAsByJackson() throws JsonProcessingException {
+		String headline = "up\u0000\u0001\b\t\n\f\r\u001A\u001F\u007F end";
+		Map<String, Object> message = new LinkedHashMap<>();
+		message.put("headline", headline);
+		message.put("priority", 7);
+
+		byte[] bytes = encode(WireFormat.UTF8_LINES, 7, headline);
+
+		assertThat(new String(bytes, StandardCharsets.UTF_8), is(new ObjectMapper().writeValueAsString(message) + "\n"));
+	}
+
+	@Test
+	public void when_negativePriorityIsEncodedInJson_then_signIsWritten() {
+		byte[] bytes = encode(WireFormat.UTF8_LINES, -1234567890, "");
+
+		assertThat(new String(bytes, StandardCharsets.UTF_8), is("{\"headline\":\"\",\"priority\":-1234567890}\n"));
+	}
+
+	@Test
+	public void when_messageHasTimestamp_then_itIsWrittenBeforeClosingBrace() {
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+
+		new NewsMessageEncoder(WireFormat.UTF8_LINES).encode(7, "up", 1700000000123456L, buffer);
+
+		assertThat(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8),
+				is("{\"headline\":\"up\",\"priority\":7,\"sentAt\":1700000000123456}\n"));
+	}
+
+	@Test
+	public void when_binaryFrameHasTimestamp_then_flagAndTimestampFollowLength() {
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+
+		new NewsMessageEncoder(WireFormat.BINARY_FRAMES).encode(9, "up", 258, buffer);
+
+		buffer.flip();
+		assertThat(buffer.getShort(), is((short) 11));
+		assertThat(buffer.get(), is((byte) 0x89));
+		assertThat(buffer.getLong(), is(258L));
+		assertThat(buffer.remaining(), is(2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void when_priorityDoesNotFitBinaryFrame_then_exceptionIsThrown() {
+		encode(WireFormat.BINARY_FRAMES, 128, "up");
+	}
+
+	@Test
+	public void when_encodedMessageIsRead_then_decoderGetsTheSameMessage() {
+		for (WireFormat format : WireFormat.values()) {
+			ByteBuffer buffer = ByteBuffer.allocate(256);
+			NewsMessageEncoder encoder = new NewsMessageEncoder(format);
+			NewsMessageDecoder decoder = new NewsMessageDecoder();
+			encoder.encodeStreamStart(buffer);
+			encoder.encode(5, HEADLINE, 1234567, buffer);
+			buffer.flip();
+
+			assertTrue(decodeAfterHandshake(format, buffer, decoder));
+			assertThat(decoder.getHeadline(), is(HEADLINE));
+			assertThat(decoder.getPriority(), is(5));
+			assertThat(decoder.getSentAt(), is(1234567L));
+		}
+	}
+
+	private static boolean decodeAfterHandshake(WireFormat format, ByteBuffer frames, NewsMessageDecoder decoder) {
+		ByteBuffer buffer = ByteBuffer.allocate(512);
+		if (format != WireFormat.UTF16_LINES) {
+			buffer.put(new byte[]{'N', 'W', 'S', Handshake.VERSION, format.getCode(), 0});
+		}
+		buffer.put(frames).flip();
+		boolean[] isDecoded = new boolean[1];
+
+		new FrameReader(new FrameReader.FrameHandler() {
+			@Override
+			public void onHandshake(Handshake handshake) {
+				assertThat(handshake.getFormat(), is(format));
+			}
+
+			@Override
+			public void onFrame(WireFormat frameFormat, byte[] bytes, int offset, int length) {
+				isDecoded[0] = decoder.decode(frameFormat, bytes, offset, length);
+			}
+		}).read(buffer);
+		return isDecoded[0];
+	}
+
+	private static byte[] encode(WireFormat format, int priority, String headline) {
+		ByteBuffer buffer = ByteBuffer.allocate(256);
+		new NewsMessageEncoder(format).encode(priority, headline, buffer);
+		return Arrays.copyOf(buffer.array(), buffer.position());
+	}
+
+	private static byte[] encodeHeartbeat(WireFormat format) {
+		ByteBuffer buffer = ByteBuffer.allocate(16);
+		new NewsMessageEncoder(format).encodeHeartbeat(buffer);
+		return Arrays.copyOf(buffer.array(), buffer.position());
+	}
+}
@@ -0,0 +1,53 @@
+package com.leobro.newscodec;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PriorityPeekTest {
+
+	private static final String MESSAGE = "{\"headline\":\"up good\", \"priority\" : 7}";
+
+	@Test
+	public void when_textHasPriority_then_itIsRead() {
+		assertThat(PriorityPeek.peek(MESSAGE), is(7));
+		assertThat(PriorityPeek.peek("{\"priority\":12,\"headline\":\"high\"}"), is(12));
+	}
+
+	@Test
+	public void when_priorityIsMissingOrNotNumber_then_itIsUnknown() {
+		assertThat(PriorityPeek.peek("{\"headline\":\"up good\"}"), is(PriorityPeek.UNKNOWN));
+		assertThat(PriorityPeek.peek("{\"priority\":\"high\"}"), is(PriorityPeek.UNKNOWN));
+		assertThat(PriorityPeek.peek("{\"priority\""), is(PriorityPeek.UNKNOWN));
+	}
+
+	@Test
+	public void when_keyIsEscapedInHeadline_then_itIsSkipped() {
+		String text = "{\"headline\":\"\\\"priority\\\":1\",\"priority\":8}";
+		assertThat(PriorityPeek.peek(text), is(8));
+	}
+
+	@Test
+	public void when_frameIsInLineFormat_then_priorityIsRead() {
+		byte[] utf8 = ("xx" + MESSAGE).getBytes(StandardCharsets.UTF_8);
+		byte[] utf16 = MESSAGE.getBytes(StandardCharsets.UTF_16BE);
+
+		assertThat(PriorityPeek.peek(WireFormat.UTF8_LINES, utf8, 2, utf8.length - 2), is(7));
+		assertThat(PriorityPeek.peek(WireFormat.UTF16_LINES, utf16, 0, utf16.length), is(7));
+	}
+
+	@Test
+	public void when_frameIsBinary_then_priorityIsFirstByte() {
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		new NewsMessageEncoder(WireFormat.BINARY_FRAMES).encode(5, "up", 1234, buffer);
+		byte[] bytes = buffer.array();
+
+		// the frame starts after the two bytes of its length
+		assertThat(PriorityPeek.peek(WireFormat.BINARY_FRAMES, bytes, 2, buffer.position() - 2), is(5));
+		assertThat(PriorityPeek.peek(WireFormat.BINARY_FRAMES, bytes, 2, 0), is(PriorityPeek.UNKNOWN));
+	}
+}
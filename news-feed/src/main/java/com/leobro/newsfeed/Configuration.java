@@ -1,11 +1,15 @@
 package com.leobro.newsfeed;
 
+import com.leobro.newscodec.WireFormat;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.util.Locale;
 import java.util.Properties;
+import java.util.SplittableRandom;
 
 /**
  * Utility class to read properties from the {@code application.properties} file.
@@ -27,6 +31,35 @@ class Configuration {
 	private static final String DEFAULT_MIN_WORDS_IN_HEADLINE = "3";
 	private static final String MAX_WORDS_IN_HEADLINE_KEY = "maximumWordsInHeadline";
 	private static final String DEFAULT_MAX_WORDS_IN_HEADLINE = "5";
+	private static final String WIRE_FORMAT_KEY = "wireFormat";
+	private static final String DEFAULT_WIRE_FORMAT = "utf8_lines";
+	private static final String FEED_NAME_KEY = "feedName";
+	private static final String DEFAULT_FEED_NAME = "";
+	private static final String LOAD_CONNECTIONS_KEY = "loadConnections";
+	private static final String DEFAULT_LOAD_CONNECTIONS = "0";
+	private static final String LOAD_RATE_KEY = "loadMessagesPerSecond";
+	private static final String DEFAULT_LOAD_RATE = "10000";
+	private static final String LOAD_THREADS_KEY = "loadThreads";
+	private static final String LOAD_DURATION_KEY = "loadDurationInSeconds";
+	private static final String DEFAULT_LOAD_DURATION = "0";
+	private static final String SEND_TIMESTAMPS_KEY = "sendTimestamps";
+	private static final String DEFAULT_SEND_TIMESTAMPS = "false";
+	private static final String FLUSH_POLICY_KEY = "flushPolicy";
+	private static final String DEFAULT_FLUSH_POLICY = "message";
+	private static final String FLUSH_MESSAGE_COUNT_KEY = "flushMessageCount";
+	private static final String DEFAULT_FLUSH_MESSAGE_COUNT = "64";
+	private static final String FLUSH_INTERVAL_KEY = "flushIntervalInMicroseconds";
+	private static final String DEFAULT_FLUSH_INTERVAL = "1000";
+	private static final String FLUSH_BUFFER_SIZE_KEY = "flushBufferSize";
+	private static final String DEFAULT_FLUSH_BUFFER_SIZE = "8192";
+	private static final String TCP_NO_DELAY_KEY = "tcpNoDelay";
+	private static final String DEFAULT_TCP_NO_DELAY = "false";
+	private static final String SEND_BUFFER_SIZE_KEY = "socketSendBufferSize";
+	private static final String DEFAULT_SEND_BUFFER_SIZE = "0";
+	private static final String RANDOM_SEED_KEY = "randomSeed";
+	private static final String DEFAULT_RANDOM_SEED = "0";
+	private static final String HEARTBEAT_INTERVAL_KEY = "heartbeatIntervalInMilliseconds";
+	private static final String DEFAULT_HEARTBEAT_INTERVAL = "5000";
 
 	Properties config;
 
@@ -123,4 +156,139 @@ class Configuration {
 		String wordCount = config.getProperty(MAX_WORDS_IN_HEADLINE_KEY, DEFAULT_MAX_WORDS_IN_HEADLINE);
 		return Integer.parseInt(wordCount);
 	}
+
+	/**
+	 * Returns the format in which the news messages are sent to the news analyser. With
+	 * {@link WireFormat#UTF16_LINES} the feed makes no handshake, like the feeds did before the handshake was
+	 * introduced.
+	 *
+	 * @return the wire format.
+	 */
+	public WireFormat getWireFormat() {
+		String format = config.getProperty(WIRE_FORMAT_KEY, DEFAULT_WIRE_FORMAT);
+		return WireFormat.valueOf(format.trim().toUpperCase(Locale.ROOT));
+	}
+
+	/**
+	 * Returns the name the feed introduces itself with to the news analyser.
+	 *
+	 * @return the feed name.
+	 */
+	public String getFeedName() {
+		return config.getProperty(FEED_NAME_KEY, DEFAULT_FEED_NAME).trim();
+	}
+
+	/**
+	 * Returns the count of connections opened in the load generator mode. With no connections the feed works as
+	 * a single feed sending a message at the configured interval.
+	 *
+	 * @return the count of connections, 0 if the load generator mode is off.
+	 */
+	public int getLoadConnections() {
+		return Integer.parseInt(config.getProperty(LOAD_CONNECTIONS_KEY, DEFAULT_LOAD_CONNECTIONS).trim());
+	}
+
+	/**
+	 * Returns the aggregate rate of news messages over all connections in the load generator mode.
+	 *
+	 * @return the target rate in messages per second.
+	 */
+	public double getLoadRate() {
+		return Double.parseDouble(config.getProperty(LOAD_RATE_KEY, DEFAULT_LOAD_RATE).trim());
+	}
+
+	/**
+	 * Returns the count of threads sending the messages in the load generator mode. Unless configured, it is
+	 * the number of processors.
+	 *
+	 * @return the count of sender threads.
+	 */
+	public int getLoadThreads() {
+		String threads = config.getProperty(LOAD_THREADS_KEY);
+		return (threads == null) ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(threads.trim());
+	}
+
+	/**
+	 * Returns how long the load generator sends the messages.
+	 *
+	 * @return the duration in seconds, 0 to send until the process is stopped.
+	 */
+	public long getLoadDuration() {
+		return Long.parseLong(config.getProperty(LOAD_DURATION_KEY, DEFAULT_LOAD_DURATION).trim());
+	}
+
+	/**
+	 * Tells if the news messages are sent with timestamps, letting the news analyser measure their latency and window
+	 * them by the time they were created.
+	 *
+	 * @return {@code true} if the messages have timestamps.
+	 */
+	public boolean isSendingTimestamps() {
+		return Boolean.parseBoolean(config.getProperty(SEND_TIMESTAMPS_KEY, DEFAULT_SEND_TIMESTAMPS).trim());
+	}
+
+	/**
+	 * Returns the policy of writing the encoded messages to the socket: {@code message} writes every message at once,
+	 * {@code count} writes every {@code flushMessageCount} messages, {@code interval} writes the messages at most
+	 * {@code flushIntervalInMicroseconds} after the first of them and {@code buffer} writes them when
+	 * {@code flushBufferSize} bytes are gathered.
+	 *
+	 * @return the flush policy.
+	 */
+	public FlushPolicy getFlushPolicy() {
+		String trigger = config.getProperty(FLUSH_POLICY_KEY, DEFAULT_FLUSH_POLICY);
+		return new FlushPolicy(
+				FlushPolicy.Trigger.valueOf(trigger.trim().toUpperCase(Locale.ROOT)),
+				Integer.parseInt(config.getProperty(FLUSH_MESSAGE_COUNT_KEY, DEFAULT_FLUSH_MESSAGE_COUNT).trim()),
+				Long.parseLong(config.getProperty(FLUSH_INTERVAL_KEY, DEFAULT_FLUSH_INTERVAL).trim()),
+				Integer.parseInt(config.getProperty(FLUSH_BUFFER_SIZE_KEY, DEFAULT_FLUSH_BUFFER_SIZE).trim()));
+	}
+
+	/**
+	 * Tells if Nagle's algorithm is disabled on the connections, so that small writes are sent at once.
+	 *
+	 * @return {@code true} if TCP_NODELAY is set.
+	 */
+	public boolean isTcpNoDelay() {
+		return Boolean.parseBoolean(config.getProperty(TCP_NO_DELAY_KEY, DEFAULT_TCP_NO_DELAY).trim());
+	}
+
+	/**
+	 * Returns the size of the send buffer of the sockets.
+	 *
+	 * @return the size in bytes, 0 to keep the default of the system.
+	 */
+	public int getSendBufferSize() {
+		return Integer.parseInt(config.getProperty(SEND_BUFFER_SIZE_KEY, DEFAULT_SEND_BUFFER_SIZE).trim());
+	}
+
+	/**
+	 * Returns the seed of the random numbers the news messages are generated from. With the same seed and
+	 * configuration, a feed generates the same messages in every run.
+	 *
+	 * @return the seed, 0 to generate different messages in every run.
+	 */
+	public long getRandomSeed() {
+		return Long.parseLong(config.getProperty(RANDOM_SEED_KEY, DEFAULT_RANDOM_SEED).trim());
+	}
+
+	/**
+	 * Creates the source of random numbers for the generation of news messages.
+	 *
+	 * @return the source seeded with the configured seed or, if it is not configured, a randomly seeded source.
+	 */
+	public SplittableRandom createRandom() {
+		long seed = getRandomSeed();
+		return (seed == 0) ? new SplittableRandom() : new SplittableRandom(seed);
+	}
+
+	/**
+	 * Returns the time after which a connection with nothing to send sends a heartbeat, so that the server does not
+	 * close it as idle.
+	 *
+	 * @return the interval in milliseconds, 0 to send no heartbeats.
+	 */
+	public long getHeartbeatInterval() {
+		return Long.parseLong(config.getProperty(HEARTBEAT_INTERVAL_KEY, DEFAULT_HEARTBEAT_INTERVAL).trim());
+	}
 }
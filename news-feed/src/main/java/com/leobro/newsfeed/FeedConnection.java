@@ -0,0 +1,184 @@
+package com.leobro.newsfeed;
+
+import com.leobro.newscodec.Handshake;
+import com.leobro.newscodec.WireFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One TCP connection of a news feed with the News Analyser server. The messages are sent in the {@link WireFormat}
+ * agreed with the server in the {@link Handshake} when the connection is established. They are encoded by
+ * the {@link WordMessageEncoder} into a reusable buffer, which grows when a message does not fit, and written to
+ * the socket when the {@link FlushPolicy} says so, so several messages may go in one write. Once the buffer is large
+ * enough, sending a message creates no objects.
+ * <p>A connection which has written nothing for the configured heartbeat interval can send a heartbeat, so that
+ * the server does not take it for a dead one.
+ * <p>The class is not thread-safe.
+ */
+class FeedConnection {
+
+	private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+	private final WordMessageEncoder encoder;
+	private final FlushPolicy flushPolicy;
+	private final long heartbeatInterval;
+	private final Socket socket;
+	private final OutputStream out;
+	private ByteBuffer buffer;
+	private int pendingCount;
+	private long pendingSince;
+	private long lastWriteTime;
+
+	/**
+	 * Connects to the configured News Analyser server and agrees the wire format. With
+	 * {@link WireFormat#UTF16_LINES} no handshake is made.
+	 *
+	 * @param config   the configuration of the feed,
+	 * @param feedName the name the feed introduces itself with.
+	 * @throws IOException if an I/O error occurs when connecting or the server rejects the wire format.
+	 */
+	public FeedConnection(Configuration config, String feedName) throws IOException {
+		WireFormat wireFormat = config.getWireFormat();
+		encoder = new WordMessageEncoder(wireFormat, config.getHeadlineWords());
+		flushPolicy = config.getFlushPolicy();
+		heartbeatInterval = TimeUnit.MILLISECONDS.toNanos(config.getHeartbeatInterval());
+		buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+		socket = connect(config);
+		out = socket.getOutputStream();
+
+		if (wireFormat != WireFormat.UTF16_LINES) {
+			Handshake.writeRequest(out, wireFormat, feedName);
+			Handshake.readAcknowledgement(socket.getInputStream(), wireFormat);
+		}
+		encoder.encodeStreamStart(buffer);
+		lastWriteTime = System.nanoTime();
+	}
+
+	private static Socket connect(Configuration config) throws IOException {
+		Socket socket = new Socket();
+		socket.setTcpNoDelay(config.isTcpNoDelay());
+		if (config.getSendBufferSize() > 0) {
+			socket.setSendBufferSize(config.getSendBufferSize());
+		}
+		socket.connect(new InetSocketAddress(config.getServerIp(), config.getServerPort()));
+		return socket;
+	}
+
+	/**
+	 * Encodes a news message into the buffer. The message is sent when the {@link FlushPolicy} says so or on
+	 * the next {@link #flush()}.
+	 *
+	 * @param message the news message.
+	 * @param now     the current time in nanoseconds of {@link System#nanoTime()}.
+	 * @throws IOException if an I/O error occurs when writing the buffered messages.
+	 */
+	public void add(WordMessage message, long now) throws IOException {
+		encode(message);
+		if (pendingCount++ == 0) {
+			pendingSince = now;
+		}
+		flushIfDue(now);
+	}
+
+	private void encode(WordMessage message) {
+		int start = buffer.position();
+		try {
+			encoder.encode(message, buffer);
+		} catch (BufferOverflowException e) {
+			buffer.position(start);
+			growBuffer();
+			encode(message);
+		}
+	}
+
+	/**
+	 * Sends the buffered messages if the {@link FlushPolicy} says so.
+	 *
+	 * @param now the current time in nanoseconds of {@link System#nanoTime()}.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void flushIfDue(long now) throws IOException {
+		if (flushPolicy.isDue(pendingCount, buffer.position(), pendingSince, now)) {
+			flush(now);
+		}
+	}
+
+	/**
+	 * Returns the time by which the buffered messages have to be sent even if no more messages come.
+	 *
+	 * @return the time in nanoseconds of {@link System#nanoTime()} or {@link Long#MAX_VALUE} if there are no buffered
+	 * messages or they wait for more messages.
+	 */
+	public long getFlushDeadline() {
+		return (pendingCount == 0) ? Long.MAX_VALUE : flushPolicy.getDeadline(pendingSince);
+	}
+
+	/**
+	 * Returns the time by which a heartbeat has to be sent if nothing is written before.
+	 *
+	 * @return the time in nanoseconds of {@link System#nanoTime()} or {@link Long#MAX_VALUE} if no heartbeats are
+	 * sent.
+	 */
+	public long getHeartbeatDeadline() {
+		return (heartbeatInterval == 0) ? Long.MAX_VALUE : lastWriteTime + heartbeatInterval;
+	}
+
+	/**
+	 * Sends a heartbeat if nothing has been written for the heartbeat interval. If there are buffered messages, they
+	 * are sent instead, so the heartbeat is always encoded into an empty buffer.
+	 *
+	 * @param now the current time in nanoseconds of {@link System#nanoTime()}.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void sendHeartbeatIfDue(long now) throws IOException {
+		if (now - getHeartbeatDeadline() >= 0) {
+			if (buffer.position() == 0) {
+				encoder.encodeHeartbeat(buffer);
+			}
+			flush(now);
+		}
+	}
+
+	/**
+	 * Sends all encoded messages.
+	 *
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void flush() throws IOException {
+		flush(System.nanoTime());
+	}
+
+	private void flush(long now) throws IOException {
+		if (buffer.position() > 0) {
+			out.write(buffer.array(), 0, buffer.position());
+			out.flush();
+			buffer.clear();
+			lastWriteTime = now;
+		}
+		pendingCount = 0;
+	}
+
+	/**
+	 * Closes the connection.
+	 */
+	public void close() {
+		try {
+			socket.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void growBuffer() {
+		ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+		buffer.flip();
+		larger.put(buffer);
+		buffer = larger;
+	}
+}
@@ -0,0 +1,100 @@
+package com.leobro.newsfeed;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when the messages encoded into the buffer of a {@link FeedConnection} are written to the socket. Writing
+ * every message at once costs a system call and usually a small TCP segment per message; a high-rate feed can instead
+ * gather many messages into one write, at the cost of the latency of the first of them.
+ * <p>The class is immutable.
+ */
+class FlushPolicy {
+
+	/**
+	 * What makes the buffered messages be written.
+	 */
+	enum Trigger {
+		/**
+		 * Every message is written at once.
+		 */
+		MESSAGE,
+		/**
+		 * The messages are written when the configured count of them is buffered.
+		 */
+		COUNT,
+		/**
+		 * The messages are written when the first of them has been buffered for the configured time.
+		 */
+		INTERVAL,
+		/**
+		 * The messages are written when the configured count of bytes is buffered.
+		 */
+		BUFFER
+	}
+
+	private final Trigger trigger;
+	private final int messageCount;
+	private final long intervalNanos;
+	private final int bufferSize;
+
+	/**
+	 * Creates a new instance of the {@link FlushPolicy} class.
+	 *
+	 * @param trigger           what makes the messages be written,
+	 * @param messageCount      the count of messages written together with {@link Trigger#COUNT},
+	 * @param intervalInMicros  the longest time a message is buffered with {@link Trigger#INTERVAL},
+	 * @param bufferSize        the count of bytes written together with {@link Trigger#BUFFER}.
+	 */
+	public FlushPolicy(Trigger trigger, int messageCount, long intervalInMicros, int bufferSize) {
+		this.trigger = trigger;
+		this.messageCount = Math.max(messageCount, 1);
+		this.intervalNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(intervalInMicros, 0));
+		this.bufferSize = Math.max(bufferSize, 1);
+	}
+
+	/**
+	 * Returns the policy writing every message at once.
+	 *
+	 * @return the policy.
+	 */
+	public static FlushPolicy perMessage() {
+		return new FlushPolicy(Trigger.MESSAGE, 1, 0, 1);
+	}
+
+	/**
+	 * Tells if the buffered messages should be written now.
+	 *
+	 * @param messages  the count of buffered messages,
+	 * @param bytes     the count of buffered bytes,
+	 * @param firstTime the time the first of the buffered messages was buffered at, in nanoseconds of
+	 *                  {@link System#nanoTime()},
+	 * @param now       the current time in nanoseconds of {@link System#nanoTime()}.
+	 * @return {@code true} if the messages should be written.
+	 */
+	public boolean isDue(int messages, int bytes, long firstTime, long now) {
+		if (messages == 0) {
+			return false;
+		}
+		switch (trigger) {
+			case COUNT:
+				return messages >= messageCount;
+			case INTERVAL:
+				return now - firstTime >= intervalNanos;
+			case BUFFER:
+				return bytes >= bufferSize;
+			default:
+				return true;
+		}
+	}
+
+	/**
+	 * Returns the time by which the buffered messages have to be written whether more messages come or not.
+	 *
+	 * @param firstTime the time the first of the buffered messages was buffered at.
+	 * @return the time in nanoseconds of {@link System#nanoTime()} or {@link Long#MAX_VALUE} if the messages wait for
+	 * more messages however long it takes.
+	 */
+	public long getDeadline(long firstTime) {
+		return (trigger == Trigger.INTERVAL) ? firstTime + intervalNanos : Long.MAX_VALUE;
+	}
+}
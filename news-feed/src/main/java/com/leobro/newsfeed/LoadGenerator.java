@@ -0,0 +1,241 @@
+package com.leobro.newsfeed;
+
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stresses the News Analyser server from one process: opens many connections and sends news messages over them at
+ * the configured aggregate rate.
+ * <p>The connections are shared out between a few sender threads, each sending its part of the rate on
+ * a nanosecond schedule (see {@link Pacer}). The load is open-loop: the schedule does not wait for the server, and
+ * a sender which falls behind sends the overdue messages in a batch as soon as it can. The messages are written to
+ * the sockets as the configured {@link FlushPolicy} says; a sender waiting for the next due message wakes up for
+ * a flush bound by time as well. Once a second the achieved rate is printed next to the target rate, together with
+ * the count of messages the senders are behind the schedule. At a rate too low to keep every connection busy,
+ * the senders send heartbeats over the connections which have had nothing to send for the heartbeat interval.
+ * <p>If configured, every message carries the time it was scheduled for rather than the time it is actually sent
+ * at. So the latency measured by the server includes the time the message waited for a sender which fell behind, and
+ * a stall of the server shows up in the latency of all the messages which should have been sent meanwhile, not of
+ * just the few sent (coordinated omission).
+ */
+class LoadGenerator {
+
+	private static final int MAX_BATCH = 1024;
+	private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+	private static final long REPORT_INTERVAL_MILLIS = 1000;
+	private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private final Configuration config;
+	private final int connectionCount;
+	private final double rate;
+	private final int threadCount;
+	private final long duration;
+	private final LongAdder sentCount;
+	private volatile boolean isRunning;
+
+	/**
+	 * Creates a new instance of the {@link LoadGenerator} class.
+	 *
+	 * @param config the configuration of the feed.
+	 */
+	public LoadGenerator(Configuration config) {
+		this.config = config;
+		connectionCount = config.getLoadConnections();
+		rate = config.getLoadRate();
+		threadCount = Math.min(config.getLoadThreads(), connectionCount);
+		duration = TimeUnit.SECONDS.toMillis(config.getLoadDuration());
+		sentCount = new LongAdder();
+	}
+
+	/**
+	 * Connects to the News Analyser server and sends the messages until the configured duration is over or, if it
+	 * is not configured, indefinitely.
+	 *
+	 * @throws IOException if an I/O error occurs when connecting or the server rejects the wire format.
+	 */
+	public void generateLoad() throws IOException {
+		List<FeedConnection> connections = connect();
+		List<NewsGenerator> generators = new ArrayList<>();
+		SplittableRandom random = config.createRandom();
+		for (int t = 0; t < threadCount; t++) {
+			generators.add(createGenerator(random.split()));
+		}
+		long start = System.nanoTime() + START_DELAY_NANOS;
+		List<Sender> senders = createSenders(connections, generators, start);
+
+		isRunning = true;
+		for (Sender sender : senders) {
+			sender.start();
+		}
+
+		try {
+			report(start, senders);
+		} finally {
+			isRunning = false;
+			joinSenders(senders);
+			connections.forEach(FeedConnection::close);
+		}
+		printRate("Total", sentCount.sum(), System.nanoTime() - start, senders);
+	}
+
+	private List<FeedConnection> connect() throws IOException {
+		String baseName = config.getFeedName().isEmpty() ? "load" : config.getFeedName();
+		List<FeedConnection> connections = new ArrayList<>();
+
+		for (int i = 0; i < connectionCount; i++) {
+			connections.add(new FeedConnection(config, baseName + "-" + i));
+		}
+		return connections;
+	}
+
+	private List<Sender> createSenders(List<FeedConnection> connections, List<NewsGenerator> generators, long start) {
+		List<Sender> senders = new ArrayList<>();
+		double threadRate = rate / threadCount;
+
+		for (int t = 0; t < threadCount; t++) {
+			List<FeedConnection> own = new ArrayList<>();
+			for (int i = t; i < connections.size(); i += threadCount) {
+				own.add(connections.get(i));
+			}
+			// the senders are shifted against each other not to send in bursts at the same moments
+			long threadStart = start + (long) (t * 1e9 / rate);
+			senders.add(new Sender("load-sender-" + t, own, new Pacer(threadStart, threadRate),
+					generators.get(t)));
+		}
+		return senders;
+	}
+
+	private NewsGenerator createGenerator(SplittableRandom random) {
+		NewsGenerator generator = new NewsGenerator(0, config.getHeadlineWords(), config.getPriorityWeights(), random);
+		generator.setMinWordsInHeadline(config.getMinWordsInHeadline());
+		generator.setMaxWordsInHeadline(config.getMaxWordsInHeadline());
+		generator.setStampingMessages(config.isSendingTimestamps());
+		return generator;
+	}
+
+	private void report(long start, List<Sender> senders) {
+		long lastTime = start;
+		long lastCount = 0;
+		LockSupport.parkNanos(start - System.nanoTime());
+
+		while (duration == 0 || TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < duration) {
+			try {
+				Thread.sleep(REPORT_INTERVAL_MILLIS);
+			} catch (InterruptedException e) {
+				return;
+			}
+			if (senders.stream().noneMatch(Thread::isAlive)) {
+				return;
+			}
+			long now = System.nanoTime();
+			long count = sentCount.sum();
+			printRate("Last second", count - lastCount, now - lastTime, senders);
+			lastTime = now;
+			lastCount = count;
+		}
+	}
+
+	private void printRate(String period, long count, long nanos, List<Sender> senders) {
+		double achieved = count * 1e9 / nanos;
+		long behind = senders.stream().mapToLong(sender -> sender.behind).sum();
+		System.out.printf("%s: target %.0f msg/s, achieved %.0f msg/s (%.1f%%), behind schedule %d msgs%n",
+				period, rate, achieved, 100 * achieved / rate, behind);
+	}
+
+	private static void joinSenders(List<Sender> senders) {
+		for (Sender sender : senders) {
+			try {
+				sender.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * The thread sending the messages over its share of the connections, one connection after another.
+	 */
+	private class Sender extends Thread {
+
+		private final FeedConnection[] connections;
+		private final Pacer pacer;
+		private final NewsGenerator generator;
+		private volatile long behind;
+
+		Sender(String name, List<FeedConnection> connections, Pacer pacer, NewsGenerator generator) {
+			super(name);
+			this.connections = connections.toArray(new FeedConnection[0]);
+			this.pacer = pacer;
+			this.generator = generator;
+		}
+
+		@Override
+		public void run() {
+			WordMessage message = new WordMessage();
+			long sent = 0;
+			int next = 0;
+
+			try {
+				while (isRunning) {
+					long now = System.nanoTime();
+					long due = pacer.getDueCount(now);
+					if (sent >= due) {
+						flushDue(now);
+						waitUntil(Math.min(pacer.getScheduledTime(sent), getDeadline()));
+						continue;
+					}
+
+					long batchStart = sent;
+					long batchEnd = Math.min(due, sent + MAX_BATCH);
+					for (; sent < batchEnd; sent++) {
+						generator.createMessage(message, pacer.getScheduledTime(sent));
+						connections[next].add(message, now);
+						next = (next + 1 == connections.length) ? 0 : next + 1;
+					}
+					sentCount.add(batchEnd - batchStart);
+					behind = due - sent;
+				}
+				for (FeedConnection connection : connections) {
+					connection.flush();
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+
+		private void flushDue(long now) throws IOException {
+			for (FeedConnection connection : connections) {
+				connection.flushIfDue(now);
+				connection.sendHeartbeatIfDue(now);
+			}
+		}
+
+		/**
+		 * Returns the earliest time a connection has to flush its messages or send a heartbeat.
+		 */
+		private long getDeadline() {
+			long deadline = Long.MAX_VALUE;
+			for (FeedConnection connection : connections) {
+				deadline = Math.min(deadline, connection.getFlushDeadline());
+				deadline = Math.min(deadline, connection.getHeartbeatDeadline());
+			}
+			return deadline;
+		}
+
+		private void waitUntil(long time) {
+			long remaining = time - System.nanoTime();
+			if (remaining > SPIN_NANOS) {
+				LockSupport.parkNanos(remaining - SPIN_NANOS);
+			} else if (remaining > 0) {
+				Thread.yield();
+			}
+		}
+	}
+}
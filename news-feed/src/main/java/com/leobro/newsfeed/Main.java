@@ -6,9 +6,13 @@ import java.net.ConnectException;
 public class Main {
 
 	public static void main(String[] args) throws IOException {
-		NewsFeeder feeder = new NewsFeeder();
+		Configuration config = new Configuration();
 		try {
-			feeder.feedNews();
+			if (config.getLoadConnections() > 0) {
+				new LoadGenerator(config).generateLoad();
+			} else {
+				new NewsFeeder(config).feedNews();
+			}
 		} catch (ConnectException e) {
 			System.out.println(e.toString());
 			System.out.println("Server doesn't accept connections");
@@ -1,40 +1,49 @@
 package com.leobro.newsfeed;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.leobro.newscodec.Handshake;
+import com.leobro.newscodec.WireFormat;
 
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
-import java.net.Socket;
 import java.net.UnknownHostException;
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * TCP client sending news messages to the News Analyser server. Establishes a TCP connection with the server at the
  * configured address and port and sends news messages periodically at a configured interval.
+ * <p>The messages are sent in the configured {@link WireFormat}, which is agreed with the server in the
+ * {@link Handshake} when the connection is established. Each message is encoded into a reusable buffer, which is
+ * written to the socket as the configured {@link FlushPolicy} says: by default every message at once. A message
+ * waiting for a time-bound flush is written before the pause if the flush would be due during the pause. If
+ * the interval is longer than the heartbeat interval, heartbeats are sent during the pause.
+ * <p>If configured, every message is sent with the time it is created at, so the server can measure its latency and
+ * window the news by the time they were produced.
  */
 class NewsFeeder {
 
-	private final String ip;
-	private final int port;
-	private PrintWriter out;
+	private final Configuration config;
+	private final long interval;
+	private FeedConnection connection;
 	private NewsGenerator generator;
 
 	/**
-	 * Creates a new instance of the {@link NewsFeeder} class. Reads configuration and creates an instance of the
-	 * {@link NewsGenerator} to produce news messages.
+	 * Creates a new instance of the {@link NewsFeeder} class. Creates an instance of the {@link NewsGenerator} to
+	 * produce news messages.
+	 *
+	 * @param config the configuration of the feed.
 	 */
-	public NewsFeeder() {
-		Configuration config = new Configuration();
-		this.ip = config.getServerIp();
-		this.port = config.getServerPort();
+	public NewsFeeder(Configuration config) {
+		this.config = config;
+		this.interval = TimeUnit.MILLISECONDS.toNanos(config.getFeedingInterval());
 		createNewsGenerator(config);
 	}
 
 	private void createNewsGenerator(Configuration config) {
-		generator = new NewsGenerator(config.getFeedingInterval(), config.getHeadlineWords(), config.getPriorityWeights());
+		generator = new NewsGenerator(config.getFeedingInterval(), config.getHeadlineWords(),
+				config.getPriorityWeights(), config.createRandom());
 		generator.setMinWordsInHeadline(config.getMinWordsInHeadline());
 		generator.setMaxWordsInHeadline(config.getMaxWordsInHeadline());
+		generator.setStampingMessages(config.isSendingTimestamps());
 	}
 
 	/**
@@ -43,12 +52,12 @@ class NewsFeeder {
 	 * sent to the server.
 	 *
 	 * @throws IOException if an I/O error occurs when creating the socket or
-	 * if an I/O error occurs when creating the output stream or if the socket is not connected.
+	 * if an I/O error occurs when creating the output stream or if the socket is not connected
+	 * or if the server rejects the configured wire format.
 	 * @throws UnknownHostException if the IP address of the host could not be determined.
 	 * @throws SecurityException if a security manager exists and its checkConnect method doesn't allow the operation.
 	 * @throws IllegalArgumentException if the port parameter is outside the specified range of valid port values,
 	 * which is between 0 and 65535, inclusive.
-	 * @throws JsonProcessingException if serialising an object is failed.
 	 */
 	public void feedNews() throws IOException {
 		connectToNewsAnalyser();
@@ -56,22 +65,45 @@ class NewsFeeder {
 	}
 
 	private void connectToNewsAnalyser() throws IOException {
-		Socket clientSocket = new Socket(ip, port);
-		boolean autoFlushBuffer;
-		out = new PrintWriter(
-				new OutputStreamWriter(
-						clientSocket.getOutputStream(), StandardCharsets.UTF_16),
-				autoFlushBuffer = true);
+		connection = new FeedConnection(config, config.getFeedName());
 	}
 
-	private void generateMessagesPeriodically() throws JsonProcessingException {
-		String message;
-		while ((message = generator.pauseAndGenerateMessage()) != null) {
+	private void generateMessagesPeriodically() throws IOException {
+		WordMessage message = new WordMessage();
+		while (true) {
+			pause();
+			generator.createMessage(message);
 			sendMessage(message);
 		}
 	}
 
-	private void sendMessage(String newsMessage) {
-		out.println(newsMessage);
+	/**
+	 * Waits for the interval between messages, sending the heartbeats which fall due meanwhile.
+	 */
+	private void pause() throws IOException {
+		long end = System.nanoTime() + interval;
+		long heartbeat;
+		while ((heartbeat = connection.getHeartbeatDeadline()) != Long.MAX_VALUE && heartbeat - end < 0) {
+			sleepUntil(heartbeat);
+			connection.sendHeartbeatIfDue(System.nanoTime());
+		}
+		sleepUntil(end);
+	}
+
+	private static void sleepUntil(long time) {
+		long remaining;
+		while ((remaining = time - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(remaining);
+		}
+	}
+
+	private void sendMessage(WordMessage message) throws IOException {
+		long now = System.nanoTime();
+		connection.add(message, now);
+
+		long deadline = connection.getFlushDeadline();
+		if (deadline != Long.MAX_VALUE && deadline - (now + interval) < 0) {
+			connection.flush();
+		}
 	}
 }
@@ -2,6 +2,9 @@ package com.leobro.newsfeed;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leobro.newscodec.EpochClock;
+
+import java.util.SplittableRandom;
 
 /**
  * Generates news messages at the configured interval. The priority of a message is a random integer within the range
@@ -9,6 +12,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * less probability than those with the lower priority. The headline of a message is a random combination of several
  * words from a configured list. The word count in the headline is a random number from a minimal word count to a
  * maximal word count (default is from three to five words).
+ * <p>A message is created either as a {@link NewsMessage} bean or, to send it without creating objects, into
+ * a reused {@link WordMessage}, which holds the indexes of the headline words.
+ * <p>If configured, a {@link WordMessage} is stamped with the time it is created at, so the analyser can window the
+ * news by the time they were produced instead of the time they arrived.
+ * <p>All random numbers come from one {@link SplittableRandom}, so a generator given a seeded source produces the same
+ * messages in every run. The class is not thread-safe.
  */
 class NewsGenerator {
 
@@ -17,8 +26,10 @@ class NewsGenerator {
 
 	private int minWords = MIN_WORDS_IN_HEADLINE;
 	private int maxWords = MAX_WORDS_IN_HEADLINE;
+	private boolean isStamping;
 	private final long interval;
 	private final String[] headlineWords;
+	private final SplittableRandom random;
 	private final WeightedRandomGenerator generator;
 	private final ObjectMapper objectMapper;
 
@@ -31,9 +42,23 @@ class NewsGenerator {
 	 *                        corresponding to the index of the weight in the array.
 	 */
 	public NewsGenerator(long interval, String[] headlineWords, double[] priorityWeights) {
+		this(interval, headlineWords, priorityWeights, new SplittableRandom());
+	}
+
+	/**
+	 * Creates a new instance of the NewsGenerator drawing from the given source of random numbers.
+	 *
+	 * @param interval        the interval between news messages in milliseconds,
+	 * @param headlineWords   the array of all words from which the news headline is composed,
+	 * @param priorityWeights the array of weights (in percent) for all possible priority values, the value
+	 *                        corresponding to the index of the weight in the array,
+	 * @param random          the source of random numbers.
+	 */
+	public NewsGenerator(long interval, String[] headlineWords, double[] priorityWeights, SplittableRandom random) {
 		this.interval = interval;
 		this.headlineWords = headlineWords;
-		generator = new WeightedRandomGenerator(priorityWeights);
+		this.random = random;
+		generator = new WeightedRandomGenerator(priorityWeights, random);
 		objectMapper = new ObjectMapper();
 	}
 
@@ -44,8 +69,16 @@ class NewsGenerator {
 	 */
 	public String pauseAndGenerateMessage() throws JsonProcessingException {
 		pause(interval);
-		NewsMessage message = createMessage();
-		return convertToJson(message);
+		return generateMessage();
+	}
+
+	/**
+	 * Outputs a news message without waiting.
+	 *
+	 * @return the news message as JSON string.
+	 */
+	String generateMessage() throws JsonProcessingException {
+		return convertToJson(createMessage());
 	}
 
 	private void pause(long delay) {
@@ -56,13 +89,46 @@ class NewsGenerator {
 		}
 	}
 
-	private NewsMessage createMessage() {
+	/**
+	 * Creates a news message without waiting.
+	 *
+	 * @return the news message.
+	 */
+	NewsMessage createMessage() {
 		NewsMessage message = new NewsMessage();
 		message.setPriority(generatePriority());
 		message.setHeadline(generateHeadline());
 		return message;
 	}
 
+	/**
+	 * Creates a news message without waiting in place of the previous one, stamped with the current time if
+	 * configured.
+	 *
+	 * @param message the news message to overwrite.
+	 */
+	void createMessage(WordMessage message) {
+		createMessage(message, System.nanoTime());
+	}
+
+	/**
+	 * Creates a news message without waiting in place of the previous one, stamped with the given time if configured.
+	 *
+	 * @param message   the news message to overwrite,
+	 * @param createdAt the time the message is created at as a reading of {@link System#nanoTime()}, e.g. the time
+	 *                  it was due to be created at under a constant load.
+	 */
+	void createMessage(WordMessage message, long createdAt) {
+		message.setSentAt(isStamping ? EpochClock.toEpochMicros(createdAt) : 0);
+		message.setPriority(generatePriority());
+		message.clearWords();
+		int wordCount = getRandomIntegerWithinRange(minWords, maxWords);
+
+		for (int i = 0; i < wordCount; i++) {
+			message.addWord(generateWordIndex());
+		}
+	}
+
 	/**
 	 * Priority values obey defined statistical distribution.
 	 *
@@ -73,18 +139,21 @@ class NewsGenerator {
 	}
 
 	private String generateHeadline() {
-		String headline = "";
+		StringBuilder headline = new StringBuilder();
 		int wordCount = getRandomIntegerWithinRange(minWords, maxWords);
 
 		for (int i = 0; i < wordCount; i++) {
-			int wordIndex = getRandomIntegerWithinRange(0, headlineWords.length - 1);
-			headline += headlineWords[wordIndex] + " ";
+			headline.append(headlineWords[generateWordIndex()]).append(' ');
 		}
-		return headline.trim();
+		return headline.toString().trim();
+	}
+
+	private int generateWordIndex() {
+		return random.nextInt(headlineWords.length);
 	}
 
-	private static int getRandomIntegerWithinRange(double min, double max) {
-		return (int) ((Math.random() * ((max - min) + 1)) + min);
+	private int getRandomIntegerWithinRange(int min, int max) {
+		return random.nextInt(min, max + 1);
 	}
 
 	private String convertToJson(NewsMessage message) throws JsonProcessingException {
@@ -100,6 +169,15 @@ class NewsGenerator {
 		minWords = wordCount;
 	}
 
+	/**
+	 * Sets if the created messages are stamped with the time they are created at.
+	 *
+	 * @param isStamping {@code true} to stamp the messages.
+	 */
+	public void setStampingMessages(boolean isStamping) {
+		this.isStamping = isStamping;
+	}
+
 	/**
 	 * Sets the maximal word count in the news headline.
 	 *
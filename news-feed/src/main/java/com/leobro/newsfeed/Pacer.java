@@ -0,0 +1,49 @@
+package com.leobro.newsfeed;
+
+/**
+ * The schedule of an open-loop sender: message number {@code n} is due at {@code start + n / rate}, whenever the
+ * previous messages were actually sent. A sender which falls behind the schedule sends the overdue messages at once,
+ * so a slow server cannot lower the offered load unnoticed.
+ * <p>The times are in nanoseconds of {@link System#nanoTime()}. The class is immutable.
+ */
+class Pacer {
+
+	private static final double NANOS_IN_SECOND = 1e9;
+
+	private final long start;
+	private final double nanosPerMessage;
+
+	/**
+	 * Creates a new instance of the {@link Pacer} class.
+	 *
+	 * @param start             the time the first message is due,
+	 * @param messagesPerSecond the rate of the messages.
+	 */
+	public Pacer(long start, double messagesPerSecond) {
+		this.start = start;
+		nanosPerMessage = NANOS_IN_SECOND / messagesPerSecond;
+	}
+
+	/**
+	 * Returns the count of messages due by the given time.
+	 *
+	 * @param now the time.
+	 * @return the count of messages whose time has come.
+	 */
+	public long getDueCount(long now) {
+		if (now - start < 0) {
+			return 0;
+		}
+		return (long) ((now - start) / nanosPerMessage) + 1;
+	}
+
+	/**
+	 * Returns the time the message is due.
+	 *
+	 * @param index the number of the message, starting from 0.
+	 * @return the first nanosecond at which the message is due.
+	 */
+	public long getScheduledTime(long index) {
+		return start + (long) Math.ceil(index * nanosPerMessage);
+	}
+}
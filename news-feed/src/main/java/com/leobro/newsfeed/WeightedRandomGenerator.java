@@ -1,16 +1,22 @@
 package com.leobro.newsfeed;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.SplittableRandom;
 
 /**
  * Generates random integer numbers with the frequency distribution corresponding to the specified weights in percents.
  * Numbers are generated from 0 to the count of specified weights minus 1.
+ * <p>The numbers are drawn in constant time whatever the count of weights by the alias method (in the Vose variant):
+ * the weights are laid out once into as many equal columns as there are numbers, each column holding at most two
+ * numbers, its own one and an alias. A number is drawn by picking a column uniformly and then one of its two numbers
+ * by the share it takes in the column. One uniform random number gives both choices.
+ * <p>The random numbers come from a {@link SplittableRandom}, which can be seeded for reproducible runs. As the source
+ * is not shared, the class is not thread-safe: every thread should have its own generator.
  */
 public class WeightedRandomGenerator {
 
-	private final Map<Integer, Double> weights;
-	private double weightSum;
+	private final double[] shares;
+	private final int[] aliases;
+	private final SplittableRandom random;
 
 	/**
 	 * Creates an instance of the {@link WeightedRandomGenerator} with the defined distribution of random numbers.
@@ -18,21 +24,75 @@ public class WeightedRandomGenerator {
 	 * @param weights array of weights for the whole range of generated numbers; number corresponds to the index of
 	 *                the weight in the array; the weights are given in percents. If e.g. weights 30, 70 are given,
 	 *                this means that 0 is generated in 30% of calls and 1 is generated in 70% of calls.
+	 * @throws IllegalArgumentException if no weights are given, a weight is negative or all of them are zero.
 	 */
 	public WeightedRandomGenerator(double[] weights) {
-		this.weights = new HashMap<>();
+		this(weights, new SplittableRandom());
+	}
 
-		for (int i = 0; i < weights.length; i++) {
-			addWeight(i, weights[i]);
-		}
+	/**
+	 * Creates an instance of the {@link WeightedRandomGenerator} with the defined distribution of random numbers
+	 * drawing from the given source of random numbers.
+	 *
+	 * @param weights array of weights for the whole range of generated numbers, see
+	 *                {@link #WeightedRandomGenerator(double[])},
+	 * @param random  the source of random numbers.
+	 * @throws IllegalArgumentException if no weights are given, a weight is negative or all of them are zero.
+	 */
+	public WeightedRandomGenerator(double[] weights, SplittableRandom random) {
+		this.random = random;
+		shares = new double[weights.length];
+		aliases = new int[weights.length];
+		buildAliasTable(weights);
 	}
 
-	private void addWeight(int number, double weight) {
-		if (weights.get(number) != null) {
-			weightSum -= weights.get(number);
+	private void buildAliasTable(double[] weights) {
+		int count = weights.length;
+		double weightSum = 0;
+		for (double weight : weights) {
+			if (weight < 0) {
+				throw new IllegalArgumentException("Weight must not be negative: " + weight);
+			}
+			weightSum += weight;
+		}
+		if (!(weightSum > 0)) {
+			throw new IllegalArgumentException("At least one weight must be positive");
+		}
+
+		// the weights scaled so that a column holds 1; the numbers above it give their excess to those below it
+		double[] scaled = new double[count];
+		int[] small = new int[count];
+		int[] large = new int[count];
+		int smallCount = 0;
+		int largeCount = 0;
+		for (int i = 0; i < count; i++) {
+			scaled[i] = weights[i] * count / weightSum;
+			if (scaled[i] < 1) {
+				small[smallCount++] = i;
+			} else {
+				large[largeCount++] = i;
+			}
+		}
+
+		while (smallCount > 0 && largeCount > 0) {
+			int less = small[--smallCount];
+			int more = large[--largeCount];
+			shares[less] = scaled[less];
+			aliases[less] = more;
+			scaled[more] = (scaled[more] + scaled[less]) - 1;
+			if (scaled[more] < 1) {
+				small[smallCount++] = more;
+			} else {
+				large[largeCount++] = more;
+			}
+		}
+		// what is left fills its column up to rounding errors
+		while (largeCount > 0) {
+			shares[large[--largeCount]] = 1;
+		}
+		while (smallCount > 0) {
+			shares[small[--smallCount]] = 1;
 		}
-		weights.put(number, weight);
-		weightSum += weight;
 	}
 
 	/**
@@ -41,22 +101,19 @@ public class WeightedRandomGenerator {
 	 * @return the next random number from the distribution.
 	 */
 	public int getWeightedRandom() {
-		double random = Math.random() * 100.0d;
-		// correction for the case when weights do not produce 100% in sum
-		double ratio = 100.0d / weightSum;
-		double tempWeight = 0;
-
-		// Let's take for example weights 5, 3, 2 and generate the uniformly distributed random number in the range
-		// from 0 to 10. Then we can distribute the numbers to be generated according the weights over the range the
-		// following way: 0, 0, 0, 0, 0, 1, 1, 1, 2, 2. Then if the uniformly random number is between 0 and 5, we
-		// return 0; if it is between 5 and 8, we return 1; if it is between 8 and 10, we return 2.
-		for (Integer i : weights.keySet()) {
-			tempWeight += weights.get(i);
-
-			if (tempWeight >= random / ratio) {
-				return i;
-			}
+		double point = random.nextDouble() * shares.length;
+		int column = (int) point;
+		return (point - column < shares[column]) ? column : aliases[column];
+	}
+
+	/**
+	 * Fills the array with random numbers from the distribution.
+	 *
+	 * @param out the array to fill.
+	 */
+	public void fill(int[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = getWeightedRandom();
 		}
-		return 0;
 	}
 }
@@ -0,0 +1,72 @@
+package com.leobro.newsfeed;
+
+/**
+ * A news message whose headline is given as the indexes of its words in the list of headline words. An instance is
+ * reused for message after message, so generating and sending a message creates no objects.
+ * <p>The class is not thread-safe.
+ */
+class WordMessage {
+
+	private static final int INITIAL_WORD_CAPACITY = 8;
+
+	private int priority;
+	private int[] words = new int[INITIAL_WORD_CAPACITY];
+	private int wordCount;
+	private long sentAt;
+
+	public int getPriority() {
+		return priority;
+	}
+
+	public void setPriority(int priority) {
+		this.priority = priority;
+	}
+
+	/**
+	 * Returns the index of a word of the headline.
+	 *
+	 * @param position the position of the word in the headline.
+	 * @return the index of the word in the list of headline words.
+	 */
+	public int getWord(int position) {
+		return words[position];
+	}
+
+	public int getWordCount() {
+		return wordCount;
+	}
+
+	/**
+	 * Removes all words from the headline.
+	 */
+	public void clearWords() {
+		wordCount = 0;
+	}
+
+	/**
+	 * Appends a word to the headline.
+	 *
+	 * @param word the index of the word in the list of headline words.
+	 */
+	public void addWord(int word) {
+		if (wordCount == words.length) {
+			int[] larger = new int[words.length * 2];
+			System.arraycopy(words, 0, larger, 0, wordCount);
+			words = larger;
+		}
+		words[wordCount++] = word;
+	}
+
+	/**
+	 * Returns the time the message was sent at.
+	 *
+	 * @return the time in microseconds since the epoch or 0 if the message is sent without a timestamp.
+	 */
+	public long getSentAt() {
+		return sentAt;
+	}
+
+	public void setSentAt(long sentAt) {
+		this.sentAt = sentAt;
+	}
+}
@@ -0,0 +1,80 @@
+package com.leobro.newsfeed;
+
+import com.leobro.newscodec.NewsMessageEncoder;
+import com.leobro.newscodec.WireFormat;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encoder of {@link WordMessage}s in one {@link WireFormat}. Every headline word is encoded once, when the encoder is
+ * created, and a headline is written by copying the bytes of its words, separated by spaces, into the buffer. So the
+ * bytes are the same as if the headline were composed as a string and encoded by the {@link NewsMessageEncoder}, but
+ * no string is composed and no character is encoded per message.
+ * <p>The encoder is not changed by encoding and can be shared.
+ */
+class WordMessageEncoder {
+
+	private static final String WORD_SEPARATOR = " ";
+
+	private final NewsMessageEncoder encoder;
+	private final byte[][] words;
+	private final byte[] separator;
+
+	/**
+	 * Creates a new instance of the {@link WordMessageEncoder} class.
+	 *
+	 * @param format        the format to encode the messages in,
+	 * @param headlineWords the list of words the headlines are composed of.
+	 */
+	public WordMessageEncoder(WireFormat format, String[] headlineWords) {
+		encoder = new NewsMessageEncoder(format);
+		words = new byte[headlineWords.length][];
+		for (int i = 0; i < headlineWords.length; i++) {
+			words[i] = encoder.encodeHeadlinePart(headlineWords[i]);
+		}
+		separator = encoder.encodeHeadlinePart(WORD_SEPARATOR);
+	}
+
+	/**
+	 * Writes the bytes which precede the first message in the stream.
+	 *
+	 * @param out the buffer to write to.
+	 * @throws BufferOverflowException if there is not enough space in the buffer.
+	 * @see NewsMessageEncoder#encodeStreamStart(ByteBuffer)
+	 */
+	public void encodeStreamStart(ByteBuffer out) {
+		encoder.encodeStreamStart(out);
+	}
+
+	/**
+	 * Writes a heartbeat.
+	 *
+	 * @param out the buffer to write to.
+	 * @throws BufferOverflowException if there is not enough space in the buffer.
+	 * @see NewsMessageEncoder#encodeHeartbeat(ByteBuffer)
+	 */
+	public void encodeHeartbeat(ByteBuffer out) {
+		encoder.encodeHeartbeat(out);
+	}
+
+	/**
+	 * Writes one news message.
+	 *
+	 * @param message the news message,
+	 * @param out     the buffer to write to.
+	 * @throws BufferOverflowException  if there is not enough space in the buffer; the buffer position is then
+	 *                                  undefined.
+	 * @throws IllegalArgumentException if the priority does not fit the binary frame or the binary frame is too long.
+	 */
+	public void encode(WordMessage message, ByteBuffer out) {
+		int start = encoder.encodeStart(message.getPriority(), message.getSentAt(), out);
+		for (int i = 0; i < message.getWordCount(); i++) {
+			if (i > 0) {
+				out.put(separator);
+			}
+			out.put(words[message.getWord(i)]);
+		}
+		encoder.encodeEnd(start, message.getPriority(), message.getSentAt(), out);
+	}
+}
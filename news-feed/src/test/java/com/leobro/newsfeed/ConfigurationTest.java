@@ -1,5 +1,6 @@
 package com.leobro.newsfeed;
 
+import com.leobro.newscodec.WireFormat;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -21,6 +22,28 @@ public class ConfigurationTest {
 	private static final String[] HEADLINE_WORDS = new String[]{"good", "bad"};
 	private static final String PRIORITY_WEIGHTS_KEY = "priorityWeights";
 	private static final double[] PRIORITY_WEIGHTS = new double[]{50, 50};
+	private static final String WIRE_FORMAT_KEY = "wireFormat";
+	private static final String WIRE_FORMAT = "binary_frames";
+	private static final String FEED_NAME_KEY = "feedName";
+	private static final String FEED_NAME = "feed-1";
+	private static final String LOAD_CONNECTIONS_KEY = "loadConnections";
+	private static final int LOAD_CONNECTIONS = 100;
+	private static final String LOAD_RATE_KEY = "loadMessagesPerSecond";
+	private static final double LOAD_RATE = 250000;
+	private static final String LOAD_THREADS_KEY = "loadThreads";
+	private static final int LOAD_THREADS = 3;
+	private static final String LOAD_DURATION_KEY = "loadDurationInSeconds";
+	private static final long LOAD_DURATION = 60;
+	private static final String SEND_TIMESTAMPS_KEY = "sendTimestamps";
+	private static final String FLUSH_POLICY_KEY = "flushPolicy";
+	private static final String FLUSH_MESSAGE_COUNT_KEY = "flushMessageCount";
+	private static final String TCP_NO_DELAY_KEY = "tcpNoDelay";
+	private static final String SEND_BUFFER_SIZE_KEY = "socketSendBufferSize";
+	private static final int SEND_BUFFER_SIZE = 65536;
+	private static final String RANDOM_SEED_KEY = "randomSeed";
+	private static final long RANDOM_SEED = 12345;
+	private static final String HEARTBEAT_INTERVAL_KEY = "heartbeatIntervalInMilliseconds";
+	private static final long HEARTBEAT_INTERVAL = 2000;
 
 	private Configuration config;
 
@@ -30,7 +53,20 @@ public class ConfigurationTest {
 				+ ANALYSER_IP_KEY + "=" + ANALYSER_IP + "\n"
 				+ ANALYSER_PORT_KEY + "=" + ANALYSER_PORT + "\n"
 				+ HEADLINE_WORDS_KEY + "=" + HEADLINE_WORDS[0] + "," + HEADLINE_WORDS[1] + "\n"
-				+ PRIORITY_WEIGHTS_KEY + "=" + PRIORITY_WEIGHTS[0] + ", " + PRIORITY_WEIGHTS[1];
+				+ PRIORITY_WEIGHTS_KEY + "=" + PRIORITY_WEIGHTS[0] + ", " + PRIORITY_WEIGHTS[1] + "\n"
+				+ WIRE_FORMAT_KEY + "=" + WIRE_FORMAT + "\n"
+				+ FEED_NAME_KEY + "=" + FEED_NAME + "\n"
+				+ LOAD_CONNECTIONS_KEY + "=" + LOAD_CONNECTIONS + "\n"
+				+ LOAD_RATE_KEY + "=" + LOAD_RATE + "\n"
+				+ LOAD_THREADS_KEY + "=" + LOAD_THREADS + "\n"
+				+ LOAD_DURATION_KEY + "=" + LOAD_DURATION + "\n"
+				+ SEND_TIMESTAMPS_KEY + "=true\n"
+				+ FLUSH_POLICY_KEY + "=count\n"
+				+ FLUSH_MESSAGE_COUNT_KEY + "=10\n"
+				+ TCP_NO_DELAY_KEY + "=true\n"
+				+ SEND_BUFFER_SIZE_KEY + "=" + SEND_BUFFER_SIZE + "\n"
+				+ RANDOM_SEED_KEY + "=" + RANDOM_SEED + "\n"
+				+ HEARTBEAT_INTERVAL_KEY + "=" + HEARTBEAT_INTERVAL;
 
 		config = new Configuration(){
 			@Override
@@ -78,4 +114,69 @@ public class ConfigurationTest {
 		assertThat(weights[0], is(PRIORITY_WEIGHTS[0]));
 		assertThat(weights[1], is(PRIORITY_WEIGHTS[1]));
 	}
+
+	@Test
+	public void when_propertiesAreGiven_then_wireFormatIsRead() {
+		WireFormat format = config.getWireFormat();
+		assertThat(format, is(WireFormat.BINARY_FRAMES));
+	}
+
+	@Test
+	public void when_propertiesAreGiven_then_feedNameIsRead() {
+		String name = config.getFeedName();
+		assertThat(name, is(FEED_NAME));
+	}
+
+	@Test
+	public void when_propertiesAreGiven_then_loadSettingsAreRead() {
+		assertThat(config.getLoadConnections(), is(LOAD_CONNECTIONS));
+		assertThat(config.getLoadRate(), is(LOAD_RATE));
+		assertThat(config.getLoadThreads(), is(LOAD_THREADS));
+		assertThat(config.getLoadDuration(), is(LOAD_DURATION));
+	}
+
+	@Test
+	public void when_propertiesAreGiven_then_sendTimestampsIsRead() {
+		assertThat(config.isSendingTimestamps(), is(true));
+	}
+
+	@Test
+	public void when_propertiesAreGiven_then_flushSettingsAreRead() {
+		FlushPolicy policy = config.getFlushPolicy();
+
+		assertThat(policy.isDue(9, 0, 0, 0), is(false));
+		assertThat(policy.isDue(10, 0, 0, 0), is(true));
+		assertThat(config.isTcpNoDelay(), is(true));
+		assertThat(config.getSendBufferSize(), is(SEND_BUFFER_SIZE));
+	}
+
+	@Test
+	public void when_seedIsGiven_then_randomSourcesAreReproducible() {
+		assertThat(config.getRandomSeed(), is(RANDOM_SEED));
+		assertThat(config.createRandom().nextLong(), is(config.createRandom().nextLong()));
+	}
+
+	@Test
+	public void when_propertiesAreGiven_then_heartbeatIntervalIsRead() {
+		assertThat(config.getHeartbeatInterval(), is(HEARTBEAT_INTERVAL));
+	}
+
+	@Test
+	public void when_loadSettingsAreNotGiven_then_loadGeneratorIsOff() {
+		Configuration emptyConfig = new Configuration() {
+			@Override
+			Reader getPropertiesFileReader() {
+				return new StringReader("");
+			}
+		};
+
+		assertThat(emptyConfig.getLoadConnections(), is(0));
+		assertThat(emptyConfig.getLoadThreads(), is(Runtime.getRuntime().availableProcessors()));
+		assertThat(emptyConfig.getLoadDuration(), is(0L));
+		assertThat(emptyConfig.isSendingTimestamps(), is(false));
+		assertThat(emptyConfig.getFlushPolicy().isDue(1, 0, 0, 0), is(true));
+		assertThat(emptyConfig.isTcpNoDelay(), is(false));
+		assertThat(emptyConfig.getSendBufferSize(), is(0));
+		assertThat(emptyConfig.getRandomSeed(), is(0L));
+	}
 }
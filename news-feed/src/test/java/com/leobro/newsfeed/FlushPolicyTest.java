@@ -0,0 +1,45 @@
+package com.leobro.newsfeed;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class FlushPolicyTest {
+
+	private static final long START = 1_000_000;
+
+	@Test
+	public void when_perMessage_then_everyMessageIsDue() {
+		FlushPolicy policy = FlushPolicy.perMessage();
+
+		assertThat(policy.isDue(0, 0, START, START), is(false));
+		assertThat(policy.isDue(1, 10, START, START), is(true));
+		assertThat(policy.getDeadline(START), is(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void when_count_then_dueWhenCountIsReached() {
+		FlushPolicy policy = new FlushPolicy(FlushPolicy.Trigger.COUNT, 3, 0, 0);
+
+		assertThat(policy.isDue(2, 1000, START, START + 1_000_000_000), is(false));
+		assertThat(policy.isDue(3, 30, START, START), is(true));
+	}
+
+	@Test
+	public void when_interval_then_dueWhenFirstMessageWaitedLongEnough() {
+		FlushPolicy policy = new FlushPolicy(FlushPolicy.Trigger.INTERVAL, 0, 100, 0);
+
+		assertThat(policy.isDue(1000, 100_000, START, START + 99_999), is(false));
+		assertThat(policy.isDue(1, 10, START, START + 100_000), is(true));
+		assertThat(policy.getDeadline(START), is(START + 100_000));
+	}
+
+	@Test
+	public void when_buffer_then_dueWhenBytesAreGathered() {
+		FlushPolicy policy = new FlushPolicy(FlushPolicy.Trigger.BUFFER, 0, 0, 4096);
+
+		assertThat(policy.isDue(100, 4095, START, START + 1_000_000_000), is(false));
+		assertThat(policy.isDue(101, 4096, START, START), is(true));
+	}
+}
@@ -1,6 +1,7 @@
 package com.leobro.newsfeed;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.leobro.newscodec.EpochClock;
 import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
@@ -9,6 +10,7 @@ import java.time.Duration;
 import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.SplittableRandom;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
@@ -84,4 +86,43 @@ public class NewsGeneratorTest {
 		assertThat(words.length, greaterThanOrEqualTo(MINIMAL_WORD_COUNT));
 		assertThat(words.length, lessThanOrEqualTo(MAXIMAL_WORD_COUNT));
 	}
+
+	@Test
+	public void when_wordMessageIsCreated_then_wordsArePickedFromListAndCountIsInRange() {
+		WordMessage message = new WordMessage();
+
+		for (int i = 0; i < 100; i++) {
+			generator.createMessage(message);
+
+			assertThat(message.getPriority(), isOneOf(0, 1));
+			assertThat(message.getWordCount(), greaterThanOrEqualTo(MINIMAL_WORD_COUNT));
+			assertThat(message.getWordCount(), lessThanOrEqualTo(MAXIMAL_WORD_COUNT));
+			for (int w = 0; w < message.getWordCount(); w++) {
+				assertThat(message.getWord(w), lessThan(HEADLINE_WORDS.length));
+			}
+		}
+	}
+
+	@Test
+	public void when_stampingIsSet_then_wordMessageHasTimeItWasCreatedAt() {
+		WordMessage message = new WordMessage();
+		long createdAt = System.nanoTime();
+
+		generator.createMessage(message, createdAt);
+		assertThat(message.getSentAt(), is(0L));
+
+		generator.setStampingMessages(true);
+		generator.createMessage(message, createdAt);
+		assertThat(message.getSentAt(), is(EpochClock.toEpochMicros(createdAt)));
+	}
+
+	@Test
+	public void when_sameSeedIsGiven_then_sameMessagesAreGenerated() throws JsonProcessingException {
+		NewsGenerator first = new NewsGenerator(0, HEADLINE_WORDS, PRIORITY_WEIGHTS, new SplittableRandom(3));
+		NewsGenerator second = new NewsGenerator(0, HEADLINE_WORDS, PRIORITY_WEIGHTS, new SplittableRandom(3));
+
+		for (int i = 0; i < 100; i++) {
+			assertThat(first.generateMessage(), is(second.generateMessage()));
+		}
+	}
 }
@@ -0,0 +1,53 @@
+package com.leobro.newsfeed;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PacerTest {
+
+	private static final long START = 1_000_000_000L;
+
+	@Test
+	public void when_startHasNotCome_then_noMessageIsDue() {
+		Pacer pacer = new Pacer(START, 1000);
+
+		assertThat(pacer.getDueCount(START - 1), is(0L));
+	}
+
+	@Test
+	public void when_startHasCome_then_firstMessageIsDue() {
+		Pacer pacer = new Pacer(START, 1000);
+
+		assertThat(pacer.getDueCount(START), is(1L));
+	}
+
+	@Test
+	public void when_timePasses_then_messagesAreDueAtTheRate() {
+		Pacer pacer = new Pacer(START, 250_000);
+
+		assertThat(pacer.getDueCount(START + 3_999), is(1L));
+		assertThat(pacer.getDueCount(START + 4_000), is(2L));
+		assertThat(pacer.getDueCount(START + 1_000_000_000L), is(250_001L));
+	}
+
+	@Test
+	public void when_scheduledTimeIsAsked_then_itMatchesDueCount() {
+		Pacer pacer = new Pacer(START, 3_000);
+
+		for (long i = 0; i < 10_000; i++) {
+			long time = pacer.getScheduledTime(i);
+			assertThat(pacer.getDueCount(time), is(i + 1));
+			assertThat(pacer.getDueCount(time - 1), is(i));
+		}
+	}
+
+	@Test
+	public void when_nanoTimeIsNegative_then_scheduleStillWorks() {
+		Pacer pacer = new Pacer(-500, 1_000_000);
+
+		assertThat(pacer.getDueCount(-501), is(0L));
+		assertThat(pacer.getDueCount(1_500), is(3L));
+	}
+}
@@ -4,6 +4,7 @@ import org.junit.Test;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.SplittableRandom;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
@@ -28,4 +29,52 @@ public class WeightedRandomGeneratorTest {
 		assertThat(Math.round(distribution.get(1)), is(30L));
 		assertThat(Math.round(distribution.get(2)), is(20L));
 	}
+
+	@Test
+	public void when_filledWithConfiguredWeights_then_frequenciesMatchWeights() {
+		double[] weights = new double[]{29.3, 19.3, 14.3, 10.9, 8.4, 6.5, 4.8, 3.4, 2.1, 1};
+		double weightSum = 100;
+		int[] numbers = new int[1000000];
+		WeightedRandomGenerator generator = new WeightedRandomGenerator(weights, new SplittableRandom(42));
+
+		generator.fill(numbers);
+
+		int[] counts = new int[weights.length];
+		for (int number : numbers) {
+			counts[number]++;
+		}
+		for (int i = 0; i < weights.length; i++) {
+			double expected = numbers.length * weights[i] / weightSum;
+			// five standard deviations of the binomial count
+			double tolerance = 5 * Math.sqrt(expected * (1 - weights[i] / weightSum));
+			assertEquals("count of " + i, expected, counts[i], tolerance);
+		}
+	}
+
+	@Test
+	public void when_weightIsZero_then_numberIsNeverGenerated() {
+		WeightedRandomGenerator generator = new WeightedRandomGenerator(new double[]{0, 1, 0, 3}, new SplittableRandom(1));
+
+		for (int i = 0; i < 100000; i++) {
+			int random = generator.getWeightedRandom();
+			assertTrue(random == 1 || random == 3);
+		}
+	}
+
+	@Test
+	public void when_sameSeedIsGiven_then_sameNumbersAreGenerated() {
+		double[] weights = new double[]{50, 30, 20};
+		int[] first = new int[1000];
+		int[] second = new int[1000];
+
+		new WeightedRandomGenerator(weights, new SplittableRandom(7)).fill(first);
+		new WeightedRandomGenerator(weights, new SplittableRandom(7)).fill(second);
+
+		assertArrayEquals(first, second);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void when_allWeightsAreZero_then_exceptionIsThrown() {
+		new WeightedRandomGenerator(new double[]{0, 0});
+	}
 }
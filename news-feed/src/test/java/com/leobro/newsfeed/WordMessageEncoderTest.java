@@ -0,0 +1,53 @@
+package com.leobro.newsfeed;
+
+import com.leobro.newscodec.NewsMessageEncoder;
+import com.leobro.newscodec.WireFormat;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class WordMessageEncoderTest {
+
+	private static final String[] HEADLINE_WORDS = {"up", "über", "\"quoted\"", "back\\slash", "tab\t"};
+
+	@Test
+	public void when_messageIsEncoded_then_bytesAreSameAsOfComposedHeadline() {
+		WordMessage message = new WordMessage();
+		message.setPriority(7);
+		for (int word : new int[]{0, 1, 2, 3, 4, 0}) {
+			message.addWord(word);
+		}
+		String headline = "up über \"quoted\" back\\slash tab\t up";
+
+		for (WireFormat format : WireFormat.values()) {
+			for (long sentAt : new long[]{0, 1700000000123456L}) {
+				message.setSentAt(sentAt);
+				ByteBuffer expected = ByteBuffer.allocate(256);
+				new NewsMessageEncoder(format).encode(7, headline, sentAt, expected);
+				ByteBuffer actual = ByteBuffer.allocate(256);
+
+				new WordMessageEncoder(format, HEADLINE_WORDS).encode(message, actual);
+
+				assertThat(format + " " + sentAt, bytes(actual), is(bytes(expected)));
+			}
+		}
+	}
+
+	@Test
+	public void when_messageHasNoWords_then_headlineIsEmpty() {
+		WordMessage message = new WordMessage();
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+
+		new WordMessageEncoder(WireFormat.UTF8_LINES, HEADLINE_WORDS).encode(message, buffer);
+
+		assertThat(new String(bytes(buffer)), is("{\"headline\":\"\",\"priority\":0}\n"));
+	}
+
+	private static byte[] bytes(ByteBuffer buffer) {
+		return Arrays.copyOf(buffer.array(), buffer.position());
+	}
+}